@@ -5,6 +5,7 @@ grammar Pascal;
     import java.util.HashMap;
     import edu.yu.compilers.intermediate.symtable.SymTableEntry;
     import edu.yu.compilers.intermediate.type.Typespec;
+    import edu.yu.compilers.intermediate.util.JumpTable;
 }
 
 program           : programHeader block '.' ;
@@ -118,7 +119,7 @@ trueStatement  : statement ;
 falseStatement : statement ;
 
 caseStatement
-    locals [ HashMap<Object, PascalParser.StatementContext> jumpTable = null ]
+    locals [ JumpTable<PascalParser.StatementContext> jumpTable = null ]
     : CASE expression OF caseBranchList END ;
     
 caseBranchList   : caseBranch ( ';' caseBranch )* ;
@@ -4,6 +4,7 @@ import antlr4.PascalLexer;
 import antlr4.PascalParser;
 import edu.yu.compilers.backend.converter.Converter;
 import edu.yu.compilers.backend.interpreter.Executor;
+import edu.yu.compilers.backend.interpreter.tree.TreeExecutor;
 import edu.yu.compilers.frontend.Semantics;
 import edu.yu.compilers.frontend.SyntaxErrorHandler;
 import edu.yu.compilers.intermediate.symtable.SymTableEntry;
@@ -22,7 +23,7 @@ import static edu.yu.compilers.intermediate.util.BackendMode.*;
 public class PascalCC {
     public static void main(String[] args) throws Exception {
         if (args.length != 2) {
-            System.out.println("USAGE: pascalCC {-execute|-convert|-compile} sourceFileName");
+            System.out.println("USAGE: pascalCC {-execute|-execute-tree|-convert|-compile} sourceFileName");
             return;
         }
 
@@ -30,13 +31,15 @@ public class PascalCC {
         String sourceFileName = args[1];
 
         BackendMode mode = EXECUTOR;
+        boolean executeTree = false;  // execute a compiled node tree instead of visiting the parse tree
 
         if (option.equalsIgnoreCase("-convert")) mode = CONVERTER;
         else if (option.equalsIgnoreCase("-execute")) mode = EXECUTOR;
+        else if (option.equalsIgnoreCase("-execute-tree")) executeTree = true;
         else if (option.equalsIgnoreCase("-compile")) mode = COMPILER;
         else {
             System.out.println("ERROR: Invalid option.");
-            System.out.println("   Valid options: -execute, -convert, or -compile");
+            System.out.println("   Valid options: -execute, -execute-tree, -convert, or -compile");
         }
 
         // Create the input stream.
@@ -86,8 +89,14 @@ public class PascalCC {
             case EXECUTOR -> {
                 // Pass 3: Execute the Pascal program.
                 SymTableEntry programId = pass2.getProgramId();
-                Executor pass3 = new Executor(programId);
-                pass3.visit(tree);
+
+                if (executeTree) {
+                    TreeExecutor pass3 = new TreeExecutor(programId);
+                    pass3.execute((PascalParser.ProgramContext) tree);
+                } else {
+                    Executor pass3 = new Executor(programId);
+                    pass3.visit(tree);
+                }
             }
             case CONVERTER -> {
                 // Convert from Pascal to Java.
@@ -0,0 +1,302 @@
+/**
+ * <h1>ArrayStorage</h1>
+ * <p>Flat, primitive-typed runtime storage for an array whose
+ * base type is scalar. Multi-dimensional arrays are stored in
+ * row-major order in a single backing array.</p>
+ */
+
+package edu.yu.compilers.backend.interpreter;
+
+import edu.yu.compilers.intermediate.symtable.Predefined;
+import edu.yu.compilers.intermediate.type.Typespec;
+
+import static edu.yu.compilers.intermediate.type.Typespec.Form.ARRAY;
+import static edu.yu.compilers.intermediate.type.Typespec.Form.ENUMERATION;
+
+public abstract class ArrayStorage {
+    protected final Typespec type;      // array type of this storage
+    protected final int offset;         // offset of element 0 in the backing array
+
+    /**
+     * Constructor.
+     *
+     * @param type   the array type.
+     * @param offset the offset of element 0 in the backing array.
+     */
+    protected ArrayStorage(Typespec type, int offset) {
+        this.type = type;
+        this.offset = offset;
+    }
+
+    /**
+     * Allocate storage for an array type.
+     *
+     * @param type the array type.
+     * @return the storage, or null if the array's base type is not
+     *         a scalar type that has a primitive representation.
+     */
+    public static ArrayStorage allocate(Typespec type) {
+        Typespec baseType = type.getArrayBaseType();
+        int size = flatCount(type);
+
+        if      (baseType == Predefined.integerType)  return new IntStorage(type, new int[size], 0);
+        else if (baseType == Predefined.realType)     return new DoubleStorage(type, new double[size], 0);
+        else if (baseType == Predefined.charType)     return new CharStorage(type, new char[size], 0);
+        else if (baseType == Predefined.booleanType)  return new BooleanStorage(type, new boolean[size], 0);
+        else if (baseType.getForm() == ENUMERATION)   return new IntStorage(type, new int[size], 0);
+        else                                          return null;
+    }
+
+    /**
+     * Compute the number of scalar elements in a type,
+     * counting every dimension of an array type.
+     *
+     * @param type the type.
+     * @return the count.
+     */
+    public static int flatCount(Typespec type) {
+        int count = 1;
+
+        while (type.getForm() == ARRAY) {
+            count *= type.getArrayElementCount();
+            type = type.getArrayElementType();
+        }
+
+        return count;
+    }
+
+    /**
+     * Get the array type of this storage.
+     *
+     * @return the type.
+     */
+    public Typespec getType() {
+        return type;
+    }
+
+    /**
+     * Get the value of an element.
+     *
+     * @param index the flat index of the element.
+     * @return the value.
+     */
+    public abstract Object get(int index);
+
+    /**
+     * Set the value of an element.
+     *
+     * @param index the flat index of the element.
+     * @param value the value to set.
+     */
+    public abstract void set(int index, Object value);
+
+    /**
+     * Get the value of an integer or enumeration element without boxing it.
+     *
+     * @param index the flat index of the element.
+     * @return the value.
+     */
+    public int getInt(int index) {
+        return (Integer) get(index);
+    }
+
+    /**
+     * Set the value of an integer or enumeration element without boxing it.
+     *
+     * @param index the flat index of the element.
+     * @param value the value to set.
+     */
+    public void setInt(int index, int value) {
+        set(index, value);
+    }
+
+    /**
+     * Get the value of a real element without boxing it.
+     *
+     * @param index the flat index of the element.
+     * @return the value.
+     */
+    public double getDouble(int index) {
+        return (Double) get(index);
+    }
+
+    /**
+     * Set the value of a real element without boxing it.
+     *
+     * @param index the flat index of the element.
+     * @param value the value to set.
+     */
+    public void setDouble(int index, double value) {
+        set(index, value);
+    }
+
+    /**
+     * Get the value of a boolean element without boxing it.
+     *
+     * @param index the flat index of the element.
+     * @return the value.
+     */
+    public boolean getBoolean(int index) {
+        return (Boolean) get(index);
+    }
+
+    /**
+     * Get a view of a subarray that shares this storage.
+     *
+     * @param start the flat index of the subarray's first element.
+     * @param type  the subarray type.
+     * @return the view.
+     */
+    public abstract ArrayStorage slice(int start, Typespec type);
+
+    /**
+     * Copy the elements of another array of the same type into this one.
+     *
+     * @param source the source storage.
+     */
+    public void copyFrom(ArrayStorage source) {
+        int count = flatCount(type);
+
+        for (int i = 0; i < count; i++) set(i, source.get(i));
+    }
+
+    /**
+     * Get a memory cell that reads and writes an element in place.
+     * The cell is made on each call, so it should only be kept
+     * where a cell is required, such as for a VAR parameter.
+     *
+     * @param index the flat index of the element.
+     * @return the cell.
+     */
+    public Cell element(int index) {
+        return new Element(this, index);
+    }
+
+    /**
+     * A memory cell that stands for one element of the storage.
+     */
+    private static class Element extends Cell {
+        private final ArrayStorage storage;
+        private final int index;
+
+        Element(ArrayStorage storage, int index) {
+            super(null);
+            this.storage = storage;
+            this.index = index;
+        }
+
+        @Override
+        public Object getValue() {
+            return storage.get(index);
+        }
+
+        @Override
+        public void setValue(Object newValue) {
+            storage.set(index, newValue);
+        }
+    }
+
+    private static class IntStorage extends ArrayStorage {
+        private final int[] data;
+
+        IntStorage(Typespec type, int[] data, int offset) {
+            super(type, offset);
+            this.data = data;
+        }
+
+        public Object get(int index) {
+            return data[offset + index];
+        }
+
+        public void set(int index, Object value) {
+            data[offset + index] = (Integer) value;
+        }
+
+        public int getInt(int index) {
+            return data[offset + index];
+        }
+
+        public void setInt(int index, int value) {
+            data[offset + index] = value;
+        }
+
+        public ArrayStorage slice(int start, Typespec type) {
+            return new IntStorage(type, data, offset + start);
+        }
+    }
+
+    private static class DoubleStorage extends ArrayStorage {
+        private final double[] data;
+
+        DoubleStorage(Typespec type, double[] data, int offset) {
+            super(type, offset);
+            this.data = data;
+        }
+
+        public Object get(int index) {
+            return data[offset + index];
+        }
+
+        public void set(int index, Object value) {
+            data[offset + index] = (Double) value;
+        }
+
+        public double getDouble(int index) {
+            return data[offset + index];
+        }
+
+        public void setDouble(int index, double value) {
+            data[offset + index] = value;
+        }
+
+        public ArrayStorage slice(int start, Typespec type) {
+            return new DoubleStorage(type, data, offset + start);
+        }
+    }
+
+    private static class CharStorage extends ArrayStorage {
+        private final char[] data;
+
+        CharStorage(Typespec type, char[] data, int offset) {
+            super(type, offset);
+            this.data = data;
+        }
+
+        public Object get(int index) {
+            return data[offset + index];
+        }
+
+        public void set(int index, Object value) {
+            data[offset + index] = (Character) value;
+        }
+
+        public ArrayStorage slice(int start, Typespec type) {
+            return new CharStorage(type, data, offset + start);
+        }
+    }
+
+    private static class BooleanStorage extends ArrayStorage {
+        private final boolean[] data;
+
+        BooleanStorage(Typespec type, boolean[] data, int offset) {
+            super(type, offset);
+            this.data = data;
+        }
+
+        public Object get(int index) {
+            return data[offset + index];
+        }
+
+        public void set(int index, Object value) {
+            data[offset + index] = (Boolean) value;
+        }
+
+        public boolean getBoolean(int index) {
+            return data[offset + index];
+        }
+
+        public ArrayStorage slice(int start, Typespec type) {
+            return new BooleanStorage(type, data, offset + start);
+        }
+    }
+}
@@ -1,7 +1,7 @@
 package edu.yu.compilers.backend.interpreter;
 
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Scanner;
 
 import antlr4.*;
 import edu.yu.compilers.intermediate.symtable.Predefined;
@@ -10,7 +10,9 @@ import edu.yu.compilers.intermediate.symtable.SymTableEntry.Kind;
 import edu.yu.compilers.intermediate.type.Typespec;
 
 import static edu.yu.compilers.backend.interpreter.RuntimeErrorHandler.Code.DIVISION_BY_ZERO;
+import static edu.yu.compilers.backend.interpreter.RuntimeErrorHandler.Code.VALUE_RANGE;
 import static edu.yu.compilers.intermediate.symtable.SymTableEntry.Kind.*;
+import static edu.yu.compilers.intermediate.type.Typespec.Form.ARRAY;
 import static edu.yu.compilers.intermediate.type.Typespec.Form.SUBRANGE;
 
 /**
@@ -22,15 +24,21 @@ public class Executor extends PascalBaseVisitor<Object>
     private long elapsedTime = 0L;          // elapsed time in ms
     private final SymTableEntry programId;      // program identifier's symbol table entry
     private final RuntimeStack runtimeStack;  // runtime stack
-    private final Scanner scanner;              // runtime input
+    private final HashMap<SymTableEntry, FramePool> framePools;  // stack frame pools by routine
+    private final HashMap<PascalParser.WriteArgumentContext, WriteFormat> writeFormats;  // compiled write formats
+    private final InputReader input;            // runtime input
+    private final OutputBuffer output;          // runtime output
     private final RuntimeErrorHandler error;  // runtime error handler
     
     public Executor(SymTableEntry programId)
     {
         this.programId = programId;
         runtimeStack = new RuntimeStack();
-        scanner = new Scanner(System.in);
-        error = new RuntimeErrorHandler();
+        framePools = new HashMap<>();
+        writeFormats = new HashMap<>();
+        input = new InputReader(System.in);
+        output = new OutputBuffer();
+        error = new RuntimeErrorHandler(output);
     }
 
     public int getExecutionCount() {
@@ -49,7 +57,14 @@ public class Executor extends PascalBaseVisitor<Object>
         StackFrame programFrame = new StackFrame(programId);
         runtimeStack.push(programFrame);
         
-        visit(ctx.block().compoundStatement());
+        try
+        {
+            visit(ctx.block().compoundStatement());
+        }
+        finally
+        {
+            output.flush();
+        }
 
         elapsedTime = System.currentTimeMillis() - startTime;
 
@@ -87,10 +102,50 @@ public class Executor extends PascalBaseVisitor<Object>
                              Object value, Typespec valueType)
     {
         Typespec targetType = varCtx.type;
-        Cell targetCell = (Cell) visit(varCtx);
+        Object location = locate(varCtx);
         
-        assignValue(targetCell, targetType, value, valueType);
-
+        if (location instanceof ArrayElement element)
+        {
+            assignElement(element, targetType, value, valueType);
+        }
+        else
+        {
+            assignValue((Cell) location, targetType, value, valueType);
+        }
+    }
+    
+    /**
+     * Assign a value to a scalar element of a flat array
+     * without a memory cell.
+     * @param element the target element.
+     * @param targetType the datatype of the element.
+     * @param value the value to assign.
+     * @param valueType the datatype of the value.
+     */
+    private void assignElement(ArrayElement element, Typespec targetType,
+                               Object value, Typespec valueType)
+    {
+        ArrayStorage storage = element.storage();
+        int index = element.index();
+        
+        // Assign with any necessary type conversions.
+        if (   (targetType == Predefined.integerType)
+            && (valueType  == Predefined.charType))
+        {
+            storage.setInt(index, (Character) value);
+        }
+        else if (targetType == Predefined.realType)
+        {
+            double doubleValue = 
+                    (valueType == Predefined.integerType) ? (Integer)   value
+                  : (valueType == Predefined.charType)    ? (Character) value
+                  :                                         (Double)    value;
+            storage.setDouble(index, doubleValue);
+        }
+        else 
+        {
+            storage.set(index, value);
+        }
     }
     
     /**
@@ -118,6 +173,18 @@ public class Executor extends PascalBaseVisitor<Object>
                   :                                         (Double)    value;
             targetCell.setValue(doubleValue);
         }
+
+        // Structured values are copied into the target's storage.
+        else if (   (targetCell.getValue() instanceof SlotStorage target)
+                 && (value instanceof SlotStorage source))
+        {
+            target.copyFrom(source);
+        }
+        else if (   (targetCell.getValue() instanceof ArrayStorage target)
+                 && (value instanceof ArrayStorage source))
+        {
+            target.copyFrom(source);
+        }
         else 
         {
             targetCell.setValue(value);
@@ -173,37 +240,61 @@ public class Executor extends PascalBaseVisitor<Object>
         PascalParser.VariableContext   controlCtx   = ctx.variable();
         PascalParser.ExpressionContext startExprCtx = ctx.expression().get(0);
         PascalParser.ExpressionContext stopExprCtx  = ctx.expression().get(1);
+        PascalParser.StatementContext  stmtCtx      = ctx.statement();
+        Typespec controlType = controlCtx.type;
 
         // Initial control value.
         Object startValue = visit(startExprCtx);
         assignValue(controlCtx, startValue, startExprCtx.type);
         
-        // Terminal control value.
+        // Terminal control value, evaluated once.
         boolean to = ctx.TO() != null;
         Object stopValue = visit(stopExprCtx);
         
         // Integer control values.
-        if (controlCtx.type.baseType() == Predefined.integerType)
+        if (controlType.baseType() == Predefined.integerType)
         {
             int control = (Integer) startValue;
             int stop    = (Integer) stopValue;
+            Cell controlCell = (Cell) visit(controlCtx);
             
-            if (to)
+            checkControlRange(controlType, control, stop, to, ctx);
+            
+            // Fast path: Keep the control value in a primitive local
+            // and store it into the cell without boxing.
+            if (controlCell instanceof IntCell intCell)
+            {
+                if (to)
+                {
+                    while (control <= stop)
+                    {
+                        visit(stmtCtx);
+                        intCell.setInt(++control);
+                    }
+                }
+                else  // downto
+                {
+                    while (control >= stop)
+                    {
+                        visit(stmtCtx);
+                        intCell.setInt(--control);
+                    }
+                }
+            }
+            else if (to)
             {
                 while (control <= stop)
                 {
-                    visit(ctx.statement());
-                    Object nextValue = ++control;
-                    assignValue(controlCtx, nextValue, Predefined.integerType);
+                    visit(stmtCtx);
+                    controlCell.setValue(++control);
                 }
             }
             else  // downto
             {
                 while (control >= stop)
                 {
-                    visit(ctx.statement());
-                    Object nextValue = --control;
-                    assignValue(controlCtx, nextValue, Predefined.integerType);
+                    visit(stmtCtx);
+                    controlCell.setValue(--control);
                 }
             }
         }
@@ -213,23 +304,24 @@ public class Executor extends PascalBaseVisitor<Object>
         {
             char control = (Character) startValue;
             char stop    = (Character) stopValue;
+            Cell controlCell = (Cell) visit(controlCtx);
+            
+            checkControlRange(controlType, control, stop, to, ctx);
             
             if (to)
             {
                 while (control <= stop)
                 {
-                    visit(ctx.statement());
-                    Object nextValue = ++control;
-                    assignValue(controlCtx, nextValue, Predefined.charType);
+                    visit(stmtCtx);
+                    controlCell.setValue(++control);
                 }
             }
             else  // downto
             {
                 while (control >= stop)
                 {
-                    visit(ctx.statement());
-                    Object nextValue = --control;
-                    assignValue(controlCtx, nextValue, Predefined.charType);
+                    visit(stmtCtx);
+                    controlCell.setValue(--control);
                 }
             }
         }
@@ -237,6 +329,127 @@ public class Executor extends PascalBaseVisitor<Object>
         return null;
     }
     
+    /**
+     * Check that every value a subrange control variable will take
+     * is in range. The values run from the initial value to the
+     * terminal value, so checking both ends before the loop
+     * covers every iteration.
+     *
+     * @param controlType the type of the control variable.
+     * @param start       the initial value.
+     * @param stop        the terminal value.
+     * @param to          true for TO, false for DOWNTO.
+     * @param ctx         the ForStatementContext.
+     */
+    private void checkControlRange(Typespec controlType, int start, int stop,
+                                   boolean to, PascalParser.ForStatementContext ctx)
+    {
+        if (controlType.getForm() != SUBRANGE) return;
+        
+        boolean executes = to ? start <= stop : start >= stop;
+        int min = controlType.getSubrangeMinValue();
+        int max = controlType.getSubrangeMaxValue();
+        
+        if (   executes 
+            && (   (start < min) || (start > max) 
+                || (stop  < min) || (stop  > max)))
+        {
+            error.flag(VALUE_RANGE, ctx);
+        }
+    }
+
+    @Override
+    public Object visitCaseStatement(PascalParser.CaseStatementContext ctx)
+    {
+        Object value = visit(ctx.expression());
+        
+        // Jump straight to the selected branch, if any.
+        PascalParser.StatementContext stmtCtx = ctx.jumpTable.lookup(value);
+        if (stmtCtx != null) visit(stmtCtx);
+        
+        return null;
+    }
+
+    @Override
+    public Object visitProcedureCallStatement(
+                                PascalParser.ProcedureCallStatementContext ctx)
+    {
+        callRoutine(ctx.procedureName().entry, ctx.argumentList());
+        return null;
+    }
+
+    /**
+     * Call a declared procedure or function.
+     *
+     * @param routineId the symbol table entry of the routine's name.
+     * @param listCtx   the ArgumentListContext, or null if no arguments.
+     * @return the function's return value, or null for a procedure.
+     */
+    private Object callRoutine(SymTableEntry routineId,
+                               PascalParser.ArgumentListContext listCtx)
+    {
+        FramePool pool = framePools.computeIfAbsent(routineId, FramePool::new);
+        StackFrame frame = pool.acquire();
+        
+        // Bind the arguments to the parameters in the caller's context.
+        if (listCtx != null)
+        {
+            ArrayList<SymTableEntry> parameters = 
+                                            routineId.getRoutineParameters();
+            
+            for (int i = 0; i < parameters.size(); i++)
+            {
+                SymTableEntry paramId = parameters.get(i);
+                PascalParser.ExpressionContext exprCtx = 
+                                        listCtx.argument().get(i).expression();
+                int slot = paramId.getSlotNumber();
+                
+                // VAR parameter: Share the argument variable's cell.
+                if (paramId.getKind() == REFERENCE_PARAMETER)
+                {
+                    Cell argumentCell = (Cell) visit(argumentVariable(exprCtx));
+                    frame.replaceCell(slot, argumentCell);
+                }
+                
+                // Value parameter: Assign a copy of the argument's value.
+                else
+                {
+                    Object value = visit(exprCtx);
+                    assignValue(frame.getCell(slot), paramId.getType(), 
+                                value, exprCtx.type);
+                }
+            }
+        }
+        
+        runtimeStack.push(frame);
+        visit((PascalParser.CompoundStatementContext) routineId.getExecutable());
+        
+        int resultSlot = pool.getResultSlot();
+        Object result = resultSlot >= 0 ? frame.getCell(resultSlot).getValue() 
+                                        : null;
+        
+        runtimeStack.pop();
+        pool.release(frame);
+        
+        return result;
+    }
+    
+    /**
+     * Get the variable of an argument passed to a VAR parameter.
+     * Semantics already checked that the argument is a variable only.
+     *
+     * @param exprCtx the ExpressionContext of the argument.
+     * @return the VariableContext.
+     */
+    private PascalParser.VariableContext argumentVariable(
+                                        PascalParser.ExpressionContext exprCtx)
+    {
+        PascalParser.VariableFactorContext factorCtx = 
+            (PascalParser.VariableFactorContext) exprCtx.simpleExpression(0)
+                                                        .term(0).factor(0);
+        return factorCtx.variable();
+    }
+    
     public Object visitExpression(PascalParser.ExpressionContext ctx) 
     {
         PascalParser.SimpleExpressionContext simpleCtx1 = 
@@ -521,26 +734,57 @@ public class Executor extends PascalBaseVisitor<Object>
             return value;
         }
         
-        // Obtain a variable's value from its memory cell.
+        // Obtain a variable's value from its array element 
+        // or its memory cell.
         else
         {
-            Cell variableCell = (Cell) visit(varCtx);
-            return variableCell.getValue();
+            Object location = locate(varCtx);
+
+            return location instanceof ArrayElement element
+                 ? element.storage().get(element.index())
+                 : ((Cell) location).getValue();
         }
     }
 
     @Override 
-    @SuppressWarnings("unchecked")
     public Object visitVariable(PascalParser.VariableContext ctx) 
+    {
+        Object location = locate(ctx);
+
+        // An array element gets a cell only when one is needed,
+        // such as to bind a VAR parameter.
+        return location instanceof ArrayElement element
+             ? element.storage().element(element.index())
+             : location;
+    }
+
+    /**
+     * An element of a flat array, located without a memory cell.
+     *
+     * @param storage the array's storage.
+     * @param index   the flat index of the element.
+     */
+    private record ArrayElement(ArrayStorage storage, int index) {}
+
+    /**
+     * Locate a variable: its memory cell, or its array element
+     * if it is a scalar element of a flat array.
+     *
+     * @param ctx the VariableContext.
+     * @return the Cell or ArrayElement.
+     */
+    private Object locate(PascalParser.VariableContext ctx)
     {
         SymTableEntry variableId = ctx.entry;
-        String variableName = variableId.getName();
         Typespec variableType = variableId.getType();
         int nestingLevel = variableId.getSymTable().getNestingLevel();
 
         // Get the variable reference from the appropriate activation record.
         StackFrame frame = runtimeStack.getTopmost(nestingLevel);
-        Cell variableCell = frame.getCell(variableName);
+        Cell variableCell = frame.getCell(variableId.getSlotNumber());
+        
+        ArrayStorage storage = null;  // flat array being subscripted
+        int flatIndex = 0;            // flat index within the flat array
 
         // Execute any array subscripts or record fields.
         for (PascalParser.ModifierContext modCtx : ctx.modifier()) 
@@ -548,11 +792,16 @@ public class Executor extends PascalBaseVisitor<Object>
             // Subscripts.
             if (modCtx.indexList() != null)
             {
-                // Compute a new reference for each subscript.
+                Object array = storage != null ? storage 
+                                               : variableCell.getValue();
+                int offset = 0;
+
+                // Accumulate a row-major flat index for each subscript.
                 for (PascalParser.IndexContext indexCtx : 
                                                     modCtx.indexList().index())
                 {
                     Typespec indexType = variableType.getArrayIndexType();
+                    int elementCount = variableType.getArrayElementCount();
                     int minIndex = 0;
                     
                     if (indexType.getForm() == SUBRANGE)
@@ -560,11 +809,30 @@ public class Executor extends PascalBaseVisitor<Object>
                         minIndex = indexType.getSubrangeMinValue();
                     }
                     
-                    int value = (Integer) visit(indexCtx.expression());
-                    int index = value - minIndex;
-                    
-                    variableCell = ((Cell[]) variableCell.getValue())[index];
+                    Object value = visit(indexCtx.expression());
+                    int index = (value instanceof Character ch ? ch : (Integer) value)
+                              - minIndex;
+
+                    if ((index < 0) || (index >= elementCount))
+                    {
+                        error.flag(VALUE_RANGE, indexCtx);
+                        index = 0;
+                    }
+
                     variableType = variableType.getArrayElementType();
+                    offset += index*variableType.getSlotCount();
+                }
+
+                // Subscripts of a flat array only move the flat index.
+                if (array instanceof ArrayStorage arrayStorage)
+                {
+                    storage = arrayStorage;
+                    flatIndex += offset;
+                }
+                else
+                {
+                    variableCell = ((SlotStorage) array).cell(offset, 
+                                                              variableType);
                 }
             }
 
@@ -572,17 +840,19 @@ public class Executor extends PascalBaseVisitor<Object>
             else 
             {
                 SymTableEntry fieldId = modCtx.field().entry;
-                String fieldName = fieldId.getName();
 
-                // Compute a new reference for the field.
-                HashMap<String, Cell> map =
-                                (HashMap<String, Cell>) variableCell.getValue();
-                variableCell = map.get(fieldName);
+                // The field's slot number is its offset within the record.
+                SlotStorage record = (SlotStorage) variableCell.getValue();
                 variableType = fieldId.getType();
+                variableCell = record.cell(fieldId.getSlotNumber(), variableType);
             }
         }
 
-        return variableCell;
+        if (storage == null) return variableCell;
+
+        return variableType.getForm() == ARRAY
+             ? new Cell(storage.slice(flatIndex, variableType))
+             : new ArrayElement(storage, flatIndex);
     }
 
     @Override 
@@ -638,11 +908,20 @@ public class Executor extends PascalBaseVisitor<Object>
         return visit(ctx.expression());
     }
 
+    @Override 
+    public Object visitFunctionCallFactor(
+                                    PascalParser.FunctionCallFactorContext ctx) 
+    {
+        PascalParser.FunctionCallContext callCtx = ctx.functionCall();
+        return callRoutine(callCtx.functionName().entry, 
+                           callCtx.argumentList());
+    }
+
     @Override 
     public Object visitWritelnStatement(PascalParser.WritelnStatementContext ctx) 
     {
         visitChildren(ctx);
-        System.out.println();
+        output.println();
         
         return null;
     }
@@ -653,67 +932,16 @@ public class Executor extends PascalBaseVisitor<Object>
         // Loop over each argument.
         for (PascalParser.WriteArgumentContext argCtx : ctx.writeArgument())
         {
-            Typespec type = argCtx.expression().type;
-            String argText = argCtx.getText();
-            
-            // Print any literal strings.
-            if (argText.charAt(0) == '\'') 
+            // Each argument's format is compiled the first time it's written.
+            WriteFormat format = writeFormats.get(argCtx);
+            if (format == null)
             {
-                System.out.print(convertString(argText));
+                format = WriteFormat.compile(argCtx);
+                writeFormats.put(argCtx, format);
             }
             
-            // For any other expression, print its value with a format specifier.
-            else
-            {
-                Object value = visit(argCtx.expression());
-                StringBuilder format = new StringBuilder("%");
-                
-                // Create the format string.
-                PascalParser.FieldWidthContext fwCtx = argCtx.fieldWidth();              
-                if (fwCtx != null)
-                {
-                    String sign = (   (fwCtx.sign() != null) 
-                                   && (fwCtx.sign().getText().equals("-"))) 
-                                ? "-" : "";
-                    format.append(sign)
-                          .append(fwCtx.integerConstant().getText());
-                    
-                    PascalParser.DecimalPlacesContext dpCtx = 
-                                                        fwCtx.decimalPlaces();
-                    if (dpCtx != null)
-                    {
-                        format.append(".")
-                              .append(dpCtx.integerConstant().getText());
-                    }
-                }
-                
-                // Use the format string with printf.
-                if (type == Predefined.integerType)
-                {
-                    format.append("d");
-                    System.out.printf(format.toString(), value);
-                }
-                else if (type == Predefined.realType)
-                {
-                    format.append("f");
-                    System.out.printf(format.toString(), value);
-                }
-                else if (type == Predefined.booleanType)
-                {
-                    format.append("b");
-                    System.out.printf(format.toString(), value);
-                }
-                else if (type == Predefined.charType)
-                {
-                    format.append("c");
-                    System.out.printf(format.toString(), value);
-                }
-                else  // string
-                {
-                    format.append("s");
-                    System.out.printf(format.toString(), value);
-                }
-            }
+            Object value = format.isLiteral() ? null : visit(argCtx.expression());
+            format.write(output, value);
         }
 
         return null;
@@ -722,8 +950,9 @@ public class Executor extends PascalBaseVisitor<Object>
     @Override 
     public Object visitReadlnStatement(PascalParser.ReadlnStatementContext ctx) 
     {
+        output.flush();  // show any prompt before reading
         visitChildren(ctx);
-        scanner.nextLine();
+        input.skipLine();
         
         return null;
     }
@@ -741,30 +970,27 @@ public class Executor extends PascalBaseVisitor<Object>
             
             if (varType == Predefined.integerType)
             {
-                int value = scanner.nextInt();
+                int value = input.readInteger();
                 assignValue(varCtx, value, Predefined.integerType);
             }
             else if (varType == Predefined.realType)
             {
-                double value = scanner.nextDouble();
+                double value = input.readReal();
                 assignValue(varCtx, value, Predefined.realType);
             }
             else if (varType == Predefined.booleanType)
             {
-                boolean value = scanner.nextBoolean();
+                boolean value = input.readBoolean();
                 assignValue(varCtx, value, Predefined.booleanType);
             }
             else if (varType == Predefined.charType)
             {
-                scanner.useDelimiter("");
-                char value = scanner.next().charAt(0);
-                scanner.reset();
-                
+                char value = input.readChar();
                 assignValue(varCtx, value, Predefined.charType);
             }
             else  // string
             {
-                String value = scanner.next();
+                String value = input.readString();
                 assignValue(varCtx, value, Predefined.stringType);
             }
         }
@@ -0,0 +1,66 @@
+/**
+ * <h1>FramePool</h1>
+ * <p>A pool of reusable stack frames for one routine. A frame's memory
+ * map is sized by the routine's symbol table when the frame is first
+ * created, and the frame is reset and returned to the pool when the
+ * call returns. A recursive routine allocates only as many frames as
+ * its deepest recursion.</p>
+ */
+
+package edu.yu.compilers.backend.interpreter;
+
+import edu.yu.compilers.intermediate.symtable.SymTableEntry;
+
+import java.util.ArrayList;
+
+import static edu.yu.compilers.intermediate.symtable.SymTableEntry.Kind.FUNCTION;
+
+public class FramePool {
+    private final SymTableEntry routineId;          // routine's symbol table entry
+    private final int resultSlot;                   // slot of a function's associated variable
+    private final ArrayList<StackFrame> freeFrames; // frames ready for reuse
+
+    /**
+     * Constructor.
+     *
+     * @param routineId the symbol table entry of the routine's name.
+     */
+    public FramePool(SymTableEntry routineId) {
+        this.routineId = routineId;
+        this.freeFrames = new ArrayList<>();
+        this.resultSlot = routineId.getKind() == FUNCTION
+                ? routineId.getRoutineSymTable().lookup(routineId.getName()).getSlotNumber()
+                : -1;
+    }
+
+    /**
+     * Get the slot of a function's associated variable,
+     * which holds the function's return value.
+     *
+     * @return the slot number, or -1 for a procedure.
+     */
+    public int getResultSlot() {
+        return resultSlot;
+    }
+
+    /**
+     * Get a stack frame for a call to the routine.
+     *
+     * @return a free frame, or a new one if none is free.
+     */
+    public StackFrame acquire() {
+        int size = freeFrames.size();
+
+        return size > 0 ? freeFrames.remove(size - 1) : new StackFrame(routineId);
+    }
+
+    /**
+     * Return a stack frame to the pool after its call has returned.
+     *
+     * @param frame the frame.
+     */
+    public void release(StackFrame frame) {
+        frame.reset();
+        freeFrames.add(frame);
+    }
+}
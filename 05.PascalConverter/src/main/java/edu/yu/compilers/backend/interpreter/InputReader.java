@@ -0,0 +1,334 @@
+/**
+ * <h1>InputReader</h1>
+ * <p>Buffered runtime input for the interpreters. It reads bytes in large
+ * blocks and scans Pascal values out of the buffer directly, without the
+ * regular expressions of java.util.Scanner. Integers and most reals are
+ * converted without creating a token string.</p>
+ * <p>Values are delimited by whitespace as with Scanner. A char read
+ * returns the very next character, including a line separator, and
+ * skipping a line consumes everything through the next line separator.
+ * Bad input throws InputMismatchException and reading past the end of
+ * the input throws NoSuchElementException, also as with Scanner.</p>
+ */
+
+package edu.yu.compilers.backend.interpreter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
+
+public class InputReader {
+    private static final int BUFFER_SIZE = 64*1024;
+    private static final int EOF = -1;
+
+    // Powers of ten that are exact as doubles.
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+        1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    private final InputStream in;
+    private final byte[] buffer;
+    private int position;                // index of the next byte in the buffer
+    private int limit;                   // number of valid bytes in the buffer
+    private int pendingChar = EOF;       // pushed-back code point or low surrogate, if any
+    private final StringBuilder token;   // reused token text
+
+    /**
+     * Constructor.
+     *
+     * @param in the input stream.
+     */
+    public InputReader(InputStream in) {
+        this.in = in;
+        this.buffer = new byte[BUFFER_SIZE];
+        this.position = 0;
+        this.limit = 0;
+        this.token = new StringBuilder();
+    }
+
+    /**
+     * Read an integer value.
+     *
+     * @return the value.
+     */
+    public int readInteger() {
+        skipWhitespace();
+
+        int ch = nextChar();
+        if (ch == EOF) throw new NoSuchElementException();
+
+        boolean negative = ch == '-';
+        if ((ch == '-') || (ch == '+')) ch = nextChar();
+
+        long value = 0;
+        int digits = 0;
+        for (; isDigit(ch); ch = nextChar(), digits++) {
+            value = 10*value + (ch - '0');
+            if (value > 1L + Integer.MAX_VALUE) throw new InputMismatchException("Integer out of range");
+        }
+
+        if ((digits == 0) || !isDelimiter(ch)) throw new InputMismatchException("Invalid integer");
+        unread(ch);
+
+        if (negative) value = -value;
+        if (value > Integer.MAX_VALUE) throw new InputMismatchException("Integer out of range");
+
+        return (int) value;
+    }
+
+    /**
+     * Read a real value. A decimal number whose digits and exponent fit
+     * the exact range of a double is converted directly; anything else
+     * is converted by Double.parseDouble().
+     *
+     * @return the value.
+     */
+    public double readReal() {
+        skipWhitespace();
+        token.setLength(0);
+
+        int ch = nextChar();
+        boolean negative = ch == '-';
+        if ((ch == '-') || (ch == '+')) ch = appendAndNext(ch);
+
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;  // power of ten applied to the mantissa
+        boolean exact = true;
+
+        for (; isDigit(ch); ch = appendAndNext(ch), digits++) {
+            if (mantissa < MAX_EXACT_MANTISSA/10) mantissa = 10*mantissa + (ch - '0');
+            else exact = false;
+        }
+
+        if (ch == '.') {
+            for (ch = appendAndNext(ch); isDigit(ch); ch = appendAndNext(ch), digits++) {
+                if (mantissa < MAX_EXACT_MANTISSA/10) {
+                    mantissa = 10*mantissa + (ch - '0');
+                    scale--;
+                } else {
+                    exact = false;
+                }
+            }
+        }
+
+        if ((ch == 'e') || (ch == 'E')) {
+            ch = appendAndNext(ch);
+            boolean negativeExponent = ch == '-';
+            if ((ch == '-') || (ch == '+')) ch = appendAndNext(ch);
+
+            int exponent = 0;
+            int exponentDigits = 0;
+            for (; isDigit(ch); ch = appendAndNext(ch), exponentDigits++) {
+                if (exponent < 10000) exponent = 10*exponent + (ch - '0');
+            }
+
+            if (exponentDigits == 0) exact = false;
+            scale += negativeExponent ? -exponent : exponent;
+        }
+
+        // Take any remaining token characters for Double.parseDouble().
+        if (!isDelimiter(ch)) {
+            exact = false;
+            while (!isDelimiter(ch)) ch = appendAndNext(ch);
+        }
+        unread(ch);
+
+        if (exact && (digits > 0) && (Math.abs(scale) < POWERS_OF_TEN.length)) {
+            double value = scale < 0 ? mantissa/POWERS_OF_TEN[-scale] : mantissa*POWERS_OF_TEN[scale];
+            return negative ? -value : value;
+        }
+
+        if (token.isEmpty()) throw new NoSuchElementException();
+
+        try {
+            return Double.parseDouble(token.toString());
+        } catch (NumberFormatException ex) {
+            throw new InputMismatchException("Invalid real number");
+        }
+    }
+
+    /**
+     * Read a boolean value, true or false in any case.
+     *
+     * @return the value.
+     */
+    public boolean readBoolean() {
+        String text = readString();
+
+        if (text.equalsIgnoreCase("true")) return true;
+        if (text.equalsIgnoreCase("false")) return false;
+
+        throw new InputMismatchException("Invalid boolean");
+    }
+
+    /**
+     * Read the next character, whatever it is.
+     *
+     * @return the character.
+     */
+    public char readChar() {
+        int ch = nextChar();
+        if (ch == EOF) throw new NoSuchElementException();
+
+        return (char) ch;
+    }
+
+    /**
+     * Read a string value, which is the next whitespace-delimited token.
+     *
+     * @return the value.
+     */
+    public String readString() {
+        skipWhitespace();
+        token.setLength(0);
+
+        int ch = nextChar();
+        if (ch == EOF) throw new NoSuchElementException();
+
+        while (!isDelimiter(ch)) ch = appendAndNext(ch);
+        unread(ch);
+
+        return token.toString();
+    }
+
+    /**
+     * Skip the rest of the current line, including its line separator.
+     */
+    public void skipLine() {
+        int ch = nextChar();
+        if (ch == EOF) throw new NoSuchElementException("No line found");
+
+        while ((ch != '\n') && (ch != '\r') && (ch != EOF)) ch = nextChar();
+
+        if ((ch == '\r') && (peekByte() == '\n')) position++;
+    }
+
+    /**
+     * Skip whitespace characters.
+     */
+    private void skipWhitespace() {
+        int ch = nextChar();
+        while ((ch != EOF) && Character.isWhitespace(ch)) ch = nextChar();
+        unread(ch);
+    }
+
+    private static boolean isDigit(int ch) {
+        return (ch >= '0') && (ch <= '9');
+    }
+
+    private static boolean isDelimiter(int ch) {
+        return (ch == EOF) || Character.isWhitespace(ch);
+    }
+
+    /**
+     * Append a character to the token text and return the next character.
+     */
+    private int appendAndNext(int ch) {
+        token.append((char) ch);
+        return nextChar();
+    }
+
+    /**
+     * Push back the character just returned by nextChar(). Whitespace,
+     * digits, and the other ASCII characters that end a value are one
+     * byte long; any other character is kept as the pending character,
+     * combined with a pending low surrogate into one code point.
+     */
+    private void unread(int ch) {
+        if (ch == EOF) return;
+
+        if (ch < 0x80) position--;
+        else if (pendingChar != EOF) pendingChar = Character.toCodePoint((char) ch, (char) pendingChar);
+        else pendingChar = ch;
+    }
+
+    /**
+     * Decode the next character from UTF-8.
+     *
+     * @return the character, or EOF.
+     */
+    private int nextChar() {
+        if (pendingChar != EOF) {
+            int ch = pendingChar;
+            pendingChar = EOF;
+            if (Character.isBmpCodePoint(ch)) return ch;
+
+            pendingChar = Character.lowSurrogate(ch);
+            return Character.highSurrogate(ch);
+        }
+
+        int b = nextByte();
+        if (b < 0x80) return b;  // ASCII or EOF
+
+        int extra;
+        int codePoint;
+        if (b >= 0xF0) {
+            extra = 3;
+            codePoint = b & 0x07;
+        } else if (b >= 0xE0) {
+            extra = 2;
+            codePoint = b & 0x0F;
+        } else if (b >= 0xC0) {
+            extra = 1;
+            codePoint = b & 0x1F;
+        } else {
+            return '\uFFFD';  // stray continuation byte
+        }
+
+        for (int i = 0; i < extra; i++) {
+            int next = peekByte();
+            if ((next & 0xC0) != 0x80) return '\uFFFD';
+
+            position++;
+            codePoint = (codePoint << 6) | (next & 0x3F);
+        }
+
+        if (Character.isBmpCodePoint(codePoint)) return codePoint;
+
+        pendingChar = Character.lowSurrogate(codePoint);
+        return Character.highSurrogate(codePoint);
+    }
+
+    private int nextByte() {
+        int b = peekByte();
+        if (b != EOF) position++;
+
+        return b;
+    }
+
+    private int peekByte() {
+        if ((position == limit) && !fill()) return EOF;
+
+        return buffer[position] & 0xFF;
+    }
+
+    /**
+     * Refill the buffer. The last byte read is kept at the front so
+     * that an ASCII character can always be pushed back.
+     *
+     * @return false at the end of the input.
+     */
+    private boolean fill() {
+        int keep = 0;
+        if (limit > 0) {
+            buffer[0] = buffer[limit - 1];
+            keep = 1;
+        }
+
+        try {
+            int count = in.read(buffer, keep, buffer.length - keep);
+            if (count <= 0) return false;
+
+            position = keep;
+            limit = keep + count;
+            return true;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
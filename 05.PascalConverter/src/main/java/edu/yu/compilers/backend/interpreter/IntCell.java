@@ -0,0 +1,57 @@
+/**
+ * <h1>IntCell</h1>
+ * <p>A memory cell for an integer variable that can also hold its value
+ * as a primitive int. Storing a primitive does not allocate; the value
+ * is boxed only if it is later read through getValue().</p>
+ */
+
+package edu.yu.compilers.backend.interpreter;
+
+public class IntCell extends Cell {
+    private int intValue;     // primitive value, current if unboxed
+    private boolean unboxed;  // true if intValue is the current value
+
+    /**
+     * Constructor.
+     * The cell starts out uninitialized.
+     */
+    public IntCell() {
+        super(null);
+        this.unboxed = false;
+    }
+
+    @Override
+    public Object getValue() {
+        if (unboxed) {
+            super.setValue(intValue);
+            unboxed = false;
+        }
+
+        return super.getValue();
+    }
+
+    @Override
+    public void setValue(Object newValue) {
+        super.setValue(newValue);
+        unboxed = false;
+    }
+
+    /**
+     * Get the value as a primitive int.
+     *
+     * @return the value.
+     */
+    public int getInt() {
+        return unboxed ? intValue : (Integer) super.getValue();
+    }
+
+    /**
+     * Set a primitive int value without boxing it.
+     *
+     * @param newValue the new value.
+     */
+    public void setInt(int newValue) {
+        intValue = newValue;
+        unboxed = true;
+    }
+}
@@ -7,25 +7,34 @@
 
 package edu.yu.compilers.backend.interpreter;
 
+import edu.yu.compilers.intermediate.symtable.Predefined;
 import edu.yu.compilers.intermediate.symtable.SymTable;
 import edu.yu.compilers.intermediate.symtable.SymTableEntry;
 import edu.yu.compilers.intermediate.symtable.SymTableEntry.Kind;
 import edu.yu.compilers.intermediate.type.Typespec;
 
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Set;
 
-public class MemoryMap extends HashMap<String, Cell> {
+public class MemoryMap {
+    private final Cell[] cells;     // memory cells indexed by slot number
+    private final String[] names;   // names indexed by slot number, for debugging
+    private final Typespec[] types; // types of the slots that hold values
+
     /**
      * Constructor.
      * Create a memory map and allocate its memory cells
-     * based on the entries in a symbol table.
+     * based on the entries in a symbol table. Each variable
+     * occupies the slot that Semantics assigned to it.
      *
      * @param symTable the symbol table.
      */
     public MemoryMap(SymTable symTable) {
         ArrayList<SymTableEntry> entries = symTable.sortedEntries();
+        int size = symTable.getMaxSlotNumber() + 1;
+
+        cells = new Cell[size];
+        names = new String[size];
+        types = new Typespec[size];
 
         // Loop for each entry of the symbol table.
         for (SymTableEntry entry : entries) {
@@ -33,22 +42,28 @@ public class MemoryMap extends HashMap<String, Cell> {
 
             switch (kind) {
                 case VARIABLE:
-                case FUNCTION:
-                case VALUE_PARAMETER:
-                case RECORD_FIELD: {
+                case VALUE_PARAMETER: {
                     // Not a reference parameter: Allocate cells for the
-                    //                            value in the hashmap.
-                    String name = entry.getName();
+                    //                            value in the slot.
+                    //                            Integers get cells that
+                    //                            can hold a primitive int.
+                    int slot = entry.getSlotNumber();
                     Typespec type = entry.getType();
-                    put(name, new Cell(allocateCellValue(type)));
+                    cells[slot] = type.baseType() == Predefined.integerType
+                                ? new IntCell()
+                                : new Cell(allocateCellValue(type));
+                    names[slot] = entry.getName();
+                    types[slot] = type;
                     break;
                 }
 
                 case REFERENCE_PARAMETER: {
                     // Reference parameter: Allocate a single cell to hold a 
-                    //                      reference in the hashmap.
-                    String name = entry.getName();
-                    put(name, new Cell(null));
+                    //                      reference in the slot.
+                    int slot = entry.getSlotNumber();
+                    cells[slot] = new Cell(null);
+                    names[slot] = entry.getName();
+                    break;
                 }
 
                 default:
@@ -58,23 +73,52 @@ public class MemoryMap extends HashMap<String, Cell> {
     }
 
     /**
-     * Return the memory cell with the given name.
+     * Reset the variables and value parameters to their initial
+     * values so that the memory map can be reused for another call.
+     * Reference parameter slots are left alone since every call
+     * binds them again.
+     */
+    public void reset() {
+        for (int slot = 0; slot < cells.length; slot++) {
+            Typespec type = types[slot];
+
+            if (type != null) cells[slot].setValue(allocateCellValue(type));
+        }
+    }
+
+    /**
+     * Return the memory cell in the given slot.
      *
-     * @param name the name.
+     * @param slot the slot number.
      * @return the cell.
      */
-    public Cell getCell(String name) {
-        return get(name);
+    public Cell getCell(int slot) {
+        return cells[slot];
     }
 
     /**
-     * Replace the memory cell with the given name.
+     * Replace the memory cell in the given slot.
      *
-     * @param name the name.
+     * @param slot the slot number.
      * @param cell the replacement cell.
      */
-    public void replaceCell(String name, Cell cell) {
-        put(name, cell);
+    public void replaceCell(int slot, Cell cell) {
+        cells[slot] = cell;
+    }
+
+    /**
+     * Return the memory cell with the given name.
+     * This is a linear search, meant only for debugging.
+     *
+     * @param name the name.
+     * @return the cell, or null if there is no such name.
+     */
+    public Cell getCell(String name) {
+        for (int slot = 0; slot < names.length; slot++) {
+            if (name.equals(names[slot])) return cells[slot];
+        }
+
+        return null;
     }
 
     /**
@@ -83,10 +127,13 @@ public class MemoryMap extends HashMap<String, Cell> {
      * @return the arraylist.
      */
     public ArrayList<String> getAllNames() {
+        ArrayList<String> list = new ArrayList<>();
 
-        Set<String> names = keySet();
+        for (String name : names) {
+            if (name != null) list.add(name);
+        }
 
-        return new ArrayList<>(names);
+        return list;
     }
 
     /**
@@ -97,39 +144,21 @@ public class MemoryMap extends HashMap<String, Cell> {
      */
     private Object allocateCellValue(Typespec type) {
         return switch (type.getForm()) {
-            case ARRAY -> allocateArrayCells(type);
-            case RECORD -> allocateRecordMap(type);
+            case ARRAY -> allocateArray(type);
+            case RECORD -> new SlotStorage(type);
             default -> null;  // uninitialized scalar value
         };
     }
 
     /**
-     * Allocate the memory cells of an array.
+     * Allocate an array. Arrays of scalars get flat primitive storage;
+     * arrays of anything else get flat slot storage.
      *
      * @param type the array type.
      * @return the allocation.
      */
-    private Object[] allocateArrayCells(Typespec type) {
-        int elemCount = type.getArrayElementCount();
-        Typespec elemType = type.getArrayElementType();
-        Cell[] allocation = new Cell[elemCount];
-
-        for (int i = 0; i < elemCount; ++i) {
-            allocation[i] = new Cell(allocateCellValue(elemType));
-        }
-
-        return allocation;
-    }
-
-    /**
-     * Allocate the memory map for a record.
-     *
-     * @param type the record type.
-     * @return the allocation.
-     */
-    private MemoryMap allocateRecordMap(Typespec type) {
-        SymTable symTable = type.getRecordSymTable();
-
-        return new MemoryMap(symTable);
+    private Object allocateArray(Typespec type) {
+        ArrayStorage storage = ArrayStorage.allocate(type);
+        return storage != null ? storage : new SlotStorage(type);
     }
 }
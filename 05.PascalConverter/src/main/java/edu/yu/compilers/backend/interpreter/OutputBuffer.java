@@ -0,0 +1,63 @@
+/**
+ * <h1>OutputBuffer</h1>
+ * <p>Buffered program output for the interpreters. Output accumulates
+ * in memory and is written to the standard output stream only when the
+ * buffer grows past a threshold or when it is explicitly flushed: at
+ * program end, at readln, and before a runtime error message.</p>
+ */
+
+package edu.yu.compilers.backend.interpreter;
+
+import java.io.PrintStream;
+
+public class OutputBuffer {
+    private static final int FLUSH_THRESHOLD = 64*1024;  // chars buffered before a flush
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final PrintStream out;        // the stream in effect at construction
+    private final StringBuilder buffer;   // pending output
+
+    /**
+     * Constructor.
+     * Output goes to whatever System.out is at the time of construction.
+     */
+    public OutputBuffer() {
+        this.out = System.out;
+        this.buffer = new StringBuilder(FLUSH_THRESHOLD + 1024);
+    }
+
+    public void print(String text) {
+        buffer.append(text);
+        if (buffer.length() >= FLUSH_THRESHOLD) flush();
+    }
+
+    public void print(char ch) {
+        buffer.append(ch);
+        if (buffer.length() >= FLUSH_THRESHOLD) flush();
+    }
+
+    public void println() {
+        print(LINE_SEPARATOR);
+    }
+
+    /**
+     * Append spaces.
+     *
+     * @param count the number of spaces, which may be zero or negative.
+     */
+    public void pad(int count) {
+        for (int i = 0; i < count; i++) buffer.append(' ');
+    }
+
+    /**
+     * Write any pending output to the stream.
+     */
+    public void flush() {
+        if (buffer.length() > 0) {
+            out.append(buffer);
+            buffer.setLength(0);
+        }
+
+        out.flush();
+    }
+}
@@ -12,6 +12,24 @@ import org.antlr.v4.runtime.ParserRuleContext;
 public class RuntimeErrorHandler {
     private static final int MAX_ERRORS = 5;
     private int count = 0;    // count of runtime errors
+    private final OutputBuffer output;  // program output to flush first, or null
+
+    /**
+     * Constructor for unbuffered program output.
+     */
+    public RuntimeErrorHandler() {
+        this(null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param output the buffered program output, which is flushed before
+     *               an error message so that the message appears in order.
+     */
+    public RuntimeErrorHandler(OutputBuffer output) {
+        this.output = output;
+    }
 
     /**
      * Getter
@@ -29,6 +47,8 @@ public class RuntimeErrorHandler {
      * @param ctx  the context node.
      */
     public void flag(Code code, ParserRuleContext ctx) {
+        if (output != null) output.flush();
+
         System.out.printf("\n*** RUNTIME ERROR at line %03d: %s\n", ctx.getStart().getLine(), code.message);
 
         if (++count > MAX_ERRORS) {
@@ -0,0 +1,147 @@
+/**
+ * <h1>SlotStorage</h1>
+ * <p>Flat runtime storage for a record, or for an array whose elements
+ * are not scalars with a primitive representation. Every scalar
+ * occupies one slot, and nested records and arrays are laid out
+ * inline, so an array of records is a single contiguous allocation.
+ * Record field offsets are the field slot numbers that Semantics
+ * computed.</p>
+ */
+
+package edu.yu.compilers.backend.interpreter;
+
+import edu.yu.compilers.intermediate.type.Typespec;
+
+public class SlotStorage {
+    private final Typespec type;      // record or array type of this storage
+    private final Object[] slots;     // backing slots, shared by all views
+    private final int offset;         // offset of this value's first slot
+    private final SlotStorage root;   // storage of all the backing slots
+    private Cell[] elements;          // root's scalar slot cells, made on demand
+    private Cell[] views;             // cells of nested values, made on demand
+
+    /**
+     * Constructor.
+     * Allocate the slots of a value of a structured type.
+     * Scalar slots start out uninitialized.
+     *
+     * @param type the record or array type.
+     */
+    public SlotStorage(Typespec type) {
+        this(type, new Object[type.getSlotCount()], 0, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param type   the record or array type.
+     * @param slots  the backing slots.
+     * @param offset the offset of the value's first slot.
+     * @param root   the storage of all the backing slots,
+     *               or null if this is that storage.
+     */
+    private SlotStorage(Typespec type, Object[] slots, int offset, SlotStorage root) {
+        this.type = type;
+        this.slots = slots;
+        this.offset = offset;
+        this.root = root != null ? root : this;
+    }
+
+    /**
+     * Get the type of this storage.
+     *
+     * @return the type.
+     */
+    public Typespec getType() {
+        return type;
+    }
+
+    /**
+     * Get the value of a scalar slot.
+     *
+     * @param slot the slot relative to this value.
+     * @return the value.
+     */
+    public Object get(int slot) {
+        return slots[offset + slot];
+    }
+
+    /**
+     * Set the value of a scalar slot.
+     *
+     * @param slot  the slot relative to this value.
+     * @param value the value to set.
+     */
+    public void set(int slot, Object value) {
+        slots[offset + slot] = value;
+    }
+
+    /**
+     * Get a memory cell for the component that starts at a slot:
+     * an element cell for a scalar, or a cell holding a view for
+     * a nested record or array. Each cell is made the first time
+     * it's needed and is then reused.
+     *
+     * @param slot          the component's slot relative to this value.
+     * @param componentType the component's type.
+     * @return the cell.
+     */
+    public Cell cell(int slot, Typespec componentType) {
+        if (!componentType.isStructured()) {
+            if (root.elements == null) root.elements = new Cell[slots.length];
+
+            Cell cell = root.elements[offset + slot];
+            if (cell == null) {
+                cell = new Element(this, offset + slot);
+                root.elements[offset + slot] = cell;
+            }
+
+            return cell;
+        }
+
+        // Different nested values can start at the same slot,
+        // such as a record and its first field if it's an array.
+        if (views == null) views = new Cell[type.getSlotCount()];
+
+        Cell cell = views[slot];
+        if ((cell == null) || (((SlotStorage) cell.getValue()).type != componentType)) {
+            cell = new Cell(new SlotStorage(componentType, slots, offset + slot, root));
+            views[slot] = cell;
+        }
+
+        return cell;
+    }
+
+    /**
+     * Copy the contents of another value of the same type into this one.
+     *
+     * @param source the source storage.
+     */
+    public void copyFrom(SlotStorage source) {
+        System.arraycopy(source.slots, source.offset, slots, offset, type.getSlotCount());
+    }
+
+    /**
+     * A memory cell that stands for one scalar slot of the storage.
+     */
+    private static class Element extends Cell {
+        private final Object[] slots;
+        private final int index;
+
+        Element(SlotStorage storage, int index) {
+            super(null);
+            this.slots = storage.slots;
+            this.index = index;
+        }
+
+        @Override
+        public Object getValue() {
+            return slots[index];
+        }
+
+        @Override
+        public void setValue(Object newValue) {
+            slots[index] = newValue;
+        }
+    }
+}
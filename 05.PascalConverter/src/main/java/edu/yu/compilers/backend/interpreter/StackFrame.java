@@ -32,6 +32,14 @@ public class StackFrame {
         this.memoryMap = new MemoryMap(symTable);
     }
 
+    /**
+     * Reset this stack frame so that it can be reused for another call.
+     */
+    public void reset() {
+        backlink = null;
+        memoryMap.reset();
+    }
+
     /**
      * Get the symbol table entry of the routine's name.
      *
@@ -42,23 +50,34 @@ public class StackFrame {
     }
 
     /**
-     * Get the memory cell for the given name from the memory map.
+     * Get the memory cell in the given slot of the memory map.
      *
-     * @param name the name.
+     * @param slot the slot number.
      * @return the cell.
      */
-    public Cell getCell(String name) {
-        return memoryMap.getCell(name);
+    public Cell getCell(int slot) {
+        return memoryMap.getCell(slot);
     }
 
     /**
-     * Replace the memory cell with the given name in the memory map.
+     * Replace the memory cell in the given slot of the memory map.
      *
-     * @param name the name.
+     * @param slot the slot number.
      * @param cell the replacement cell.
      */
-    public void replaceCell(String name, Cell cell) {
-        memoryMap.replaceCell(name, cell);
+    public void replaceCell(int slot, Cell cell) {
+        memoryMap.replaceCell(slot, cell);
+    }
+
+    /**
+     * Get the memory cell for the given name from the memory map.
+     * Slow: use only for debugging.
+     *
+     * @param name the name.
+     * @return the cell.
+     */
+    public Cell getCell(String name) {
+        return memoryMap.getCell(name);
     }
 
     /**
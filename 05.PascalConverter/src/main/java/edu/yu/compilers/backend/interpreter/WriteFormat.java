@@ -0,0 +1,150 @@
+/**
+ * <h1>WriteFormat</h1>
+ * <p>The precompiled format of one write or writeln argument. The field
+ * width, decimal places, and value type are decoded once from the parse
+ * tree, and values are then formatted directly into the output buffer
+ * with the same results as the equivalent printf format. Unusual field
+ * specifications (a leading zero, or decimal places on a non-real
+ * value) still go through String.format.</p>
+ */
+
+package edu.yu.compilers.backend.interpreter;
+
+import antlr4.PascalParser;
+import edu.yu.compilers.intermediate.symtable.Predefined;
+import edu.yu.compilers.intermediate.type.Typespec;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+public class WriteFormat {
+    private static final int DEFAULT_DECIMALS = 6;  // as for %f
+
+    private enum Kind {
+        LITERAL, VALUE, BOOLEAN, REAL, GENERAL
+    }
+
+    private final Kind kind;
+    private final String text;         // literal string, or printf format for GENERAL
+    private final int width;           // field width, 0 if none
+    private final boolean leftJustify; // true for a negative field width
+    private final int decimals;        // decimal places of a real value
+
+    private WriteFormat(Kind kind, String text, int width, boolean leftJustify, int decimals) {
+        this.kind = kind;
+        this.text = text;
+        this.width = width;
+        this.leftJustify = leftJustify;
+        this.decimals = decimals;
+    }
+
+    /**
+     * Compile the format of a write argument.
+     *
+     * @param argCtx the WriteArgumentContext.
+     * @return the format.
+     */
+    public static WriteFormat compile(PascalParser.WriteArgumentContext argCtx) {
+        PascalParser.ExpressionContext exprCtx = argCtx.expression();
+        PascalParser.FieldWidthContext fwCtx = argCtx.fieldWidth();
+        String exprText = exprCtx.getText();
+
+        // A literal string without a field width is printed as is.
+        if ((exprText.charAt(0) == '\'') && (fwCtx == null)) {
+            String unquoted = exprText.substring(1, exprText.length() - 1);
+            return new WriteFormat(Kind.LITERAL, unquoted.replace("''", "'"), 0, false, 0);
+        }
+
+        Typespec type = exprCtx.type;
+        String widthText = "";
+        String decimalsText = null;
+        boolean leftJustify = false;
+
+        if (fwCtx != null) {
+            leftJustify = (fwCtx.sign() != null) && fwCtx.sign().getText().equals("-");
+            widthText = fwCtx.integerConstant().getText();
+
+            PascalParser.DecimalPlacesContext dpCtx = fwCtx.decimalPlaces();
+            if (dpCtx != null) decimalsText = dpCtx.integerConstant().getText();
+        }
+
+        Kind kind;
+        char conversion;
+        if (type == Predefined.integerType) {
+            kind = Kind.VALUE;
+            conversion = 'd';
+        } else if (type == Predefined.realType) {
+            kind = Kind.REAL;
+            conversion = 'f';
+        } else if (type == Predefined.booleanType) {
+            kind = Kind.BOOLEAN;
+            conversion = 'b';
+        } else if (type == Predefined.charType) {
+            kind = Kind.VALUE;
+            conversion = 'c';
+        } else {
+            kind = Kind.VALUE;
+            conversion = 's';
+        }
+
+        // A leading zero is a printf flag, and decimal places mean
+        // something (or are an error) only to printf for other types.
+        if (widthText.startsWith("0") || ((decimalsText != null) && (kind != Kind.REAL))) {
+            String format = "%" + (leftJustify ? "-" : "") + widthText
+                          + (decimalsText != null ? "." + decimalsText : "") + conversion;
+            return new WriteFormat(Kind.GENERAL, format, 0, false, 0);
+        }
+
+        int width = widthText.isEmpty() ? 0 : Integer.parseInt(widthText);
+        int decimals = decimalsText != null ? Integer.parseInt(decimalsText) : DEFAULT_DECIMALS;
+
+        return new WriteFormat(kind, null, width, leftJustify, decimals);
+    }
+
+    /**
+     * @return true if the argument is a literal string that needs no value.
+     */
+    public boolean isLiteral() {
+        return kind == Kind.LITERAL;
+    }
+
+    /**
+     * Format a value into the output buffer.
+     *
+     * @param output the output buffer.
+     * @param value  the value, ignored for a literal string.
+     */
+    public void write(OutputBuffer output, Object value) {
+        String formatted = switch (kind) {
+            case LITERAL -> text;
+            case VALUE -> String.valueOf(value);
+            case BOOLEAN -> value == null ? "false" : value instanceof Boolean b ? b.toString() : "true";
+            case REAL -> value instanceof Double d ? fixed(d, decimals) : String.valueOf(value);
+            case GENERAL -> String.format(text, value);
+        };
+
+        int padding = width - formatted.length();
+
+        if (!leftJustify) output.pad(padding);
+        output.print(formatted);
+        if (leftJustify) output.pad(padding);
+    }
+
+    /**
+     * Format a real value in fixed-point notation the way %f does:
+     * the shortest decimal representation rounded half up.
+     *
+     * @param value    the value.
+     * @param decimals the number of decimal places.
+     * @return the formatted value.
+     */
+    private static String fixed(double value, int decimals) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) return Double.toString(value);
+
+        String digits = new BigDecimal(Double.toString(Math.abs(value)))
+                            .setScale(decimals, RoundingMode.HALF_UP)
+                            .toPlainString();
+
+        return Math.copySign(1.0, value) < 0 ? "-" + digits : digits;
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ * <h1>Binder</h1>
+ * <p>Binds one argument of a compiled call to its parameter in the
+ * callee's stack frame. Binders run in the caller's context before
+ * the callee's frame is pushed.</p>
+ */
+
+package edu.yu.compilers.backend.interpreter.tree;
+
+import edu.yu.compilers.backend.interpreter.StackFrame;
+
+public abstract class Binder {
+    final int slot;  // parameter slot in the callee's frame
+
+    Binder(int slot) {
+        this.slot = slot;
+    }
+
+    /**
+     * Bind the argument to the parameter.
+     *
+     * @param frame the callee's stack frame.
+     */
+    public abstract void bind(StackFrame frame);
+
+    /**
+     * VAR parameter: Share the argument variable's cell.
+     */
+    static final class ByReference extends Binder {
+        private final Reference argument;
+
+        ByReference(int slot, Reference argument) {
+            super(slot);
+            this.argument = argument;
+        }
+
+        public void bind(StackFrame frame) {
+            frame.replaceCell(slot, argument.cell());
+        }
+    }
+
+    static final class IntValue extends Binder {
+        private final Expression argument;
+
+        IntValue(int slot, Expression argument) {
+            super(slot);
+            this.argument = argument;
+        }
+
+        public void bind(StackFrame frame) {
+            frame.getCell(slot).setValue(argument.evaluateInt());
+        }
+    }
+
+    static final class RealValue extends Binder {
+        private final Expression argument;
+
+        RealValue(int slot, Expression argument) {
+            super(slot);
+            this.argument = argument;
+        }
+
+        public void bind(StackFrame frame) {
+            frame.getCell(slot).setValue(argument.evaluateReal());
+        }
+    }
+
+    static final class StructuredValue extends Binder {
+        private final Expression argument;
+
+        StructuredValue(int slot, Expression argument) {
+            super(slot);
+            this.argument = argument;
+        }
+
+        public void bind(StackFrame frame) {
+            Statement.copy(frame.getCell(slot), argument.evaluate());
+        }
+    }
+
+    static final class Value extends Binder {
+        private final Expression argument;
+
+        Value(int slot, Expression argument) {
+            super(slot);
+            this.argument = argument;
+        }
+
+        public void bind(StackFrame frame) {
+            frame.getCell(slot).setValue(argument.evaluate());
+        }
+    }
+}
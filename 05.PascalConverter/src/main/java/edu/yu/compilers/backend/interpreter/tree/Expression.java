@@ -0,0 +1,603 @@
+/**
+ * <h1>Expression</h1>
+ * <p>An expression node of the compiled execution tree. Each node is
+ * specialized for its operator and operand types when the tree is
+ * built, so evaluating it does no type or operator dispatch. Integer,
+ * real and boolean nodes evaluate without boxing through their typed
+ * evaluate methods.</p>
+ */
+
+package edu.yu.compilers.backend.interpreter.tree;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+
+import static edu.yu.compilers.backend.interpreter.RuntimeErrorHandler.Code.DIVISION_BY_ZERO;
+
+public abstract class Expression {
+
+    /**
+     * Evaluate the expression.
+     *
+     * @return the value.
+     */
+    public abstract Object evaluate();
+
+    /**
+     * Evaluate an integer or character expression as an integer.
+     *
+     * @return the value.
+     */
+    public int evaluateInt() {
+        return evaluateOrdinal(evaluate());
+    }
+
+    /**
+     * Evaluate a numeric or character expression as a real.
+     *
+     * @return the value.
+     */
+    public double evaluateReal() {
+        Object value = evaluate();
+        return value instanceof Double d ? d : evaluateOrdinal(value);
+    }
+
+    /**
+     * Evaluate a boolean expression.
+     *
+     * @return the value.
+     */
+    public boolean evaluateBoolean() {
+        return (Boolean) evaluate();
+    }
+
+    private static int evaluateOrdinal(Object value) {
+        return value instanceof Character ch ? ch : (Integer) value;
+    }
+
+    /**
+     * An expression with an integer value.
+     */
+    public abstract static class IntExpression extends Expression {
+        public abstract int evaluateInt();
+
+        public Object evaluate() {
+            return evaluateInt();
+        }
+
+        public double evaluateReal() {
+            return evaluateInt();
+        }
+    }
+
+    /**
+     * An expression with a real value.
+     */
+    public abstract static class RealExpression extends Expression {
+        public abstract double evaluateReal();
+
+        public Object evaluate() {
+            return evaluateReal();
+        }
+    }
+
+    /**
+     * An expression with a boolean value.
+     */
+    public abstract static class BooleanExpression extends Expression {
+        public abstract boolean evaluateBoolean();
+
+        public Object evaluate() {
+            return evaluateBoolean();
+        }
+    }
+
+    /**
+     * An expression whose operands are both integers.
+     */
+    abstract static class IntBinary extends IntExpression {
+        final Expression left;
+        final Expression right;
+
+        IntBinary(Expression left, Expression right) {
+            this.left = left;
+            this.right = right;
+        }
+    }
+
+    /**
+     * An expression whose operands are both evaluated as reals.
+     */
+    abstract static class RealBinary extends RealExpression {
+        final Expression left;
+        final Expression right;
+
+        RealBinary(Expression left, Expression right) {
+            this.left = left;
+            this.right = right;
+        }
+    }
+
+    /**
+     * A comparison or logical expression with a boolean value.
+     */
+    abstract static class Relation extends BooleanExpression {
+        final Expression left;
+        final Expression right;
+
+        Relation(Expression left, Expression right) {
+            this.left = left;
+            this.right = right;
+        }
+    }
+
+    // Constants.
+
+    static final class IntConstant extends IntExpression {
+        private final int value;
+
+        IntConstant(int value) {
+            this.value = value;
+        }
+
+        public int evaluateInt() {
+            return value;
+        }
+    }
+
+    static final class RealConstant extends RealExpression {
+        private final double value;
+
+        RealConstant(double value) {
+            this.value = value;
+        }
+
+        public double evaluateReal() {
+            return value;
+        }
+    }
+
+    static final class BooleanConstant extends BooleanExpression {
+        private final boolean value;
+
+        BooleanConstant(boolean value) {
+            this.value = value;
+        }
+
+        public boolean evaluateBoolean() {
+            return value;
+        }
+    }
+
+    static final class Constant extends Expression {
+        private final Object value;
+
+        Constant(Object value) {
+            this.value = value;
+        }
+
+        public Object evaluate() {
+            return value;
+        }
+    }
+
+    // Variable values.
+
+    static final class IntVariable extends IntExpression {
+        private final Reference reference;
+
+        IntVariable(Reference reference) {
+            this.reference = reference;
+        }
+
+        public int evaluateInt() {
+            return reference.getInt();
+        }
+    }
+
+    static final class RealVariable extends RealExpression {
+        private final Reference reference;
+
+        RealVariable(Reference reference) {
+            this.reference = reference;
+        }
+
+        public double evaluateReal() {
+            return reference.getReal();
+        }
+    }
+
+    static final class BooleanVariable extends BooleanExpression {
+        private final Reference reference;
+
+        BooleanVariable(Reference reference) {
+            this.reference = reference;
+        }
+
+        public boolean evaluateBoolean() {
+            return reference.getBoolean();
+        }
+    }
+
+    static final class Variable extends Expression {
+        private final Reference reference;
+
+        Variable(Reference reference) {
+            this.reference = reference;
+        }
+
+        public Object evaluate() {
+            return reference.cell().getValue();
+        }
+    }
+
+    // Function calls.
+
+    static final class FunctionCall extends Expression {
+        private final Routine routine;
+        private final Binder[] binders;
+
+        FunctionCall(Routine routine, Binder[] binders) {
+            this.routine = routine;
+            this.binders = binders;
+        }
+
+        public Object evaluate() {
+            return routine.call(binders);
+        }
+    }
+
+    // Integer arithmetic.
+
+    static final class IntNegate extends IntExpression {
+        private final Expression operand;
+
+        IntNegate(Expression operand) {
+            this.operand = operand;
+        }
+
+        public int evaluateInt() {
+            return -operand.evaluateInt();
+        }
+    }
+
+    static final class IntAdd extends IntBinary {
+        IntAdd(Expression left, Expression right) {
+            super(left, right);
+        }
+
+        public int evaluateInt() {
+            return left.evaluateInt() + right.evaluateInt();
+        }
+    }
+
+    static final class IntSubtract extends IntBinary {
+        IntSubtract(Expression left, Expression right) {
+            super(left, right);
+        }
+
+        public int evaluateInt() {
+            return left.evaluateInt() - right.evaluateInt();
+        }
+    }
+
+    static final class IntMultiply extends IntBinary {
+        IntMultiply(Expression left, Expression right) {
+            super(left, right);
+        }
+
+        public int evaluateInt() {
+            return left.evaluateInt() * right.evaluateInt();
+        }
+    }
+
+    static final class IntDivide extends IntBinary {
+        private final TreeExecutor runtime;
+        private final ParserRuleContext ctx;
+
+        IntDivide(Expression left, Expression right, TreeExecutor runtime, ParserRuleContext ctx) {
+            super(left, right);
+            this.runtime = runtime;
+            this.ctx = ctx;
+        }
+
+        public int evaluateInt() {
+            int value1 = left.evaluateInt();
+            int value2 = right.evaluateInt();
+
+            if (value2 == 0) {
+                runtime.error.flag(DIVISION_BY_ZERO, ctx);
+                return value1;
+            }
+
+            return value1 / value2;
+        }
+    }
+
+    static final class IntModulo extends IntBinary {
+        private final TreeExecutor runtime;
+        private final ParserRuleContext ctx;
+
+        IntModulo(Expression left, Expression right, TreeExecutor runtime, ParserRuleContext ctx) {
+            super(left, right);
+            this.runtime = runtime;
+            this.ctx = ctx;
+        }
+
+        public int evaluateInt() {
+            int value1 = left.evaluateInt();
+            int value2 = right.evaluateInt();
+
+            if (value2 == 0) {
+                runtime.error.flag(DIVISION_BY_ZERO, ctx);
+                return value1;
+            }
+
+            return value1 % value2;
+        }
+    }
+
+    // Real arithmetic.
+
+    static final class RealNegate extends RealExpression {
+        private final Expression operand;
+
+        RealNegate(Expression operand) {
+            this.operand = operand;
+        }
+
+        public double evaluateReal() {
+            return -operand.evaluateReal();
+        }
+    }
+
+    static final class RealAdd extends RealBinary {
+        RealAdd(Expression left, Expression right) {
+            super(left, right);
+        }
+
+        public double evaluateReal() {
+            return left.evaluateReal() + right.evaluateReal();
+        }
+    }
+
+    static final class RealSubtract extends RealBinary {
+        RealSubtract(Expression left, Expression right) {
+            super(left, right);
+        }
+
+        public double evaluateReal() {
+            return left.evaluateReal() - right.evaluateReal();
+        }
+    }
+
+    static final class RealMultiply extends RealBinary {
+        RealMultiply(Expression left, Expression right) {
+            super(left, right);
+        }
+
+        public double evaluateReal() {
+            return left.evaluateReal() * right.evaluateReal();
+        }
+    }
+
+    static final class RealDivide extends RealBinary {
+        private final TreeExecutor runtime;
+        private final ParserRuleContext ctx;
+
+        RealDivide(Expression left, Expression right, TreeExecutor runtime, ParserRuleContext ctx) {
+            super(left, right);
+            this.runtime = runtime;
+            this.ctx = ctx;
+        }
+
+        public double evaluateReal() {
+            double value1 = left.evaluateReal();
+            double value2 = right.evaluateReal();
+
+            if (value2 == 0) {
+                runtime.error.flag(DIVISION_BY_ZERO, ctx);
+                return 0;
+            }
+
+            return value1 / value2;
+        }
+    }
+
+    // Strings.
+
+    static final class Concatenate extends Expression {
+        private final Expression left;
+        private final Expression right;
+
+        Concatenate(Expression left, Expression right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        public Object evaluate() {
+            return String.valueOf(left.evaluate()) + right.evaluate();
+        }
+    }
+
+    // Logical operators. Both operands are always evaluated.
+
+    static final class Not extends BooleanExpression {
+        private final Expression operand;
+
+        Not(Expression operand) {
+            this.operand = operand;
+        }
+
+        public boolean evaluateBoolean() {
+            return !operand.evaluateBoolean();
+        }
+    }
+
+    static final class Or extends Relation {
+        Or(Expression left, Expression right) {
+            super(left, right);
+        }
+
+        public boolean evaluateBoolean() {
+            boolean value1 = left.evaluateBoolean();
+            boolean value2 = right.evaluateBoolean();
+            return value1 || value2;
+        }
+    }
+
+    static final class And extends Relation {
+        And(Expression left, Expression right) {
+            super(left, right);
+        }
+
+        public boolean evaluateBoolean() {
+            boolean value1 = left.evaluateBoolean();
+            boolean value2 = right.evaluateBoolean();
+            return value1 && value2;
+        }
+    }
+
+    // Integer and character comparisons.
+
+    static final class IntEqual extends Relation {
+        IntEqual(Expression left, Expression right) {
+            super(left, right);
+        }
+
+        public boolean evaluateBoolean() {
+            return left.evaluateInt() == right.evaluateInt();
+        }
+    }
+
+    static final class IntNotEqual extends Relation {
+        IntNotEqual(Expression left, Expression right) {
+            super(left, right);
+        }
+
+        public boolean evaluateBoolean() {
+            return left.evaluateInt() != right.evaluateInt();
+        }
+    }
+
+    static final class IntLess extends Relation {
+        IntLess(Expression left, Expression right) {
+            super(left, right);
+        }
+
+        public boolean evaluateBoolean() {
+            return left.evaluateInt() < right.evaluateInt();
+        }
+    }
+
+    static final class IntLessEqual extends Relation {
+        IntLessEqual(Expression left, Expression right) {
+            super(left, right);
+        }
+
+        public boolean evaluateBoolean() {
+            return left.evaluateInt() <= right.evaluateInt();
+        }
+    }
+
+    static final class IntGreater extends Relation {
+        IntGreater(Expression left, Expression right) {
+            super(left, right);
+        }
+
+        public boolean evaluateBoolean() {
+            return left.evaluateInt() > right.evaluateInt();
+        }
+    }
+
+    static final class IntGreaterEqual extends Relation {
+        IntGreaterEqual(Expression left, Expression right) {
+            super(left, right);
+        }
+
+        public boolean evaluateBoolean() {
+            return left.evaluateInt() >= right.evaluateInt();
+        }
+    }
+
+    // Real comparisons.
+
+    static final class RealEqual extends Relation {
+        RealEqual(Expression left, Expression right) {
+            super(left, right);
+        }
+
+        public boolean evaluateBoolean() {
+            return left.evaluateReal() == right.evaluateReal();
+        }
+    }
+
+    static final class RealNotEqual extends Relation {
+        RealNotEqual(Expression left, Expression right) {
+            super(left, right);
+        }
+
+        public boolean evaluateBoolean() {
+            return left.evaluateReal() != right.evaluateReal();
+        }
+    }
+
+    static final class RealLess extends Relation {
+        RealLess(Expression left, Expression right) {
+            super(left, right);
+        }
+
+        public boolean evaluateBoolean() {
+            return left.evaluateReal() < right.evaluateReal();
+        }
+    }
+
+    static final class RealLessEqual extends Relation {
+        RealLessEqual(Expression left, Expression right) {
+            super(left, right);
+        }
+
+        public boolean evaluateBoolean() {
+            return left.evaluateReal() <= right.evaluateReal();
+        }
+    }
+
+    static final class RealGreater extends Relation {
+        RealGreater(Expression left, Expression right) {
+            super(left, right);
+        }
+
+        public boolean evaluateBoolean() {
+            return left.evaluateReal() > right.evaluateReal();
+        }
+    }
+
+    static final class RealGreaterEqual extends Relation {
+        RealGreaterEqual(Expression left, Expression right) {
+            super(left, right);
+        }
+
+        public boolean evaluateBoolean() {
+            return left.evaluateReal() >= right.evaluateReal();
+        }
+    }
+
+    // String comparisons.
+
+    static final class StringCompare extends Relation {
+        private final boolean less;     // result when left < right
+        private final boolean equal;    // result when left = right
+        private final boolean greater;  // result when left > right
+
+        StringCompare(Expression left, Expression right, boolean less, boolean equal, boolean greater) {
+            super(left, right);
+            this.less = less;
+            this.equal = equal;
+            this.greater = greater;
+        }
+
+        public boolean evaluateBoolean() {
+            int comp = ((String) left.evaluate()).compareTo((String) right.evaluate());
+            return comp < 0 ? less : comp == 0 ? equal : greater;
+        }
+    }
+}
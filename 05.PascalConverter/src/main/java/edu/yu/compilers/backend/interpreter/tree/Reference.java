@@ -0,0 +1,260 @@
+/**
+ * <h1>Reference</h1>
+ * <p>A node of the compiled execution tree that locates a variable's
+ * memory cell: a variable in a stack frame, an array element, or a
+ * record field. Slot numbers, index bounds and element sizes are
+ * taken from the symbol table when the tree is built. Scalar values
+ * can also be read and written through the typed methods, which an
+ * array element implements without a cell or boxing.</p>
+ */
+
+package edu.yu.compilers.backend.interpreter.tree;
+
+import edu.yu.compilers.backend.interpreter.ArrayStorage;
+import edu.yu.compilers.backend.interpreter.Cell;
+import edu.yu.compilers.backend.interpreter.IntCell;
+import edu.yu.compilers.backend.interpreter.RuntimeStack;
+import edu.yu.compilers.backend.interpreter.SlotStorage;
+import edu.yu.compilers.intermediate.type.Typespec;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+import static edu.yu.compilers.backend.interpreter.RuntimeErrorHandler.Code.VALUE_RANGE;
+import static edu.yu.compilers.intermediate.type.Typespec.Form.ARRAY;
+
+public abstract class Reference {
+
+    /**
+     * Locate the memory cell.
+     *
+     * @return the cell.
+     */
+    public abstract Cell cell();
+
+    /**
+     * Get an integer value.
+     *
+     * @return the value.
+     */
+    public int getInt() {
+        Cell cell = cell();
+        return cell instanceof IntCell intCell ? intCell.getInt() : (Integer) cell.getValue();
+    }
+
+    /**
+     * Set an integer value, without boxing it if the cell allows it.
+     *
+     * @param value the value.
+     */
+    public void setInt(int value) {
+        Cell cell = cell();
+
+        if (cell instanceof IntCell intCell) intCell.setInt(value);
+        else cell.setValue(value);
+    }
+
+    /**
+     * Get a real value.
+     *
+     * @return the value.
+     */
+    public double getReal() {
+        return (Double) cell().getValue();
+    }
+
+    /**
+     * Set a real value.
+     *
+     * @param value the value.
+     */
+    public void setReal(double value) {
+        cell().setValue(value);
+    }
+
+    /**
+     * Get a boolean value.
+     *
+     * @return the value.
+     */
+    public boolean getBoolean() {
+        return (Boolean) cell().getValue();
+    }
+
+    /**
+     * A variable or parameter in the topmost stack frame of its nesting level.
+     */
+    static final class FrameVariable extends Reference {
+        private final RuntimeStack runtimeStack;
+        private final int nestingLevel;
+        private final int slot;
+
+        FrameVariable(RuntimeStack runtimeStack, int nestingLevel, int slot) {
+            this.runtimeStack = runtimeStack;
+            this.nestingLevel = nestingLevel;
+            this.slot = slot;
+        }
+
+        public Cell cell() {
+            return runtimeStack.getTopmost(nestingLevel).getCell(slot);
+        }
+    }
+
+    /**
+     * An array element or subarray selected by one list of subscripts.
+     */
+    static final class Subscript extends Reference {
+        private final TreeExecutor runtime;
+        private final Reference array;
+        private final Expression[] indexes;
+        private final int[] minIndexes;           // minimum value of each index
+        private final int[] elementCounts;        // element count of each dimension
+        private final int[] strides;              // slots per element of each dimension
+        private final ParserRuleContext[] ctxs;   // index contexts for errors
+        private final Typespec elementType;       // type of the selected element
+
+        Subscript(TreeExecutor runtime, Reference array, Expression[] indexes,
+                  int[] minIndexes, int[] elementCounts, int[] strides,
+                  ParserRuleContext[] ctxs, Typespec elementType) {
+            this.runtime = runtime;
+            this.array = array;
+            this.indexes = indexes;
+            this.minIndexes = minIndexes;
+            this.elementCounts = elementCounts;
+            this.strides = strides;
+            this.ctxs = ctxs;
+            this.elementType = elementType;
+        }
+
+        public Cell cell() {
+            Object storage = array.cell().getValue();
+            int flatIndex = flatIndex();
+
+            if (storage instanceof ArrayStorage arrayStorage) {
+                return elementType.getForm() == ARRAY
+                        ? new Cell(arrayStorage.slice(flatIndex, elementType))
+                        : arrayStorage.element(flatIndex);
+            } else {
+                return ((SlotStorage) storage).cell(flatIndex, elementType);
+            }
+        }
+
+        public int getInt() {
+            Object storage = array.cell().getValue();
+            int flatIndex = flatIndex();
+
+            return storage instanceof ArrayStorage arrayStorage
+                    ? arrayStorage.getInt(flatIndex)
+                    : (Integer) ((SlotStorage) storage).get(flatIndex);
+        }
+
+        public void setInt(int value) {
+            Object storage = array.cell().getValue();
+            int flatIndex = flatIndex();
+
+            if (storage instanceof ArrayStorage arrayStorage) arrayStorage.setInt(flatIndex, value);
+            else ((SlotStorage) storage).set(flatIndex, value);
+        }
+
+        public double getReal() {
+            Object storage = array.cell().getValue();
+            int flatIndex = flatIndex();
+
+            return storage instanceof ArrayStorage arrayStorage
+                    ? arrayStorage.getDouble(flatIndex)
+                    : (Double) ((SlotStorage) storage).get(flatIndex);
+        }
+
+        public void setReal(double value) {
+            Object storage = array.cell().getValue();
+            int flatIndex = flatIndex();
+
+            if (storage instanceof ArrayStorage arrayStorage) arrayStorage.setDouble(flatIndex, value);
+            else ((SlotStorage) storage).set(flatIndex, value);
+        }
+
+        public boolean getBoolean() {
+            Object storage = array.cell().getValue();
+            int flatIndex = flatIndex();
+
+            return storage instanceof ArrayStorage arrayStorage
+                    ? arrayStorage.getBoolean(flatIndex)
+                    : (Boolean) ((SlotStorage) storage).get(flatIndex);
+        }
+
+        /**
+         * Evaluate the subscripts.
+         *
+         * @return the flat index of the selected element.
+         */
+        private int flatIndex() {
+            int flatIndex = 0;
+
+            for (int i = 0; i < indexes.length; i++) {
+                int index = indexes[i].evaluateInt() - minIndexes[i];
+
+                if ((index < 0) || (index >= elementCounts[i])) {
+                    runtime.error.flag(VALUE_RANGE, ctxs[i]);
+                    index = 0;
+                }
+
+                flatIndex += index * strides[i];
+            }
+
+            return flatIndex;
+        }
+    }
+
+    /**
+     * A record field. The field of a nested record is a field of the
+     * outermost record at the sum of their offsets.
+     */
+    static final class Field extends Reference {
+        private final Reference record;
+        private final int offset;
+        private final Typespec fieldType;
+
+        Field(Reference record, int offset, Typespec fieldType) {
+            this.record = record;
+            this.offset = offset;
+            this.fieldType = fieldType;
+        }
+
+        /**
+         * Select a field of this field's record value.
+         *
+         * @param fieldOffset the offset of the field within the record.
+         * @param type        the field type.
+         * @return the reference.
+         */
+        Field select(int fieldOffset, Typespec type) {
+            return new Field(record, offset + fieldOffset, type);
+        }
+
+        public Cell cell() {
+            return storage().cell(offset, fieldType);
+        }
+
+        public int getInt() {
+            return (Integer) storage().get(offset);
+        }
+
+        public void setInt(int value) {
+            storage().set(offset, value);
+        }
+
+        public double getReal() {
+            return (Double) storage().get(offset);
+        }
+
+        public void setReal(double value) {
+            storage().set(offset, value);
+        }
+
+        public boolean getBoolean() {
+            return (Boolean) storage().get(offset);
+        }
+
+        private SlotStorage storage() {
+            return (SlotStorage) record.cell().getValue();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/**
+ * <h1>Routine</h1>
+ * <p>A compiled procedure or function. Its body is compiled once and
+ * shared by every call site, and its stack frames come from a pool.</p>
+ */
+
+package edu.yu.compilers.backend.interpreter.tree;
+
+import edu.yu.compilers.backend.interpreter.FramePool;
+import edu.yu.compilers.backend.interpreter.RuntimeStack;
+import edu.yu.compilers.backend.interpreter.StackFrame;
+import edu.yu.compilers.intermediate.symtable.SymTableEntry;
+
+public class Routine {
+    private final RuntimeStack runtimeStack;
+    private final FramePool pool;
+    private Statement body;
+
+    /**
+     * Constructor.
+     *
+     * @param runtimeStack the runtime stack.
+     * @param routineId    the symbol table entry of the routine's name.
+     */
+    Routine(RuntimeStack runtimeStack, SymTableEntry routineId) {
+        this.runtimeStack = runtimeStack;
+        this.pool = new FramePool(routineId);
+    }
+
+    /**
+     * Set the compiled body. It is set after the routine is created
+     * so that recursive calls within the body can refer to the routine.
+     *
+     * @param body the body.
+     */
+    void setBody(Statement body) {
+        this.body = body;
+    }
+
+    /**
+     * Call the routine.
+     *
+     * @param binders the argument binders of the call site.
+     * @return the function's return value, or null for a procedure.
+     */
+    Object call(Binder[] binders) {
+        StackFrame frame = pool.acquire();
+
+        for (Binder binder : binders) binder.bind(frame);
+
+        runtimeStack.push(frame);
+        body.execute();
+
+        int resultSlot = pool.getResultSlot();
+        Object result = resultSlot >= 0 ? frame.getCell(resultSlot).getValue() : null;
+
+        runtimeStack.pop();
+        pool.release(frame);
+
+        return result;
+    }
+}
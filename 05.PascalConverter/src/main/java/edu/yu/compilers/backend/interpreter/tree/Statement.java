@@ -0,0 +1,368 @@
+/**
+ * <h1>Statement</h1>
+ * <p>A statement node of the compiled execution tree. Assignments are
+ * specialized for the target type when the tree is built, and CASE
+ * statements dispatch through a jump table of compiled branches.</p>
+ */
+
+package edu.yu.compilers.backend.interpreter.tree;
+
+import edu.yu.compilers.backend.interpreter.ArrayStorage;
+import edu.yu.compilers.backend.interpreter.Cell;
+import edu.yu.compilers.backend.interpreter.IntCell;
+import edu.yu.compilers.backend.interpreter.OutputBuffer;
+import edu.yu.compilers.backend.interpreter.SlotStorage;
+import edu.yu.compilers.backend.interpreter.WriteFormat;
+import edu.yu.compilers.intermediate.type.Typespec;
+import edu.yu.compilers.intermediate.util.JumpTable;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+public abstract class Statement {
+
+    /**
+     * Execute the statement.
+     */
+    public abstract void execute();
+
+    /**
+     * Count a statement's execution and then execute it.
+     */
+    static final class Counted extends Statement {
+        private final TreeExecutor runtime;
+        private final Statement statement;
+
+        Counted(TreeExecutor runtime, Statement statement) {
+            this.runtime = runtime;
+            this.statement = statement;
+        }
+
+        public void execute() {
+            runtime.executionCount++;
+            statement.execute();
+        }
+    }
+
+    static final class Empty extends Statement {
+        public void execute() {
+        }
+    }
+
+    static final class Compound extends Statement {
+        private final Statement[] statements;
+
+        Compound(Statement[] statements) {
+            this.statements = statements;
+        }
+
+        public void execute() {
+            for (Statement statement : statements) statement.execute();
+        }
+    }
+
+    // Assignments. The value is evaluated before the target is located.
+
+    static final class AssignInt extends Statement {
+        private final Reference target;
+        private final Expression value;
+
+        AssignInt(Reference target, Expression value) {
+            this.target = target;
+            this.value = value;
+        }
+
+        public void execute() {
+            int intValue = value.evaluateInt();
+            target.setInt(intValue);
+        }
+    }
+
+    static final class AssignReal extends Statement {
+        private final Reference target;
+        private final Expression value;
+
+        AssignReal(Reference target, Expression value) {
+            this.target = target;
+            this.value = value;
+        }
+
+        public void execute() {
+            double realValue = value.evaluateReal();
+            target.setReal(realValue);
+        }
+    }
+
+    static final class AssignStructured extends Statement {
+        private final Reference target;
+        private final Expression value;
+
+        AssignStructured(Reference target, Expression value) {
+            this.target = target;
+            this.value = value;
+        }
+
+        public void execute() {
+            copy(target.cell(), value.evaluate());
+        }
+    }
+
+    static final class Assign extends Statement {
+        private final Reference target;
+        private final Expression value;
+
+        Assign(Reference target, Expression value) {
+            this.target = target;
+            this.value = value;
+        }
+
+        public void execute() {
+            Object newValue = value.evaluate();
+            target.cell().setValue(newValue);
+        }
+    }
+
+    /**
+     * Copy a structured value into the storage of a target cell.
+     *
+     * @param cell   the target cell.
+     * @param source the structured value.
+     */
+    static void copy(Cell cell, Object source) {
+        Object storage = cell.getValue();
+
+        if ((storage instanceof SlotStorage target) && (source instanceof SlotStorage slots)) {
+            target.copyFrom(slots);
+        } else if ((storage instanceof ArrayStorage target) && (source instanceof ArrayStorage array)) {
+            target.copyFrom(array);
+        } else {
+            cell.setValue(source);
+        }
+    }
+
+    // Control statements.
+
+    static final class If extends Statement {
+        private final Expression condition;
+        private final Statement trueStatement;
+        private final Statement falseStatement;  // or null
+
+        If(Expression condition, Statement trueStatement, Statement falseStatement) {
+            this.condition = condition;
+            this.trueStatement = trueStatement;
+            this.falseStatement = falseStatement;
+        }
+
+        public void execute() {
+            if (condition.evaluateBoolean()) trueStatement.execute();
+            else if (falseStatement != null) falseStatement.execute();
+        }
+    }
+
+    static final class While extends Statement {
+        private final Expression condition;
+        private final Statement body;
+
+        While(Expression condition, Statement body) {
+            this.condition = condition;
+            this.body = body;
+        }
+
+        public void execute() {
+            while (condition.evaluateBoolean()) body.execute();
+        }
+    }
+
+    static final class Repeat extends Statement {
+        private final Statement body;
+        private final Expression condition;
+
+        Repeat(Statement body, Expression condition) {
+            this.body = body;
+            this.condition = condition;
+        }
+
+        public void execute() {
+            do {
+                body.execute();
+            } while (!condition.evaluateBoolean());
+        }
+    }
+
+    static final class ForInt extends Statement {
+        private final TreeExecutor runtime;
+        private final Reference control;
+        private final Typespec controlType;
+        private final Expression start;
+        private final Expression stop;
+        private final boolean to;
+        private final Statement body;
+        private final ParserRuleContext ctx;
+
+        ForInt(TreeExecutor runtime, Reference control, Typespec controlType, Expression start,
+               Expression stop, boolean to, Statement body, ParserRuleContext ctx) {
+            this.runtime = runtime;
+            this.control = control;
+            this.controlType = controlType;
+            this.start = start;
+            this.stop = stop;
+            this.to = to;
+            this.body = body;
+            this.ctx = ctx;
+        }
+
+        public void execute() {
+            int value = start.evaluateInt();
+            Cell cell = control.cell();
+            cell.setValue(value);
+            int last = stop.evaluateInt();
+
+            runtime.checkControlRange(controlType, value, last, to, ctx);
+
+            // Store the control value without boxing if the cell allows it.
+            if (cell instanceof IntCell intCell) {
+                if (to) {
+                    while (value <= last) {
+                        body.execute();
+                        intCell.setInt(++value);
+                    }
+                } else {
+                    while (value >= last) {
+                        body.execute();
+                        intCell.setInt(--value);
+                    }
+                }
+            } else if (to) {
+                while (value <= last) {
+                    body.execute();
+                    cell.setValue(++value);
+                }
+            } else {
+                while (value >= last) {
+                    body.execute();
+                    cell.setValue(--value);
+                }
+            }
+        }
+    }
+
+    static final class ForChar extends Statement {
+        private final TreeExecutor runtime;
+        private final Reference control;
+        private final Typespec controlType;
+        private final Expression start;
+        private final Expression stop;
+        private final boolean to;
+        private final Statement body;
+        private final ParserRuleContext ctx;
+
+        ForChar(TreeExecutor runtime, Reference control, Typespec controlType, Expression start,
+                Expression stop, boolean to, Statement body, ParserRuleContext ctx) {
+            this.runtime = runtime;
+            this.control = control;
+            this.controlType = controlType;
+            this.start = start;
+            this.stop = stop;
+            this.to = to;
+            this.body = body;
+            this.ctx = ctx;
+        }
+
+        public void execute() {
+            char value = (Character) start.evaluate();
+            Cell cell = control.cell();
+            cell.setValue(value);
+            char last = (Character) stop.evaluate();
+
+            runtime.checkControlRange(controlType, value, last, to, ctx);
+
+            if (to) {
+                while (value <= last) {
+                    body.execute();
+                    cell.setValue(++value);
+                }
+            } else {
+                while (value >= last) {
+                    body.execute();
+                    cell.setValue(--value);
+                }
+            }
+        }
+    }
+
+    static final class Case extends Statement {
+        private final Expression selector;
+        private final JumpTable<Statement> jumpTable;
+
+        Case(Expression selector, JumpTable<Statement> jumpTable) {
+            this.selector = selector;
+            this.jumpTable = jumpTable;
+        }
+
+        public void execute() {
+            Statement branch = jumpTable.lookup(selector.evaluate());
+            if (branch != null) branch.execute();
+        }
+    }
+
+    static final class ProcedureCall extends Statement {
+        private final Routine routine;
+        private final Binder[] binders;
+
+        ProcedureCall(Routine routine, Binder[] binders) {
+            this.routine = routine;
+            this.binders = binders;
+        }
+
+        public void execute() {
+            routine.call(binders);
+        }
+    }
+
+    // Input and output.
+
+    static final class Write extends Statement {
+        private final OutputBuffer output;
+        private final Expression[] arguments;  // null for a literal string
+        private final WriteFormat[] formats;
+        private final boolean newline;
+
+        Write(OutputBuffer output, Expression[] arguments, WriteFormat[] formats, boolean newline) {
+            this.output = output;
+            this.arguments = arguments;
+            this.formats = formats;
+            this.newline = newline;
+        }
+
+        public void execute() {
+            for (int i = 0; i < arguments.length; i++) {
+                formats[i].write(output, arguments[i] != null ? arguments[i].evaluate() : null);
+            }
+
+            if (newline) output.println();
+        }
+    }
+
+    static final class Read extends Statement {
+        private final TreeExecutor runtime;
+        private final Reference[] targets;
+        private final TreeExecutor.ReadKind[] kinds;
+        private final boolean readln;
+
+        Read(TreeExecutor runtime, Reference[] targets, TreeExecutor.ReadKind[] kinds, boolean readln) {
+            this.runtime = runtime;
+            this.targets = targets;
+            this.kinds = kinds;
+            this.readln = readln;
+        }
+
+        public void execute() {
+            if (readln) runtime.output.flush();  // show any prompt before reading
+
+            for (int i = 0; i < targets.length; i++) {
+                Object value = runtime.read(kinds[i]);
+                targets[i].cell().setValue(value);
+            }
+
+            if (readln) runtime.skipLine();
+        }
+    }
+}
@@ -0,0 +1,536 @@
+/**
+ * <h1>TreeCompiler</h1>
+ * <p>Translate an annotated Pascal parse tree into a tree of statement
+ * and expression nodes. All operator text, type modes, slot numbers
+ * and format strings are resolved here, once, rather than every time
+ * a node executes.</p>
+ */
+
+package edu.yu.compilers.backend.interpreter.tree;
+
+import antlr4.PascalBaseVisitor;
+import antlr4.PascalParser;
+import edu.yu.compilers.backend.interpreter.WriteFormat;
+import edu.yu.compilers.intermediate.symtable.Predefined;
+import edu.yu.compilers.intermediate.symtable.SymTableEntry;
+import edu.yu.compilers.intermediate.symtable.SymTableEntry.Kind;
+import edu.yu.compilers.intermediate.type.Typespec;
+import edu.yu.compilers.intermediate.util.JumpTable;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import static edu.yu.compilers.intermediate.symtable.SymTableEntry.Kind.*;
+import static edu.yu.compilers.intermediate.type.Typespec.Form.ENUMERATION;
+import static edu.yu.compilers.intermediate.type.Typespec.Form.SUBRANGE;
+
+public class TreeCompiler extends PascalBaseVisitor<Object> {
+    private final TreeExecutor runtime;                     // executor that runs the tree
+    private final HashMap<SymTableEntry, Routine> routines; // compiled routines
+
+    /**
+     * Constructor.
+     *
+     * @param runtime the executor that will run the compiled tree.
+     */
+    public TreeCompiler(TreeExecutor runtime) {
+        this.runtime = runtime;
+        this.routines = new HashMap<>();
+    }
+
+    /**
+     * Compile the main compound statement of a program. The routines
+     * it calls are compiled as their calls are encountered.
+     *
+     * @param ctx the CompoundStatementContext.
+     * @return the compiled statement.
+     */
+    public Statement compile(PascalParser.CompoundStatementContext ctx) {
+        return statement(ctx);
+    }
+
+    private Statement statement(ParserRuleContext ctx) {
+        return (Statement) visit(ctx);
+    }
+
+    private Expression expression(ParserRuleContext ctx) {
+        return (Expression) visit(ctx);
+    }
+
+    private static Typespec base(Typespec type) {
+        return type != null ? type.baseType() : null;
+    }
+
+    private static boolean isOrdinal(Typespec type) {
+        return (type == Predefined.integerType) || (type == Predefined.charType)
+                || ((type != null) && (type.getForm() == ENUMERATION) && (type != Predefined.booleanType));
+    }
+
+    // Statements.
+
+    @Override
+    public Object visitStatement(PascalParser.StatementContext ctx) {
+        return new Statement.Counted(runtime, statement((ParserRuleContext) ctx.getChild(0)));
+    }
+
+    @Override
+    public Object visitEmptyStatement(PascalParser.EmptyStatementContext ctx) {
+        return new Statement.Empty();
+    }
+
+    @Override
+    public Object visitCompoundStatement(PascalParser.CompoundStatementContext ctx) {
+        return statement(ctx.statementList());
+    }
+
+    @Override
+    public Object visitStatementList(PascalParser.StatementListContext ctx) {
+        List<PascalParser.StatementContext> stmtCtxs = ctx.statement();
+        Statement[] statements = new Statement[stmtCtxs.size()];
+
+        for (int i = 0; i < statements.length; i++) statements[i] = statement(stmtCtxs.get(i));
+
+        return new Statement.Compound(statements);
+    }
+
+    @Override
+    public Object visitAssignmentStatement(PascalParser.AssignmentStatementContext ctx) {
+        PascalParser.VariableContext varCtx = ctx.lhs().variable();
+        Typespec targetType = varCtx.type;
+        Reference target = reference(varCtx);
+        Expression value = expression(ctx.rhs().expression());
+
+        if (targetType == Predefined.integerType) return new Statement.AssignInt(target, value);
+        else if (targetType == Predefined.realType) return new Statement.AssignReal(target, value);
+        else if ((targetType != null) && targetType.isStructured()) return new Statement.AssignStructured(target, value);
+        else return new Statement.Assign(target, value);
+    }
+
+    @Override
+    public Object visitIfStatement(PascalParser.IfStatementContext ctx) {
+        PascalParser.FalseStatementContext falseCtx = ctx.falseStatement();
+
+        return new Statement.If(expression(ctx.expression()),
+                statement(ctx.trueStatement().statement()),
+                falseCtx != null ? statement(falseCtx.statement()) : null);
+    }
+
+    @Override
+    public Object visitRepeatStatement(PascalParser.RepeatStatementContext ctx) {
+        return new Statement.Repeat(statement(ctx.statementList()), expression(ctx.expression()));
+    }
+
+    @Override
+    public Object visitWhileStatement(PascalParser.WhileStatementContext ctx) {
+        return new Statement.While(expression(ctx.expression()), statement(ctx.statement()));
+    }
+
+    @Override
+    public Object visitForStatement(PascalParser.ForStatementContext ctx) {
+        PascalParser.VariableContext controlCtx = ctx.variable();
+        Reference control = reference(controlCtx);
+        Expression start = expression(ctx.expression(0));
+        Expression stop = expression(ctx.expression(1));
+        boolean to = ctx.TO() != null;
+        Statement body = statement(ctx.statement());
+
+        return controlCtx.type.baseType() == Predefined.integerType
+                ? new Statement.ForInt(runtime, control, controlCtx.type, start, stop, to, body, ctx)
+                : new Statement.ForChar(runtime, control, controlCtx.type, start, stop, to, body, ctx);
+    }
+
+    @Override
+    public Object visitCaseStatement(PascalParser.CaseStatementContext ctx) {
+        JumpTable<Statement> jumpTable = new JumpTable<>();
+
+        for (PascalParser.CaseBranchContext branchCtx : ctx.caseBranchList().caseBranch()) {
+            PascalParser.CaseConstantListContext constListCtx = branchCtx.caseConstantList();
+            if (constListCtx == null) continue;
+
+            Statement branch = statement(branchCtx.statement());
+
+            for (PascalParser.CaseConstantContext caseConstCtx : constListCtx.caseConstant()) {
+                if (caseConstCtx.value != null) jumpTable.put(caseConstCtx.value, branch);
+            }
+        }
+
+        jumpTable.build();
+        return new Statement.Case(expression(ctx.expression()), jumpTable);
+    }
+
+    @Override
+    public Object visitProcedureCallStatement(PascalParser.ProcedureCallStatementContext ctx) {
+        SymTableEntry routineId = ctx.procedureName().entry;
+        return new Statement.ProcedureCall(routine(routineId), binders(routineId, ctx.argumentList()));
+    }
+
+    @Override
+    public Object visitWriteStatement(PascalParser.WriteStatementContext ctx) {
+        return write(ctx.writeArguments(), false);
+    }
+
+    @Override
+    public Object visitWritelnStatement(PascalParser.WritelnStatementContext ctx) {
+        return write(ctx.writeArguments(), true);
+    }
+
+    /**
+     * Compile a write or writeln statement. Each argument's format
+     * is compiled here once.
+     *
+     * @param argsCtx the WriteArgumentsContext, or null if none.
+     * @param newline true for writeln.
+     * @return the compiled statement.
+     */
+    private Statement write(PascalParser.WriteArgumentsContext argsCtx, boolean newline) {
+        List<PascalParser.WriteArgumentContext> argCtxs =
+                argsCtx != null ? argsCtx.writeArgument() : List.of();
+        Expression[] arguments = new Expression[argCtxs.size()];
+        WriteFormat[] formats = new WriteFormat[argCtxs.size()];
+
+        for (int i = 0; i < arguments.length; i++) {
+            PascalParser.WriteArgumentContext argCtx = argCtxs.get(i);
+
+            formats[i] = WriteFormat.compile(argCtx);
+            if (!formats[i].isLiteral()) arguments[i] = expression(argCtx.expression());
+        }
+
+        return new Statement.Write(runtime.output, arguments, formats, newline);
+    }
+
+    @Override
+    public Object visitReadStatement(PascalParser.ReadStatementContext ctx) {
+        return read(ctx.readArguments(), false);
+    }
+
+    @Override
+    public Object visitReadlnStatement(PascalParser.ReadlnStatementContext ctx) {
+        return read(ctx.readArguments(), true);
+    }
+
+    /**
+     * Compile a read or readln statement.
+     *
+     * @param argsCtx the ReadArgumentsContext.
+     * @param readln  true for readln.
+     * @return the compiled statement.
+     */
+    private Statement read(PascalParser.ReadArgumentsContext argsCtx, boolean readln) {
+        List<PascalParser.VariableContext> varCtxs = argsCtx.variable();
+        Reference[] targets = new Reference[varCtxs.size()];
+        TreeExecutor.ReadKind[] kinds = new TreeExecutor.ReadKind[varCtxs.size()];
+
+        for (int i = 0; i < targets.length; i++) {
+            PascalParser.VariableContext varCtx = varCtxs.get(i);
+            Typespec type = varCtx.type;
+
+            targets[i] = reference(varCtx);
+            kinds[i] = type == Predefined.integerType ? TreeExecutor.ReadKind.INTEGER
+                     : type == Predefined.realType    ? TreeExecutor.ReadKind.REAL
+                     : type == Predefined.booleanType ? TreeExecutor.ReadKind.BOOLEAN
+                     : type == Predefined.charType    ? TreeExecutor.ReadKind.CHAR
+                     :                                  TreeExecutor.ReadKind.STRING;
+        }
+
+        return new Statement.Read(runtime, targets, kinds, readln);
+    }
+
+    // Routines.
+
+    /**
+     * Get a compiled routine, compiling it the first time.
+     *
+     * @param routineId the symbol table entry of the routine's name.
+     * @return the compiled routine.
+     */
+    private Routine routine(SymTableEntry routineId) {
+        Routine routine = routines.get(routineId);
+
+        if (routine == null) {
+            routine = new Routine(runtime.runtimeStack, routineId);
+            routines.put(routineId, routine);
+            routine.setBody(statement((PascalParser.CompoundStatementContext) routineId.getExecutable()));
+        }
+
+        return routine;
+    }
+
+    /**
+     * Compile the argument binders of a call.
+     *
+     * @param routineId the symbol table entry of the routine's name.
+     * @param listCtx   the ArgumentListContext, or null if no arguments.
+     * @return the binders.
+     */
+    private Binder[] binders(SymTableEntry routineId, PascalParser.ArgumentListContext listCtx) {
+        if (listCtx == null) return new Binder[0];
+
+        ArrayList<SymTableEntry> parameters = routineId.getRoutineParameters();
+        Binder[] binders = new Binder[parameters.size()];
+
+        for (int i = 0; i < binders.length; i++) {
+            SymTableEntry paramId = parameters.get(i);
+            Typespec paramType = paramId.getType();
+            PascalParser.ExpressionContext exprCtx = listCtx.argument(i).expression();
+            int slot = paramId.getSlotNumber();
+
+            if (paramId.getKind() == REFERENCE_PARAMETER) {
+                PascalParser.VariableFactorContext factorCtx =
+                        (PascalParser.VariableFactorContext) exprCtx.simpleExpression(0).term(0).factor(0);
+                binders[i] = new Binder.ByReference(slot, reference(factorCtx.variable()));
+            } else if (paramType == Predefined.integerType) {
+                binders[i] = new Binder.IntValue(slot, expression(exprCtx));
+            } else if (paramType == Predefined.realType) {
+                binders[i] = new Binder.RealValue(slot, expression(exprCtx));
+            } else if (paramType.isStructured()) {
+                binders[i] = new Binder.StructuredValue(slot, expression(exprCtx));
+            } else {
+                binders[i] = new Binder.Value(slot, expression(exprCtx));
+            }
+        }
+
+        return binders;
+    }
+
+    // Expressions.
+
+    @Override
+    public Object visitExpression(PascalParser.ExpressionContext ctx) {
+        PascalParser.SimpleExpressionContext simpleCtx1 = ctx.simpleExpression(0);
+        Expression left = expression(simpleCtx1);
+        PascalParser.RelOpContext relOpCtx = ctx.relOp();
+
+        if (relOpCtx == null) return left;
+
+        PascalParser.SimpleExpressionContext simpleCtx2 = ctx.simpleExpression(1);
+        Expression right = expression(simpleCtx2);
+        Typespec type1 = base(simpleCtx1.type);
+        Typespec type2 = base(simpleCtx2.type);
+        String op = relOpCtx.getText();
+
+        if ((type1 == Predefined.realType) || (type2 == Predefined.realType)) {
+            return switch (op) {
+                case "=" -> new Expression.RealEqual(left, right);
+                case "<>" -> new Expression.RealNotEqual(left, right);
+                case "<" -> new Expression.RealLess(left, right);
+                case "<=" -> new Expression.RealLessEqual(left, right);
+                case ">" -> new Expression.RealGreater(left, right);
+                default -> new Expression.RealGreaterEqual(left, right);
+            };
+        } else if (isOrdinal(type1) && isOrdinal(type2)) {
+            return switch (op) {
+                case "=" -> new Expression.IntEqual(left, right);
+                case "<>" -> new Expression.IntNotEqual(left, right);
+                case "<" -> new Expression.IntLess(left, right);
+                case "<=" -> new Expression.IntLessEqual(left, right);
+                case ">" -> new Expression.IntGreater(left, right);
+                default -> new Expression.IntGreaterEqual(left, right);
+            };
+        } else {
+            return switch (op) {
+                case "=" -> new Expression.StringCompare(left, right, false, true, false);
+                case "<>" -> new Expression.StringCompare(left, right, true, false, true);
+                case "<" -> new Expression.StringCompare(left, right, true, false, false);
+                case "<=" -> new Expression.StringCompare(left, right, true, true, false);
+                case ">" -> new Expression.StringCompare(left, right, false, false, true);
+                default -> new Expression.StringCompare(left, right, false, true, true);
+            };
+        }
+    }
+
+    @Override
+    public Object visitSimpleExpression(PascalParser.SimpleExpressionContext ctx) {
+        PascalParser.TermContext termCtx1 = ctx.term(0);
+        Expression result = expression(termCtx1);
+        Typespec type = base(termCtx1.type);
+
+        if ((ctx.sign() != null) && ctx.sign().getText().equals("-")) {
+            if (type == Predefined.integerType) result = new Expression.IntNegate(result);
+            else if (type == Predefined.realType) result = new Expression.RealNegate(result);
+        }
+
+        // Each operation's mode depends on the type of the result so far.
+        for (int i = 1; i < ctx.term().size(); i++) {
+            String op = ctx.addOp(i - 1).getText().toLowerCase();
+            PascalParser.TermContext termCtx2 = ctx.term(i);
+            Expression right = expression(termCtx2);
+            Typespec type2 = base(termCtx2.type);
+
+            if ((type == Predefined.integerType) && (type2 == Predefined.integerType)) {
+                result = op.equals("+") ? new Expression.IntAdd(result, right)
+                                        : new Expression.IntSubtract(result, right);
+            } else if ((type == Predefined.realType) || (type2 == Predefined.realType)) {
+                result = op.equals("+") ? new Expression.RealAdd(result, right)
+                                        : new Expression.RealSubtract(result, right);
+                type = Predefined.realType;
+            } else if ((type == Predefined.booleanType) && (type2 == Predefined.booleanType)) {
+                result = new Expression.Or(result, right);
+            } else {
+                result = new Expression.Concatenate(result, right);
+                type = Predefined.stringType;
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public Object visitTerm(PascalParser.TermContext ctx) {
+        PascalParser.FactorContext factorCtx1 = ctx.factor(0);
+        Expression result = expression(factorCtx1);
+        Typespec type = base(factorCtx1.type);
+
+        // Each operation's mode depends on the type of the result so far.
+        for (int i = 1; i < ctx.factor().size(); i++) {
+            String op = ctx.mulOp(i - 1).getText().toLowerCase();
+            PascalParser.FactorContext factorCtx2 = ctx.factor(i);
+            Expression right = expression(factorCtx2);
+            Typespec type2 = base(factorCtx2.type);
+
+            if ((type == Predefined.integerType) && (type2 == Predefined.integerType)) {
+                switch (op) {
+                    case "*" -> result = new Expression.IntMultiply(result, right);
+                    case "div" -> result = new Expression.IntDivide(result, right, runtime, factorCtx2);
+                    case "mod" -> result = new Expression.IntModulo(result, right, runtime, factorCtx2);
+                    default -> {
+                        result = new Expression.RealDivide(result, right, runtime, factorCtx2);
+                        type = Predefined.realType;
+                    }
+                }
+            } else if ((type == Predefined.realType) || (type2 == Predefined.realType)) {
+                result = op.equals("*") ? new Expression.RealMultiply(result, right)
+                                        : new Expression.RealDivide(result, right, runtime, factorCtx2);
+                type = Predefined.realType;
+            } else {
+                result = new Expression.And(result, right);
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public Object visitVariableFactor(PascalParser.VariableFactorContext ctx) {
+        PascalParser.VariableContext varCtx = ctx.variable();
+        Kind kind = varCtx.entry.getKind();
+        Typespec type = base(varCtx.type);
+
+        // A constant's value comes from its symbol table entry.
+        if ((kind == CONSTANT) || (kind == ENUMERATION_CONSTANT)) {
+            Object value = varCtx.entry.getValue();
+
+            if (type == Predefined.booleanType) return new Expression.BooleanConstant((Integer) value != 0);
+            else if (value instanceof Integer intValue) return new Expression.IntConstant(intValue);
+            else if (value instanceof Double realValue) return new Expression.RealConstant(realValue);
+            else return new Expression.Constant(value);
+        }
+
+        // A variable's value comes from its memory cell.
+        Reference reference = reference(varCtx);
+
+        if (type == Predefined.integerType) return new Expression.IntVariable(reference);
+        else if (type == Predefined.realType) return new Expression.RealVariable(reference);
+        else if (type == Predefined.booleanType) return new Expression.BooleanVariable(reference);
+        else return new Expression.Variable(reference);
+    }
+
+    /**
+     * Compile a reference to a variable's memory cell.
+     *
+     * @param ctx the VariableContext.
+     * @return the reference.
+     */
+    private Reference reference(PascalParser.VariableContext ctx) {
+        SymTableEntry variableId = ctx.entry;
+        Typespec variableType = variableId.getType();
+        Reference reference = new Reference.FrameVariable(runtime.runtimeStack,
+                variableId.getSymTable().getNestingLevel(), variableId.getSlotNumber());
+
+        for (PascalParser.ModifierContext modCtx : ctx.modifier()) {
+            // Subscripts.
+            if (modCtx.indexList() != null) {
+                List<PascalParser.IndexContext> indexCtxs = modCtx.indexList().index();
+                int count = indexCtxs.size();
+                Expression[] indexes = new Expression[count];
+                int[] minIndexes = new int[count];
+                int[] elementCounts = new int[count];
+                int[] strides = new int[count];
+                ParserRuleContext[] ctxs = new ParserRuleContext[count];
+
+                for (int i = 0; i < count; i++) {
+                    Typespec indexType = variableType.getArrayIndexType();
+
+                    indexes[i] = expression(indexCtxs.get(i).expression());
+                    minIndexes[i] = indexType.getForm() == SUBRANGE ? indexType.getSubrangeMinValue() : 0;
+                    elementCounts[i] = variableType.getArrayElementCount();
+                    ctxs[i] = indexCtxs.get(i);
+
+                    variableType = variableType.getArrayElementType();
+                    strides[i] = variableType.getSlotCount();
+                }
+
+                reference = new Reference.Subscript(runtime, reference, indexes,
+                        minIndexes, elementCounts, strides, ctxs, variableType);
+            }
+
+            // Record field.
+            else {
+                SymTableEntry fieldId = modCtx.field().entry;
+                variableType = fieldId.getType();
+                reference = reference instanceof Reference.Field field
+                        ? field.select(fieldId.getSlotNumber(), variableType)
+                        : new Reference.Field(reference, fieldId.getSlotNumber(), variableType);
+            }
+        }
+
+        return reference;
+    }
+
+    @Override
+    public Object visitNumberFactor(PascalParser.NumberFactorContext ctx) {
+        return ctx.type == Predefined.integerType
+                ? new Expression.IntConstant(Integer.parseInt(ctx.getText()))
+                : new Expression.RealConstant(Double.parseDouble(ctx.getText()));
+    }
+
+    @Override
+    public Object visitCharacterFactor(PascalParser.CharacterFactorContext ctx) {
+        return new Expression.Constant(ctx.getText().charAt(1));
+    }
+
+    @Override
+    public Object visitStringFactor(PascalParser.StringFactorContext ctx) {
+        return new Expression.Constant(convertString(ctx.stringConstant().STRING().getText()));
+    }
+
+    @Override
+    public Object visitNotFactor(PascalParser.NotFactorContext ctx) {
+        return new Expression.Not(expression(ctx.factor()));
+    }
+
+    @Override
+    public Object visitParenthesizedFactor(PascalParser.ParenthesizedFactorContext ctx) {
+        return expression(ctx.expression());
+    }
+
+    @Override
+    public Object visitFunctionCallFactor(PascalParser.FunctionCallFactorContext ctx) {
+        PascalParser.FunctionCallContext callCtx = ctx.functionCall();
+        SymTableEntry routineId = callCtx.functionName().entry;
+
+        return new Expression.FunctionCall(routine(routineId), binders(routineId, callCtx.argumentList()));
+    }
+
+    /**
+     * Convert a Pascal string to a Java string.
+     *
+     * @param pascalString the Pascal string.
+     * @return the Java string.
+     */
+    private static String convertString(String pascalString) {
+        String unquoted = pascalString.substring(1, pascalString.length() - 1);
+        return unquoted.replace("''", "'");
+    }
+}
@@ -0,0 +1,126 @@
+/**
+ * <h1>TreeExecutor</h1>
+ * <p>Execute a Pascal program by first compiling its annotated parse
+ * tree into a tree of typed statement and expression nodes and then
+ * running the nodes. The visitor-based Executor remains the reference
+ * implementation; this executor produces the same output and
+ * statement execution count.</p>
+ */
+
+package edu.yu.compilers.backend.interpreter.tree;
+
+import antlr4.PascalParser;
+import edu.yu.compilers.backend.interpreter.InputReader;
+import edu.yu.compilers.backend.interpreter.OutputBuffer;
+import edu.yu.compilers.backend.interpreter.RuntimeErrorHandler;
+import edu.yu.compilers.backend.interpreter.RuntimeStack;
+import edu.yu.compilers.backend.interpreter.StackFrame;
+import edu.yu.compilers.intermediate.symtable.SymTableEntry;
+import edu.yu.compilers.intermediate.type.Typespec;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+import static edu.yu.compilers.backend.interpreter.RuntimeErrorHandler.Code.VALUE_RANGE;
+import static edu.yu.compilers.intermediate.type.Typespec.Form.SUBRANGE;
+
+public class TreeExecutor {
+    int executionCount = 0;                  // count of executed statements
+    final RuntimeStack runtimeStack;         // runtime stack
+    final OutputBuffer output;               // runtime output
+    final RuntimeErrorHandler error;         // runtime error handler
+    private final SymTableEntry programId;   // program identifier's symbol table entry
+    private final InputReader input;         // runtime input
+    private long elapsedTime = 0L;           // elapsed execution time in ms
+
+    /**
+     * Constructor.
+     *
+     * @param programId the program identifier's symbol table entry.
+     */
+    public TreeExecutor(SymTableEntry programId) {
+        this.programId = programId;
+        this.runtimeStack = new RuntimeStack();
+        this.output = new OutputBuffer();
+        this.error = new RuntimeErrorHandler(output);
+        this.input = new InputReader(System.in);
+    }
+
+    public int getExecutionCount() {
+        return executionCount;
+    }
+
+    public long getElapsedTime() {
+        return elapsedTime;
+    }
+
+    /**
+     * Compile and execute the program.
+     *
+     * @param ctx the ProgramContext.
+     */
+    public void execute(PascalParser.ProgramContext ctx) {
+        Statement program = new TreeCompiler(this).compile(ctx.block().compoundStatement());
+
+        long startTime = System.currentTimeMillis();
+
+        runtimeStack.push(new StackFrame(programId));
+        try {
+            program.execute();
+        } finally {
+            output.flush();
+        }
+
+        elapsedTime = System.currentTimeMillis() - startTime;
+    }
+
+    /**
+     * Check that every value a subrange FOR control variable will take
+     * is in range, by checking the initial and terminal values once.
+     *
+     * @param controlType the type of the control variable.
+     * @param start       the initial value.
+     * @param stop        the terminal value.
+     * @param to          true for TO, false for DOWNTO.
+     * @param ctx         the ForStatementContext.
+     */
+    void checkControlRange(Typespec controlType, int start, int stop, boolean to, ParserRuleContext ctx) {
+        if (controlType.getForm() != SUBRANGE) return;
+
+        boolean executes = to ? start <= stop : start >= stop;
+        int min = controlType.getSubrangeMinValue();
+        int max = controlType.getSubrangeMaxValue();
+
+        if (executes && ((start < min) || (start > max) || (stop < min) || (stop > max))) {
+            error.flag(VALUE_RANGE, ctx);
+        }
+    }
+
+    /**
+     * The kinds of values that read and readln accept.
+     */
+    enum ReadKind {
+        INTEGER, REAL, BOOLEAN, CHAR, STRING
+    }
+
+    /**
+     * Read a value from the runtime input.
+     *
+     * @param kind the kind of value.
+     * @return the value.
+     */
+    Object read(ReadKind kind) {
+        return switch (kind) {
+            case INTEGER -> input.readInteger();
+            case REAL -> input.readReal();
+            case BOOLEAN -> input.readBoolean();
+            case CHAR -> input.readChar();
+            case STRING -> input.readString();
+        };
+    }
+
+    /**
+     * Skip the rest of the current input line.
+     */
+    void skipLine() {
+        input.skipLine();
+    }
+}
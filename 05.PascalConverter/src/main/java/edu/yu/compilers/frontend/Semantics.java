@@ -17,6 +17,7 @@ import edu.yu.compilers.intermediate.type.Typespec;
 import edu.yu.compilers.intermediate.type.Typespec.Form;
 import edu.yu.compilers.intermediate.util.BackendMode;
 import edu.yu.compilers.intermediate.util.CrossReferencer;
+import edu.yu.compilers.intermediate.util.JumpTable;
 
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -232,6 +233,7 @@ public class Semantics extends PascalBaseVisitor<Object> {
         // Enter the record fields into the record type's symbol table.
         SymTable recordSymTable = createRecordSymTable(recordTypeCtx.recordFields(), recordTypeId);
         recordType.setRecordSymTable(recordSymTable);
+        layoutRecordFields(recordType);
 
         recordTypeCtx.entry = recordTypeId;
         recordTypeSpecCtx.type = recordType;
@@ -277,6 +279,30 @@ public class Semantics extends PascalBaseVisitor<Object> {
         return recordSymTable;
     }
 
+    /**
+     * Lay out a record's fields end to end in a flat block of runtime
+     * slots. Each field's slot number becomes its offset within the
+     * record, and nested records and arrays are laid out inline.
+     *
+     * @param recordType the record type.
+     */
+    private void layoutRecordFields(Typespec recordType) {
+        ArrayList<SymTableEntry> fieldIds = recordType.getRecordSymTable().sortedEntries();
+        int offset = 0;
+
+        // Keep the fields in declaration order.
+        fieldIds.sort((id1, id2) -> id1.getSlotNumber() - id2.getSlotNumber());
+
+        for (SymTableEntry fieldId : fieldIds) {
+            Typespec fieldType = fieldId.getType();
+
+            fieldId.setSlotNumber(offset);
+            offset += (fieldType != null) ? fieldType.getSlotCount() : 1;
+        }
+
+        recordType.setRecordSize(offset);
+    }
+
     @Override
     public Object visitSimpleTypespec(PascalParser.SimpleTypespecContext ctx) {
         visit(ctx.simpleType());
@@ -458,11 +484,10 @@ public class Semantics extends PascalBaseVisitor<Object> {
                 variableId = symTableStack.enterLocal(variableName, VARIABLE);
                 variableId.setType(typeCtx.type);
 
-                // Assign slot numbers to local variables.
+                // Assign slot numbers to variables at every level.
+                // The interpreter's stack frames are indexed by them.
                 SymTable symTable = variableId.getSymTable();
-                if (symTable.getNestingLevel() > 1) {
-                    variableId.setSlotNumber(symTable.nextSlotNumber());
-                }
+                variableId.setSlotNumber(symTable.nextSlotNumber());
 
                 idCtx.entry = variableId;
             }
@@ -650,6 +675,7 @@ public class Semantics extends PascalBaseVisitor<Object> {
         }
 
         HashSet<Object> constants = new HashSet<>();
+        JumpTable<PascalParser.StatementContext> jumpTable = new JumpTable<>();
         PascalParser.CaseBranchListContext branchListCtx = ctx.caseBranchList();
 
         // Loop over the CASE branches.
@@ -675,12 +701,16 @@ public class Semantics extends PascalBaseVisitor<Object> {
                     }
 
                     constants.add(caseConstCtx.value);
+                    if (caseConstCtx.value != null) jumpTable.put(caseConstCtx.value, stmtCtx);
                 }
             }
 
             if (stmtCtx != null) visit(stmtCtx);
         }
 
+        jumpTable.build();
+        ctx.jumpTable = jumpTable;
+
         return null;
     }
 
@@ -779,6 +809,16 @@ public class Semantics extends PascalBaseVisitor<Object> {
         SymTableEntry functionId = symTableStack.lookup(name);
         boolean badName = false;
 
+        // Within a function, its name also denotes its associated variable.
+        // A call by that name is a recursive call to the function itself.
+        if ((functionId != null) && (functionId.getKind() == VARIABLE)) {
+            SymTableEntry ownerId = functionId.getSymTable().getOwner();
+
+            if ((ownerId.getKind() == FUNCTION) && ownerId.getName().equals(name)) {
+                functionId = ownerId;
+            }
+        }
+
         ctx.type = Predefined.integerType;
 
         if (functionId == null) {
@@ -50,6 +50,7 @@ public class Typespec {
                 info = new RecordInfo();
                 ((RecordInfo) info).typePath = null;
                 ((RecordInfo) info).symTable = null;
+                ((RecordInfo) info).size = 0;
             }
             default -> {
             }
@@ -278,6 +279,40 @@ public class Typespec {
         ((RecordInfo) info).typePath = typePath;
     }
 
+    /**
+     * Get the number of runtime slots that a record's fields occupy.
+     *
+     * @return the size.
+     */
+    public int getRecordSize() {
+        return ((RecordInfo) info).size;
+    }
+
+    /**
+     * Set the number of runtime slots that a record's fields occupy.
+     *
+     * @param size the size to set.
+     */
+    public void setRecordSize(int size) {
+        ((RecordInfo) info).size = size;
+    }
+
+    /**
+     * Get the number of runtime slots that a value of this type
+     * occupies in a flat layout: one for a scalar, the sum of the
+     * fields for a record, and the elements laid end to end for
+     * an array.
+     *
+     * @return the slot count.
+     */
+    public int getSlotCount() {
+        return switch (form) {
+            case ARRAY -> getArrayElementCount() * getArrayElementType().getSlotCount();
+            case RECORD -> getRecordSize();
+            default -> 1;
+        };
+    }
+
     public enum Form {
         SCALAR, ENUMERATION, SUBRANGE, ARRAY, RECORD, UNKNOWN;
 
@@ -323,5 +358,6 @@ public class Typespec {
     private static class RecordInfo implements TypeInfo {
         String typePath;
         private SymTable symTable;
+        private int size;
     }
 }
@@ -0,0 +1,101 @@
+/**
+ * <h1>JumpTable</h1>
+ * <p>Maps the constants of a CASE statement to their branch targets.
+ * Semantics builds the table once. When the constants are integer,
+ * character or enumeration values that span a small enough range,
+ * lookups index a dense array by (value - min). Otherwise they
+ * fall back to a hash map.</p>
+ */
+
+package edu.yu.compilers.intermediate.util;
+
+import java.util.HashMap;
+
+public class JumpTable<T> {
+    private static final int MAX_SPAN_PER_CONSTANT = 4;  // density limit of the dense array
+    private static final int MIN_DENSE_SPAN = 16;        // any span this small is dense
+
+    private final HashMap<Object, T> targets;  // branch targets by constant value
+    private Object[] dense;                    // branch targets by (value - min), or null
+    private int min;                           // smallest constant value of a dense table
+
+    /**
+     * Constructor.
+     */
+    public JumpTable() {
+        this.targets = new HashMap<>();
+        this.dense = null;
+        this.min = 0;
+    }
+
+    /**
+     * Enter a constant and its branch target. If the constant is already
+     * in the table, its first branch target is kept.
+     *
+     * @param value  the constant value.
+     * @param target the branch target.
+     */
+    public void put(Object value, T target) {
+        targets.putIfAbsent(value, target);
+    }
+
+    /**
+     * Build the dense array if the constants are ordinal values
+     * whose range is small enough. Call after entering all the constants.
+     */
+    public void build() {
+        if (targets.isEmpty()) return;
+
+        int low = Integer.MAX_VALUE;
+        int high = Integer.MIN_VALUE;
+
+        for (Object value : targets.keySet()) {
+            if (!isOrdinal(value)) return;
+
+            int ordinal = ordinal(value);
+            low = Math.min(low, ordinal);
+            high = Math.max(high, ordinal);
+        }
+
+        long span = (long) high - low + 1;
+        if ((span > MIN_DENSE_SPAN) && (span > (long) MAX_SPAN_PER_CONSTANT * targets.size())) return;
+
+        dense = new Object[(int) span];
+        min = low;
+
+        for (var entry : targets.entrySet()) {
+            dense[ordinal(entry.getKey()) - min] = entry.getValue();
+        }
+    }
+
+    /**
+     * Determine whether lookups use the dense array.
+     *
+     * @return true if dense, false if hashed.
+     */
+    public boolean isDense() {
+        return dense != null;
+    }
+
+    /**
+     * Look up the branch target of a selector value.
+     *
+     * @param value the selector value.
+     * @return the branch target, or null if no constant matches.
+     */
+    @SuppressWarnings("unchecked")
+    public T lookup(Object value) {
+        if (dense == null) return targets.get(value);
+
+        int index = ordinal(value) - min;
+        return (index >= 0) && (index < dense.length) ? (T) dense[index] : null;
+    }
+
+    private static boolean isOrdinal(Object value) {
+        return (value instanceof Integer) || (value instanceof Character);
+    }
+
+    private static int ordinal(Object value) {
+        return value instanceof Character ch ? ch : (Integer) value;
+    }
+}
@@ -0,0 +1,109 @@
+package edu.yu.compilers;
+
+import edu.yu.compilers.backend.interpreter.ArrayStorage;
+import edu.yu.compilers.backend.interpreter.Cell;
+import edu.yu.compilers.intermediate.symtable.Predefined;
+import edu.yu.compilers.intermediate.symtable.SymTableStack;
+import edu.yu.compilers.intermediate.type.Typespec;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static edu.yu.compilers.intermediate.type.Typespec.Form.ARRAY;
+import static edu.yu.compilers.intermediate.type.Typespec.Form.RECORD;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArrayStorageTest {
+
+    @BeforeAll
+    static void initializePredefined() {
+        Predefined.initialize(new SymTableStack());
+    }
+
+    static Typespec arrayType(Typespec elementType, int elementCount) {
+        Typespec type = new Typespec(ARRAY);
+        type.setArrayElementType(elementType);
+        type.setArrayElementCount(elementCount);
+        return type;
+    }
+
+    @Test
+    @DisplayName("Storage is allocated only for scalar base types")
+    void testAllocate() {
+        Typespec matrix = arrayType(arrayType(Predefined.realType, 4), 3);
+
+        assertEquals(12, ArrayStorage.flatCount(matrix));
+        assertNotNull(ArrayStorage.allocate(matrix));
+        assertNotNull(ArrayStorage.allocate(arrayType(Predefined.booleanType, 2)));
+        assertNull(ArrayStorage.allocate(arrayType(new Typespec(RECORD), 2)));
+    }
+
+    @Test
+    @DisplayName("Elements start out zero and keep their primitive values")
+    void testValues() {
+        ArrayStorage ints = ArrayStorage.allocate(arrayType(Predefined.integerType, 3));
+        ArrayStorage reals = ArrayStorage.allocate(arrayType(Predefined.realType, 3));
+        ArrayStorage chars = ArrayStorage.allocate(arrayType(Predefined.charType, 3));
+        ArrayStorage booleans = ArrayStorage.allocate(arrayType(Predefined.booleanType, 3));
+
+        assertEquals(0, ints.get(2));
+        assertEquals(0.0, reals.get(2));
+        assertEquals('\0', chars.get(2));
+        assertEquals(false, booleans.get(2));
+
+        ints.setInt(0, -7);
+        ints.set(1, Integer.MAX_VALUE);
+        reals.setDouble(0, 2.5);
+        reals.set(1, -0.0);
+        chars.set(0, 'q');
+        booleans.set(1, true);
+
+        assertEquals(-7, ints.get(0));
+        assertEquals(Integer.MAX_VALUE, ints.getInt(1));
+        assertEquals(2.5, reals.get(0));
+        assertEquals(-0.0, reals.getDouble(1));
+        assertEquals('q', chars.get(0));
+        assertTrue(booleans.getBoolean(1));
+        assertFalse(booleans.getBoolean(0));
+    }
+
+    @Test
+    @DisplayName("A slice is a view of a row of the same storage")
+    void testSlice() {
+        Typespec row = arrayType(Predefined.integerType, 4);
+        ArrayStorage matrix = ArrayStorage.allocate(arrayType(row, 3));
+
+        for (int i = 0; i < 12; i++) matrix.setInt(i, i);
+
+        ArrayStorage second = matrix.slice(4, row);
+        assertSame(row, second.getType());
+        assertEquals(4, second.getInt(0));
+        assertEquals(7, second.getInt(3));
+
+        second.setInt(1, 50);
+        assertEquals(50, matrix.getInt(5));
+
+        ArrayStorage copy = ArrayStorage.allocate(row);
+        copy.copyFrom(second);
+        second.setInt(1, 60);
+        assertEquals(50, copy.getInt(1));
+        assertEquals(4, copy.getInt(0));
+    }
+
+    @Test
+    @DisplayName("Element cells read and write in place")
+    void testElementCells() {
+        Typespec row = arrayType(Predefined.realType, 2);
+        ArrayStorage matrix = ArrayStorage.allocate(arrayType(row, 2));
+        ArrayStorage second = matrix.slice(2, row);
+
+        Cell cell = second.element(1);
+        cell.setValue(1.25);
+        assertEquals(1.25, matrix.getDouble(3));
+        assertEquals(1.25, matrix.element(3).getValue());
+
+        matrix.setDouble(3, 4.5);
+        assertEquals(4.5, cell.getValue());
+        assertEquals(0.0, matrix.element(2).getValue());
+    }
+}
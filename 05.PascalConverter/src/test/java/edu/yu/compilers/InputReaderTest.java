@@ -0,0 +1,174 @@
+package edu.yu.compilers;
+
+import edu.yu.compilers.backend.interpreter.InputReader;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InputReaderTest {
+
+    private static InputReader reader(String input) {
+        return new InputReader(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * A reader whose stream returns at most a few bytes per read,
+     * so that values and characters straddle buffer refills.
+     */
+    private static InputReader chunkedReader(String input, int chunkSize) {
+        InputStream in = new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, chunkSize));
+            }
+        };
+        return new InputReader(in);
+    }
+
+    @Test
+    @DisplayName("Integers with signs and leading blanks")
+    void testIntegers() {
+        InputReader input = reader("  42\t+7\n\n  -13 2147483647 -2147483648");
+
+        assertEquals(42, input.readInteger());
+        assertEquals(7, input.readInteger());
+        assertEquals(-13, input.readInteger());
+        assertEquals(Integer.MAX_VALUE, input.readInteger());
+        assertEquals(Integer.MIN_VALUE, input.readInteger());
+        assertThrows(NoSuchElementException.class, input::readInteger);
+    }
+
+    @Test
+    @DisplayName("Bad integers")
+    void testBadIntegers() {
+        assertThrows(InputMismatchException.class, () -> reader("2147483648").readInteger());
+        assertThrows(InputMismatchException.class, () -> reader("-2147483649").readInteger());
+        assertThrows(InputMismatchException.class, () -> reader("99999999999999999999").readInteger());
+        assertThrows(InputMismatchException.class, () -> reader("12abc").readInteger());
+        assertThrows(InputMismatchException.class, () -> reader("- 5").readInteger());
+        assertThrows(InputMismatchException.class, () -> reader("+").readInteger());
+        assertThrows(InputMismatchException.class, () -> reader("1.5").readInteger());
+    }
+
+    @Test
+    @DisplayName("Reals convert as Double.parseDouble does")
+    void testReals() {
+        String[] texts = {
+            "0", "3", "-0", "-0.0", "+2.5", "0.1", ".5", "5.", "123.456", "-2.5E-2", "1.5e3",
+            "1e22", "1e23", "1e-22", "1e-23", "1e400", "1e-400", "9007199254740993",
+            "12345678901234567890.5", "0.30000000000000004", "2.2250738585072014E-308"
+        };
+        InputReader input = reader(" " + String.join("\n ", texts) + "\n");
+
+        for (String text : texts) {
+            assertEquals(Double.parseDouble(text), input.readReal(), text);
+        }
+        assertThrows(NoSuchElementException.class, input::readReal);
+    }
+
+    @Test
+    @DisplayName("Bad reals")
+    void testBadReals() {
+        assertThrows(InputMismatchException.class, () -> reader("1e").readReal());
+        assertThrows(InputMismatchException.class, () -> reader("1.5x").readReal());
+        assertThrows(InputMismatchException.class, () -> reader("abc").readReal());
+        assertThrows(InputMismatchException.class, () -> reader("-").readReal());
+    }
+
+    @Test
+    @DisplayName("Booleans and strings are whitespace-delimited tokens")
+    void testTokens() {
+        InputReader input = reader("TRUE false  hello world\nmaybe");
+
+        assertTrue(input.readBoolean());
+        assertFalse(input.readBoolean());
+        assertEquals("hello", input.readString());
+        assertEquals("world", input.readString());
+        assertThrows(InputMismatchException.class, input::readBoolean);
+        assertThrows(NoSuchElementException.class, input::readString);
+    }
+
+    @Test
+    @DisplayName("A char read returns the next character, even a line separator")
+    void testChars() {
+        InputReader input = reader("5\nx é€😀");
+
+        assertEquals(5, input.readInteger());
+        assertEquals('\n', input.readChar());
+        assertEquals('x', input.readChar());
+        assertEquals(' ', input.readChar());
+        assertEquals('é', input.readChar());
+        assertEquals('€', input.readChar());
+        assertEquals('\uD83D', input.readChar());
+        assertEquals('\uDE00', input.readChar());
+        assertThrows(NoSuchElementException.class, input::readChar);
+    }
+
+    @Test
+    @DisplayName("Skipping a line consumes its line separator")
+    void testSkipLine() {
+        InputReader input = reader("1 2 3\r\n4\n\r5\rz\n");
+
+        assertEquals(1, input.readInteger());
+        input.skipLine();
+        assertEquals(4, input.readInteger());
+        input.skipLine();
+        input.skipLine();
+        assertEquals(5, input.readInteger());
+        input.skipLine();
+        assertEquals('z', input.readChar());
+        input.skipLine();
+        assertThrows(NoSuchElementException.class, input::skipLine);
+    }
+
+    @Test
+    @DisplayName("Skipping a line at the end of the input")
+    void testSkipLastLine() {
+        InputReader input = reader("7 8");
+
+        assertEquals(7, input.readInteger());
+        input.skipLine();
+        assertThrows(NoSuchElementException.class, input::skipLine);
+        assertThrows(NoSuchElementException.class, input::readInteger);
+    }
+
+    @Test
+    @DisplayName("Values and characters straddle buffer refills")
+    void testRefills() {
+        String text = "  -123456\r\n3.14159e2 é😀 true\nlast";
+
+        for (int chunkSize = 1; chunkSize <= 4; chunkSize++) {
+            InputReader input = chunkedReader(text, chunkSize);
+
+            assertEquals(-123456, input.readInteger());
+            input.skipLine();
+            assertEquals(314.159, input.readReal());
+            assertEquals(' ', input.readChar());
+            assertEquals('é', input.readChar());
+            assertEquals('\uD83D', input.readChar());
+            assertEquals('\uDE00', input.readChar());
+            assertTrue(input.readBoolean());
+            input.skipLine();
+            assertEquals("last", input.readString());
+            assertThrows(NoSuchElementException.class, input::readString);
+        }
+    }
+
+    @Test
+    @DisplayName("A value that crosses the end of a full buffer")
+    void testBufferBoundary() {
+        for (int padding = 64*1024 - 4; padding <= 64*1024 + 1; padding++) {
+            InputReader input = reader(" ".repeat(padding) + "12345 6");
+
+            assertEquals(12345, input.readInteger(), "padding " + padding);
+            assertEquals(6, input.readInteger(), "padding " + padding);
+        }
+    }
+}
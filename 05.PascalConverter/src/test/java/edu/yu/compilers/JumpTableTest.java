@@ -0,0 +1,106 @@
+package edu.yu.compilers;
+
+import edu.yu.compilers.intermediate.util.JumpTable;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JumpTableTest {
+
+    private static JumpTable<String> table(Object... constants) {
+        JumpTable<String> table = new JumpTable<>();
+        for (Object constant : constants) table.put(constant, "to " + constant);
+        table.build();
+        return table;
+    }
+
+    @Test
+    @DisplayName("Integers in a small range index a dense array")
+    void testDenseIntegers() {
+        JumpTable<String> table = table(-3, 0, 2, 5);
+
+        assertTrue(table.isDense());
+        assertEquals("to -3", table.lookup(-3));
+        assertEquals("to 0", table.lookup(0));
+        assertEquals("to 5", table.lookup(5));
+        assertNull(table.lookup(1));
+        assertNull(table.lookup(-4));
+        assertNull(table.lookup(6));
+        assertNull(table.lookup(Integer.MIN_VALUE));
+        assertNull(table.lookup(Integer.MAX_VALUE));
+    }
+
+    @Test
+    @DisplayName("Characters index a dense array")
+    void testDenseCharacters() {
+        JumpTable<String> table = table('a', 'c', 'f', 'k');
+
+        assertTrue(table.isDense());
+        assertEquals("to a", table.lookup('a'));
+        assertEquals("to k", table.lookup('k'));
+        assertNull(table.lookup('b'));
+        assertNull(table.lookup('z'));
+        assertNull(table.lookup('A'));
+        assertFalse(table('a', 'e', 'i', 'o', 'u').isDense());
+    }
+
+    @Test
+    @DisplayName("The density limit of the dense array")
+    void testDensityLimit() {
+        assertTrue(table(0).isDense());
+        assertTrue(table(0, 15).isDense());
+        assertFalse(table(0, 16).isDense());
+        assertFalse(table(0, 1, 2, 16).isDense());
+        assertTrue(table(0, 1, 2, 3, 16).isDense());
+        assertFalse(table(1, 1000).isDense());
+    }
+
+    @Test
+    @DisplayName("Sparse and extreme constants are hashed")
+    void testHashed() {
+        JumpTable<String> table = table(Integer.MIN_VALUE, 0, Integer.MAX_VALUE);
+
+        assertFalse(table.isDense());
+        assertEquals("to " + Integer.MIN_VALUE, table.lookup(Integer.MIN_VALUE));
+        assertEquals("to 0", table.lookup(0));
+        assertEquals("to " + Integer.MAX_VALUE, table.lookup(Integer.MAX_VALUE));
+        assertNull(table.lookup(1));
+    }
+
+    @Test
+    @DisplayName("Constants that are not ordinal values are hashed")
+    void testNonOrdinal() {
+        JumpTable<String> table = table(1, "one", 2);
+
+        assertFalse(table.isDense());
+        assertEquals("to one", table.lookup("one"));
+        assertEquals("to 2", table.lookup(2));
+        assertNull(table.lookup("two"));
+    }
+
+    @Test
+    @DisplayName("A repeated constant keeps its first target")
+    void testRepeatedConstant() {
+        JumpTable<String> table = new JumpTable<>();
+        table.put(4, "first");
+        table.put(4, "second");
+        table.put(6, "other");
+
+        assertEquals("first", table.lookup(4));
+        table.build();
+        assertTrue(table.isDense());
+        assertEquals("first", table.lookup(4));
+        assertEquals("other", table.lookup(6));
+    }
+
+    @Test
+    @DisplayName("An empty table finds nothing")
+    void testEmpty() {
+        JumpTable<String> table = table();
+
+        assertFalse(table.isDense());
+        assertNull(table.lookup(0));
+        assertNull(table.lookup('a'));
+    }
+}
@@ -4,6 +4,7 @@ import antlr4.PascalLexer;
 import antlr4.PascalParser;
 import edu.yu.compilers.backend.converter.Converter;
 import edu.yu.compilers.backend.interpreter.Executor;
+import edu.yu.compilers.backend.interpreter.tree.TreeExecutor;
 import edu.yu.compilers.frontend.Semantics;
 import edu.yu.compilers.frontend.SyntaxErrorHandler;
 import edu.yu.compilers.intermediate.symtable.SymTableEntry;
@@ -148,6 +149,37 @@ class OfficialTest {
         logger.info("===== END {} =====", fileName);
     }
 
+    @ParameterizedTest(name = "Test {0}")
+    @MethodSource("execTestInput")
+    @DisplayName("Pascal Tree Execution")
+    public void TestTreeExecution(String fileName, int execCount) {
+        logger.info("===== {} =====", fileName);
+
+        var tree = parseProgram(fileName);
+
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        final String utf8 = StandardCharsets.UTF_8.name();
+        int executionCount = assertDoesNotThrow(() -> {
+            try (PrintStream ps = new PrintStream(baos, true, utf8)) {
+                var programId = semanticChecks(tree, 0);
+                System.setOut(ps);
+                var pass3 = new TreeExecutor(programId);
+                pass3.execute((PascalParser.ProgramContext) tree);
+                System.setOut(System.out);
+                return pass3.getExecutionCount();
+            }
+        });
+
+        assertEquals(execCount, executionCount, "Code execution count differences");
+
+        InputStreamReader isr = new InputStreamReader(new ByteArrayInputStream(baos.toByteArray()));
+        File outputFile = getResourceFile("/output/" + fileName + ".txt");
+        int breaks = checkResults(isr, outputFile);
+
+        assertEquals(0, breaks);
+        logger.info("===== END {} =====", fileName);
+    }
+
     @ParameterizedTest(name = "Test {0}")
     @MethodSource("convertTestInput")
     @DisplayName("Java Conversion")
@@ -0,0 +1,122 @@
+package edu.yu.compilers;
+
+import edu.yu.compilers.backend.interpreter.Cell;
+import edu.yu.compilers.backend.interpreter.SlotStorage;
+import edu.yu.compilers.intermediate.symtable.Predefined;
+import edu.yu.compilers.intermediate.symtable.SymTableStack;
+import edu.yu.compilers.intermediate.type.Typespec;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static edu.yu.compilers.intermediate.type.Typespec.Form.RECORD;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlotStorageTest {
+
+    private static Typespec pointType;  // x at slot 0, y at slot 1
+    private static Typespec tagsType;   // array of 3 integers
+    private static Typespec shapeType;  // id at 0, corner point at 1, tags at 3
+    private static Typespec shapesType; // array of 2 shapes
+
+    @BeforeAll
+    static void initializeTypes() {
+        Predefined.initialize(new SymTableStack());
+
+        pointType = recordType(2);
+        tagsType = ArrayStorageTest.arrayType(Predefined.integerType, 3);
+        shapeType = recordType(6);
+        shapesType = ArrayStorageTest.arrayType(shapeType, 2);
+    }
+
+    private static Typespec recordType(int size) {
+        Typespec type = new Typespec(RECORD);
+        type.setRecordSize(size);
+        return type;
+    }
+
+    @Test
+    @DisplayName("Scalar slots are read and written in place")
+    void testScalars() {
+        SlotStorage point = new SlotStorage(pointType);
+
+        assertNull(point.get(0));
+        point.set(0, 3);
+        point.cell(1, Predefined.integerType).setValue(4);
+
+        assertEquals(3, point.cell(0, Predefined.integerType).getValue());
+        assertEquals(4, point.get(1));
+    }
+
+    @Test
+    @DisplayName("Nested records and arrays are views of the same slots")
+    void testViews() {
+        SlotStorage shapes = new SlotStorage(shapesType);
+        SlotStorage second = (SlotStorage) shapes.cell(6, shapeType).getValue();
+        SlotStorage corner = (SlotStorage) second.cell(1, pointType).getValue();
+        SlotStorage tags = (SlotStorage) second.cell(3, tagsType).getValue();
+
+        assertSame(shapeType, second.getType());
+        assertSame(pointType, corner.getType());
+
+        second.set(0, 20);
+        corner.set(1, 5);
+        tags.set(2, 99);
+
+        assertEquals(20, shapes.get(6));
+        assertEquals(5, shapes.get(8));
+        assertEquals(99, shapes.get(11));
+        assertEquals(99, shapes.cell(11, Predefined.integerType).getValue());
+    }
+
+    @Test
+    @DisplayName("Cells are made once and reused")
+    void testCellReuse() {
+        SlotStorage shapes = new SlotStorage(shapesType);
+        Cell shape = shapes.cell(6, shapeType);
+        SlotStorage second = (SlotStorage) shape.getValue();
+
+        assertSame(shape, shapes.cell(6, shapeType));
+        assertSame(second.cell(1, pointType), second.cell(1, pointType));
+        assertSame(shapes.cell(7, Predefined.integerType), second.cell(1, Predefined.integerType));
+        assertNotSame(shapes.cell(0, Predefined.integerType), second.cell(0, Predefined.integerType));
+    }
+
+    @Test
+    @DisplayName("Values of different types that start at the same slot")
+    void testSharedStartSlot() {
+        Typespec holderType = recordType(4);  // tags at 0, count at 3
+        SlotStorage holder = new SlotStorage(ArrayStorageTest.arrayType(holderType, 1));
+
+        SlotStorage record = (SlotStorage) holder.cell(0, holderType).getValue();
+        SlotStorage tags = (SlotStorage) holder.cell(0, tagsType).getValue();
+        assertSame(holderType, record.getType());
+        assertSame(tagsType, tags.getType());
+        assertSame(holderType, ((SlotStorage) holder.cell(0, holderType).getValue()).getType());
+
+        tags.set(0, 1);
+        record.set(3, 2);
+        assertEquals(1, record.get(0));
+        assertEquals(2, holder.get(3));
+    }
+
+    @Test
+    @DisplayName("Copying a nested value copies only its slots")
+    void testCopyFrom() {
+        SlotStorage shapes = new SlotStorage(shapesType);
+        for (int i = 0; i < 12; i++) shapes.set(i, i);
+
+        SlotStorage first = (SlotStorage) shapes.cell(0, shapeType).getValue();
+        SlotStorage second = (SlotStorage) shapes.cell(6, shapeType).getValue();
+        SlotStorage copy = new SlotStorage(shapeType);
+
+        copy.copyFrom(second);
+        first.copyFrom(copy);
+        second.set(0, -1);
+
+        assertEquals(6, shapes.get(0));
+        assertEquals(11, shapes.get(5));
+        assertEquals(-1, shapes.get(6));
+        assertEquals(6, copy.get(0));
+    }
+}
@@ -0,0 +1,143 @@
+package edu.yu.compilers;
+
+import antlr4.PascalLexer;
+import antlr4.PascalParser;
+import edu.yu.compilers.backend.interpreter.OutputBuffer;
+import edu.yu.compilers.backend.interpreter.WriteFormat;
+import edu.yu.compilers.frontend.Semantics;
+import edu.yu.compilers.intermediate.util.BackendMode;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteFormatTest {
+
+    private static final String PROGRAM = """
+            PROGRAM Formats;
+            VAR i : integer; r : real; b : boolean; c : char;
+            BEGIN
+                write(i, i:6, i:-6, i:06, i:+3, i:1);
+                write(r, r:12, r:8:2, r:-9:3, r:1:0, r:010:2, r:4:10);
+                write(b, b:7, b:-7);
+                write(c, c:3, c:-3);
+                write('it''s', 'x')
+            END.
+            """;
+
+    private static final Object[] INTEGERS = {
+        0, 7, -42, 123456789, Integer.MAX_VALUE, Integer.MIN_VALUE
+    };
+    private static final Object[] REALS = {
+        0.0, -0.0, 1.0, 2.5, -2.5, 0.125, 2.675, 3.14159265, -1234.5678, 1e-7, 5e-7,
+        1e20, 123456789.987654321, Double.MAX_VALUE, Double.MIN_VALUE,
+        Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY
+    };
+    private static final Object[] BOOLEANS = { true, false, null };
+    private static final Object[] CHARS = { 'x', ' ', 'é' };
+
+    private static List<WriteFormat> formats;
+
+    /**
+     * Compile the formats of every write argument of the program.
+     */
+    @BeforeAll
+    static void compileFormats() {
+        PascalParser parser = new PascalParser(new CommonTokenStream(
+                new PascalLexer(CharStreams.fromString(PROGRAM))));
+        ParseTree tree = parser.program();
+        assertEquals(0, parser.getNumberOfSyntaxErrors());
+
+        Semantics semantics = new Semantics(BackendMode.EXECUTOR);
+        semantics.visit(tree);
+        assertEquals(0, semantics.getErrorCount());
+
+        List<PascalParser.WriteArgumentContext> argCtxs = new ArrayList<>();
+        collectArguments(tree, argCtxs);
+
+        formats = new ArrayList<>();
+        for (PascalParser.WriteArgumentContext argCtx : argCtxs) formats.add(WriteFormat.compile(argCtx));
+    }
+
+    private static void collectArguments(ParseTree tree, List<PascalParser.WriteArgumentContext> argCtxs) {
+        if (tree instanceof PascalParser.WriteArgumentContext argCtx) argCtxs.add(argCtx);
+
+        for (int i = 0; i < tree.getChildCount(); i++) collectArguments(tree.getChild(i), argCtxs);
+    }
+
+    /**
+     * Format a value the way the interpreters write it.
+     */
+    private static String write(WriteFormat format, Object value) {
+        PrintStream stdout = System.out;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (PrintStream ps = new PrintStream(bytes, true, StandardCharsets.UTF_8)) {
+            System.setOut(ps);
+            OutputBuffer output = new OutputBuffer();
+            format.write(output, value);
+            output.flush();
+        } finally {
+            System.setOut(stdout);
+        }
+
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Check that formats write their values as printf formats do.
+     *
+     * @param first   the index of the first format.
+     * @param printfs the equivalent printf formats.
+     * @param values  the values to write.
+     */
+    private static void assertPrintf(int first, String[] printfs, Object[] values) {
+        for (int i = 0; i < printfs.length; i++) {
+            WriteFormat format = formats.get(first + i);
+            assertFalse(format.isLiteral());
+
+            for (Object value : values) {
+                assertEquals(String.format(printfs[i], value), write(format, value), printfs[i] + " of " + value);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Integers")
+    void testIntegers() {
+        assertPrintf(0, new String[] { "%d", "%6d", "%-6d", "%06d", "%3d", "%1d" }, INTEGERS);
+    }
+
+    @Test
+    @DisplayName("Reals in fixed-point notation")
+    void testReals() {
+        assertPrintf(6, new String[] { "%f", "%12f", "%8.2f", "%-9.3f", "%1.0f", "%010.2f", "%4.10f" }, REALS);
+    }
+
+    @Test
+    @DisplayName("Booleans and characters")
+    void testBooleansAndChars() {
+        assertPrintf(13, new String[] { "%b", "%7b", "%-7b" }, BOOLEANS);
+        assertPrintf(16, new String[] { "%c", "%3c", "%-3c" }, CHARS);
+    }
+
+    @Test
+    @DisplayName("Literal strings are written as is")
+    void testLiterals() {
+        assertEquals(21, formats.size());
+        assertTrue(formats.get(19).isLiteral());
+        assertTrue(formats.get(20).isLiteral());
+        assertEquals("it's", write(formats.get(19), null));
+        assertEquals("x", write(formats.get(20), null));
+    }
+}
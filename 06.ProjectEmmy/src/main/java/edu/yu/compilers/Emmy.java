@@ -14,16 +14,24 @@ import edu.yu.compilers.backend.compiler.CodeGenerator;
 import edu.yu.compilers.backend.compiler.Compiler;
 import edu.yu.compilers.backend.compiler.X86_64CodeGenerator;
 import edu.yu.compilers.backend.compiler.TACCodeGenerator;
+import edu.yu.compilers.backend.interpreter.TupleExecutor;
 import edu.yu.compilers.backend.irgen.TupleIRBuilder;
+import edu.yu.compilers.backend.optimizer.PassManager;
 import edu.yu.compilers.frontend.ast.ASTBuilder;
 import edu.yu.compilers.frontend.parser.SyntaxErrorHandler;
 import edu.yu.compilers.frontend.semantic.Semantics;
+import edu.yu.compilers.intermediate.ast.ASTConstantFolder;
 import edu.yu.compilers.intermediate.ast.ASTYamlPrinter;
 import edu.yu.compilers.intermediate.ast.Program;
 import edu.yu.compilers.intermediate.ir.TupleIR;
 import edu.yu.compilers.intermediate.ir.TupleIRUtils;
 
 public class Emmy {
+    private static final String COMPILE_USAGE =
+            "USAGE: Emmy -compile [-O0 (default) | -O1 | -O2] [-time-passes] {tac|x86} sourceFileName";
+    private static final String EXECUTE_USAGE =
+            "USAGE: Emmy -execute [-O0 (default) | -O1 | -O2] sourceFileName";
+
     static boolean compileMode;
 
     public static void main(String[] args) throws Exception {
@@ -54,26 +62,49 @@ public class Emmy {
             return;
         }
 
-        // Handle compile mode specially as it needs an extra argument
+        // Handle compile and execute modes specially as they take
+        // optional flags, and compile mode also needs the codegen type.
+        int optimizationLevel = 0;
+        boolean timePasses = false;
+        int argIndex = 1;
+
+        if (mode == Mode.COMPILE || mode == Mode.EXECUTE) {
+            String usage = mode == Mode.COMPILE ? COMPILE_USAGE : EXECUTE_USAGE;
+            for (; argIndex < args.length && args[argIndex].startsWith("-"); argIndex++) {
+                String flag = args[argIndex];
+                if (flag.matches("-O[0-9]+")
+                        && Integer.parseInt(flag.substring(2)) <= PassManager.MAX_LEVEL) {
+                    optimizationLevel = Integer.parseInt(flag.substring(2));
+                } else if (mode == Mode.COMPILE && flag.equals("-time-passes")) {
+                    timePasses = true;
+                } else {
+                    System.out.println("ERROR: Invalid " + option.substring(1).toLowerCase()
+                            + " option '" + flag + "'");
+                    System.out.println(usage);
+                    return;
+                }
+            }
+        }
+
         if (mode == Mode.COMPILE) {
-            if (args.length != 3) {
+            if (args.length - argIndex != 2) {
                 System.out.println("ERROR: Compile mode requires codegen type and source file.");
-                System.out.println("USAGE: Emmy -compile {tac|x86} sourceFileName");
+                System.out.println(COMPILE_USAGE);
                 return;
             }
-            String codegenType = args[1].toLowerCase();
+            String codegenType = args[argIndex].toLowerCase();
             if (!codegenType.equals("tac") && !codegenType.equals("x86")) {
                 System.out.println("ERROR: Invalid codegen type. Must be either 'tac' or 'x86'");
-                System.out.println("USAGE: Emmy -compile {tac|x86} sourceFileName");
+                System.out.println(COMPILE_USAGE);
                 return;
             }
-        } else if (args.length != 2) {
+        } else if (args.length - argIndex != 1) {
             printUsage();
             return;
         }
 
-        // Get the source file name (it's arg[2] for compile mode, arg[1] for others)
-        String sourceFileName = (mode == Mode.COMPILE) ? args[2] : args[1];
+        // Get the source file name, which is always the last argument
+        String sourceFileName = args[args.length - 1];
 
         // Create the input stream.
         InputStream source = new FileInputStream(sourceFileName);
@@ -134,6 +165,12 @@ public class Emmy {
             return;
         }
 
+        // Fold the constant expressions when compiling or executing with
+        // optimization on, so -ir still shows the IR as the builder makes it.
+        if (optimizationLevel > 0 && (mode == Mode.COMPILE || mode == Mode.EXECUTE)) {
+            program = ASTConstantFolder.fold(program);
+        }
+
         // Pass 2C: Build the IR
         println("\nPASS 2C Build IR:");
         println("-----------------");
@@ -146,9 +183,11 @@ public class Emmy {
 
         switch (mode) {
             case EXECUTE -> {
-                // Pass 3: Execute the Emmy program.
+                // Pass 3: Optimize and execute the Emmy program.
                 println("\nPASS 3 Execute: ");
-                println("\nTBD:\n\n");
+                PassManager.forLevel(optimizationLevel).run(ir);
+                TupleExecutor pass3 = new TupleExecutor(ir);
+                pass3.execute();
             }
             case CONVERT -> {
                 // Pass 3: Convert from Emmy to Java.
@@ -156,8 +195,14 @@ public class Emmy {
                 System.out.print("\nTBD:\n\n");
             }
             case COMPILE -> {
-                // Pass 3: Compile the Emmy program.
-                CodeGenerator codegen = args[1].equals("tac")
+                // Pass 3: Optimize and compile the Emmy program.
+                PassManager passManager = PassManager.forLevel(optimizationLevel);
+                passManager.run(ir);
+                if (timePasses) {
+                    System.err.print(passManager.report());
+                }
+
+                CodeGenerator codegen = args[argIndex].equalsIgnoreCase("tac")
                     ? new TACCodeGenerator(ir) 
                     : new X86_64CodeGenerator(ir);
                 Compiler compiler = new Compiler(codegen);
@@ -170,8 +215,9 @@ public class Emmy {
     }
 
     private static void printUsage() {
-        System.out.println("USAGE: Emmy {-type | -ast | -ir | -execute | -convert} sourceFileName");
-        System.out.println("   OR: Emmy -compile {tac|x86} sourceFileName");
+        System.out.println("USAGE: Emmy {-type | -ast | -ir | -convert} sourceFileName");
+        System.out.println("   OR: Emmy -execute [-O0 (default) | -O1 | -O2] sourceFileName");
+        System.out.println("   OR: Emmy -compile [-O0 (default) | -O1 | -O2] [-time-passes] {tac|x86} sourceFileName");
     }
 
     private static void println(String str) {
@@ -0,0 +1,556 @@
+package edu.yu.compilers.backend.compiler;
+
+import static edu.yu.compilers.backend.compiler.X86_64Register.*;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.yu.compilers.intermediate.cfg.BasicBlock;
+import edu.yu.compilers.intermediate.cfg.ControlFlowGraph;
+import edu.yu.compilers.intermediate.ir.Operand;
+import edu.yu.compilers.intermediate.ir.Operand.OperandType;
+import edu.yu.compilers.intermediate.ir.Operand.Temporary;
+import edu.yu.compilers.intermediate.ir.Operand.Variable;
+import edu.yu.compilers.intermediate.ir.Operator;
+import edu.yu.compilers.intermediate.ir.Tuple;
+import edu.yu.compilers.intermediate.ir.TupleIR.FunctionInfo;
+import edu.yu.compilers.intermediate.ir.TupleIR.VariableInfo;
+import edu.yu.compilers.intermediate.symbols.SymTableEntry;
+
+/**
+ * Linear-scan register allocator for the x86_64 code generator.
+ * It computes the liveness of each temporary and local variable over a
+ * function's tuples, builds one live interval per value, and assigns
+ * the intervals to registers in order of their start points. A value is
+ * spilled to a stack slot only when no register of its class is free.
+ */
+public class LinearScanAllocator {
+
+    // General purpose registers available for allocation. RAX, RCX and RDX
+    // are scratch registers of the code generator, and RDI, RSI, R8 and R9
+    // carry arguments.
+    private static final List<X86_64Register> CALLER_SAVED = List.of(R10, R11);
+    private static final List<X86_64Register> CALLEE_SAVED = List.of(RBX, R12, R13, R14, R15);
+
+    // XMM0 and XMM1 are scratch registers. All XMM registers are caller-saved.
+    private static final List<X86_64Register> FLOAT_REGISTERS = List.of(
+            XMM2, XMM3, XMM4, XMM5, XMM6, XMM7, XMM8,
+            XMM9, XMM10, XMM11, XMM12, XMM13, XMM14, XMM15);
+
+    private final FunctionInfo function;
+    private final List<Tuple> tuples;
+
+    // The allocatable values, numbered in order of first appearance.
+    private final Map<Object, Integer> valueNumbers = new HashMap<>();
+    private final List<Object> values = new ArrayList<>();
+    private final List<Boolean> floatValues = new ArrayList<>();
+
+    /**
+     * Construct an allocator for a function.
+     *
+     * @param function the function's information and tuples
+     */
+    public LinearScanAllocator(FunctionInfo function) {
+        this.function = function;
+        this.tuples = function.getTuples();
+    }
+
+    /**
+     * Get the key that identifies the value of an operand: the number of
+     * a temporary or the symbol table entry of a variable.
+     *
+     * @param operand the operand
+     * @return the key, or null if the operand is not a temporary or variable
+     */
+    static Object keyOf(Operand operand) {
+        if (operand instanceof Temporary temp) {
+            return temp.getNumber();
+        } else if (operand instanceof Variable variable) {
+            return variable.getEntry();
+        }
+        return null;
+    }
+
+    /**
+     * Check if a variable belongs to the program rather than a function.
+     * Program variables live in the data section.
+     *
+     * @param variable the variable
+     * @return true if the variable is global
+     */
+    static boolean isGlobal(Variable variable) {
+        SymTableEntry entry = variable.getEntry();
+        return entry.getSymTable() == null || entry.getSymTable().getNestingLevel() <= 1;
+    }
+
+    /**
+     * Allocate registers and stack slots for the function.
+     *
+     * @return the allocation
+     */
+    public Allocation allocate() {
+        int count = tuples.size();
+
+        // Number the values and record each tuple's uses and definitions.
+        BitSet[] uses = new BitSet[count];
+        BitSet[] defs = new BitSet[count];
+        for (int i = 0; i < count; i++) {
+            uses[i] = new BitSet();
+            defs[i] = new BitSet();
+            Tuple tuple = tuples.get(i);
+            List<Operand> ops = tuple.getOperands();
+
+            for (int j = 0; j < ops.size(); j++) {
+                int number = number(ops.get(j));
+                if (number < 0) continue;
+
+                if (j == 0 && (tuple.getOperator().hasResult() || tuple.getOperator() == Operator.PARAM)) {
+                    defs[i].set(number);
+                } else {
+                    uses[i].set(number);
+                }
+            }
+        }
+
+        // Parameters are defined on entry.
+        if (!function.isGlobalLevel() && count > 0) {
+            for (VariableInfo param : function.getParameters()) {
+                int number = number(param.getEntry(), param.getType() == OperandType.FLOAT);
+                defs[0].set(number);
+            }
+        }
+
+        BitSet[] liveIn = new BitSet[count];
+        BitSet[] liveOut = new BitSet[count];
+        computeLiveness(uses, defs, liveIn, liveOut);
+
+        // Build a live interval for each value.
+        int valueCount = values.size();
+        Interval[] intervals = new Interval[valueCount];
+        for (int v = 0; v < valueCount; v++) {
+            intervals[v] = new Interval(v, floatValues.get(v));
+        }
+        for (int i = 0; i < count; i++) {
+            extend(intervals, defs[i], i);
+            extend(intervals, uses[i], i);
+            extend(intervals, liveIn[i], i);
+            extend(intervals, liveOut[i], i);
+        }
+
+        // Mark the values that are live across a call.
+        for (int i = 0; i < count; i++) {
+            if (isCall(tuples.get(i))) {
+                BitSet across = (BitSet) liveOut[i].clone();
+                across.andNot(defs[i]);
+                for (int v = across.nextSetBit(0); v >= 0; v = across.nextSetBit(v + 1)) {
+                    intervals[v].crossesCall = true;
+                }
+            }
+        }
+
+        Allocation allocation = scan(intervals);
+
+        // Find the caller-saved registers to preserve around each call.
+        for (int i = 0; i < count; i++) {
+            if (!isCall(tuples.get(i))) continue;
+
+            BitSet across = (BitSet) liveOut[i].clone();
+            across.andNot(defs[i]);
+
+            List<X86_64Register> saved = new ArrayList<>();
+            for (int v = across.nextSetBit(0); v >= 0; v = across.nextSetBit(v + 1)) {
+                X86_64Register register = allocation.registers.get(values.get(v));
+                if (register != null && !CALLEE_SAVED.contains(register)) {
+                    saved.add(register);
+                }
+            }
+
+            if (!saved.isEmpty()) {
+                allocation.savedAcrossCall.put(i, saved);
+                for (X86_64Register register : saved) {
+                    allocation.callerSaveSlots.putIfAbsent(register, -1);
+                }
+            }
+        }
+
+        allocation.layOutFrame();
+        return allocation;
+    }
+
+    /**
+     * Compute the live-in and live-out sets of each tuple by iterating
+     * the dataflow equations backwards to a fixed point.
+     */
+    private void computeLiveness(BitSet[] uses, BitSet[] defs, BitSet[] liveIn, BitSet[] liveOut) {
+        int count = tuples.size();
+        int[][] successors = successors();
+
+        for (int i = 0; i < count; i++) {
+            liveIn[i] = new BitSet();
+            liveOut[i] = new BitSet();
+        }
+
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+
+            for (int i = count - 1; i >= 0; i--) {
+                BitSet out = new BitSet();
+                for (int successor : successors[i]) {
+                    out.or(liveIn[successor]);
+                }
+
+                BitSet in = (BitSet) out.clone();
+                in.andNot(defs[i]);
+                in.or(uses[i]);
+
+                if (!in.equals(liveIn[i]) || !out.equals(liveOut[i])) {
+                    liveIn[i] = in;
+                    liveOut[i] = out;
+                    changed = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the indexes of the tuples that can execute after each tuple.
+     * Within a block that's the next tuple, and after a block's last
+     * tuple it's the first tuple of each successor block.
+     */
+    private int[][] successors() {
+        ControlFlowGraph graph = function.getControlFlowGraph();
+        int[][] successors = new int[tuples.size()][];
+
+        for (BasicBlock block : graph.getBlocks()) {
+            for (int i = block.getStart(); i < block.getEnd() - 1; i++) {
+                successors[i] = new int[] { i + 1 };
+            }
+
+            List<BasicBlock> blockSuccessors = block.getSuccessors();
+            int[] starts = new int[blockSuccessors.size()];
+            for (int j = 0; j < starts.length; j++) {
+                starts[j] = blockSuccessors.get(j).getStart();
+            }
+            successors[block.getEnd() - 1] = starts;
+        }
+
+        return successors;
+    }
+
+    /**
+     * Assign registers to the intervals in order of their start points.
+     */
+    private Allocation scan(Interval[] intervals) {
+        Allocation allocation = new Allocation();
+
+        List<Interval> sorted = new ArrayList<>();
+        for (Interval interval : intervals) {
+            if (interval.end >= 0) sorted.add(interval);
+        }
+        sorted.sort(Comparator.comparingInt((Interval interval) -> interval.start)
+                .thenComparingInt(interval -> interval.value));
+
+        List<Interval> active = new ArrayList<>();  // sorted by end point
+        Map<X86_64Register, Interval> occupants = new EnumMap<>(X86_64Register.class);
+
+        for (Interval current : sorted) {
+            // Free the registers of intervals that ended before this one starts.
+            for (int i = 0; i < active.size(); ) {
+                Interval interval = active.get(i);
+                if (interval.end < current.start) {
+                    occupants.remove(interval.register);
+                    active.remove(i);
+                } else {
+                    i++;
+                }
+            }
+
+            X86_64Register register = freeRegister(current, occupants);
+
+            if (register == null) {
+                // Spill whichever interval of the same class ends last.
+                Interval victim = null;
+                for (Interval interval : active) {
+                    if (interval.isFloat == current.isFloat
+                            && (victim == null || interval.end > victim.end)) {
+                        victim = interval;
+                    }
+                }
+
+                if (victim != null && victim.end > current.end) {
+                    register = victim.register;
+                    victim.register = null;
+                    active.remove(victim);
+                    allocation.spill(victim, values.get(victim.value));
+                } else {
+                    allocation.spill(current, values.get(current.value));
+                    continue;
+                }
+            }
+
+            current.register = register;
+            occupants.put(register, current);
+            allocation.registers.put(values.get(current.value), register);
+            if (CALLEE_SAVED.contains(register) && !allocation.calleeSaved.contains(register)) {
+                allocation.calleeSaved.add(register);
+            }
+
+            int position = 0;
+            while (position < active.size() && active.get(position).end <= current.end) {
+                position++;
+            }
+            active.add(position, current);
+        }
+
+        // A victim may have been given a register before it was spilled.
+        for (Object key : allocation.spillSlots.keySet()) {
+            allocation.registers.remove(key);
+        }
+
+        return allocation;
+    }
+
+    /**
+     * Find a free register for an interval. A general purpose value that
+     * is live across a call prefers a callee-saved register, which needs
+     * no saving around the call; any other value prefers a caller-saved
+     * register, which needs no saving in the prologue.
+     */
+    private X86_64Register freeRegister(Interval interval, Map<X86_64Register, Interval> occupants) {
+        List<List<X86_64Register>> preferences;
+        if (interval.isFloat) {
+            preferences = List.of(FLOAT_REGISTERS);
+        } else if (interval.crossesCall) {
+            preferences = List.of(CALLEE_SAVED, CALLER_SAVED);
+        } else {
+            preferences = List.of(CALLER_SAVED, CALLEE_SAVED);
+        }
+
+        for (List<X86_64Register> registers : preferences) {
+            for (X86_64Register register : registers) {
+                if (!occupants.containsKey(register)) return register;
+            }
+        }
+        return null;
+    }
+
+    private void extend(Interval[] intervals, BitSet set, int index) {
+        for (int v = set.nextSetBit(0); v >= 0; v = set.nextSetBit(v + 1)) {
+            Interval interval = intervals[v];
+            interval.start = Math.min(interval.start, index);
+            interval.end = Math.max(interval.end, index);
+        }
+    }
+
+    /**
+     * Get the value number of an operand, numbering it if it's new.
+     *
+     * @return the number, or -1 if the operand is not allocatable
+     */
+    private int number(Operand operand) {
+        if (operand instanceof Temporary temp) {
+            return number(temp.getNumber(), temp.getType() == OperandType.FLOAT);
+        } else if (operand instanceof Variable variable && !function.isGlobalLevel() && !isGlobal(variable)) {
+            return number(variable.getEntry(), variableType(variable) == OperandType.FLOAT);
+        }
+        return -1;
+    }
+
+    private int number(Object key, boolean isFloat) {
+        Integer number = valueNumbers.get(key);
+        if (number == null) {
+            number = values.size();
+            valueNumbers.put(key, number);
+            values.add(key);
+            floatValues.add(isFloat);
+        } else if (isFloat && !floatValues.get(number)) {
+            floatValues.set(number, true);
+        }
+        return number;
+    }
+
+    private OperandType variableType(Variable variable) {
+        for (VariableInfo info : function.getVariables()) {
+            if (info.getEntry() == variable.getEntry()) return info.getType();
+        }
+        return variable.getType();
+    }
+
+    /**
+     * Check if a tuple calls out of the function, which clobbers the
+     * caller-saved registers. PRINT calls printf.
+     */
+    static boolean isCall(Tuple tuple) {
+        return switch (tuple.getOperator()) {
+            case CALL, PRINT -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * The live interval of one value, from its first to its last live point.
+     */
+    private static class Interval {
+        private final int value;
+        private final boolean isFloat;
+        private int start = Integer.MAX_VALUE;
+        private int end = -1;
+        private boolean crossesCall = false;
+        private X86_64Register register;
+
+        Interval(int value, boolean isFloat) {
+            this.value = value;
+            this.isFloat = isFloat;
+        }
+    }
+
+    /**
+     * The result of allocation: a register or a stack slot for each value,
+     * and the layout of the stack frame. The frame holds the saved
+     * callee-saved registers, then the spilled values, then the save
+     * slots of caller-saved registers that are live across calls.
+     * Spilled values whose intervals don't overlap share a slot.
+     */
+    public static class Allocation {
+        private final Map<Object, X86_64Register> registers = new HashMap<>();
+        private final Map<Object, Integer> spillSlots = new HashMap<>();
+        private final Map<Interval, Object> spilled = new HashMap<>();
+        private final List<X86_64Register> calleeSaved = new ArrayList<>();
+        private final Map<X86_64Register, Integer> callerSaveSlots = new EnumMap<>(X86_64Register.class);
+        private final Map<X86_64Register, Integer> calleeSaveSlots = new EnumMap<>(X86_64Register.class);
+        private final Map<Integer, List<X86_64Register>> savedAcrossCall = new HashMap<>();
+        private int slotCount = 0;
+
+        private void spill(Interval interval, Object key) {
+            spillSlots.put(key, -1);
+            spilled.put(interval, key);
+        }
+
+        private void layOutFrame() {
+            for (X86_64Register register : calleeSaved) {
+                calleeSaveSlots.put(register, slotCount++);
+            }
+            slotCount += colorSpillSlots(slotCount);
+            for (Map.Entry<X86_64Register, Integer> entry : callerSaveSlots.entrySet()) {
+                entry.setValue(slotCount++);
+            }
+        }
+
+        /**
+         * Assign the spilled values to slots in order of their start
+         * points, reusing the first slot whose last value ended before
+         * the interval starts. Coloring an interval graph this way uses
+         * as many slots as the most values that are live at one point.
+         *
+         * @param first the first slot for spilled values
+         * @return the number of slots used
+         */
+        private int colorSpillSlots(int first) {
+            List<Interval> sorted = new ArrayList<>(spilled.keySet());
+            sorted.sort(Comparator.comparingInt((Interval interval) -> interval.start)
+                    .thenComparingInt(interval -> interval.value));
+
+            List<Integer> slotEnds = new ArrayList<>();
+            for (Interval interval : sorted) {
+                int slot = 0;
+                while (slot < slotEnds.size() && slotEnds.get(slot) >= interval.start) {
+                    slot++;
+                }
+
+                if (slot == slotEnds.size()) {
+                    slotEnds.add(interval.end);
+                } else {
+                    slotEnds.set(slot, interval.end);
+                }
+                spillSlots.put(spilled.get(interval), first + slot);
+            }
+
+            return slotEnds.size();
+        }
+
+
+        /**
+         * Check if the allocation manages an operand's value.
+         *
+         * @param operand the operand
+         * @return true if the value has a register or a stack slot
+         */
+        public boolean holds(Operand operand) {
+            Object key = keyOf(operand);
+            return key != null && (registers.containsKey(key) || spillSlots.containsKey(key));
+        }
+
+        /**
+         * @return the register of an operand's value, or null if it has none
+         */
+        public X86_64Register getRegister(Operand operand) {
+            return registers.get(keyOf(operand));
+        }
+
+        /**
+         * @return the register of a variable, or null if it has none
+         */
+        public X86_64Register getRegister(SymTableEntry entry) {
+            return registers.get(entry);
+        }
+
+        /**
+         * @return the stack slot of an operand's spilled value, or -1
+         */
+        public int getSpillSlot(Operand operand) {
+            return spillSlots.getOrDefault(keyOf(operand), -1);
+        }
+
+        /**
+         * @return the stack slot of a spilled variable, or -1
+         */
+        public int getSpillSlot(SymTableEntry entry) {
+            return spillSlots.getOrDefault(entry, -1);
+        }
+
+        /**
+         * @return the callee-saved registers that the function uses
+         */
+        public List<X86_64Register> getCalleeSaved() {
+            return calleeSaved;
+        }
+
+        /**
+         * @return the stack slot where a callee-saved register is kept
+         */
+        public int getCalleeSaveSlot(X86_64Register register) {
+            return calleeSaveSlots.get(register);
+        }
+
+        /**
+         * @return the stack slot where a caller-saved register is kept during a call
+         */
+        public int getCallerSaveSlot(X86_64Register register) {
+            return callerSaveSlots.get(register);
+        }
+
+        /**
+         * Get the caller-saved registers that hold values live across the
+         * call at a tuple index.
+         *
+         * @param tupleIndex the index of the CALL or PRINT tuple
+         * @return the registers to save before the call and restore after
+         */
+        public List<X86_64Register> getSavedAcrossCall(int tupleIndex) {
+            return savedAcrossCall.getOrDefault(tupleIndex, List.of());
+        }
+
+        /**
+         * @return the number of 8-byte stack slots in the frame
+         */
+        public int getSlotCount() {
+            return slotCount;
+        }
+    }
+}
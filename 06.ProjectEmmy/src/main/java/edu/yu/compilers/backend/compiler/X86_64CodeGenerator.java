@@ -1,8 +1,11 @@
 package edu.yu.compilers.backend.compiler;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import edu.yu.compilers.backend.compiler.X86_64Operand.Immediate;
 import edu.yu.compilers.backend.compiler.X86_64Operand.Memory;
@@ -14,10 +17,12 @@ import edu.yu.compilers.intermediate.ir.Operand.Label;
 import edu.yu.compilers.intermediate.ir.Operand.OperandType;
 import edu.yu.compilers.intermediate.ir.Operand.Temporary;
 import edu.yu.compilers.intermediate.ir.Operand.Variable;
+import edu.yu.compilers.intermediate.ir.Operator;
 import edu.yu.compilers.intermediate.ir.Tuple;
 import edu.yu.compilers.intermediate.ir.TupleIR;
 import edu.yu.compilers.intermediate.ir.TupleIR.FunctionInfo;
 import edu.yu.compilers.intermediate.ir.TupleIR.VariableInfo;
+import edu.yu.compilers.intermediate.symbols.SymTableEntry;
 
 /**
  * X86_64 code generator for the Emmy compiler.
@@ -25,21 +30,33 @@ import edu.yu.compilers.intermediate.ir.TupleIR.VariableInfo;
  */
 public class X86_64CodeGenerator extends CodeGenerator {
 
-    // Output buffer for assembly code
-    private StringBuilder output; // assigned to the current target builder
+    // Lines of the current function, or of the sections after the program
+    private final List<X86_64Line> lines = new ArrayList<>();
     private final StringBuilder masterOutput = new StringBuilder();
 
     // Indentation for assembly code
     private final String indent = "\t";
 
-    private final String stackSizePlaceHolder = "N";
+    // Index of the current function's stack allocation, filled in at its end
+    private int frameSizeIndex = -1;
 
     // Counters for unique labels
     private int stringCounter = 0;
+    private int branchCounter = 0;
 
-    // Maps to track variables and temporaries
-    private final Map<String, Integer> variableOffsets = new HashMap<>();
-    private final Map<Integer, Integer> tempOffsets = new HashMap<>();
+    // Registers and stack slots of the current function's values
+    private LinearScanAllocator.Allocation allocation;
+
+    // Index of the current tuple within its function
+    private int tupleIndex = -1;
+
+    // The current function's comparisons that branch directly, by tuple
+    // index, and the NOT and IF tuples that they replace
+    private final Map<Integer, FusedBranch> fusedBranches = new HashMap<>();
+    private final Set<Integer> fusedTuples = new HashSet<>();
+
+    // The current function's calls that reuse its frame, by tuple index
+    private final Set<Integer> tailCalls = new HashSet<>();
 
     // Current function being processed
     private String currentFunction = "";
@@ -66,6 +83,20 @@ public class X86_64CodeGenerator extends CodeGenerator {
         }
     }
 
+    /**
+     * A comparison fused with the IF that uses its result: jump to the
+     * target when the comparison's value is {@code when}.
+     */
+    private static class FusedBranch {
+        private final Label target;
+        private final boolean when;
+
+        public FusedBranch(Label target, boolean when) {
+            this.target = target;
+            this.when = when;
+        }
+    }
+
     /**
      * Constructor for the X86_64CodeGenerator.
      */
@@ -82,18 +113,16 @@ public class X86_64CodeGenerator extends CodeGenerator {
     public void emitProgramStart() {
         masterOutput.setLength(0);
         stringCounter = 0;
+        branchCounter = 0;
         floatCounter = 0;
         stringConstants.clear();
         floatConstants.clear();
         currentFunctionStackSize = 0;
-
-        output = masterOutput;
+        lines.clear();
     }
 
     @Override
     public void emitProgramEnd() {
-        output = masterOutput;
-
         // 1. Emit the .rodata section with string constants
         if (!stringConstants.isEmpty()) {
             emit(".section .rodata");
@@ -133,6 +162,7 @@ public class X86_64CodeGenerator extends CodeGenerator {
 
         // 6. Add GNU stack note
         emit(".section .note.GNU-stack,\"\",@progbits");
+        render(lines);
     }
 
     /**
@@ -182,13 +212,13 @@ public class X86_64CodeGenerator extends CodeGenerator {
                     }
                     break;
                 case BOOLEAN:
-                    emit(".align 1"); // 1-byte alignment for booleans
+                    emit(".align 8"); // booleans are accessed as 64-bit values
                     emit(varName + ":");
                     if (value instanceof Boolean) {
                         boolean boolValue = (Boolean) value;
-                        emitIndented(".byte " + (boolValue ? "1" : "0")); // 8-bit boolean with actual value
+                        emitIndented(".quad " + (boolValue ? "1" : "0")); // boolean with actual value
                     } else {
-                        emitIndented(".byte 0"); // 8-bit boolean initialized to false (0)
+                        emitIndented(".quad 0"); // boolean initialized to false (0)
                     }
                     break;
                 case STRING:
@@ -214,92 +244,187 @@ public class X86_64CodeGenerator extends CodeGenerator {
 
     @Override
     public void emitFunctionStart(Tuple functionTuple, FunctionInfo info) {
+        allocation = new LinearScanAllocator(info).allocate();
+        currentFunctionStackSize = 8 * allocation.getSlotCount();
+        tupleIndex = -1;
+        findFusedBranches(info.getTuples());
+        findTailCalls(info);
+
+        // The program's prologue is emitted with its PROGRAM tuple
+        if (info.isGlobalLevel()) {
+            return;
+        }
+
         String functionName = getFunctionName(functionTuple);
         currentFunction = functionName;
         handleFunctionPrologue(functionName);
 
-        // Process parameters - store register parameters on the stack
-        int paramCount = info.getParameters().size();
-        int varCount = info.getVariables().size();
+        // Move each parameter to its allocated home. The first 6 parameters
+        // are in registers, and the rest are above the return address.
+        X86_64Register[] paramRegisters = {
+            X86_64Register.RDI, X86_64Register.RSI, X86_64Register.RDX,
+            X86_64Register.RCX, X86_64Register.R8, X86_64Register.R9
+        };
+        X86_64Operand raxReg = new Register(X86_64Register.RAX);
+
+        for (VariableInfo var : info.getParameters()) {
+            int paramIndex = var.getParamIndex();
+            X86_64Operand home = homeOf(var.getEntry());
+            if (home == null) {
+                continue;
+            }
 
-        // Allocate space for local variables and parameters
-        // 8 bytes initial space for return address
-        // Shortcut: 8 bytes per parameter/local
+            if (paramIndex < 6) {
+                emitAssembly(X86_64Instruction.MOVQ, new Register(paramRegisters[paramIndex]), home);
+            } else {
+                X86_64Operand paramMem = new Memory((16 + 8 * (paramIndex - 6)) + "(%rbp)");
+                if (home instanceof Register) {
+                    emitAssembly(X86_64Instruction.MOVQ, paramMem, home);
+                } else {
+                    emitAssembly(X86_64Instruction.MOVQ, paramMem, raxReg);
+                    emitAssembly(X86_64Instruction.MOVQ, raxReg, home);
+                }
+            }
+        }
+    }
 
-        currentFunctionStackSize = 8 + (8 * (paramCount + varCount));
+    /**
+     * Find the comparisons whose only use is the IF that follows them,
+     * either directly or through a NOT, so that they can be emitted as a
+     * compare and a conditional jump instead of a flag stored in a temp.
+     */
+    private void findFusedBranches(List<Tuple> tuples) {
+        fusedBranches.clear();
+        fusedTuples.clear();
+
+        Map<Object, Integer> definitions = new HashMap<>();
+        Map<Object, Integer> uses = new HashMap<>();
+        for (Tuple tuple : tuples) {
+            List<Operand> operands = tuple.getOperands();
+            boolean hasResult = tuple.getOperator().hasResult();
+
+            for (int j = 0; j < operands.size(); j++) {
+                if (operands.get(j) instanceof Temporary temp) {
+                    Map<Object, Integer> counts = hasResult && j == 0 ? definitions : uses;
+                    counts.merge(LinearScanAllocator.keyOf(temp), 1, Integer::sum);
+                }
+            }
+        }
 
-        // Save parameters from registers to stack
-        // First 6 parameters are in registers
-        for (VariableInfo var : info.getParameters()) {
-            if (var.getParamIndex() < 6) {
-                int paramIndex = var.getParamIndex();
-                int offset = -8 * (paramIndex + 1); // First param at -8(%rbp), second at -16(%rbp), etc.
-                variableOffsets.put(var.getName(), offset);
-
-                // Save parameter from register to stack
-                X86_64Operand paramReg;
-                switch (paramIndex) {
-                    case 0:
-                        paramReg = new Register(X86_64Register.RDI);
-                        break;
-                    case 1:
-                        paramReg = new Register(X86_64Register.RSI);
-                        break;
-                    case 2:
-                        paramReg = new Register(X86_64Register.RDX);
-                        break;
-                    case 3:
-                        paramReg = new Register(X86_64Register.RCX);
-                        break;
-                    case 4:
-                        paramReg = new Register(X86_64Register.R8);
-                        break;
-                    case 5:
-                        paramReg = new Register(X86_64Register.R9);
-                        break;
-                    default:
-                        throw new IllegalArgumentException("Invalid parameter index: " + paramIndex);
+        for (int i = 0; i + 1 < tuples.size(); i++) {
+            Tuple comparison = tuples.get(i);
+            if (!isComparison(comparison.getOperator())) continue;
+
+            Operand result = comparison.getOperands().get(0);
+            if (!isSingleUse(result, definitions, uses)) continue;
+
+            Tuple next = tuples.get(i + 1);
+            if (next.getOperator() == Operator.IF && isSame(next.getOperands().get(0), result)) {
+                fusedBranches.put(i, new FusedBranch((Label) next.getOperands().get(1), true));
+                fusedTuples.add(i + 1);
+            } else if (next.getOperator() == Operator.NOT && isSame(next.getOperands().get(1), result)
+                    && i + 2 < tuples.size()) {
+                Operand negated = next.getOperands().get(0);
+                Tuple branch = tuples.get(i + 2);
+
+                if (isSingleUse(negated, definitions, uses) && branch.getOperator() == Operator.IF
+                        && isSame(branch.getOperands().get(0), negated)) {
+                    fusedBranches.put(i, new FusedBranch((Label) branch.getOperands().get(1), false));
+                    fusedTuples.add(i + 1);
+                    fusedTuples.add(i + 2);
                 }
-                X86_64Operand paramMem = new Memory(offset + "(%rbp)");
-                emitAssembly(X86_64Instruction.MOVQ, paramReg, paramMem);
             }
         }
     }
 
+    /**
+     * Find the calls whose result the next tuple returns, so that the
+     * callee can return directly to this function's caller. Only calls
+     * with all their arguments in registers qualify, since stack
+     * arguments would not fit in this function's incoming frame.
+     */
+    private void findTailCalls(FunctionInfo info) {
+        tailCalls.clear();
+        if (info.isGlobalLevel()) return;
+
+        List<Tuple> tuples = info.getTuples();
+        for (int i = 0; i + 1 < tuples.size(); i++) {
+            Tuple call = tuples.get(i);
+            Tuple next = tuples.get(i + 1);
+            if (call.getOperator() != Operator.CALL || next.getOperator() != Operator.RETURN) continue;
+            if (call.getOperands().size() > 8) continue;
+
+            Operand result = call.getOperands().get(0);
+            List<Operand> returned = next.getOperands();
+            if (returned.isEmpty() ? result == null : isSame(returned.get(0), result)) {
+                tailCalls.add(i);
+            }
+        }
+    }
+
+    private static boolean isComparison(Operator operator) {
+        return switch (operator) {
+            case EQ, NEQ, GT, GTE, LT, LTE -> true;
+            default -> false;
+        };
+    }
+
+    private static boolean isSingleUse(Operand operand, Map<Object, Integer> definitions,
+                                       Map<Object, Integer> uses) {
+        Object key = LinearScanAllocator.keyOf(operand);
+        return operand instanceof Temporary
+                && definitions.getOrDefault(key, 0) == 1 && uses.getOrDefault(key, 0) == 1;
+    }
+
+    private static boolean isSame(Operand operand, Operand temp) {
+        return operand instanceof Temporary
+                && LinearScanAllocator.keyOf(operand).equals(LinearScanAllocator.keyOf(temp));
+    }
+
     private String getFunctionName(Tuple functionTuple) {
         Label funcLabel = (Label) functionTuple.getOperands().get(0);
         return funcLabel.toString();
     }
 
     private void handleFunctionPrologue(String functionName) {
-        output = new StringBuilder();
+        // Anything before the function, such as its PROGRAM comment, is not optimized
+        render(lines);
 
         emit(".text");
         emit(".globl " + functionName);
         emit(".type  " + functionName + ", @function");
-        emit(functionName + ":");
+        placeLabel(functionName);
 
         X86_64Operand rbpReg = new Register(X86_64Register.RBP);
         X86_64Operand rspReg = new Register(X86_64Register.RSP);
-        X86_64Operand placeholder = new Immediate(stackSizePlaceHolder);
 
         emitAssembly(X86_64Instruction.PUSHQ, rbpReg);
         emitAssembly(X86_64Instruction.MOVQ, rspReg, rbpReg);
-        emitAssembly(X86_64Instruction.SUBQ, placeholder, rspReg);
+        frameSizeIndex = lines.size();
+        emitAssembly(X86_64Instruction.SUBQ, new Immediate(0), rspReg);  // filled in at the end
+
+        // Save the callee-saved registers that the allocator used
+        for (X86_64Register register : allocation.getCalleeSaved()) {
+            emitAssembly(X86_64Instruction.MOVQ, new Register(register),
+                    slot(allocation.getCalleeSaveSlot(register)));
+        }
 
-        // Reset stack tracking variables
         currentFunction = functionName;
-        tempOffsets.clear();
-        variableOffsets.clear();
     }
 
     private void handleFunctionEnd(String functionName) {
         // Add a label that return statements can jump to
-        emit(functionName + "_epilogue:");
+        placeLabel(functionName + "_epilogue");
 
         X86_64Operand rbpReg = new Register(X86_64Register.RBP);
         X86_64Operand rspReg = new Register(X86_64Register.RSP);
 
+        // Restore the callee-saved registers
+        for (X86_64Register register : allocation.getCalleeSaved()) {
+            emitAssembly(X86_64Instruction.MOVQ, slot(allocation.getCalleeSaveSlot(register)),
+                    new Register(register));
+        }
+
         emitAssembly(X86_64Instruction.MOVQ, rbpReg, rspReg); // restore stack pointer to saved frame pointer
         emitAssembly(X86_64Instruction.POPQ, rbpReg); // restore caller's base pointer
         emitAssembly(X86_64Instruction.RET); // return to caller
@@ -308,13 +433,11 @@ public class X86_64CodeGenerator extends CodeGenerator {
         // Ensure stack is aligned to 16 bytes (ABI requirement)
         int alignedStackSize = (currentFunctionStackSize + 15) & ~15;
 
-        // Replace the stack size placeholder in the current function's output
-
-        String currentOutput = output.toString();
-        String newOutput = currentOutput.replace("$" + stackSizePlaceHolder, "$" + alignedStackSize);
+        // Fill in the stack size now that the function's slots are known
+        lines.set(frameSizeIndex, X86_64Line.instruction(X86_64Instruction.SUBQ,
+                new Immediate(alignedStackSize), rspReg));
 
-        masterOutput.append(newOutput);
-        output.setLength(0);
+        render(X86_64PeepholeOptimizer.optimize(lines));
     }
 
     // ==================
@@ -323,13 +446,9 @@ public class X86_64CodeGenerator extends CodeGenerator {
 
     @Override
     protected void emitProgram(Tuple tuple) {
-        currentFunction = "main";
-        handleFunctionPrologue(currentFunction);
-
         // For now, our main will not have parameters
         // and will return an integer
-
-        currentFunctionStackSize = 8; // 8 bytes for return address
+        handleFunctionPrologue("main");
     }
 
     @Override
@@ -344,51 +463,21 @@ public class X86_64CodeGenerator extends CodeGenerator {
 
     @Override
     protected void emitAssign(Tuple tuple) {
-
         Operand target = tuple.getOperands().get(0);
         Operand source = tuple.getOperands().get(1);
 
-        String sourceRef = getOperandReference(source);
-        String targetRef = getOperandReference(target);
+        X86_64Register targetReg = registerOf(location(target));
 
-        // Convert string operands to X86_64Operand objects
-        X86_64Operand raxReg = new Register(X86_64Register.RAX);
-        X86_64Operand targetMem = new Memory(targetRef);
-
-        // Special case for immediate values (including constants from global section)
-        if (sourceRef.startsWith("$")) {
-            // Direct immediate value
-            X86_64Operand immValue = new Immediate(sourceRef.substring(1));
-            emitAssembly(X86_64Instruction.MOVQ, immValue, raxReg);
-        } else if (sourceRef.contains("__const_") && sourceRef.endsWith("(%rip)")) {
-            // Check if it's a constant 0 from the global section
-            if (source instanceof Constant) {
-                Constant constant = (Constant) source;
-                Object value = constant.getValue();
-
-                // If it's a numeric constant with value 0, use immediate value directly
-                if ((value instanceof Integer && (Integer) value == 0) ||
-                        (value instanceof Long && (Long) value == 0)) {
-                    X86_64Operand zeroImm = new Immediate(0);
-                    emitAssembly(X86_64Instruction.MOVQ, zeroImm, raxReg);
-                } else {
-                    // Otherwise, load from memory
-                    X86_64Operand sourceMem = new Memory(sourceRef);
-                    emitAssembly(X86_64Instruction.MOVQ, sourceMem, raxReg);
-                }
-            } else {
-                // Not a constant, load from memory
-                X86_64Operand sourceMem = new Memory(sourceRef);
-                emitAssembly(X86_64Instruction.MOVQ, sourceMem, raxReg);
-            }
+        if (targetReg != null) {
+            load(source, targetReg);
         } else {
-            // Regular memory operand
-            X86_64Operand sourceMem = new Memory(sourceRef);
-            emitAssembly(X86_64Instruction.MOVQ, sourceMem, raxReg);
+            X86_64Register sourceReg = registerOf(location(source));
+            if (sourceReg == null) {
+                sourceReg = X86_64Register.RAX;
+                load(source, sourceReg);
+            }
+            store(sourceReg, target);
         }
-
-        // Store to target
-        emitAssembly(X86_64Instruction.MOVQ, raxReg, targetMem);
     }
 
     @Override
@@ -398,7 +487,11 @@ public class X86_64CodeGenerator extends CodeGenerator {
 
     @Override
     protected void emitSub(Tuple tuple) {
-        emitBinaryOp(tuple, X86_64Instruction.SUBQ, X86_64Instruction.SUBSD);
+        if (tuple.getOperands().size() == 2) {
+            emitNegate(tuple);
+        } else {
+            emitBinaryOp(tuple, X86_64Instruction.SUBQ, X86_64Instruction.SUBSD);
+        }
     }
 
     @Override
@@ -417,56 +510,21 @@ public class X86_64CodeGenerator extends CodeGenerator {
         boolean isFloatingPoint = isFloatingPoint(left) || isFloatingPoint(right);
 
         if (isFloatingPoint) {
-            // Floating point division
-            String leftRef = getOperandReference(left);
-            String rightRef = getOperandReference(right);
-            String resultRef = getOperandReference(result);
-
-            X86_64Operand raxReg = new Register(X86_64Register.RAX);
-            X86_64Operand xmm0Reg = new Register(X86_64Register.XMM0);
-            X86_64Operand xmm1Reg = new Register(X86_64Register.XMM1);
-            X86_64Operand resultMem = new Memory(resultRef);
-
-            if (isFloatingPointConstant(left)) {
-                // For floating point constants, we need to use the RIP-relative addressing
-                X86_64Operand leftMem = new Memory(leftRef + "(%rip)");
-                emitAssembly(X86_64Instruction.MOVQ, leftMem, raxReg);
-                emitAssembly(X86_64Instruction.MOVQ, raxReg, xmm0Reg);
-            } else {
-                X86_64Operand leftMem = new Memory(leftRef);
-                emitAssembly(X86_64Instruction.MOVQ, leftMem, xmm0Reg);
-            }
-
-            if (isFloatingPointConstant(right)) {
-                // For floating point constants, we need to use the RIP-relative addressing
-                X86_64Operand rightMem = new Memory(rightRef + "(%rip)");
-                emitAssembly(X86_64Instruction.MOVQ, rightMem, raxReg);
-                emitAssembly(X86_64Instruction.MOVQ, raxReg, xmm1Reg);
-            } else {
-                X86_64Operand rightMem = new Memory(rightRef);
-                emitAssembly(X86_64Instruction.MOVQ, rightMem, xmm1Reg);
-            }
-
-            emitAssembly(X86_64Instruction.DIVSD, xmm1Reg, xmm0Reg);
-            emitAssembly(X86_64Instruction.MOVQ, xmm0Reg, resultMem);
+            emitBinaryOp(tuple, X86_64Instruction.DIVSD, X86_64Instruction.DIVSD);
         } else {
             // Integer division
-            String leftRef = getOperandReference(left);
-            String rightRef = getOperandReference(right);
-            String resultRef = getOperandReference(result);
-
-            X86_64Operand raxReg = new Register(X86_64Register.RAX);
             X86_64Operand rcxReg = new Register(X86_64Register.RCX);
-            X86_64Operand leftMem = new Memory(leftRef);
-            X86_64Operand rightMem = new Memory(rightRef);
-            X86_64Operand resultMem = new Memory(resultRef);
+            X86_64Operand divisor = location(right);
 
             // x86_64 division is special - it uses rdx:rax as dividend
-            emitAssembly(X86_64Instruction.MOVQ, leftMem, raxReg);
+            load(left, X86_64Register.RAX);
             emitAssembly(X86_64Instruction.CQTO); // Sign-extend rax into rdx
-            emitAssembly(X86_64Instruction.MOVQ, rightMem, rcxReg);
-            emitAssembly(X86_64Instruction.IDIVQ, rcxReg); // Divide rdx:rax by rcx, result in rax
-            emitAssembly(X86_64Instruction.MOVQ, raxReg, resultMem);
+            if (divisor instanceof Immediate) {
+                emitAssembly(X86_64Instruction.MOVQ, divisor, rcxReg);
+                divisor = rcxReg;
+            }
+            emitAssembly(X86_64Instruction.IDIVQ, divisor); // Divide rdx:rax, result in rax
+            store(X86_64Register.RAX, result);
         }
     }
 
@@ -492,22 +550,27 @@ public class X86_64CodeGenerator extends CodeGenerator {
     }
 
     /**
-     * Check if an operand is a floating point constant.
+     * Check if an operand is known to hold an integer value, which must
+     * be converted before it takes part in a floating point operation.
      *
      * @param operand the operand to check
-     * @return true if the operand is a floating point constant
+     * @return true if the operand is an integer or boolean value
      */
-    private boolean isFloatingPointConstant(Operand operand) {
-        if (operand instanceof Constant) {
-            Constant constant = (Constant) operand;
+    private boolean isIntegerValued(Operand operand) {
+        if (operand instanceof Constant constant) {
             Object value = constant.getValue();
-            return value instanceof Float || value instanceof Double;
+            return value instanceof Integer || value instanceof Long || value instanceof Boolean;
+        } else if (operand instanceof Variable variable) {
+            return variable.getType() == OperandType.INTEGER || variable.getType() == OperandType.BOOLEAN;
+        } else if (operand instanceof Temporary temp) {
+            return temp.getType() == OperandType.INTEGER || temp.getType() == OperandType.BOOLEAN;
         }
         return false;
     }
 
     /**
-     * Helper method to emit binary operations.
+     * Helper method to emit binary operations. An integer operation is
+     * computed in place when the result has a register.
      *
      * @param tuple            the tuple
      * @param intInstruction   the assembly instruction for integers
@@ -523,53 +586,31 @@ public class X86_64CodeGenerator extends CodeGenerator {
         boolean isFloatingPoint = isFloatingPoint(left) || isFloatingPoint(right);
 
         if (isFloatingPoint) {
-            // Floating point operation
-            String leftRef = getOperandReference(left);
-            String rightRef = getOperandReference(right);
-            String resultRef = getOperandReference(result);
-
-            X86_64Operand raxReg = new Register(X86_64Register.RAX);
             X86_64Operand xmm0Reg = new Register(X86_64Register.XMM0);
-            X86_64Operand xmm1Reg = new Register(X86_64Register.XMM1);
-            X86_64Operand resultMem = new Memory(resultRef);
-
-            if (isFloatingPointConstant(left)) {
-                // For floating point constants, we need to use the RIP-relative addressing
-                X86_64Operand leftMem = new Memory(leftRef + "(%rip)");
-                emitAssembly(X86_64Instruction.MOVQ, leftMem, raxReg);
-                emitAssembly(X86_64Instruction.MOVQ, raxReg, xmm0Reg);
-            } else {
-                X86_64Operand leftMem = new Memory(leftRef);
-                emitAssembly(X86_64Instruction.MOVQ, leftMem, xmm0Reg);
-            }
-
-            if (isFloatingPointConstant(right)) {
-                // For floating point constants, we need to use the RIP-relative addressing
-                X86_64Operand rightMem = new Memory(rightRef + "(%rip)");
-                emitAssembly(X86_64Instruction.MOVQ, rightMem, raxReg);
-                emitAssembly(X86_64Instruction.MOVQ, raxReg, xmm1Reg);
-            } else {
-                X86_64Operand rightMem = new Memory(rightRef);
-                emitAssembly(X86_64Instruction.MOVQ, rightMem, xmm1Reg);
-            }
 
-            emitAssembly(floatInstruction, xmm1Reg, xmm0Reg);
-            emitAssembly(X86_64Instruction.MOVQ, xmm0Reg, resultMem);
-        } else {
-            // Integer operation
-            String leftRef = getOperandReference(left);
-            String rightRef = getOperandReference(right);
-            String resultRef = getOperandReference(result);
+            loadFloat(left, X86_64Register.XMM0);
+            emitAssembly(floatInstruction, floatSource(right, X86_64Register.XMM1), xmm0Reg);
+            store(X86_64Register.XMM0, result);
+            return;
+        }
 
-            X86_64Operand raxReg = new Register(X86_64Register.RAX);
-            X86_64Operand leftMem = new Memory(leftRef);
-            X86_64Operand rightMem = new Memory(rightRef);
-            X86_64Operand resultMem = new Memory(resultRef);
+        X86_64Register resultReg = registerOf(location(result));
+        X86_64Operand rightLoc = location(right);
+        boolean commutative = intInstruction != X86_64Instruction.SUBQ;
 
-            emitAssembly(X86_64Instruction.MOVQ, leftMem, raxReg);
-            emitAssembly(intInstruction, rightMem, raxReg);
-            emitAssembly(X86_64Instruction.MOVQ, raxReg, resultMem);
+        if (resultReg != null && resultReg == registerOf(rightLoc) && resultReg != registerOf(location(left))) {
+            if (commutative) {
+                // result = left op result
+                emitAssembly(intInstruction, location(left), new Register(resultReg));
+                return;
+            }
+            resultReg = null;  // the right operand would be overwritten
         }
+
+        X86_64Register target = resultReg != null ? resultReg : X86_64Register.RAX;
+        load(left, target);
+        emitAssembly(intInstruction, rightLoc, new Register(target));
+        store(target, result);
     }
 
     /**
@@ -582,6 +623,36 @@ public class X86_64CodeGenerator extends CodeGenerator {
         emitBinaryOp(tuple, instruction, instruction);
     }
 
+    /**
+     * Emit a unary minus, which is a SUB tuple with one source operand.
+     * A floating point value is negated by flipping its sign bit.
+     *
+     * @param tuple the tuple
+     */
+    private void emitNegate(Tuple tuple) {
+        Operand result = tuple.getOperands().get(0);
+        Operand operand = tuple.getOperands().get(1);
+
+        X86_64Register resultReg = registerOf(location(result));
+        X86_64Register target = (resultReg != null) && !isFloatRegister(resultReg) ? resultReg : X86_64Register.RAX;
+        X86_64Operand targetReg = new Register(target);
+
+        if (isFloatingPoint(result) || isFloatingPoint(operand)) {
+            if (isIntegerValued(operand)) {
+                loadFloat(operand, X86_64Register.XMM0);
+                emitAssembly(X86_64Instruction.MOVQ, new Register(X86_64Register.XMM0), targetReg);
+            } else {
+                load(operand, target);
+            }
+            emitAssembly(X86_64Instruction.BTCQ, new Immediate(63), targetReg);
+        } else {
+            load(operand, target);
+            emitAssembly(X86_64Instruction.NEGQ, targetReg);
+        }
+
+        store(target, result);
+    }
+
     @Override
     protected void emitAnd(Tuple tuple) {
         emitBinaryOp(tuple, X86_64Instruction.ANDQ);
@@ -594,24 +665,21 @@ public class X86_64CodeGenerator extends CodeGenerator {
 
     @Override
     protected void emitNot(Tuple tuple) {
+        if (fusedTuples.contains(tupleIndex)) {
+            return;  // emitted with the comparison it negates
+        }
 
         Operand result = tuple.getOperands().get(0);
         Operand operand = tuple.getOperands().get(1);
 
-        String operandRef = getOperandReference(operand);
-        String resultRef = getOperandReference(result);
-
-        // Convert string operands to X86_64Operand objects
-        X86_64Operand raxReg = new Register(X86_64Register.RAX);
-        X86_64Operand operandMem = new Memory(operandRef);
-        X86_64Operand resultMem = new Memory(resultRef);
-        X86_64Operand boolMask = new Immediate(1);
+        X86_64Register resultReg = registerOf(location(result));
+        X86_64Register target = resultReg != null ? resultReg : X86_64Register.RAX;
+        X86_64Operand targetReg = new Register(target);
 
-        // Use the new emitAssembly method with X86_64Instruction and X86_64Operand
-        emitAssembly(X86_64Instruction.MOVQ, operandMem, raxReg);
-        emitAssembly(X86_64Instruction.NOTQ, raxReg);
-        emitAssembly(X86_64Instruction.ANDQ, boolMask, raxReg); // Ensure boolean result (0 or 1)
-        emitAssembly(X86_64Instruction.MOVQ, raxReg, resultMem);
+        load(operand, target);
+        emitAssembly(X86_64Instruction.NOTQ, targetReg);
+        emitAssembly(X86_64Instruction.ANDQ, new Immediate(1), targetReg); // Ensure boolean result (0 or 1)
+        store(target, result);
     }
 
     @Override
@@ -645,10 +713,11 @@ public class X86_64CodeGenerator extends CodeGenerator {
     }
 
     /**
-     * Helper method to emit comparison operations.
+     * Helper method to emit comparison operations. A comparison fused
+     * with the IF that uses it jumps instead of storing its result.
      *
      * @param tuple          the tuple
-     * @param setInstruction the set instruction (SETE, SETNE, etc.)
+     * @param setInstruction the set instruction for integers (SETE, SETNE, etc.)
      */
     private void emitComparison(Tuple tuple, X86_64Instruction setInstruction) {
         List<Operand> ops = tuple.getOperands();
@@ -656,41 +725,158 @@ public class X86_64CodeGenerator extends CodeGenerator {
         Operand left = ops.get(1);
         Operand right = ops.get(2);
 
-        String leftRef = getOperandReference(left);
-        String rightRef = getOperandReference(right);
-        String resultRef = getOperandReference(result);
-
-        // Convert string operands to X86_64Operand objects
-        X86_64Operand raxReg = new Register(X86_64Register.RAX);
+        Operator operator = tuple.getOperator();
+        FusedBranch branch = fusedBranches.get(tupleIndex);
         X86_64Operand alReg = new Register(X86_64Register.AL);
-        X86_64Operand leftMem = new Memory(leftRef);
-        X86_64Operand rightMem = new Memory(rightRef);
-        X86_64Operand resultMem = new Memory(resultRef);
 
-        // Use the new emitAssembly method with X86_64Instruction and X86_64Operand
-        emitAssembly(X86_64Instruction.MOVQ, leftMem, raxReg);
-        emitAssembly(X86_64Instruction.CMPQ, rightMem, raxReg);
-        emitAssembly(setInstruction, alReg);
-        emitAssembly(X86_64Instruction.MOVZBQ, alReg, raxReg); // Zero-extend byte to quad
-        emitAssembly(X86_64Instruction.MOVQ, raxReg, resultMem);
+        if (isFloatingPoint(left) || isFloatingPoint(right)) {
+            compareFloats(operator, left, right);
+
+            if (branch != null) {
+                emitFloatBranch(operator, branch);
+                return;
+            }
+
+            X86_64Operand clReg = new Register(X86_64Register.CL);
+            switch (operator) {
+                case EQ -> {
+                    // Equal sets ZF with PF clear, since unordered sets both
+                    emitAssembly(X86_64Instruction.SETE, alReg);
+                    emitAssembly(X86_64Instruction.SETNP, clReg);
+                    emitAssembly(X86_64Instruction.ANDB, clReg, alReg);
+                }
+                case NEQ -> {
+                    emitAssembly(X86_64Instruction.SETNE, alReg);
+                    emitAssembly(X86_64Instruction.SETP, clReg);
+                    emitAssembly(X86_64Instruction.ORB, clReg, alReg);
+                }
+                case GT, LT -> emitAssembly(X86_64Instruction.SETA, alReg);
+                default -> emitAssembly(X86_64Instruction.SETAE, alReg);
+            }
+        } else {
+            compareIntegers(left, right);
+
+            if (branch != null) {
+                Operator condition = branch.when ? operator : negationOf(operator);
+                emitAssembly(integerJump(condition), new X86_64Operand.Label(branch.target.toString()));
+                return;
+            }
+
+            emitAssembly(setInstruction, alReg);
+        }
+
+        X86_64Register resultReg = registerOf(location(result));
+        X86_64Register target = (resultReg != null) && !isFloatRegister(resultReg) ? resultReg : X86_64Register.RAX;
+
+        emitAssembly(X86_64Instruction.MOVZBQ, alReg, new Register(target)); // Zero-extend byte to quad
+        store(target, result);
+    }
+
+    /**
+     * Compare integer operands, setting the flags as for left - right.
+     */
+    private void compareIntegers(Operand left, Operand right) {
+        X86_64Register leftReg = registerOf(location(left));
+        if (leftReg == null || isFloatRegister(leftReg)) {
+            leftReg = X86_64Register.RAX;
+            load(left, leftReg);
+        }
+
+        X86_64Operand rightLoc = location(right);
+        if (isStringConstant(right) || isFloatRegister(registerOf(rightLoc))) {
+            load(right, X86_64Register.RCX);
+            rightLoc = new Register(X86_64Register.RCX);
+        }
+
+        emitAssembly(X86_64Instruction.CMPQ, rightLoc, new Register(leftReg));
+    }
+
+    /**
+     * Compare floating point operands with ucomisd. LT and LTE compare
+     * the right operand with the left, so every ordered comparison is
+     * an "above" test, which is false if either operand is NaN.
+     */
+    private void compareFloats(Operator operator, Operand left, Operand right) {
+        if (operator == Operator.LT || operator == Operator.LTE) {
+            Operand swapped = left;
+            left = right;
+            right = swapped;
+        }
+
+        loadFloat(left, X86_64Register.XMM0);
+        emitAssembly(X86_64Instruction.UCOMISD, floatSource(right, X86_64Register.XMM1),
+                new Register(X86_64Register.XMM0));
+    }
+
+    /**
+     * Emit the jump of a fused floating point comparison. An unordered
+     * result sets ZF, PF and CF, so EQ and NEQ also test the parity flag.
+     */
+    private void emitFloatBranch(Operator operator, FusedBranch branch) {
+        X86_64Operand target = new X86_64Operand.Label(branch.target.toString());
+
+        switch (operator) {
+            case EQ, NEQ -> {
+                if ((operator == Operator.EQ) == branch.when) {
+                    String skipLabel = ".LB" + (branchCounter++);
+                    emitAssembly(X86_64Instruction.JP, new X86_64Operand.Label(skipLabel));
+                    emitAssembly(X86_64Instruction.JE, target);
+                    placeLabel(skipLabel);
+                } else {
+                    emitAssembly(X86_64Instruction.JNE, target);
+                    emitAssembly(X86_64Instruction.JP, target);
+                }
+            }
+            case GT, LT -> emitAssembly(branch.when ? X86_64Instruction.JA : X86_64Instruction.JBE, target);
+            default -> emitAssembly(branch.when ? X86_64Instruction.JAE : X86_64Instruction.JB, target);
+        }
+    }
+
+    private static Operator negationOf(Operator operator) {
+        return switch (operator) {
+            case EQ -> Operator.NEQ;
+            case NEQ -> Operator.EQ;
+            case GT -> Operator.LTE;
+            case GTE -> Operator.LT;
+            case LT -> Operator.GTE;
+            default -> Operator.GT;
+        };
+    }
+
+    private static X86_64Instruction integerJump(Operator operator) {
+        return switch (operator) {
+            case EQ -> X86_64Instruction.JE;
+            case NEQ -> X86_64Instruction.JNE;
+            case GT -> X86_64Instruction.JG;
+            case GTE -> X86_64Instruction.JGE;
+            case LT -> X86_64Instruction.JL;
+            default -> X86_64Instruction.JLE;
+        };
     }
 
     @Override
     protected void emitIf(Tuple tuple) {
+        if (fusedTuples.contains(tupleIndex)) {
+            return;  // emitted with the comparison it tests
+        }
+
         Operand condition = tuple.getOperands().get(0);
         Label label = (Label) tuple.getOperands().get(1);
 
-        String conditionRef = getOperandReference(condition);
-
-        // Convert string operands to X86_64Operand objects
-        X86_64Operand raxReg = new Register(X86_64Register.RAX);
-        X86_64Operand conditionMem = new Memory(conditionRef);
+        X86_64Operand conditionLoc = location(condition);
+        X86_64Register conditionReg = registerOf(conditionLoc);
         X86_64Operand labelOp = new X86_64Operand.Label(label.toString());
 
-        // Use the new emitAssembly method with X86_64Instruction and X86_64Operand
-        emitAssembly(X86_64Instruction.MOVQ, conditionMem, raxReg);
-        emitAssembly(X86_64Instruction.TESTQ, raxReg, raxReg);
-        emitAssembly(X86_64Instruction.JNZ, labelOp);    // Changed to JNZ - jump when condition is TRUE (non-zero)
+        if (conditionReg != null && !isFloatRegister(conditionReg)) {
+            emitAssembly(X86_64Instruction.TESTQ, conditionLoc, conditionLoc);
+        } else if (conditionLoc instanceof Memory) {
+            emitAssembly(X86_64Instruction.CMPQ, new Immediate(0), conditionLoc);
+        } else {
+            X86_64Operand raxReg = new Register(X86_64Register.RAX);
+            load(condition, X86_64Register.RAX);
+            emitAssembly(X86_64Instruction.TESTQ, raxReg, raxReg);
+        }
+        emitAssembly(X86_64Instruction.JNZ, labelOp);    // Jump when condition is TRUE (non-zero)
     }
 
     @Override
@@ -703,40 +889,24 @@ public class X86_64CodeGenerator extends CodeGenerator {
     @Override
     protected void emitLabel(Tuple tuple) {
         Label label = (Label) tuple.getOperands().get(0);
-        emit(label + ":");
+        placeLabel(label.toString());
     }
 
     @Override
     protected void emitReturn(Tuple tuple) {
+        if (tailCalls.contains(tupleIndex - 1)) {
+            return;  // the callee of the tail call returns to the caller
+        }
+
         // Only set the return value if there is one
         if (!tuple.getOperands().isEmpty()) {
             Operand returnValue = tuple.getOperands().get(0);
-            String returnRef = getOperandReference(returnValue);
-
-            // Check if the return value is a floating point value
-            boolean isFloatingPoint = isFloatingPoint(returnValue);
-
-            if (isFloatingPoint) {
-                // For floating point returns, use XMM0 register
-                X86_64Operand xmm0Reg = new Register(X86_64Register.XMM0);
-                X86_64Operand returnMem = new Memory(returnRef);
-
-                // Handle floating point constants differently
-                if (isFloatingPointConstant(returnValue)) {
-                    X86_64Operand raxReg = new Register(X86_64Register.RAX);
-                    // For floating point constants, we need to use the RIP-relative addressing
-                    X86_64Operand ripRelativeMem = new Memory(returnRef + "(%rip)");
-                    emitAssembly(X86_64Instruction.MOVQ, ripRelativeMem, raxReg);
-                    emitAssembly(X86_64Instruction.MOVQ, raxReg, xmm0Reg);
-                } else {
-                    emitAssembly(X86_64Instruction.MOVQ, returnMem, xmm0Reg);
-                }
-            } else {
-                // For integer/pointer/boolean returns, use RAX register
-                X86_64Operand raxReg = new Register(X86_64Register.RAX);
-                X86_64Operand returnMem = new Memory(returnRef);
 
-                emitAssembly(X86_64Instruction.MOVQ, returnMem, raxReg);
+            // Floating point values are returned in XMM0, others in RAX
+            if (isFloatingPoint(returnValue)) {
+                load(returnValue, X86_64Register.XMM0);
+            } else {
+                load(returnValue, X86_64Register.RAX);
             }
         }
 
@@ -747,9 +917,15 @@ public class X86_64CodeGenerator extends CodeGenerator {
 
     @Override
     protected void emitPrint(Tuple tuple) {
-
         Operand operand = tuple.getOperands().get(0);
 
+        X86_64Operand rdiReg = new Register(X86_64Register.RDI);
+        X86_64Operand rsiReg = new Register(X86_64Register.RSI);
+        X86_64Operand raxReg = new Register(X86_64Register.RAX);
+        X86_64Operand printfCall = new X86_64Operand.Symbol("printf@GOTPCREL(%rip)");
+
+        saveAcrossCall();
+
         if (isStringConstant(operand)) {
             // Direct string constant
             Constant constant = (Constant) operand;
@@ -760,61 +936,32 @@ public class X86_64CodeGenerator extends CodeGenerator {
             String stringLabel = addStringConstant(strValue);
 
             // Print using printf with format specifier
-            X86_64Operand rdiReg = new Register(X86_64Register.RDI);
-            X86_64Operand rsiReg = new Register(X86_64Register.RSI);
-            X86_64Operand raxReg = new Register(X86_64Register.RAX);
             X86_64Operand formatLabelMem = new Memory(formatLabel + "(%rip)");
             X86_64Operand stringLabelMem = new Memory(stringLabel + "(%rip)");
-            X86_64Operand printfCall = new X86_64Operand.Symbol("printf@GOTPCREL(%rip)");
 
             emitAssembly(X86_64Instruction.LEAQ, formatLabelMem, rdiReg);
             emitAssembly(X86_64Instruction.LEAQ, stringLabelMem, rsiReg);
             emitAssembly(X86_64Instruction.XORQ, raxReg, raxReg); // Clear AL for varargs printf
-            emitAssembly(X86_64Instruction.CALL, printfCall);
         } else {
             // Value to print with format specifier
             String formatSpecifier = getFormatSpecifier(operand);
             String formatLabel = addStringConstant(formatSpecifier + "\n");
-            String operandRef = getOperandReference(operand);
-
-            // Handle floating point values differently
-            if (operand instanceof Constant) {
-                Constant constant = (Constant) operand;
-                Object value = constant.getValue();
-
-                if (value instanceof Float || value instanceof Double) {
-                    // For floating point, we need to use XMM registers
-                    X86_64Operand rdiReg = new Register(X86_64Register.RDI);
-                    X86_64Operand raxReg = new Register(X86_64Register.RAX);
-                    X86_64Operand xmm0Reg = new Register(X86_64Register.XMM0);
-                    X86_64Operand eaxReg = new Register(X86_64Register.EAX);
-                    X86_64Operand formatLabelMem = new Memory(formatLabel + "(%rip)");
-                    X86_64Operand operandMem = new Memory(operandRef + "(%rip)");
-                    X86_64Operand oneImm = new Immediate(1);
-                    X86_64Operand printfCall = new X86_64Operand.Symbol("printf@GOTPCREL(%rip)");
-
-                    emitAssembly(X86_64Instruction.LEAQ, formatLabelMem, rdiReg);
-                    emitAssembly(X86_64Instruction.MOVQ, operandMem, raxReg);
-                    emitAssembly(X86_64Instruction.MOVQ, raxReg, xmm0Reg);
-                    emitAssembly(X86_64Instruction.MOVL, oneImm, eaxReg); // Set AL to 1 for one XMM register
-                    emitAssembly(X86_64Instruction.CALL, printfCall);
-                    return;
-                }
-            }
-
-            // For non-floating point values
-            X86_64Operand rdiReg = new Register(X86_64Register.RDI);
-            X86_64Operand rsiReg = new Register(X86_64Register.RSI);
-            X86_64Operand raxReg = new Register(X86_64Register.RAX);
             X86_64Operand formatLabelMem = new Memory(formatLabel + "(%rip)");
-            X86_64Operand operandMem = new Memory(operandRef);
-            X86_64Operand printfCall = new X86_64Operand.Symbol("printf@GOTPCREL(%rip)");
 
             emitAssembly(X86_64Instruction.LEAQ, formatLabelMem, rdiReg);
-            emitAssembly(X86_64Instruction.MOVQ, operandMem, rsiReg);
-            emitAssembly(X86_64Instruction.XORQ, raxReg, raxReg); // Clear AL for varargs printf
-            emitAssembly(X86_64Instruction.CALL, printfCall);
+
+            if (isFloatingPoint(operand)) {
+                // For floating point, printf takes the value in XMM0
+                load(operand, X86_64Register.XMM0);
+                emitAssembly(X86_64Instruction.MOVL, new Immediate(1), new Register(X86_64Register.EAX)); // One XMM register
+            } else {
+                load(operand, X86_64Register.RSI);
+                emitAssembly(X86_64Instruction.XORQ, raxReg, raxReg); // Clear AL for varargs printf
+            }
         }
+
+        emitAssembly(X86_64Instruction.CALL, printfCall);
+        restoreAfterCall();
     }
 
     @Override
@@ -824,59 +971,102 @@ public class X86_64CodeGenerator extends CodeGenerator {
         // Handle arguments (x86_64 calling convention)
         // First 6 args go in registers: rdi, rsi, rdx, rcx, r8, r9
         // Additional args go on the stack
-        X86_64Operand[] argRegisters = {
-            new Register(X86_64Register.RDI),
-            new Register(X86_64Register.RSI),
-            new Register(X86_64Register.RDX),
-            new Register(X86_64Register.RCX),
-            new Register(X86_64Register.R8),
-            new Register(X86_64Register.R9)
+        X86_64Register[] argRegisters = {
+            X86_64Register.RDI, X86_64Register.RSI, X86_64Register.RDX,
+            X86_64Register.RCX, X86_64Register.R8, X86_64Register.R9
         };
         X86_64Operand raxReg = new Register(X86_64Register.RAX);
         X86_64Operand rspReg = new Register(X86_64Register.RSP);
 
+        if (tailCalls.contains(tupleIndex)) {
+            emitTailCall(ops, argRegisters);
+            return;
+        }
+
+        saveAcrossCall();
+
+        // Keep the stack 16-byte aligned at the call
+        int stackArgs = Math.max(ops.size() - 8, 0);
+        int padding = (stackArgs % 2) * 8;
+        if (padding > 0) {
+            emitAssembly(X86_64Instruction.SUBQ, new Immediate(padding), rspReg);
+        }
+
         // Push any arguments beyond the first 6 onto the stack (in reverse order)
         for (int i = ops.size() - 1; i >= 8; i--) {
-            Operand arg = ops.get(i);
-            String argRef = getOperandReference(arg);
-            X86_64Operand argMem = new Memory(argRef);
-
-            emitAssembly(X86_64Instruction.MOVQ, argMem, raxReg);
+            load(ops.get(i), X86_64Register.RAX);
             emitAssembly(X86_64Instruction.PUSHQ, raxReg);
         }
 
         // Load the first 6 arguments into registers
         for (int i = 2; i < Math.min(ops.size(), 8); i++) {
-            Operand arg = ops.get(i);
-            String argRef = getOperandReference(arg);
-            X86_64Operand argMem = new Memory(argRef);
-
-            emitAssembly(X86_64Instruction.MOVQ, argMem, argRegisters[i - 2]);
+            load(ops.get(i), argRegisters[i - 2]);
         }
 
-        // Call the function
-        // Get the function name from the function operand
+        // Call the function directly by name
         Function function = (Function) ops.get(1);
-        String funcName = function.getName();
-
-        // Call the function using the base name
-        X86_64Operand funcCall = new X86_64Operand.Symbol(funcName);
+        X86_64Operand funcCall = new X86_64Operand.Label(function.getName());
         emitAssembly(X86_64Instruction.CALL, funcCall);
 
         // Clean up stack if we pushed arguments
-        if (ops.size() > 8) {
-            int stackArgs = ops.size() - 8;
-            X86_64Operand stackSizeImm = new Immediate(stackArgs * 8);
+        if (stackArgs > 0) {
+            X86_64Operand stackSizeImm = new Immediate(stackArgs * 8 + padding);
             emitAssembly(X86_64Instruction.ADDQ, stackSizeImm, rspReg);
         }
 
-        // Store the return value if needed
-        if (!ops.isEmpty()) {
-            Operand result = ops.get(0);
-            String resultRef = getOperandReference(result);
-            X86_64Operand resultMem = new Memory(resultRef);
+        // Store the return value, which is in XMM0 if it's floating point
+        Operand result = ops.get(0);
+        if (result != null) {
+            store(isFloatingPoint(result) ? X86_64Register.XMM0 : X86_64Register.RAX, result);
+        }
+
+        restoreAfterCall();
+    }
+
+    /**
+     * Emit a tail call, which loads the arguments, tears down this
+     * function's frame as the epilogue does and jumps to the callee, so
+     * that the callee's RET returns to this function's caller with the
+     * result already in RAX or XMM0.
+     */
+    private void emitTailCall(List<Operand> ops, X86_64Register[] argRegisters) {
+        X86_64Operand rbpReg = new Register(X86_64Register.RBP);
+        X86_64Operand rspReg = new Register(X86_64Register.RSP);
+
+        for (int i = 2; i < ops.size(); i++) {
+            load(ops.get(i), argRegisters[i - 2]);
+        }
 
-            emitAssembly(X86_64Instruction.MOVQ, raxReg, resultMem);
+        for (X86_64Register register : allocation.getCalleeSaved()) {
+            emitAssembly(X86_64Instruction.MOVQ, slot(allocation.getCalleeSaveSlot(register)),
+                    new Register(register));
+        }
+
+        emitAssembly(X86_64Instruction.MOVQ, rbpReg, rspReg);
+        emitAssembly(X86_64Instruction.POPQ, rbpReg);
+
+        Function function = (Function) ops.get(1);
+        emitAssembly(X86_64Instruction.JMP, new X86_64Operand.Label(function.getName()));
+    }
+
+    /**
+     * Save the caller-saved registers that hold values live across the
+     * call at the current tuple.
+     */
+    private void saveAcrossCall() {
+        for (X86_64Register register : allocation.getSavedAcrossCall(tupleIndex)) {
+            emitAssembly(X86_64Instruction.MOVQ, new Register(register),
+                    slot(allocation.getCallerSaveSlot(register)));
+        }
+    }
+
+    /**
+     * Restore the caller-saved registers saved by saveAcrossCall().
+     */
+    private void restoreAfterCall() {
+        for (X86_64Register register : allocation.getSavedAcrossCall(tupleIndex)) {
+            emitAssembly(X86_64Instruction.MOVQ, slot(allocation.getCallerSaveSlot(register)),
+                    new Register(register));
         }
     }
 
@@ -897,6 +1087,7 @@ public class X86_64CodeGenerator extends CodeGenerator {
      */
     @Override
     protected void onEmitTuple(Tuple tuple) {
+        tupleIndex++;
         String output = "# " + tuple.toString();
 
         switch (tuple.getOperator()) {
@@ -924,18 +1115,16 @@ public class X86_64CodeGenerator extends CodeGenerator {
      * @param operands    the operands for the instruction
      */
     private void emitAssembly(X86_64Instruction instruction, X86_64Operand... operands) {
-        StringBuilder sb = new StringBuilder(indent);
-        sb.append(instruction.getMnemonic());
-
-        if (operands.length > 0) {
-            sb.append("\t").append(operands[0]);
-        }
-
-        if (operands.length > 1) {
-            sb.append(", ").append(operands[1]);
-        }
+        lines.add(X86_64Line.instruction(instruction, operands));
+    }
 
-        output.append(sb).append("\n");
+    /**
+     * Emit a label.
+     *
+     * @param name the label name
+     */
+    private void placeLabel(String name) {
+        lines.add(X86_64Line.label(name));
     }
 
     /**
@@ -943,15 +1132,27 @@ public class X86_64CodeGenerator extends CodeGenerator {
      * Used for section directives and labels (left-aligned).
      */
     private void emit(String code) {
-        output.append(code).append("\n");
+        lines.add(X86_64Line.text(code));
     }
 
     /**
      * Emit a line of assembly code with indentation.
-     * Used for instructions (indented with a tab).
+     * Used for data directives and comments (indented with a tab).
      */
     private void emitIndented(String code) {
-        output.append(indent).append(code).append("\n");
+        lines.add(X86_64Line.text(indent + code));
+    }
+
+    /**
+     * Append lines to the output and clear the current lines.
+     *
+     * @param rendered the lines to append
+     */
+    private void render(List<X86_64Line> rendered) {
+        for (X86_64Line line : rendered) {
+            line.appendTo(masterOutput);
+        }
+        lines.clear();
     }
 
     /**
@@ -1027,141 +1228,149 @@ public class X86_64CodeGenerator extends CodeGenerator {
     }
 
     /**
-     * Get the assembly representation of an operand.
+     * Get the location of an operand's value. Temporaries and function
+     * locals are in their allocated registers or stack slots, program
+     * variables are in the data section, and constants are immediates
+     * or read-only data.
      */
-    private String getOperandReference(Operand operand) {
+    private X86_64Operand location(Operand operand) {
         if (operand instanceof Constant) {
             Constant constant = (Constant) operand;
             Object value = constant.getValue();
 
-            // If we're in a global context, we might need to create a global variable for
-            // this constant
-            if (!currentFunction.equals("") && !currentFunction.equals("main")) {
-                // We're in a function context, handle normally
-                if (value instanceof String) {
-                    String strValue = (String) value;
-                    String label = addStringConstant(strValue);
-                    return label;
-                } else if (value instanceof Boolean) {
-                    return ((Boolean) value) ? "$1" : "$0";
-                } else if (value instanceof Float || value instanceof Double) {
-                    double doubleValue = value instanceof Float ? ((Float) value).doubleValue() : (Double) value;
-                    String label = addFloatConstant(doubleValue);
-                    return label;
-                } else {
-                    return "$" + value;
-                }
+            if (value instanceof Boolean) {
+                return new Immediate(((Boolean) value) ? 1 : 0);
+            } else if (value instanceof Float || value instanceof Double) {
+                String label = addFloatConstant(((Number) value).doubleValue());
+                return new Memory(label + "(%rip)");
+            } else if (value instanceof String) {
+                String label = addStringConstant((String) value);
+                return new Memory(label + "(%rip)");
+            } else if (value == null) {
+                return new Immediate(0);
             } else {
-                // For integer constants, use immediate values directly
-                if (value instanceof Integer || value instanceof Long) {
-                    return "$" + value;
-                } else if (value instanceof Boolean) {
-                    return ((Boolean) value) ? "$1" : "$0";
-                } else {
-                    // For other types (String, Float, Double), we still need to create a global
-                    // variable
-                    // Generate a unique name for this constant
-                    String varName = "__const_" + globalVariables.size();
-
-                    // Add to the map of global variables with its type and value
-                    Operand.OperandType type;
-                    if (value instanceof String) {
-                        type = Operand.OperandType.STRING;
-                    } else if (value instanceof Float || value instanceof Double) {
-                        type = Operand.OperandType.FLOAT;
-                    } else {
-                        type = Operand.OperandType.INTEGER;
-                    }
-
-                    globalVariables.put(varName, new GlobalVarInfo(type, value));
-
-                    // Use RIP-relative addressing for global variables
-                    return varName + "(%rip)";
-                }
+                return new Immediate(value.toString());
             }
+        } else if (allocation.holds(operand)) {
+            X86_64Register register = allocation.getRegister(operand);
+            return register != null ? new Register(register) : slot(allocation.getSpillSlot(operand));
         } else if (operand instanceof Variable) {
             Variable variable = (Variable) operand;
             String varName = variable.getName();
 
-            if (variableOffsets.containsKey(varName)) {
-                int offset = variableOffsets.get(varName);
-                return offset + "(%rbp)";
-            } else {
-                // If we're in a function context, allocate space for the local variable
-                if (!currentFunction.equals("") && !currentFunction.equals("main")) {
-                    // Allocate space for the local variable - use the next available slot
-                    // We already allocated space for parameters and some locals in
-                    // emitFunctionStart
-                    // So we need to find the next available slot
-                    int nextSlot = 1;
-                    for (int offset : variableOffsets.values()) {
-                        if (offset < 0) { // Only consider negative offsets (stack variables)
-                            nextSlot = Math.max(nextSlot, Math.abs(offset) / 8 + 1);
-                        }
-                    }
-                    int offset = -8 * nextSlot;
-                    variableOffsets.put(varName, offset);
-                    return offset + "(%rbp)";
-                } else {
-                    // Global variable - add to the map of global variables with its type and value
-                    Object value = null;
-
-                    // If the variable is a constant, get its value
-                    if (variable.getEntry() != null && variable.getEntry().getValue() != null) {
-                        value = variable.getEntry().getValue();
-                    }
+            if (!globalVariables.containsKey(varName)) {
+                // Global variable - add to the map of global variables with its type and value
+                Object value = null;
 
-                    globalVariables.put(varName, new GlobalVarInfo(variable.getType(), value));
-                    // Use RIP-relative addressing for global variables
-                    return varName + "(%rip)";
+                // If the variable is a constant, get its value
+                if (variable.getEntry() != null && variable.getEntry().getValue() != null) {
+                    value = variable.getEntry().getValue();
                 }
+
+                globalVariables.put(varName, new GlobalVarInfo(variable.getType(), value));
             }
-        } else if (operand instanceof Temporary) {
-            Temporary temp = (Temporary) operand;
-            int tempNum = temp.getNumber();
 
-            if (tempOffsets.containsKey(tempNum)) {
-                int offset = tempOffsets.get(tempNum);
-                return offset + "(%rbp)";
-            } else {
-                // Allocate space for the temporary - use the next available slot
-                // We need to find the next available slot considering both variables and
-                // temporaries
-                int nextSlot = 1;
-
-                // Check variable offsets
-                for (int offset : variableOffsets.values()) {
-                    if (offset < 0) { // Only consider negative offsets (stack variables)
-                        nextSlot = Math.max(nextSlot, Math.abs(offset) / 8 + 1);
-                    }
-                }
+            // Use RIP-relative addressing for global variables
+            return new Memory(varName + "(%rip)");
+        }
 
-                // Check temporary offsets
-                for (int offset : tempOffsets.values()) {
-                    if (offset < 0) { // Only consider negative offsets (stack variables)
-                        nextSlot = Math.max(nextSlot, Math.abs(offset) / 8 + 1);
-                    }
-                }
+        return new Memory(operand.toString());
+    }
 
-                int offset = -8 * nextSlot;
-                tempOffsets.put(tempNum, offset);
+    /**
+     * Get the allocated home of a function variable.
+     *
+     * @return its register or stack slot, or null if it has neither
+     */
+    private X86_64Operand homeOf(SymTableEntry entry) {
+        X86_64Register register = allocation.getRegister(entry);
+        if (register != null) {
+            return new Register(register);
+        }
 
-                // Calculate the stack size needed for this temporary
-                int newStackSize = 8 * nextSlot;
+        int slot = allocation.getSpillSlot(entry);
+        return slot >= 0 ? slot(slot) : null;
+    }
 
-                // Update the current function's stack size if this temporary requires more
-                // space
-                if (newStackSize > currentFunctionStackSize) {
-                    currentFunctionStackSize = newStackSize;
-                }
+    /**
+     * Get a stack slot of the current frame.
+     */
+    private X86_64Operand slot(int slot) {
+        return new Memory((-8 * (slot + 1)) + "(%rbp)");
+    }
 
-                return offset + "(%rbp)";
-            }
-        } else if (operand instanceof Label) {
-            return operand.toString();
+    private X86_64Register registerOf(X86_64Operand operand) {
+        return operand instanceof Register ? ((Register) operand).getRegister() : null;
+    }
+
+    private boolean isFloatRegister(X86_64Register register) {
+        return register != null && register.name().startsWith("XMM");
+    }
+
+    /**
+     * Load an operand's value into a register. A string constant is
+     * loaded as its address.
+     */
+    private void load(Operand operand, X86_64Register register) {
+        X86_64Operand source = location(operand);
+        X86_64Operand target = new Register(register);
+
+        if (isStringConstant(operand)) {
+            emitAssembly(X86_64Instruction.LEAQ, source, target);
+        } else if (registerOf(source) == register) {
+            return;
+        } else if (source instanceof Immediate && isFloatRegister(register)) {
+            X86_64Operand raxReg = new Register(X86_64Register.RAX);
+            emitAssembly(X86_64Instruction.MOVQ, source, raxReg);
+            emitAssembly(X86_64Instruction.MOVQ, raxReg, target);
+        } else {
+            emitAssembly(X86_64Instruction.MOVQ, source, target);
         }
+    }
 
-        return operand.toString();
+    /**
+     * Load an operand into an XMM register as a floating point value,
+     * converting it if it's an integer.
+     */
+    private void loadFloat(Operand operand, X86_64Register register) {
+        if (!isIntegerValued(operand)) {
+            load(operand, register);
+            return;
+        }
+
+        X86_64Operand source = location(operand);
+        if (source instanceof Immediate) {
+            X86_64Operand raxReg = new Register(X86_64Register.RAX);
+            emitAssembly(X86_64Instruction.MOVQ, source, raxReg);
+            source = raxReg;
+        }
+        emitAssembly(X86_64Instruction.CVTSI2SDQ, source, new Register(register));
+    }
+
+    /**
+     * Get the source operand of a floating point instruction, loading it
+     * into a scratch XMM register unless it's already in an XMM register
+     * or in memory.
+     */
+    private X86_64Operand floatSource(Operand operand, X86_64Register scratch) {
+        X86_64Operand source = location(operand);
+
+        if (isIntegerValued(operand) || !(source instanceof Memory || isFloatRegister(registerOf(source)))) {
+            loadFloat(operand, scratch);
+            return new Register(scratch);
+        }
+        return source;
+    }
+
+    /**
+     * Store a register into an operand's location.
+     */
+    private void store(X86_64Register register, Operand operand) {
+        X86_64Operand target = location(operand);
+
+        if (registerOf(target) != register) {
+            emitAssembly(X86_64Instruction.MOVQ, new Register(register), target);
+        }
     }
 
     /**
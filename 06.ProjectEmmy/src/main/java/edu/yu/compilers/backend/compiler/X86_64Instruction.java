@@ -24,18 +24,35 @@ public enum X86_64Instruction {
     DIVSD("divsd"),
     ADDSD("addsd"),
     SUBSD("subsd"),
+    NEGQ("negq"),
+    DECQ("decq"),
+    BTCQ("btcq"),
+    CVTSI2SDQ("cvtsi2sdq"),
 
     // Logical Operations
     ANDQ("andq"),
     ORQ("orq"),
     NOTQ("notq"),
+    ANDB("andb"),
+    ORB("orb"),
     TESTQ("testq"),
     CMPQ("cmpq"),
+    UCOMISD("ucomisd"),
 
     // Control Flow
     JMP("jmp"),
     JE("je"),
+    JNE("jne"),
     JNZ("jnz"),
+    JG("jg"),
+    JGE("jge"),
+    JL("jl"),
+    JLE("jle"),
+    JA("ja"),
+    JAE("jae"),
+    JB("jb"),
+    JBE("jbe"),
+    JP("jp"),
     CALL("call"),
     RET("ret"),
 
@@ -46,6 +63,10 @@ public enum X86_64Instruction {
     SETGE("setge"),
     SETL("setl"),
     SETLE("setle"),
+    SETA("seta"),
+    SETAE("setae"),
+    SETP("setp"),
+    SETNP("setnp"),
 
     // Special Operations
     CQTO("cqto"),
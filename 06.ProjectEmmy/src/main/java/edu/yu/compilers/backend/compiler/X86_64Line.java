@@ -0,0 +1,123 @@
+package edu.yu.compilers.backend.compiler;
+
+import java.util.List;
+
+/**
+ * A line of X86_64 assembly code: an instruction with its operands, a
+ * label, or text such as a comment or directive that is copied as is.
+ */
+public class X86_64Line {
+
+    /**
+     * The kinds of lines.
+     */
+    public enum Kind {
+        INSTRUCTION, LABEL, TEXT
+    }
+
+    // Indentation for instructions
+    private static final String INDENT = "\t";
+
+    private final Kind kind;
+    private final X86_64Instruction instruction;
+    private final List<X86_64Operand> operands;
+    private final String text;
+
+    private X86_64Line(Kind kind, X86_64Instruction instruction, List<X86_64Operand> operands, String text) {
+        this.kind = kind;
+        this.instruction = instruction;
+        this.operands = operands;
+        this.text = text;
+    }
+
+    /**
+     * Create an instruction line.
+     *
+     * @param instruction the instruction
+     * @param operands    its source and destination operands
+     * @return the line
+     */
+    public static X86_64Line instruction(X86_64Instruction instruction, X86_64Operand... operands) {
+        return new X86_64Line(Kind.INSTRUCTION, instruction, List.of(operands), null);
+    }
+
+    /**
+     * Create a label line.
+     *
+     * @param name the label name
+     * @return the line
+     */
+    public static X86_64Line label(String name) {
+        return new X86_64Line(Kind.LABEL, null, List.of(), name);
+    }
+
+    /**
+     * Create a line of text.
+     *
+     * @param text the text
+     * @return the line
+     */
+    public static X86_64Line text(String text) {
+        return new X86_64Line(Kind.TEXT, null, List.of(), text);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public X86_64Instruction getInstruction() {
+        return instruction;
+    }
+
+    public List<X86_64Operand> getOperands() {
+        return operands;
+    }
+
+    /**
+     * Get the name of a label line.
+     *
+     * @return the name, or null if this is not a label
+     */
+    public String getLabel() {
+        return kind == Kind.LABEL ? text : null;
+    }
+
+    public boolean isInstruction() {
+        return kind == Kind.INSTRUCTION;
+    }
+
+    public boolean isInstruction(X86_64Instruction instruction) {
+        return this.instruction == instruction;
+    }
+
+    public boolean isLabel() {
+        return kind == Kind.LABEL;
+    }
+
+    /**
+     * Append this line and its newline to assembly text.
+     *
+     * @param sb the assembly text
+     */
+    public void appendTo(StringBuilder sb) {
+        switch (kind) {
+            case INSTRUCTION -> {
+                sb.append(INDENT).append(instruction.getMnemonic());
+                for (int i = 0; i < operands.size(); i++) {
+                    sb.append(i == 0 ? "\t" : ", ").append(operands.get(i));
+                }
+            }
+            case LABEL -> sb.append(text).append(':');
+            default -> sb.append(text);
+        }
+        sb.append('\n');
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        appendTo(sb);
+        sb.setLength(sb.length() - 1);
+        return sb.toString();
+    }
+}
@@ -19,11 +19,25 @@ public abstract class X86_64Operand {
         public Register(X86_64Register register) {
             this.register = register;
         }
+
+        public X86_64Register getRegister() {
+            return register;
+        }
         
         @Override
         public String toString() {
             return register.toString().toLowerCase();
         }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Register that && register == that.register;
+        }
+
+        @Override
+        public int hashCode() {
+            return register.hashCode();
+        }
     }
     
     /**
@@ -48,6 +62,16 @@ public abstract class X86_64Operand {
         public String toString() {
             return "$" + value;
         }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Immediate that && value.equals(that.value);
+        }
+
+        @Override
+        public int hashCode() {
+            return value.hashCode();
+        }
     }
     
     /**
@@ -64,6 +88,16 @@ public abstract class X86_64Operand {
         public String toString() {
             return address;
         }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Memory that && address.equals(that.address);
+        }
+
+        @Override
+        public int hashCode() {
+            return address.hashCode();
+        }
     }
     
     /**
@@ -80,6 +114,16 @@ public abstract class X86_64Operand {
         public String toString() {
             return name;
         }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Label that && name.equals(that.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return name.hashCode();
+        }
     }
     
     /**
@@ -97,5 +141,15 @@ public abstract class X86_64Operand {
         public String toString() {
             return "*" + symbol;
         }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Symbol that && symbol.equals(that.symbol);
+        }
+
+        @Override
+        public int hashCode() {
+            return symbol.hashCode();
+        }
     }
 }
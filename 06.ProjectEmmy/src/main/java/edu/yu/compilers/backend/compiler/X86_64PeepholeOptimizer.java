@@ -0,0 +1,212 @@
+package edu.yu.compilers.backend.compiler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.yu.compilers.backend.compiler.X86_64Operand.Immediate;
+import edu.yu.compilers.backend.compiler.X86_64Operand.Memory;
+import edu.yu.compilers.backend.compiler.X86_64Operand.Register;
+
+/**
+ * Peephole optimizer for a function's x86_64 instructions. It removes
+ * the redundant instructions that the code generator emits one tuple at
+ * a time:
+ *
+ * <ul>
+ * <li>a movq that reloads a value just stored, or stores a value just
+ * loaded, which becomes a register move or is removed</li>
+ * <li>a movq of a register to itself</li>
+ * <li>an addq or subq of zero</li>
+ * <li>a jmp to a label that immediately follows it</li>
+ * <li>a cmpq of a register with zero after an instruction that set the
+ * zero flag from the same register, when only je or jne tests it</li>
+ * </ul>
+ *
+ * <p>It also replaces a subq of one by decq.</p>
+ *
+ * <p>Comments and blank lines don't separate two instructions, but a
+ * label does, since control can reach it from elsewhere.</p>
+ */
+public class X86_64PeepholeOptimizer {
+
+    private static final Immediate ZERO = new Immediate(0);
+    private static final Immediate ONE = new Immediate(1);
+
+    private X86_64PeepholeOptimizer() {
+    }
+
+    /**
+     * Optimize a function's lines, repeating until nothing changes.
+     *
+     * @param lines the function's lines
+     * @return the optimized lines
+     */
+    public static List<X86_64Line> optimize(List<X86_64Line> lines) {
+        List<X86_64Line> current = lines;
+        boolean changed = true;
+
+        while (changed) {
+            List<X86_64Line> optimized = new ArrayList<>(current.size());
+            changed = false;
+
+            // Index in optimized of the last instruction not followed by a label
+            int previous = -1;
+
+            for (int i = 0; i < current.size(); i++) {
+                X86_64Line line = current.get(i);
+
+                if (line.isLabel()) {
+                    previous = -1;
+                } else if (line.isInstruction()) {
+                    if (isRedundant(line) || isJumpToNext(line, current, i)) {
+                        changed = true;
+                        continue;
+                    }
+
+                    if (previous >= 0 && isRedundantCompare(optimized.get(previous), line, current, i)) {
+                        changed = true;
+                        continue;
+                    }
+
+                    X86_64Line simplified = simplify(line);
+                    if (simplified != line) {
+                        changed = true;
+                        line = simplified;
+                    }
+
+                    if (previous >= 0) {
+                        X86_64Line replacement = combine(optimized.get(previous), line);
+                        if (replacement == null) {
+                            changed = true;
+                            continue;
+                        } else if (replacement != line) {
+                            changed = true;
+                            line = replacement;
+                        }
+                    }
+                    previous = optimized.size();
+                }
+
+                optimized.add(line);
+            }
+
+            current = optimized;
+        }
+
+        return current;
+    }
+
+    /**
+     * Check if an instruction has no effect: a move of a register to
+     * itself or an addition or subtraction of zero. The flags that addq
+     * and subq would set are never tested after them.
+     */
+    private static boolean isRedundant(X86_64Line line) {
+        List<X86_64Operand> operands = line.getOperands();
+
+        if (line.isInstruction(X86_64Instruction.MOVQ)) {
+            return operands.get(0) instanceof Register && operands.get(0).equals(operands.get(1));
+        } else if (line.isInstruction(X86_64Instruction.ADDQ) || line.isInstruction(X86_64Instruction.SUBQ)) {
+            return ZERO.equals(operands.get(0));
+        }
+        return false;
+    }
+
+    /**
+     * Replace a subq of one by decq.
+     */
+    private static X86_64Line simplify(X86_64Line line) {
+        List<X86_64Operand> operands = line.getOperands();
+
+        if (line.isInstruction(X86_64Instruction.SUBQ) && ONE.equals(operands.get(0))) {
+            return X86_64Line.instruction(X86_64Instruction.DECQ, operands.get(1));
+        }
+        return line;
+    }
+
+    /**
+     * Check if a cmpq of a register with zero at index i only repeats
+     * the zero flag that the previous instruction set from the register,
+     * and the next instruction is a jump that tests only the zero flag.
+     */
+    private static boolean isRedundantCompare(X86_64Line previous, X86_64Line line,
+                                              List<X86_64Line> lines, int i) {
+        if (!line.isInstruction(X86_64Instruction.CMPQ) || !ZERO.equals(line.getOperands().get(0))) {
+            return false;
+        }
+
+        boolean setsZeroFlag = previous.isInstruction(X86_64Instruction.ADDQ)
+                || previous.isInstruction(X86_64Instruction.SUBQ)
+                || previous.isInstruction(X86_64Instruction.DECQ);
+        List<X86_64Operand> previousOperands = previous.getOperands();
+        X86_64Operand register = line.getOperands().get(1);
+        if (!setsZeroFlag || !(register instanceof Register)
+                || !register.equals(previousOperands.get(previousOperands.size() - 1))) {
+            return false;
+        }
+
+        for (int j = i + 1; j < lines.size(); j++) {
+            X86_64Line next = lines.get(j);
+            if (next.isLabel()) {
+                return false;
+            } else if (next.isInstruction()) {
+                return next.isInstruction(X86_64Instruction.JE) || next.isInstruction(X86_64Instruction.JNE);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check if a jmp at index i is followed by its target label, with
+     * nothing but comments and other labels in between.
+     */
+    private static boolean isJumpToNext(X86_64Line line, List<X86_64Line> lines, int i) {
+        if (!line.isInstruction(X86_64Instruction.JMP)) {
+            return false;
+        }
+
+        String target = line.getOperands().get(0).toString();
+        for (int j = i + 1; j < lines.size(); j++) {
+            X86_64Line next = lines.get(j);
+            if (next.isInstruction()) {
+                return false;
+            } else if (target.equals(next.getLabel())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Combine a movq with the movq before it when they move the same
+     * value through a memory location.
+     *
+     * @param previous the previous instruction
+     * @param line     the instruction
+     * @return the instruction to keep, which is line if there is nothing
+     *         to combine, or null if the instruction is redundant
+     */
+    private static X86_64Line combine(X86_64Line previous, X86_64Line line) {
+        if (!previous.isInstruction(X86_64Instruction.MOVQ) || !line.isInstruction(X86_64Instruction.MOVQ)) {
+            return line;
+        }
+
+        X86_64Operand previousSource = previous.getOperands().get(0);
+        X86_64Operand previousTarget = previous.getOperands().get(1);
+        X86_64Operand source = line.getOperands().get(0);
+        X86_64Operand target = line.getOperands().get(1);
+
+        if (previousSource instanceof Register && previousTarget instanceof Memory
+                && source.equals(previousTarget) && target instanceof Register) {
+            // A store and a reload: reuse the stored register
+            return target.equals(previousSource)
+                    ? null
+                    : X86_64Line.instruction(X86_64Instruction.MOVQ, previousSource, target);
+        } else if (previousSource instanceof Memory && previousTarget instanceof Register
+                && source.equals(previousTarget) && target.equals(previousSource)) {
+            // A load and a store back to the same location
+            return null;
+        }
+        return line;
+    }
+}
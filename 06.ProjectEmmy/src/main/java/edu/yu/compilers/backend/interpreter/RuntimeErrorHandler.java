@@ -37,6 +37,21 @@ public class RuntimeErrorHandler {
         }
     }
 
+    /**
+     * Flag a runtime error in code that has no parse tree context.
+     *
+     * @param code     the runtime error code.
+     * @param location the name of the routine where the error occurred.
+     */
+    public void flag(Code code, String location) {
+        System.out.printf("\n*** RUNTIME ERROR in %s: %s\n", location, code.message);
+
+        if (++count > MAX_ERRORS) {
+            System.out.println("*** ABORTED AFTER TOO MANY RUNTIME ERRORS.");
+            System.exit(-1);
+        }
+    }
+
     public enum Code {
         UNINITIALIZED_VALUE("Uninitialized value"), VALUE_RANGE("Value out of range"), INVALID_CASE_EXPRESSION_VALUE("Invalid CASE expression value"), DIVISION_BY_ZERO("Division by zero"), INVALID_STANDARD_FUNCTION_ARGUMENT("Invalid standard function argument"), INVALID_INPUT("Invalid input"), STACK_OVERFLOW("Runtime stack overflow"), UNIMPLEMENTED_FEATURE("Unimplemented runtime feature");
 
@@ -0,0 +1,568 @@
+package edu.yu.compilers.backend.interpreter;
+
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import edu.yu.compilers.backend.interpreter.RuntimeErrorHandler.Code;
+import edu.yu.compilers.intermediate.ir.Operand;
+import edu.yu.compilers.intermediate.ir.Operand.Constant;
+import edu.yu.compilers.intermediate.ir.Operand.Function;
+import edu.yu.compilers.intermediate.ir.Operand.Label;
+import edu.yu.compilers.intermediate.ir.Operand.Temporary;
+import edu.yu.compilers.intermediate.ir.Operand.Variable;
+import edu.yu.compilers.intermediate.ir.Tuple;
+import edu.yu.compilers.intermediate.ir.TupleIR;
+import edu.yu.compilers.intermediate.ir.TupleIR.FunctionInfo;
+import edu.yu.compilers.intermediate.ir.TupleIR.VariableInfo;
+import edu.yu.compilers.intermediate.symbols.SymTableEntry;
+
+/**
+ * Execute Emmy programs directly from their TupleIR.
+ *
+ * Before execution, each function's tuples are decoded into flat
+ * instruction arrays. Temporaries and variables are resolved to integer
+ * frame slots and labels are resolved to instruction indices, so the
+ * dispatch loop never looks anything up by name or by symbol table entry.
+ *
+ * An IF tuple jumps to its label when its condition is true, which is
+ * how both code generators treat it. Printed values use the same formats
+ * as the native x86 build so the two can be compared directly.
+ */
+public class TupleExecutor {
+
+    // Operand kinds, stored in the low bits of an encoded operand.
+    private static final int LOCAL = 0;
+    private static final int GLOBAL = 1;
+    private static final int CONSTANT = 2;
+    private static final int KIND_BITS = 2;
+    private static final int KIND_MASK = (1 << KIND_BITS) - 1;
+
+    private static final int NO_OPERAND = -1;
+
+    // Decoded opcodes.
+    private static final int OP_ASSIGN = 0;
+    private static final int OP_ADD = 1;
+    private static final int OP_SUB = 2;
+    private static final int OP_MUL = 3;
+    private static final int OP_DIV = 4;
+    private static final int OP_NEG = 5;
+    private static final int OP_AND = 6;
+    private static final int OP_OR = 7;
+    private static final int OP_NOT = 8;
+    private static final int OP_EQ = 9;
+    private static final int OP_NEQ = 10;
+    private static final int OP_GT = 11;
+    private static final int OP_GTE = 12;
+    private static final int OP_LT = 13;
+    private static final int OP_LTE = 14;
+    private static final int OP_IF = 15;
+    private static final int OP_GOTO = 16;
+    private static final int OP_RETURN = 17;
+    private static final int OP_PRINT = 18;
+    private static final int OP_CALL = 19;
+
+    private long executionCount = 0;    // count of executed instructions
+    private long elapsedTime = 0L;      // elapsed time in ms
+    private final TupleIR ir;
+    private final RuntimeErrorHandler error;
+
+    private final List<DecodedFunction> functions = new ArrayList<>();
+    private final Map<String, Integer> functionIndexes = new HashMap<>();
+    private final Map<SymTableEntry, Integer> globalSlots = new HashMap<>();
+    private final List<Object> constantPool = new ArrayList<>();
+    private final Map<Object, Integer> constantIndexes = new HashMap<>();
+
+    private Object[] constants;
+    private Object[] globals;
+    private DecodedFunction current;
+    private PrintWriter out;
+
+    public TupleExecutor(TupleIR ir) {
+        this.ir = ir;
+        this.error = new RuntimeErrorHandler();
+    }
+
+    public long getExecutionCount() {
+        return executionCount;
+    }
+
+    public long getElapsedTime() {
+        return elapsedTime;
+    }
+
+    /**
+     * Decode the IR and run the program's global code.
+     */
+    public void execute() {
+        decode();
+
+        out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16), false);
+        long startTime = System.currentTimeMillis();
+
+        try {
+            DecodedFunction program = functions.get(0);
+            globals = new Object[program.globalCount];
+            run(program, new Object[program.frameSize]);
+        } catch (StackOverflowError ex) {
+            runtimeError(Code.STACK_OVERFLOW);
+        } finally {
+            out.flush();
+        }
+
+        elapsedTime = System.currentTimeMillis() - startTime;
+    }
+
+    // *************************
+    // Decoding
+    // *************************
+
+    /**
+     * A function decoded into parallel instruction arrays.
+     */
+    private static class DecodedFunction {
+        private final String name;
+        private int[] ops;
+        private int[] dst;      // result operand or jump target
+        private int[] src1;
+        private int[] src2;     // second operand or callee index
+        private int[][] args;   // CALL arguments
+        private int[] paramSlots;
+        private int frameSize;
+        private int globalCount;
+
+        private DecodedFunction(String name) {
+            this.name = name;
+        }
+    }
+
+    private void decode() {
+        List<FunctionInfo> infos = ir.getFunctionList();
+
+        for (int i = 0; i < infos.size(); i++) {
+            functionIndexes.putIfAbsent(infos.get(i).getName(), i);
+        }
+
+        // The global scope is always first, so its variables
+        // get their global slots before any function refers to them.
+        for (FunctionInfo info : infos) {
+            functions.add(decodeFunction(info));
+        }
+
+        functions.get(0).globalCount = globalSlots.size();
+        constants = constantPool.toArray();
+    }
+
+    private DecodedFunction decodeFunction(FunctionInfo info) {
+        DecodedFunction fn = new DecodedFunction(info.getName());
+        boolean global = info.isGlobalLevel();
+
+        Map<SymTableEntry, Integer> localSlots = new HashMap<>();
+        Map<Integer, Integer> tempSlots = new HashMap<>();
+        int[] nextSlot = { 0 };
+
+        // Parameters first, in parameter order, then locals.
+        List<VariableInfo> params = new ArrayList<>(info.getParameters());
+        params.sort((v1, v2) -> v1.getParamIndex() - v2.getParamIndex());
+        fn.paramSlots = new int[params.size()];
+        for (int i = 0; i < params.size(); i++) {
+            localSlots.put(params.get(i).getEntry(), nextSlot[0]);
+            fn.paramSlots[i] = nextSlot[0]++;
+        }
+
+        for (VariableInfo var : info.getLocalVariables()) {
+            if (global) {
+                globalSlots.putIfAbsent(var.getEntry(), globalSlots.size());
+            } else {
+                localSlots.putIfAbsent(var.getEntry(), nextSlot[0]++);
+            }
+        }
+
+        // First pass: resolve each label to the index of the
+        // instruction that follows it.
+        List<Tuple> tuples = info.getTuples();
+        Map<String, Integer> labelIndexes = new HashMap<>();
+        int count = 0;
+        for (Tuple tuple : tuples) {
+            switch (tuple.getOperator()) {
+                case LABEL -> labelIndexes.put(((Label) tuple.getOperands().get(0)).getName(), count);
+                case PROGRAM, FUNCTION, PARAM -> {
+                }
+                default -> count++;
+            }
+        }
+
+        fn.ops = new int[count];
+        fn.dst = new int[count];
+        fn.src1 = new int[count];
+        fn.src2 = new int[count];
+        fn.args = new int[count][];
+
+        // Second pass: encode the instructions.
+        java.util.function.Function<Operand, Integer> encoder = operand -> {
+            if (operand instanceof Constant constant) {
+                return encode(CONSTANT, addConstant(constant.getValue()));
+            } else if (operand instanceof Temporary temp) {
+                Integer slot = tempSlots.get(temp.getNumber());
+                if (slot == null) {
+                    slot = nextSlot[0]++;
+                    tempSlots.put(temp.getNumber(), slot);
+                }
+                return encode(LOCAL, slot);
+            } else if (operand instanceof Variable variable) {
+                SymTableEntry entry = variable.getEntry();
+                Integer slot = localSlots.get(entry);
+                if (slot != null) {
+                    return encode(LOCAL, slot);
+                }
+                slot = globalSlots.get(entry);
+                if (slot != null) {
+                    return encode(GLOBAL, slot);
+                }
+
+                // Not declared in this function's scope:
+                // allocate it where the code generators would.
+                if (global) {
+                    slot = globalSlots.size();
+                    globalSlots.put(entry, slot);
+                    return encode(GLOBAL, slot);
+                } else {
+                    slot = nextSlot[0]++;
+                    localSlots.put(entry, slot);
+                    return encode(LOCAL, slot);
+                }
+            }
+            throw new IllegalStateException("Unexpected operand: " + operand);
+        };
+
+        int pc = 0;
+        for (Tuple tuple : tuples) {
+            List<Operand> operands = tuple.getOperands();
+            fn.dst[pc] = NO_OPERAND;
+            fn.src1[pc] = NO_OPERAND;
+            fn.src2[pc] = NO_OPERAND;
+
+            switch (tuple.getOperator()) {
+                case LABEL, PROGRAM, FUNCTION, PARAM -> {
+                    continue;
+                }
+                case END_FUNCTION, END_PROGRAM -> fn.ops[pc] = OP_RETURN;
+                case ASSIGN, TEMP -> {
+                    fn.ops[pc] = OP_ASSIGN;
+                    fn.dst[pc] = encoder.apply(operands.get(0));
+                    fn.src1[pc] = encoder.apply(operands.get(1));
+                }
+                case ADD, SUB, MUL, DIV, AND, OR, EQ, NEQ, GT, GTE, LT, LTE -> {
+                    if (operands.size() == 2) {
+                        // Unary minus is a SUB with a single source operand.
+                        fn.ops[pc] = OP_NEG;
+                    } else {
+                        fn.ops[pc] = binaryOpcode(tuple);
+                        fn.src2[pc] = encoder.apply(operands.get(2));
+                    }
+                    fn.dst[pc] = encoder.apply(operands.get(0));
+                    fn.src1[pc] = encoder.apply(operands.get(1));
+                }
+                case NOT -> {
+                    fn.ops[pc] = OP_NOT;
+                    fn.dst[pc] = encoder.apply(operands.get(0));
+                    fn.src1[pc] = encoder.apply(operands.get(1));
+                }
+                case IF -> {
+                    fn.ops[pc] = OP_IF;
+                    fn.src1[pc] = encoder.apply(operands.get(0));
+                    fn.dst[pc] = resolveLabel(labelIndexes, operands.get(1));
+                }
+                case GOTO -> {
+                    fn.ops[pc] = OP_GOTO;
+                    fn.dst[pc] = resolveLabel(labelIndexes, operands.get(0));
+                }
+                case RETURN -> {
+                    fn.ops[pc] = OP_RETURN;
+                    if (!operands.isEmpty()) {
+                        fn.src1[pc] = encoder.apply(operands.get(0));
+                    }
+                }
+                case PRINT -> {
+                    fn.ops[pc] = OP_PRINT;
+                    fn.src1[pc] = encoder.apply(operands.get(0));
+                }
+                case CALL -> {
+                    fn.ops[pc] = OP_CALL;
+                    fn.dst[pc] = encoder.apply(operands.get(0));
+
+                    String callee = ((Function) operands.get(1)).getName();
+                    Integer index = functionIndexes.get(callee);
+                    if (index == null) {
+                        throw new IllegalStateException("No code for function " + callee);
+                    }
+                    fn.src2[pc] = index;
+
+                    int[] args = new int[operands.size() - 2];
+                    for (int i = 0; i < args.length; i++) {
+                        args[i] = encoder.apply(operands.get(i + 2));
+                    }
+                    fn.args[pc] = args;
+                }
+            }
+            pc++;
+        }
+
+        fn.frameSize = nextSlot[0];
+        return fn;
+    }
+
+    private static int binaryOpcode(Tuple tuple) {
+        return switch (tuple.getOperator()) {
+            case ADD -> OP_ADD;
+            case SUB -> OP_SUB;
+            case MUL -> OP_MUL;
+            case DIV -> OP_DIV;
+            case AND -> OP_AND;
+            case OR -> OP_OR;
+            case EQ -> OP_EQ;
+            case NEQ -> OP_NEQ;
+            case GT -> OP_GT;
+            case GTE -> OP_GTE;
+            case LT -> OP_LT;
+            case LTE -> OP_LTE;
+            default -> throw new IllegalStateException("Not a binary operator: " + tuple);
+        };
+    }
+
+    private static int resolveLabel(Map<String, Integer> labelIndexes, Operand operand) {
+        String name = ((Label) operand).getName();
+        Integer index = labelIndexes.get(name);
+        if (index == null) {
+            throw new IllegalStateException("Undefined label " + name);
+        }
+        return index;
+    }
+
+    private static int encode(int kind, int index) {
+        return (index << KIND_BITS) | kind;
+    }
+
+    private int addConstant(Object value) {
+        // Integers are 64-bit at runtime, as in the native build.
+        if (value instanceof Integer i) {
+            value = i.longValue();
+        } else if (value instanceof Float f) {
+            value = f.doubleValue();
+        }
+
+        Integer index = constantIndexes.get(value);
+        if (index == null) {
+            index = constantPool.size();
+            constantPool.add(value);
+            constantIndexes.put(value, index);
+        }
+        return index;
+    }
+
+    // *************************
+    // Execution
+    // *************************
+
+    private Object run(DecodedFunction fn, Object[] frame) {
+        final int[] ops = fn.ops;
+        final int[] dst = fn.dst;
+        final int[] src1 = fn.src1;
+        final int[] src2 = fn.src2;
+
+        DecodedFunction caller = current;
+        current = fn;
+        long count = 0;
+        int pc = 0;
+
+        while (true) {
+            count++;
+
+            switch (ops[pc]) {
+                case OP_ASSIGN -> store(frame, dst[pc], load(frame, src1[pc]));
+                case OP_ADD -> store(frame, dst[pc], add(load(frame, src1[pc]), load(frame, src2[pc])));
+                case OP_SUB -> store(frame, dst[pc], subtract(load(frame, src1[pc]), load(frame, src2[pc])));
+                case OP_MUL -> store(frame, dst[pc], multiply(load(frame, src1[pc]), load(frame, src2[pc])));
+                case OP_DIV -> store(frame, dst[pc], divide(load(frame, src1[pc]), load(frame, src2[pc])));
+                case OP_NEG -> store(frame, dst[pc], negate(load(frame, src1[pc])));
+                case OP_AND -> store(frame, dst[pc], isTrue(load(frame, src1[pc])) && isTrue(load(frame, src2[pc])));
+                case OP_OR -> store(frame, dst[pc], isTrue(load(frame, src1[pc])) || isTrue(load(frame, src2[pc])));
+                case OP_NOT -> store(frame, dst[pc], !isTrue(load(frame, src1[pc])));
+                case OP_EQ -> store(frame, dst[pc], equal(load(frame, src1[pc]), load(frame, src2[pc])));
+                case OP_NEQ -> store(frame, dst[pc], !equal(load(frame, src1[pc]), load(frame, src2[pc])));
+                case OP_GT -> store(frame, dst[pc], less(load(frame, src2[pc]), load(frame, src1[pc])));
+                case OP_GTE -> store(frame, dst[pc], lessOrEqual(load(frame, src2[pc]), load(frame, src1[pc])));
+                case OP_LT -> store(frame, dst[pc], less(load(frame, src1[pc]), load(frame, src2[pc])));
+                case OP_LTE -> store(frame, dst[pc], lessOrEqual(load(frame, src1[pc]), load(frame, src2[pc])));
+                case OP_IF -> {
+                    if (isTrue(load(frame, src1[pc]))) {
+                        pc = dst[pc];
+                        continue;
+                    }
+                }
+                case OP_GOTO -> {
+                    pc = dst[pc];
+                    continue;
+                }
+                case OP_RETURN -> {
+                    Object value = src1[pc] == NO_OPERAND ? null : load(frame, src1[pc]);
+                    executionCount += count;
+                    current = caller;
+                    return value;
+                }
+                case OP_PRINT -> print(load(frame, src1[pc]));
+                case OP_CALL -> {
+                    DecodedFunction callee = functions.get(src2[pc]);
+                    Object[] calleeFrame = new Object[callee.frameSize];
+                    int[] args = fn.args[pc];
+                    int[] paramSlots = callee.paramSlots;
+                    for (int i = 0; i < args.length && i < paramSlots.length; i++) {
+                        calleeFrame[paramSlots[i]] = load(frame, args[i]);
+                    }
+
+                    executionCount += count;
+                    count = 0;
+                    Object result = run(callee, calleeFrame);
+                    current = fn;
+                    store(frame, dst[pc], result);
+                }
+                default -> throw new IllegalStateException("Bad opcode " + ops[pc]);
+            }
+            pc++;
+        }
+    }
+
+    private Object load(Object[] frame, int operand) {
+        int index = operand >>> KIND_BITS;
+        return switch (operand & KIND_MASK) {
+            case LOCAL -> frame[index];
+            case GLOBAL -> globals[index];
+            default -> constants[index];
+        };
+    }
+
+    private void store(Object[] frame, int operand, Object value) {
+        int index = operand >>> KIND_BITS;
+        if ((operand & KIND_MASK) == GLOBAL) {
+            globals[index] = value;
+        } else {
+            frame[index] = value;
+        }
+    }
+
+    private Object add(Object left, Object right) {
+        if (left instanceof Long l && right instanceof Long r) {
+            return l + r;
+        } else if (left instanceof String l && right instanceof String r) {
+            return l + r;
+        }
+        return toDouble(left) + toDouble(right);
+    }
+
+    private Object subtract(Object left, Object right) {
+        if (left instanceof Long l && right instanceof Long r) {
+            return l - r;
+        }
+        return toDouble(left) - toDouble(right);
+    }
+
+    private Object multiply(Object left, Object right) {
+        if (left instanceof Long l && right instanceof Long r) {
+            return l * r;
+        }
+        return toDouble(left) * toDouble(right);
+    }
+
+    private Object divide(Object left, Object right) {
+        if (left instanceof Long l && right instanceof Long r) {
+            if (r == 0) {
+                runtimeError(Code.DIVISION_BY_ZERO);
+                return 0L;
+            }
+            return l / r;
+        }
+        return toDouble(left) / toDouble(right);
+    }
+
+    private Object negate(Object value) {
+        if (value instanceof Long l) {
+            return -l;
+        }
+        return -toDouble(value);
+    }
+
+    private boolean equal(Object left, Object right) {
+        if (left instanceof Number && right instanceof Number
+                && !(left instanceof Long && right instanceof Long)) {
+            return toDouble(left) == toDouble(right);
+        } else if (left == null) {
+            return right == null;
+        }
+        return left.equals(right);
+    }
+
+    // Doubles compare as IEEE 754 values, as the native build's ucomisd
+    // does: -0.0 equals 0.0 and every comparison with NaN is false.
+    private boolean less(Object left, Object right) {
+        if (left instanceof Long l && right instanceof Long r) {
+            return l < r;
+        } else if (left instanceof String l && right instanceof String r) {
+            return l.compareTo(r) < 0;
+        }
+        return toDouble(left) < toDouble(right);
+    }
+
+    private boolean lessOrEqual(Object left, Object right) {
+        if (left instanceof Long l && right instanceof Long r) {
+            return l <= r;
+        } else if (left instanceof String l && right instanceof String r) {
+            return l.compareTo(r) <= 0;
+        }
+        return toDouble(left) <= toDouble(right);
+    }
+
+    private double toDouble(Object value) {
+        if (value instanceof Number number) {
+            return number.doubleValue();
+        } else if (value instanceof Boolean bool) {
+            return bool ? 1 : 0;
+        }
+        runtimeError(Code.UNINITIALIZED_VALUE);
+        return 0;
+    }
+
+    private static boolean isTrue(Object value) {
+        if (value instanceof Boolean bool) {
+            return bool;
+        } else if (value instanceof Long l) {
+            return l != 0;
+        } else if (value instanceof Double d) {
+            return d != 0;
+        }
+        return value != null;
+    }
+
+    private void runtimeError(Code code) {
+        // Keep the program's output in order with the error message.
+        out.flush();
+        error.flag(code, current.name);
+    }
+
+    private void print(Object value) {
+        if (value instanceof Double d) {
+            out.printf(Locale.ROOT, "%f\n", d);
+        } else if (value instanceof Boolean bool) {
+            out.print(bool ? "1\n" : "0\n");
+        } else if (value == null) {
+            out.print("none\n");
+        } else {
+            out.print(value);
+            out.print('\n');
+        }
+    }
+}
@@ -132,7 +132,7 @@ public class TupleFactory {
      * Create an if statement.
      * 
      * @param condition the condition expression
-     * @param label     the target label if condition is false
+     * @param label     the target label if condition is true
      * @return the created tuple
      */
     public static Tuple createIf(Operand condition, Label label) {
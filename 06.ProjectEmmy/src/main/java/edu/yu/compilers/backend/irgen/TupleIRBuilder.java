@@ -17,6 +17,7 @@ import edu.yu.compilers.intermediate.ast.Expr.Literal;
 import edu.yu.compilers.intermediate.ast.Expr.Logical;
 import edu.yu.compilers.intermediate.ast.Expr.Unary;
 import edu.yu.compilers.intermediate.ast.Expr.VarId;
+import edu.yu.compilers.intermediate.ast.Oper;
 import edu.yu.compilers.intermediate.ast.Program;
 import edu.yu.compilers.intermediate.ast.Stmt;
 import edu.yu.compilers.intermediate.ast.Stmt.Block;
@@ -233,11 +234,8 @@ public class TupleIRBuilder extends BaseASTVisitor<Object> {
         Label endIfLabel = createLabel("endif");
         Label elseLabel = stmt.getElseBranch() != null ? createLabel("else") : endIfLabel;
 
-        // Visit condition and get its operand
-        Operand condition = (Operand) visit(stmt.getCondition());
-
-        // Add IF tuple for condition
-        ir.addTuple(TupleFactory.createIf(condition, elseLabel));
+        // Branch around the then branch when the condition is false
+        branch(stmt.getCondition(), false, elseLabel);
 
         // Visit then branch
         visit(stmt.getThenBranch());
@@ -309,12 +307,9 @@ public class TupleIRBuilder extends BaseASTVisitor<Object> {
             throw new RuntimeException("Break test outside of loop context");
         }
 
-        // Get the condition
-        Operand condition = (Operand) visit(stmt.getCondition());
-
         // If condition is true, jump to the end of the loop
         Label endLabel = loopEndLabels.get(currentLoop);
-        ir.addTuple(TupleFactory.createIf(condition, endLabel));
+        branch(stmt.getCondition(), true, endLabel);
 
         return null;
     }
@@ -458,31 +453,76 @@ public class TupleIRBuilder extends BaseASTVisitor<Object> {
 
     @Override
     public Operand visitLogicalExpr(Logical expr) {
-        // Visit left and right operands
-        Operand left = (Operand) visit(expr.getLeft());
-        Operand right = (Operand) visit(expr.getRight());
-
-        // Map the AST operator to the IR operator
-        Operator op;
+        // The result starts as the value that the left operand decides:
+        // false for AND and true for OR. The right operand is evaluated
+        // and becomes the result only if the left one doesn't decide it.
+        boolean decided;
         switch (expr.getOperator()) {
             case AND:
-                op = Operator.AND;
+                decided = false;
                 break;
             case OR:
-                op = Operator.OR;
+                decided = true;
                 break;
             default:
                 throw new IllegalArgumentException("Unknown logical operator: " + expr.getOperator());
         }
 
-        // Add logical operation tuple
+        Label endLabel = createLabel("logical_end");
         Temporary result = ir.newTemp();
         result.setType(getTypeFromExpr(expr));
-        ir.addTuple(TupleFactory.createBinaryOp(op, result, left, right));
+
+        ir.addTuple(TupleFactory.createAssign(result, new Constant(decided)));
+        branch(expr.getLeft(), decided, endLabel);
+
+        Operand right = (Operand) visit(expr.getRight());
+        ir.addTuple(TupleFactory.createAssign(result, right));
+        ir.addTuple(TupleFactory.createLabel(endLabel));
 
         return result;
     }
 
+    /**
+     * Generate the tuples that jump to a label when a condition has the
+     * given value, and otherwise fall through. AND, OR and NOT become
+     * jumps, so the right operand of AND and OR is only evaluated if the
+     * left operand doesn't decide the result.
+     *
+     * @param condition the condition
+     * @param when      the value of the condition that jumps
+     * @param target    the label to jump to
+     */
+    private void branch(Expr condition, boolean when, Label target) {
+        if (condition instanceof Logical logical) {
+            // The left operand decides AND when false and OR when true.
+            boolean decided = logical.getOperator() == Oper.OR;
+
+            if (decided == when) {
+                branch(logical.getLeft(), when, target);
+                branch(logical.getRight(), when, target);
+            } else {
+                Label skipLabel = createLabel("skip");
+                branch(logical.getLeft(), decided, skipLabel);
+                branch(logical.getRight(), when, target);
+                ir.addTuple(TupleFactory.createLabel(skipLabel));
+            }
+        } else if (condition instanceof Unary unary && unary.getOperator() == Oper.NOT) {
+            branch(unary.getOperand(), !when, target);
+        } else {
+            Operand value = (Operand) visit(condition);
+
+            // IF jumps when its condition is true, so
+            // branch on the negated value to jump when false
+            if (!when) {
+                Temporary negated = ir.newTemp();
+                negated.setType(OperandType.BOOLEAN);
+                ir.addTuple(TupleFactory.createUnaryOp(Operator.NOT, negated, value));
+                value = negated;
+            }
+            ir.addTuple(TupleFactory.createIf(value, target));
+        }
+    }
+
     @Override
     public Operand visitUnaryExpr(Unary expr) {
         // Visit the operand
@@ -0,0 +1,188 @@
+package edu.yu.compilers.backend.optimizer;
+
+import edu.yu.compilers.intermediate.ir.Operand.Constant;
+import edu.yu.compilers.intermediate.ir.Operator;
+
+/**
+ * Evaluate IR operations on constant values at compile time, with the
+ * same results as the tuple executor gives at run time: integers are
+ * 64-bit, mixed integer and float arithmetic is done in double, and
+ * adding two strings concatenates them.
+ *
+ * <p>An operation is not folded if it would fail at run time, such as
+ * an integer division by zero, so the error still happens when the
+ * program runs. Nor is it folded if its result is an integer that the
+ * x86 code generator could not use as an immediate operand.</p>
+ */
+public final class ConstantFolder {
+
+    private ConstantFolder() {
+    }
+
+    /**
+     * Get the value of a constant operand as the executor sees it.
+     *
+     * @param constant the constant
+     * @return the value as a Long, Double, Boolean or String, or null if
+     *         the constant can't be folded
+     */
+    public static Object valueOf(Constant constant) {
+        return normalize(constant.getValue());
+    }
+
+    /**
+     * Convert a value to the type the executor computes with.
+     *
+     * @param value the value
+     * @return the value as a Long, Double, Boolean or String, or null if
+     *         it can't be folded
+     */
+    public static Object normalize(Object value) {
+        if (value instanceof Integer i) {
+            return i.longValue();
+        } else if (value instanceof Float f) {
+            return f.doubleValue();
+        } else if (value instanceof Long l) {
+            return l == (int) l.longValue() ? l : null;
+        } else if (value instanceof Double || value instanceof Boolean || value instanceof String) {
+            return value;
+        }
+        return null;
+    }
+
+    /**
+     * Fold a unary operation: negation (a SUB with one operand) or NOT.
+     *
+     * @param operator the operator
+     * @param value    the normalized operand value
+     * @return the result, or null if it can't be folded
+     */
+    public static Object fold(Operator operator, Object value) {
+        switch (operator) {
+            case SUB:
+                if (value instanceof Long l) {
+                    return normalize(-l);
+                } else if (value instanceof Double d) {
+                    return -d;
+                }
+                return null;
+            case NOT:
+                return value instanceof Boolean b ? !b : null;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Fold a binary operation.
+     *
+     * @param operator the operator
+     * @param left     the normalized left operand value
+     * @param right    the normalized right operand value
+     * @return the result, or null if it can't be folded
+     */
+    public static Object fold(Operator operator, Object left, Object right) {
+        if (left == null || right == null) return null;
+
+        switch (operator) {
+            case ADD:
+                if (left instanceof String l && right instanceof String r) {
+                    return l + r;
+                }
+                return arithmetic(operator, left, right);
+            case SUB:
+            case MUL:
+            case DIV:
+                return arithmetic(operator, left, right);
+            case AND:
+                if (left instanceof Boolean l && right instanceof Boolean r) {
+                    return l && r;
+                }
+                return null;
+            case OR:
+                if (left instanceof Boolean l && right instanceof Boolean r) {
+                    return l || r;
+                }
+                return null;
+            case EQ:
+                return equal(left, right);
+            case NEQ:
+                return !equal(left, right);
+            case GT:
+            case GTE:
+            case LT:
+            case LTE:
+                return compare(operator, left, right);
+            default:
+                return null;
+        }
+    }
+
+    private static Object arithmetic(Operator operator, Object left, Object right) {
+        if (left instanceof Long l && right instanceof Long r) {
+            return switch (operator) {
+                case ADD -> normalize(l + r);
+                case SUB -> normalize(l - r);
+                case MUL -> normalize(l * r);
+                case DIV -> r == 0 ? null : normalize(l / r);
+                default -> null;
+            };
+        } else if (isNumeric(left) && isNumeric(right)) {
+            double l = toDouble(left);
+            double r = toDouble(right);
+            return switch (operator) {
+                case ADD -> l + r;
+                case SUB -> l - r;
+                case MUL -> l * r;
+                case DIV -> l / r;
+                default -> null;
+            };
+        }
+        return null;
+    }
+
+    private static boolean equal(Object left, Object right) {
+        if (left instanceof Number && right instanceof Number
+                && !(left instanceof Long && right instanceof Long)) {
+            return toDouble(left) == toDouble(right);
+        }
+        return left.equals(right);
+    }
+
+    private static Boolean compare(Operator operator, Object left, Object right) {
+        int comparison;
+        if (left instanceof Long l && right instanceof Long r) {
+            comparison = Long.compare(l, r);
+        } else if (left instanceof String l && right instanceof String r) {
+            comparison = l.compareTo(r);
+        } else if (isNumeric(left) && isNumeric(right)) {
+            return compareDoubles(operator, toDouble(left), toDouble(right));
+        } else {
+            return null;
+        }
+
+        return switch (operator) {
+            case GT -> comparison > 0;
+            case GTE -> comparison >= 0;
+            case LT -> comparison < 0;
+            default -> comparison <= 0;
+        };
+    }
+
+    private static boolean compareDoubles(Operator operator, double left, double right) {
+        return switch (operator) {
+            case GT -> left > right;
+            case GTE -> left >= right;
+            case LT -> left < right;
+            default -> left <= right;
+        };
+    }
+
+    private static boolean isNumeric(Object value) {
+        return value instanceof Long || value instanceof Double;
+    }
+
+    private static double toDouble(Object value) {
+        return ((Number) value).doubleValue();
+    }
+}
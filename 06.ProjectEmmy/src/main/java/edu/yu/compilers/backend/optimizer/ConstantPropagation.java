@@ -0,0 +1,442 @@
+package edu.yu.compilers.backend.optimizer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+
+import edu.yu.compilers.intermediate.cfg.BasicBlock;
+import edu.yu.compilers.intermediate.cfg.ControlFlowGraph;
+import edu.yu.compilers.intermediate.ir.Operand;
+import edu.yu.compilers.intermediate.ir.Operand.Constant;
+import edu.yu.compilers.intermediate.ir.Operand.OperandType;
+import edu.yu.compilers.intermediate.ir.Operand.Temporary;
+import edu.yu.compilers.intermediate.ir.Operand.Variable;
+import edu.yu.compilers.intermediate.ir.Operator;
+import edu.yu.compilers.intermediate.ir.Tuple;
+import edu.yu.compilers.intermediate.ir.TupleIR;
+import edu.yu.compilers.intermediate.ir.TupleIR.FunctionInfo;
+import edu.yu.compilers.intermediate.ssa.SSAForm;
+import edu.yu.compilers.intermediate.ssa.SSAForm.Phi;
+
+/**
+ * Sparse conditional constant propagation (Wegman and Zadeck) over the
+ * SSA form of each function. Every SSA value starts out unknown (top)
+ * and is lowered to a constant or to varying (bottom) as the blocks that
+ * define and use it are found to be executable. A branch on a constant
+ * makes only one of its edges executable, so constants flow through
+ * code that a plain dataflow analysis would have to assume can run.
+ *
+ * <p>The function's tuples are then rewritten: uses of constant values
+ * become constants, definitions of constant values are deleted, branches
+ * on constants become GOTOs or disappear, and blocks that can never run
+ * are dropped. The SSA form lives beside the tuples, so leaving it just
+ * keeps the original names; a constant definition that still reaches a
+ * merge with a varying value is kept as an ASSIGN of the constant.</p>
+ *
+ * <p>Only the names private to a function are propagated; any other
+ * variable can be changed by a call and is left alone.</p>
+ */
+public class ConstantPropagation {
+
+    private static final Object TOP = new Object();
+    private static final Object BOTTOM = new Object();
+
+    private final TupleIR ir;
+    private final FunctionInfo function;
+    private final ControlFlowGraph graph;
+    private final List<Tuple> tuples;
+    private final SSAForm ssa;
+
+    private final Object[] values;                 // the lattice value of each SSA value
+    private final List<List<Integer>> tupleUses;    // tuples that use each value
+    private final List<List<Phi>> phiUses;          // phis that use each value
+    private final boolean[] executableBlocks;
+    private final BitSet executableEdges = new BitSet();
+
+    private final Deque<BasicBlock[]> flowWork = new ArrayDeque<>();
+    private final Deque<Integer> ssaWork = new ArrayDeque<>();
+
+    /**
+     * Propagate constants through every function of the IR.
+     *
+     * @param ir the IR
+     */
+    public static void run(TupleIR ir) {
+        PrivateNames names = new PrivateNames(ir);
+
+        for (FunctionInfo function : ir.getFunctionList()) {
+            new ConstantPropagation(ir, function, names).propagate();
+        }
+    }
+
+    private ConstantPropagation(TupleIR ir, FunctionInfo function, PrivateNames names) {
+        this.ir = ir;
+        this.function = function;
+        this.graph = function.getControlFlowGraph();
+        this.tuples = graph.getTuples();
+        this.ssa = new SSAForm(graph, operand -> names.isPrivate(operand, function));
+
+        int valueCount = ssa.getValueCount();
+        values = new Object[valueCount];
+        tupleUses = new ArrayList<>(valueCount);
+        phiUses = new ArrayList<>(valueCount);
+        for (int value = 0; value < valueCount; value++) {
+            values[value] = ssa.isEntryValue(value) ? BOTTOM : TOP;
+            tupleUses.add(new ArrayList<>());
+            phiUses.add(new ArrayList<>());
+        }
+        executableBlocks = new boolean[graph.getBlocks().size()];
+
+        findUses();
+    }
+
+    private void findUses() {
+        for (int i = 0; i < tuples.size(); i++) {
+            Tuple tuple = tuples.get(i);
+            for (int j = firstUse(tuple); j < tuple.getOperands().size(); j++) {
+                int value = ssa.getValue(i, j);
+                if (value != SSAForm.NONE) {
+                    tupleUses.get(value).add(i);
+                }
+            }
+        }
+
+        for (BasicBlock block : graph.getBlocks()) {
+            for (Phi phi : ssa.getPhis(block)) {
+                for (int k = 0; k < phi.getArgumentCount(); k++) {
+                    int value = phi.getArgument(k);
+                    if (value != SSAForm.NONE) {
+                        phiUses.get(value).add(phi);
+                    }
+                }
+            }
+        }
+    }
+
+    private static int firstUse(Tuple tuple) {
+        return tuple.getOperator().hasResult() ? 1 : 0;
+    }
+
+    // *************************
+    // Analysis
+    // *************************
+
+    private void propagate() {
+        if (graph.getEntry() == null) return;
+
+        flowWork.add(new BasicBlock[] { null, graph.getEntry() });
+
+        while (!flowWork.isEmpty() || !ssaWork.isEmpty()) {
+            while (!flowWork.isEmpty()) {
+                BasicBlock[] edge = flowWork.remove();
+                visitEdge(edge[0], edge[1]);
+            }
+            while (!ssaWork.isEmpty()) {
+                int value = ssaWork.remove();
+                for (Phi phi : phiUses.get(value)) {
+                    if (executableBlocks[phi.getBlock().getIndex()]) {
+                        visitPhi(phi);
+                    }
+                }
+                for (int i : tupleUses.get(value)) {
+                    if (executableBlocks[graph.getBlockOf(i).getIndex()]) {
+                        visitTuple(i);
+                    }
+                }
+            }
+        }
+
+        rewrite();
+    }
+
+    private void visitEdge(BasicBlock from, BasicBlock to) {
+        if (from != null) {
+            int edge = edgeIndex(from, to);
+            if (executableEdges.get(edge)) return;
+            executableEdges.set(edge);
+        }
+
+        for (Phi phi : ssa.getPhis(to)) {
+            visitPhi(phi);
+        }
+
+        if (!executableBlocks[to.getIndex()]) {
+            executableBlocks[to.getIndex()] = true;
+            for (int i = to.getStart(); i < to.getEnd(); i++) {
+                visitTuple(i);
+            }
+        }
+    }
+
+    private int edgeIndex(BasicBlock from, BasicBlock to) {
+        return from.getIndex() * graph.getBlocks().size() + to.getIndex();
+    }
+
+    private boolean isExecutable(BasicBlock from, BasicBlock to) {
+        return executableEdges.get(edgeIndex(from, to));
+    }
+
+    private void visitPhi(Phi phi) {
+        List<BasicBlock> predecessors = phi.getBlock().getPredecessors();
+        Object merged = TOP;
+
+        for (int k = 0; k < predecessors.size(); k++) {
+            if (isExecutable(predecessors.get(k), phi.getBlock())) {
+                merged = meet(merged, values[phi.getArgument(k)]);
+            }
+        }
+
+        lower(phi.getValue(), merged);
+    }
+
+    private void visitTuple(int index) {
+        Tuple tuple = tuples.get(index);
+        BasicBlock block = graph.getBlockOf(index);
+
+        if (tuple.getOperator().hasResult()) {
+            int value = ssa.getValue(index, 0);
+            if (value != SSAForm.NONE) {
+                lower(value, evaluate(index));
+            }
+        }
+
+        if (index == block.getEnd() - 1) {
+            List<BasicBlock> successors = block.getSuccessors();
+
+            if (tuple.getOperator() == Operator.IF && !successors.isEmpty()) {
+                Object condition = valueOf(index, 0);
+                if (condition == BOTTOM) {
+                    for (BasicBlock successor : successors) {
+                        flowWork.add(new BasicBlock[] { block, successor });
+                    }
+                } else if (condition != TOP) {
+                    // The branch target is the first successor and the next block the last.
+                    BasicBlock successor = isTrue(condition)
+                            ? successors.get(0)
+                            : successors.get(successors.size() - 1);
+                    flowWork.add(new BasicBlock[] { block, successor });
+                }
+            } else {
+                for (BasicBlock successor : successors) {
+                    flowWork.add(new BasicBlock[] { block, successor });
+                }
+            }
+        }
+    }
+
+    /**
+     * Evaluate a tuple's result over the lattice.
+     */
+    private Object evaluate(int index) {
+        Tuple tuple = tuples.get(index);
+        List<Operand> operands = tuple.getOperands();
+        Operator operator = tuple.getOperator();
+
+        if (operator == Operator.CALL) return BOTTOM;
+
+        Object result;
+        if (operator == Operator.ASSIGN || operator == Operator.TEMP) {
+            result = valueOf(index, 1);
+        } else if (operands.size() == 2) {
+            Object value = valueOf(index, 1);
+            if (value == TOP || value == BOTTOM) return value;
+            result = ConstantFolder.fold(operator, value);
+        } else {
+            Object left = valueOf(index, 1);
+            Object right = valueOf(index, 2);
+            if (left == BOTTOM || right == BOTTOM) return BOTTOM;
+            if (left == TOP || right == TOP) return TOP;
+            result = ConstantFolder.fold(operator, left, right);
+        }
+
+        if (result == null) return BOTTOM;
+
+        // An integer stored into a float is converted, as the generated code does.
+        if (result instanceof Long l && typeOf(operands.get(0)) == OperandType.FLOAT) {
+            result = l.doubleValue();
+        }
+        return result;
+    }
+
+    /**
+     * Get the lattice value of a tuple's operand.
+     */
+    private Object valueOf(int index, int operandIndex) {
+        Operand operand = tuples.get(index).getOperands().get(operandIndex);
+        if (operand instanceof Constant constant) {
+            Object value = ConstantFolder.valueOf(constant);
+            return value != null ? value : BOTTOM;
+        }
+
+        int value = ssa.getValue(index, operandIndex);
+        return value != SSAForm.NONE ? values[value] : BOTTOM;
+    }
+
+    private void lower(int value, Object lattice) {
+        Object lowered = meet(values[value], lattice);
+        if (lowered != values[value]) {
+            values[value] = lowered;
+            ssaWork.add(value);
+        }
+    }
+
+    private static Object meet(Object a, Object b) {
+        if (a == TOP) return b;
+        if (b == TOP) return a;
+        if (a == BOTTOM || b == BOTTOM) return BOTTOM;
+        return a.equals(b) ? a : BOTTOM;
+    }
+
+    private static boolean isConstant(Object lattice) {
+        return lattice != TOP && lattice != BOTTOM;
+    }
+
+    private static boolean isTrue(Object value) {
+        if (value instanceof Boolean bool) {
+            return bool;
+        } else if (value instanceof Long l) {
+            return l != 0;
+        } else if (value instanceof Double d) {
+            return d != 0;
+        }
+        return true;
+    }
+
+    private static OperandType typeOf(Operand operand) {
+        if (operand instanceof Variable variable) {
+            return variable.getType();
+        } else if (operand instanceof Temporary temp) {
+            return temp.getType();
+        }
+        return OperandType.NONE;
+    }
+
+    // *************************
+    // Rewriting
+    // *************************
+
+    /**
+     * Find the constant values that still have to be stored because they
+     * reach a merge with a varying value.
+     */
+    private boolean[] neededConstants() {
+        boolean[] needed = new boolean[values.length];
+        Deque<Integer> work = new ArrayDeque<>();
+
+        for (BasicBlock block : graph.getBlocks()) {
+            if (!executableBlocks[block.getIndex()]) continue;
+
+            for (Phi phi : ssa.getPhis(block)) {
+                if (!isConstant(values[phi.getValue()])) {
+                    work.addAll(constantArguments(phi));
+                }
+            }
+        }
+
+        while (!work.isEmpty()) {
+            int value = work.remove();
+            if (needed[value]) continue;
+            needed[value] = true;
+
+            Phi phi = ssa.getDefiningPhi(value);
+            if (phi != null) {
+                work.addAll(constantArguments(phi));
+            }
+        }
+
+        return needed;
+    }
+
+    private List<Integer> constantArguments(Phi phi) {
+        List<Integer> arguments = new ArrayList<>();
+        List<BasicBlock> predecessors = phi.getBlock().getPredecessors();
+
+        for (int k = 0; k < predecessors.size(); k++) {
+            int argument = phi.getArgument(k);
+            if (isExecutable(predecessors.get(k), phi.getBlock()) && isConstant(values[argument])) {
+                arguments.add(argument);
+            }
+        }
+        return arguments;
+    }
+
+    private void rewrite() {
+        boolean[] needed = neededConstants();
+        List<Tuple> rewritten = new ArrayList<>(tuples.size());
+
+        for (BasicBlock block : graph.getBlocks()) {
+            if (!executableBlocks[block.getIndex()]) {
+                for (Tuple tuple : block.getTuples()) {
+                    Operator operator = tuple.getOperator();
+                    if (operator == Operator.END_FUNCTION || operator == Operator.END_PROGRAM) {
+                        rewritten.add(tuple);
+                    }
+                }
+                continue;
+            }
+
+            for (int i = block.getStart(); i < block.getEnd(); i++) {
+                Tuple tuple = rewriteTuple(i, needed);
+                if (tuple != null) {
+                    rewritten.add(tuple);
+                }
+            }
+        }
+
+        if (rewritten.size() != tuples.size() || !rewritten.equals(tuples)) {
+            function.setTuples(rewritten);
+        }
+    }
+
+    /**
+     * Rewrite one executable tuple.
+     *
+     * @return the new tuple, the same tuple if nothing changed, or null
+     *         to delete it
+     */
+    private Tuple rewriteTuple(int index, boolean[] needed) {
+        Tuple tuple = tuples.get(index);
+        Operator operator = tuple.getOperator();
+        List<Operand> operands = tuple.getOperands();
+
+        if (operator.hasResult() && operator != Operator.CALL) {
+            int value = ssa.getValue(index, 0);
+            Object result = value != SSAForm.NONE ? values[value] : evaluate(index);
+
+            if (isConstant(result)) {
+                if (value != SSAForm.NONE && !needed[value]) return null;
+                if (operator == Operator.ASSIGN && operands.get(1) instanceof Constant) return tuple;
+                return new Tuple(Operator.ASSIGN, operands.get(0), constant(result));
+            }
+        }
+
+        if (operator == Operator.IF) {
+            Object condition = valueOf(index, 0);
+            if (isConstant(condition)) {
+                return isTrue(condition) ? new Tuple(Operator.GOTO, operands.get(1)) : null;
+            }
+        }
+
+        Tuple replaced = null;
+        for (int j = firstUse(tuple); j < operands.size(); j++) {
+            int value = ssa.getValue(index, j);
+            if (value != SSAForm.NONE && isConstant(values[value])) {
+                if (replaced == null) {
+                    replaced = new Tuple(operator, operands.toArray(new Operand[0]));
+                }
+                replaced.getOperands().set(j, constant(values[value]));
+            }
+        }
+
+        return replaced != null ? replaced : tuple;
+    }
+
+    private Constant constant(Object value) {
+        if (value instanceof String string) {
+            ir.registerStringConstant(string);
+        }
+        return new Constant(value);
+    }
+}
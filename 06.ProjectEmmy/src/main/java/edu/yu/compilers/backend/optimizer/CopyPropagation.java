@@ -0,0 +1,236 @@
+package edu.yu.compilers.backend.optimizer;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.yu.compilers.intermediate.cfg.BasicBlock;
+import edu.yu.compilers.intermediate.cfg.ControlFlowGraph;
+import edu.yu.compilers.intermediate.ir.Operand;
+import edu.yu.compilers.intermediate.ir.Operand.Constant;
+import edu.yu.compilers.intermediate.ir.Operand.OperandType;
+import edu.yu.compilers.intermediate.ir.Operand.Temporary;
+import edu.yu.compilers.intermediate.ir.Operand.Variable;
+import edu.yu.compilers.intermediate.ir.Operator;
+import edu.yu.compilers.intermediate.ir.Tuple;
+import edu.yu.compilers.intermediate.ir.TupleIR;
+import edu.yu.compilers.intermediate.ir.TupleIR.FunctionInfo;
+import edu.yu.compilers.intermediate.ssa.SSAForm;
+
+/**
+ * Global copy propagation. A copy {@code ASSIGN x, y} is available at a
+ * tuple if it's on every path from the entry to the tuple and neither x
+ * nor y is assigned on the way. A use of x where the copy is available
+ * is replaced by y, which often leaves the copy itself dead.
+ *
+ * <p>Only copies between names private to the function, or of a
+ * constant to one, are propagated, and only when both sides have the
+ * same type, since the code generator converts an integer stored into
+ * a float.</p>
+ */
+public class CopyPropagation {
+
+    private final FunctionInfo function;
+    private final ControlFlowGraph graph;
+    private final List<Tuple> tuples;
+
+    private final List<Integer> copies = new ArrayList<>();            // tuple index of each copy
+    private final Map<Object, BitSet> copiesInvolving = new HashMap<>(); // copies that name each key
+    private final Map<Object, List<Integer>> copiesTo = new HashMap<>(); // copies that assign each key
+
+    /**
+     * Propagate the copies in every function of the IR.
+     *
+     * @param ir the IR
+     */
+    public static void run(TupleIR ir) {
+        PrivateNames names = new PrivateNames(ir);
+
+        for (FunctionInfo function : ir.getFunctionList()) {
+            new CopyPropagation(function, names).propagate();
+        }
+    }
+
+    private CopyPropagation(FunctionInfo function, PrivateNames names) {
+        this.function = function;
+        this.graph = function.getControlFlowGraph();
+        this.tuples = graph.getTuples();
+
+        for (int i = 0; i < tuples.size(); i++) {
+            Tuple tuple = tuples.get(i);
+            if (tuple.getOperator() != Operator.ASSIGN) continue;
+
+            Operand target = tuple.getOperands().get(0);
+            Operand source = tuple.getOperands().get(1);
+            Object targetKey = SSAForm.keyOf(target);
+            Object sourceKey = SSAForm.keyOf(source);
+
+            if (!names.isPrivate(target, function) || targetKey.equals(sourceKey)) continue;
+            if (!(source instanceof Constant) && !names.isPrivate(source, function)) continue;
+            if (typeOf(target) != typeOf(source)) continue;
+
+            int copy = copies.size();
+            copies.add(i);
+            copiesInvolving.computeIfAbsent(targetKey, k -> new BitSet()).set(copy);
+            copiesTo.computeIfAbsent(targetKey, k -> new ArrayList<>()).add(copy);
+            if (sourceKey != null) {
+                copiesInvolving.computeIfAbsent(sourceKey, k -> new BitSet()).set(copy);
+            }
+        }
+    }
+
+    private static OperandType typeOf(Operand operand) {
+        if (operand instanceof Variable variable) {
+            return variable.getType();
+        } else if (operand instanceof Temporary temp) {
+            return temp.getType();
+        } else if (operand instanceof Constant constant) {
+            return constant.getType();
+        }
+        return OperandType.NONE;
+    }
+
+    private void propagate() {
+        if (copies.isEmpty()) return;
+
+        BitSet[] in = availableCopies();
+        List<Tuple> rewritten = new ArrayList<>(tuples.size());
+        boolean changed = false;
+
+        for (BasicBlock block : graph.getBlocks()) {
+            BitSet available = in[block.getIndex()];
+
+            for (int i = block.getStart(); i < block.getEnd(); i++) {
+                Tuple tuple = tuples.get(i);
+                Tuple replaced = available != null ? replaceUses(tuple, available) : tuple;
+                changed |= replaced != tuple;
+                rewritten.add(replaced);
+
+                if (available != null) {
+                    transfer(i, available);
+                }
+            }
+        }
+
+        if (changed) {
+            function.setTuples(rewritten);
+        }
+    }
+
+    /**
+     * Compute the copies available on entry to each reachable block.
+     *
+     * @return the copies for each block, or null for unreachable blocks
+     */
+    private BitSet[] availableCopies() {
+        List<BasicBlock> blocks = graph.getBlocks();
+        BitSet[] in = new BitSet[blocks.size()];
+        BitSet[] out = new BitSet[blocks.size()];
+
+        BitSet all = new BitSet();
+        all.set(0, copies.size());
+        for (BasicBlock block : graph.getReversePostorder()) {
+            out[block.getIndex()] = (BitSet) all.clone();
+        }
+
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+
+            for (BasicBlock block : graph.getReversePostorder()) {
+                BitSet available = new BitSet();
+                if (block != graph.getEntry()) {
+                    available.or(all);
+                    for (BasicBlock predecessor : block.getPredecessors()) {
+                        if (out[predecessor.getIndex()] != null) {
+                            available.and(out[predecessor.getIndex()]);
+                        }
+                    }
+                }
+                in[block.getIndex()] = (BitSet) available.clone();
+
+                for (int i = block.getStart(); i < block.getEnd(); i++) {
+                    transfer(i, available);
+                }
+                if (!available.equals(out[block.getIndex()])) {
+                    out[block.getIndex()] = available;
+                    changed = true;
+                }
+            }
+        }
+
+        return in;
+    }
+
+    /**
+     * Update the available copies across a tuple: an assignment kills
+     * the copies that name its target, and a copy then becomes available.
+     */
+    private void transfer(int index, BitSet available) {
+        Tuple tuple = tuples.get(index);
+        if (!tuple.getOperator().hasResult()) return;
+
+        BitSet killed = copiesInvolving.get(SSAForm.keyOf(tuple.getOperands().get(0)));
+        if (killed != null) {
+            available.andNot(killed);
+        }
+
+        List<Integer> generated = copiesTo.get(SSAForm.keyOf(tuple.getOperands().get(0)));
+        if (generated != null) {
+            for (int copy : generated) {
+                if (copies.get(copy) == index) {
+                    available.set(copy);
+                }
+            }
+        }
+    }
+
+    /**
+     * Replace each use of a copy's target with its source, following
+     * chains of copies.
+     *
+     * @return a new tuple, or the same one if nothing was replaced
+     */
+    private Tuple replaceUses(Tuple tuple, BitSet available) {
+        List<Operand> operands = tuple.getOperands();
+        Tuple replaced = null;
+
+        for (int j = tuple.getOperator().hasResult() ? 1 : 0; j < operands.size(); j++) {
+            Operand operand = operands.get(j);
+            Operand source = sourceOf(operand, available);
+            if (source == null) continue;
+
+            for (int steps = 0; source != null && steps < copies.size(); steps++) {
+                operand = source;
+                source = sourceOf(operand, available);
+            }
+
+            if (replaced == null) {
+                replaced = new Tuple(tuple.getOperator(), operands.toArray(new Operand[0]));
+            }
+            replaced.getOperands().set(j, operand);
+        }
+
+        return replaced != null ? replaced : tuple;
+    }
+
+    /**
+     * @return the source of the available copy to the operand, or null
+     */
+    private Operand sourceOf(Operand operand, BitSet available) {
+        Object key = SSAForm.keyOf(operand);
+        if (key == null) return null;
+
+        List<Integer> candidates = copiesTo.get(key);
+        if (candidates == null) return null;
+
+        for (int copy : candidates) {
+            if (available.get(copy)) {
+                return tuples.get(copies.get(copy)).getOperands().get(1);
+            }
+        }
+        return null;
+    }
+}
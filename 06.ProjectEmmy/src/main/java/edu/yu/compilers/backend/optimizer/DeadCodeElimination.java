@@ -0,0 +1,209 @@
+package edu.yu.compilers.backend.optimizer;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.yu.compilers.intermediate.cfg.BasicBlock;
+import edu.yu.compilers.intermediate.cfg.ControlFlowGraph;
+import edu.yu.compilers.intermediate.ir.Operand;
+import edu.yu.compilers.intermediate.ir.Operand.Constant;
+import edu.yu.compilers.intermediate.ir.Operand.OperandType;
+import edu.yu.compilers.intermediate.ir.Operand.Temporary;
+import edu.yu.compilers.intermediate.ir.Operand.Variable;
+import edu.yu.compilers.intermediate.ir.Operator;
+import edu.yu.compilers.intermediate.ir.Tuple;
+import edu.yu.compilers.intermediate.ir.TupleIR;
+import edu.yu.compilers.intermediate.ir.TupleIR.FunctionInfo;
+import edu.yu.compilers.intermediate.ssa.SSAForm;
+
+/**
+ * Dead code elimination. An assignment to a name private to the
+ * function is deleted if the name is not live afterwards, that is, no
+ * path from the assignment reads the name before assigning it again.
+ * Deleting an assignment can make the ones that fed it dead, so the
+ * pass repeats until nothing more is deleted.
+ *
+ * <p>Calls are kept for their side effects even if their results are
+ * unused, and so is an integer division that might divide by zero, so
+ * the runtime error still happens.</p>
+ */
+public class DeadCodeElimination {
+
+    private final FunctionInfo function;
+    private final PrivateNames names;
+
+    private List<Tuple> tuples;
+    private ControlFlowGraph graph;
+    private final Map<Object, Integer> nameNumbers = new HashMap<>();
+
+    /**
+     * Delete the dead assignments in every function of the IR.
+     *
+     * @param ir the IR
+     */
+    public static void run(TupleIR ir) {
+        PrivateNames names = new PrivateNames(ir);
+
+        for (FunctionInfo function : ir.getFunctionList()) {
+            new DeadCodeElimination(function, names).eliminate();
+        }
+    }
+
+    private DeadCodeElimination(FunctionInfo function, PrivateNames names) {
+        this.function = function;
+        this.names = names;
+    }
+
+    private void eliminate() {
+        boolean changed = true;
+
+        while (changed) {
+            graph = function.getControlFlowGraph();
+            tuples = graph.getTuples();
+            nameNumbers.clear();
+
+            BitSet[] liveOut = liveOut();
+            boolean[] dead = new boolean[tuples.size()];
+            changed = false;
+
+            for (BasicBlock block : graph.getReversePostorder()) {
+                BitSet live = (BitSet) liveOut[block.getIndex()].clone();
+
+                for (int i = block.getEnd() - 1; i >= block.getStart(); i--) {
+                    Tuple tuple = tuples.get(i);
+                    int result = resultOf(tuple);
+
+                    if (result >= 0 && (!live.get(result) || isSelfAssignment(tuple)) && isRemovable(tuple)) {
+                        dead[i] = true;
+                        changed = true;
+                        continue;
+                    }
+                    transfer(tuple, live);
+                }
+            }
+
+            if (changed) {
+                List<Tuple> kept = new ArrayList<>(tuples.size());
+                for (int i = 0; i < tuples.size(); i++) {
+                    if (!dead[i]) {
+                        kept.add(tuples.get(i));
+                    }
+                }
+                function.setTuples(kept);
+            }
+        }
+    }
+
+    /**
+     * Get the number of a private name, numbering it if it's new.
+     *
+     * @return the number, or -1 if the operand is not a private name
+     */
+    private int numberOf(Operand operand) {
+        if (!names.isPrivate(operand, function)) return -1;
+        return nameNumbers.computeIfAbsent(SSAForm.keyOf(operand), k -> nameNumbers.size());
+    }
+
+    /**
+     * @return the number of the private name that a tuple assigns, or -1
+     */
+    private int resultOf(Tuple tuple) {
+        return tuple.getOperator().hasResult() ? numberOf(tuple.getOperands().get(0)) : -1;
+    }
+
+    /**
+     * Update the live names backwards across a tuple.
+     */
+    private void transfer(Tuple tuple, BitSet live) {
+        List<Operand> operands = tuple.getOperands();
+        int result = resultOf(tuple);
+        if (result >= 0) {
+            live.clear(result);
+        }
+
+        for (int j = tuple.getOperator().hasResult() ? 1 : 0; j < operands.size(); j++) {
+            int name = numberOf(operands.get(j));
+            if (name >= 0) {
+                live.set(name);
+            }
+        }
+    }
+
+    /**
+     * Compute the private names live on exit from each reachable block.
+     */
+    private BitSet[] liveOut() {
+        List<BasicBlock> blocks = graph.getBlocks();
+        BitSet[] liveIn = new BitSet[blocks.size()];
+        BitSet[] liveOut = new BitSet[blocks.size()];
+        for (BasicBlock block : blocks) {
+            liveIn[block.getIndex()] = new BitSet();
+            liveOut[block.getIndex()] = new BitSet();
+        }
+
+        List<BasicBlock> order = new ArrayList<>(graph.getReversePostorder());
+        Collections.reverse(order);
+
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+
+            for (BasicBlock block : order) {
+                BitSet live = new BitSet();
+                for (BasicBlock successor : block.getSuccessors()) {
+                    live.or(liveIn[successor.getIndex()]);
+                }
+                liveOut[block.getIndex()] = (BitSet) live.clone();
+
+                for (int i = block.getEnd() - 1; i >= block.getStart(); i--) {
+                    transfer(tuples.get(i), live);
+                }
+                if (!live.equals(liveIn[block.getIndex()])) {
+                    liveIn[block.getIndex()] = live;
+                    changed = true;
+                }
+            }
+        }
+
+        return liveOut;
+    }
+
+    /**
+     * @return true if deleting the tuple can't change what the program does
+     *         beyond the value it assigns
+     */
+    private static boolean isRemovable(Tuple tuple) {
+        Operator operator = tuple.getOperator();
+        if (operator == Operator.CALL) return false;
+        if (operator != Operator.DIV) return true;
+
+        List<Operand> operands = tuple.getOperands();
+        if (isFloat(operands.get(1)) || isFloat(operands.get(2))) return true;
+
+        Operand divisor = operands.get(2);
+        return divisor instanceof Constant constant
+                && constant.getValue() instanceof Number number
+                && number.doubleValue() != 0;
+    }
+
+    private static boolean isSelfAssignment(Tuple tuple) {
+        List<Operand> operands = tuple.getOperands();
+        return tuple.getOperator() == Operator.ASSIGN
+                && SSAForm.keyOf(operands.get(0)).equals(SSAForm.keyOf(operands.get(1)));
+    }
+
+    private static boolean isFloat(Operand operand) {
+        if (operand instanceof Constant constant) {
+            return constant.getType() == OperandType.FLOAT;
+        } else if (operand instanceof Variable variable) {
+            return variable.getType() == OperandType.FLOAT;
+        } else if (operand instanceof Temporary temp) {
+            return temp.getType() == OperandType.FLOAT;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,56 @@
+package edu.yu.compilers.backend.optimizer;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import edu.yu.compilers.intermediate.cfg.CallGraph;
+import edu.yu.compilers.intermediate.ir.Operand;
+import edu.yu.compilers.intermediate.ir.Operand.Constant;
+import edu.yu.compilers.intermediate.ir.Tuple;
+import edu.yu.compilers.intermediate.ir.TupleIR;
+import edu.yu.compilers.intermediate.ir.TupleIR.FunctionInfo;
+
+/**
+ * Remove the functions that the program never calls. The IR has a
+ * function for every function definition, so a program that defines
+ * many functions it doesn't use, such as one that includes a shared
+ * prelude, would otherwise compile them all. A function is kept if the
+ * call graph reaches it from the global scope, so a group of functions
+ * that only call each other is removed as a whole.
+ *
+ * <p>The string constants that only the removed functions used are
+ * dropped from the string constant pool. The code generator collects
+ * its float constants from the tuples it emits, so theirs go with
+ * them.</p>
+ */
+public class DeadFunctionElimination {
+
+    private DeadFunctionElimination() {
+    }
+
+    /**
+     * Remove the unreachable functions of the IR.
+     *
+     * @param ir the IR
+     */
+    public static void run(TupleIR ir) {
+        CallGraph graph = new CallGraph(ir);
+        if (graph.getReachableFunctions().size() == ir.getFunctionList().size()) return;
+
+        for (FunctionInfo function : ir.getFunctionList().stream().filter(f -> !graph.isReachable(f)).toList()) {
+            ir.removeFunction(function);
+        }
+
+        Set<String> strings = new HashSet<>();
+        for (FunctionInfo function : ir.getFunctionList()) {
+            for (Tuple tuple : function.getTuples()) {
+                for (Operand operand : tuple.getOperands()) {
+                    if (operand instanceof Constant constant && constant.getValue() instanceof String string) {
+                        strings.add(string);
+                    }
+                }
+            }
+        }
+        ir.retainStringConstants(strings);
+    }
+}
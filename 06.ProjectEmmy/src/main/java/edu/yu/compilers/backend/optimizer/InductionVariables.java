@@ -0,0 +1,534 @@
+package edu.yu.compilers.backend.optimizer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import edu.yu.compilers.intermediate.cfg.BasicBlock;
+import edu.yu.compilers.intermediate.cfg.ControlFlowGraph;
+import edu.yu.compilers.intermediate.cfg.Loop;
+import edu.yu.compilers.intermediate.ir.Operand;
+import edu.yu.compilers.intermediate.ir.Operand.Constant;
+import edu.yu.compilers.intermediate.ir.Operand.Label;
+import edu.yu.compilers.intermediate.ir.Operand.OperandType;
+import edu.yu.compilers.intermediate.ir.Operand.Temporary;
+import edu.yu.compilers.intermediate.ir.Operand.Variable;
+import edu.yu.compilers.intermediate.ir.Operator;
+import edu.yu.compilers.intermediate.ir.Tuple;
+import edu.yu.compilers.intermediate.ir.TupleIR;
+import edu.yu.compilers.intermediate.ir.TupleIR.FunctionInfo;
+import edu.yu.compilers.intermediate.ssa.SSAForm;
+
+/**
+ * Optimize the induction variables of loops: the names that a loop
+ * changes by a constant step each time it changes them.
+ *
+ * <p>Strength reduction replaces each product of an induction variable
+ * and a constant with a new temporary that holds the product. The
+ * temporary is computed once before the loop and increased by the
+ * product of the step and the constant right after each change of the
+ * induction variable, so a MUL in the loop becomes an ADD. A product
+ * whose step doesn't fit in 32 bits is left alone, since the backend
+ * can't add it as an immediate.</p>
+ *
+ * <p>Counted loops, which is what "repeat n times" becomes, are lowered
+ * to count down. Such a loop sets a counter to a constant, tests
+ * counter &gt;= n at its header, and adds one to the counter just before
+ * its back edge, and uses the counter nowhere else. The counter is
+ * replaced by a temporary that starts at n minus the constant, if that
+ * can't overflow. The test at the header only guards the first
+ * iteration, and the back edge becomes a decrement and a jump back to
+ * the body while the temporary is not zero, which the x86_64 backend
+ * emits as decq and jne.</p>
+ */
+public class InductionVariables {
+
+    private final TupleIR ir;
+    private final PrivateNames privateNames;
+
+    private InductionVariables(TupleIR ir) {
+        this.ir = ir;
+        this.privateNames = new PrivateNames(ir);
+    }
+
+    /**
+     * Optimize the induction variables in every loop of the IR.
+     *
+     * @param ir the IR
+     */
+    public static void run(TupleIR ir) {
+        InductionVariables optimizer = new InductionVariables(ir);
+
+        for (FunctionInfo function : ir.getFunctionList()) {
+            optimizer.visitLoops(function, true);
+            optimizer.visitLoops(function, false);
+        }
+    }
+
+    /**
+     * Visit the loops of a function, innermost first, either reducing
+     * strength or lowering counted loops. The graph is rebuilt after each
+     * change, so the loops are found by their headers' labels.
+     */
+    private void visitLoops(FunctionInfo function, boolean reduceStrength) {
+        Set<String> visited = new HashSet<>();
+
+        while (true) {
+            ControlFlowGraph graph = function.getControlFlowGraph();
+            Loop next = null;
+            for (Loop loop : graph.getLoops()) {
+                Label label = loop.getHeader().getLabel();
+                if (label != null && !visited.contains(label.getName())
+                        && (next == null || loop.getDepth() > next.getDepth())) {
+                    next = loop;
+                }
+            }
+            if (next == null) return;
+
+            visited.add(next.getHeader().getLabel().getName());
+            if (!hasPreheader(graph, next)) continue;
+
+            if (reduceStrength) {
+                reduceStrength(function, graph, next);
+            } else {
+                Label body = lowerCountedLoop(function, graph, next);
+                if (body != null) {
+                    visited.add(body.getName());
+                }
+            }
+        }
+    }
+
+    /**
+     * Check that the loop is entered only by falling into its header
+     * from the block before it, so tuples put just before the header run
+     * once before the loop.
+     */
+    private static boolean hasPreheader(ControlFlowGraph graph, Loop loop) {
+        BasicBlock header = loop.getHeader();
+        if (header.getIndex() == 0) return false;
+
+        BasicBlock previous = graph.getBlocks().get(header.getIndex() - 1);
+        if (loop.contains(previous)) return false;
+
+        for (BasicBlock predecessor : header.getPredecessors()) {
+            if (loop.contains(predecessor)) continue;
+            if (predecessor != previous || isJump(predecessor.getLastTuple())) return false;
+        }
+        return true;
+    }
+
+    private static boolean isJump(Tuple tuple) {
+        return tuple.getOperator() == Operator.GOTO || tuple.getOperator() == Operator.IF;
+    }
+
+    // ==========================
+    // Strength reduction
+    // ==========================
+
+    /**
+     * The change of an induction variable: the tuple after which it has
+     * its new value, and the constant added to it.
+     */
+    private record Step(int index, long amount) {
+    }
+
+    private void reduceStrength(FunctionInfo function, ControlFlowGraph graph, Loop loop) {
+        List<Tuple> tuples = graph.getTuples();
+        Map<Object, List<Integer>> loopDefinitions = definitionsIn(tuples, loop);
+        Map<Object, Integer> definitions = countDefinitions(tuples);
+        boolean hasCall = containsCall(tuples, loop);
+
+        // The products to replace, by induction variable and constant
+        Map<Integer, Operand> replaced = new HashMap<>();
+        Map<List<Object>, Temporary> products = new LinkedHashMap<>();
+        Map<List<Object>, Operand> productVariables = new HashMap<>();
+        Map<Integer, List<Tuple>> updates = new HashMap<>();
+
+        for (BasicBlock block : loop.getBlocks()) {
+            for (int i = block.getStart(); i < block.getEnd(); i++) {
+                Tuple tuple = tuples.get(i);
+                if (tuple.getOperator() != Operator.MUL || !(tuple.getOperands().get(0) instanceof Temporary)) {
+                    continue;
+                }
+
+                Operand left = tuple.getOperands().get(1);
+                Operand right = tuple.getOperands().get(2);
+                Operand variable = integerConstant(right) != null ? left : right;
+                Long factor = integerConstant(variable == left ? right : left);
+                if (factor == null || variable instanceof Constant) continue;
+                if (hasCall && !privateNames.isPrivate(variable, function)) continue;
+
+                // The products' step must fit in an immediate operand
+                Step step = stepOf(variable, tuples, loopDefinitions, definitions);
+                if (step == null || !fitsInt(factor) || !fitsInt(step.amount())
+                        || !fitsInt(step.amount() * factor)) {
+                    continue;
+                }
+
+                List<Object> key = List.of(SSAForm.keyOf(variable), factor);
+                Temporary product = products.get(key);
+                if (product == null) {
+                    product = newTemp(OperandType.INTEGER);
+                    products.put(key, product);
+                    productVariables.put(key, variable);
+                    updates.computeIfAbsent(step.index(), k -> new ArrayList<>()).add(new Tuple(Operator.ADD,
+                            product, product, constant(step.amount() * factor)));
+                }
+                replaced.put(i, product);
+            }
+        }
+
+        if (replaced.isEmpty()) return;
+
+        List<Tuple> reduced = new ArrayList<>(tuples.size() + 2 * products.size());
+        for (int i = 0; i < tuples.size(); i++) {
+            if (i == loop.getHeader().getStart()) {
+                for (Map.Entry<List<Object>, Temporary> entry : products.entrySet()) {
+                    Operand factor = constant((Long) entry.getKey().get(1));
+                    reduced.add(new Tuple(Operator.MUL, entry.getValue(),
+                            productVariables.get(entry.getKey()), factor));
+                }
+            }
+
+            Tuple tuple = tuples.get(i);
+            if (replaced.containsKey(i)) {
+                reduced.add(new Tuple(Operator.ASSIGN, tuple.getOperands().get(0), replaced.get(i)));
+            } else {
+                reduced.add(tuple);
+            }
+            reduced.addAll(updates.getOrDefault(i, List.of()));
+        }
+        function.setTuples(reduced);
+    }
+
+    /**
+     * Find how a loop changes an induction variable. Its only definition
+     * in the loop must add or subtract a constant, either directly or
+     * through a temporary defined only for that purpose.
+     *
+     * @return the step, or null if the name is not an induction variable
+     */
+    private static Step stepOf(Operand variable, List<Tuple> tuples,
+                               Map<Object, List<Integer>> loopDefinitions, Map<Object, Integer> definitions) {
+        Object key = SSAForm.keyOf(variable);
+        if (isFloat(variable)) return null;
+
+        List<Integer> defined = loopDefinitions.get(key);
+        if (defined == null || defined.size() != 1) return null;
+
+        int index = defined.get(0);
+        Tuple definition = tuples.get(index);
+        Long amount = increment(definition, key);
+
+        if (amount == null && definition.getOperator() == Operator.ASSIGN
+                && definition.getOperands().get(1) instanceof Temporary temp) {
+            Object tempKey = SSAForm.keyOf(temp);
+            List<Integer> tempDefined = loopDefinitions.get(tempKey);
+            if (tempDefined != null && tempDefined.size() == 1 && definitions.get(tempKey) == 1
+                    && tempDefined.get(0) < index) {
+                amount = increment(tuples.get(tempDefined.get(0)), key);
+            }
+        }
+        return amount == null ? null : new Step(index, amount);
+    }
+
+    /**
+     * @return the constant that a tuple adds to a name, or null if it
+     *         doesn't compute the name plus or minus a constant
+     */
+    private static Long increment(Tuple tuple, Object key) {
+        List<Operand> operands = tuple.getOperands();
+        if (operands.size() != 3) return null;
+
+        Operand left = operands.get(1);
+        Operand right = operands.get(2);
+
+        if (tuple.getOperator() == Operator.ADD) {
+            if (key.equals(SSAForm.keyOf(left)) && integerConstant(right) != null) return integerConstant(right);
+            if (key.equals(SSAForm.keyOf(right)) && integerConstant(left) != null) return integerConstant(left);
+        } else if (tuple.getOperator() == Operator.SUB) {
+            if (key.equals(SSAForm.keyOf(left)) && integerConstant(right) != null) return -integerConstant(right);
+        }
+        return null;
+    }
+
+    // ==========================
+    // Counted loops
+    // ==========================
+
+    /**
+     * Lower a counted loop to a down-counting loop.
+     *
+     * @return the label of the new loop header, or null if the loop is
+     *         not a counted loop
+     */
+    private Label lowerCountedLoop(FunctionInfo function, ControlFlowGraph graph, Loop loop) {
+        List<Tuple> tuples = graph.getTuples();
+        BasicBlock header = loop.getHeader();
+        if (header.getTuples().size() != 3 || loop.getLatches().size() != 1) return null;
+
+        // The header tests counter >= n and leaves the loop if it's true
+        Tuple test = tuples.get(header.getStart() + 1);
+        Tuple exitBranch = tuples.get(header.getStart() + 2);
+        if (test.getOperator() != Operator.GTE || exitBranch.getOperator() != Operator.IF) return null;
+
+        Operand counter = test.getOperands().get(1);
+        Operand count = test.getOperands().get(2);
+        Object counterKey = SSAForm.keyOf(counter);
+        if (counterKey == null || isFloat(counter) || isFloat(count)) return null;
+        if (!isSame(exitBranch.getOperands().get(0), test.getOperands().get(0))) return null;
+
+        Label exit = (Label) exitBranch.getOperands().get(1);
+        for (BasicBlock successor : header.getSuccessors()) {
+            if (loop.contains(successor) == isLabel(tuples, successor.getStart(), exit)) return null;
+        }
+
+        BasicBlock latch = loop.getLatches().get(0);
+        if (latch == header || latch.getLastTuple().getOperator() != Operator.GOTO) return null;
+
+        // The counter is set to a constant in the block before the loop
+        BasicBlock previous = graph.getBlocks().get(header.getIndex() - 1);
+        int initIndex = header.getStart() - 1;
+        while (initIndex >= previous.getStart() && !defines(tuples.get(initIndex), counterKey)) {
+            initIndex--;
+        }
+        if (initIndex < previous.getStart()) return null;
+
+        Tuple init = tuples.get(initIndex);
+        Long start = init.getOperator() == Operator.ASSIGN ? integerConstant(init.getOperands().get(1)) : null;
+        if (start == null) return null;
+
+        // The number of iterations is count - start, which mustn't
+        // overflow, so it's only used if start is 0 or both are constants
+        // whose difference fits in 32 bits.
+        Operand trips = count;
+        if (start != 0) {
+            Long limit = integerConstant(count);
+            if (limit == null || !fitsInt(limit) || !fitsInt(start) || !fitsInt(limit - start)) return null;
+            trips = constant(limit - start);
+        }
+
+        // The counter goes up by one just before the back edge
+        List<Integer> counterTuples = incrementOfOne(tuples, latch, counterKey);
+        if (counterTuples == null) return null;
+
+        if (!isInvariant(count, function, tuples, loop)) return null;
+
+        Set<Tuple> expected = new HashSet<>();
+        expected.add(init);
+        expected.add(test);
+        for (int index : counterTuples) {
+            expected.add(tuples.get(index));
+        }
+        if (isUsedElsewhere(counter, function, expected)) return null;
+        if (countUses(tuples, test.getOperands().get(0)) != 1) return null;
+
+        Temporary remaining = newTemp(OperandType.INTEGER);
+        Temporary more = newTemp(OperandType.BOOLEAN);
+        Label body = new Label(header.getLabel().getName() + "_body");
+        Constant zero = new Constant(0);
+
+        List<Tuple> lowered = new ArrayList<>(tuples.size() + 3);
+        for (int i = 0; i < tuples.size(); i++) {
+            Tuple tuple = tuples.get(i);
+
+            if (i == header.getEnd()) {
+                lowered.add(new Tuple(Operator.LABEL, body));
+            }
+
+            if (i == header.getStart()) {
+                lowered.add(new Tuple(Operator.ASSIGN, remaining, trips));
+            }
+
+            if (i == initIndex) {
+                // The counter's initial value is subtracted above
+            } else if (i == header.getStart() + 1) {
+                lowered.add(new Tuple(Operator.LTE, test.getOperands().get(0), remaining, zero));
+            } else if (counterTuples.contains(i)) {
+                // The increment is replaced by the decrement below
+            } else if (i == latch.getEnd() - 1) {
+                lowered.add(new Tuple(Operator.SUB, remaining, remaining, new Constant(1)));
+                lowered.add(new Tuple(Operator.NEQ, more, remaining, zero));
+                lowered.add(new Tuple(Operator.IF, more, body));
+                if (!isLabel(tuples, i + 1, exit)) {
+                    lowered.add(new Tuple(Operator.GOTO, exit));
+                }
+            } else {
+                lowered.add(tuple);
+            }
+        }
+        function.setTuples(lowered);
+        return body;
+    }
+
+    /**
+     * Find the tuples that add one to the counter just before the latch's
+     * GOTO: either an ADD to the counter, or an ADD to a temporary that
+     * only an ASSIGN to the counter uses.
+     *
+     * @return the indexes of the tuples, or null if they aren't there
+     */
+    private static List<Integer> incrementOfOne(List<Tuple> tuples, BasicBlock latch, Object key) {
+        int last = latch.getEnd() - 2;
+        if (last < latch.getStart()) return null;
+
+        Tuple tuple = tuples.get(last);
+        Long amount = increment(tuple, key);
+        if (amount != null && amount == 1 && key.equals(SSAForm.keyOf(tuple.getOperands().get(0)))) {
+            return List.of(last);
+        }
+
+        if (last - 1 < latch.getStart() || tuple.getOperator() != Operator.ASSIGN
+                || !key.equals(SSAForm.keyOf(tuple.getOperands().get(0)))) {
+            return null;
+        }
+
+        Operand sum = tuple.getOperands().get(1);
+        Tuple add = tuples.get(last - 1);
+        amount = increment(add, key);
+        if (amount == null || amount != 1 || !(sum instanceof Temporary) || !isSame(add.getOperands().get(0), sum)
+                || countUses(tuples, sum) != 1) {
+            return null;
+        }
+        return List.of(last - 1, last);
+    }
+
+    /**
+     * @return true if the operand has the same value throughout the loop
+     */
+    private boolean isInvariant(Operand operand, FunctionInfo function, List<Tuple> tuples, Loop loop) {
+        if (operand instanceof Constant) return integerConstant(operand) != null;
+
+        Object key = SSAForm.keyOf(operand);
+        if (key == null || definitionsIn(tuples, loop).containsKey(key)) return false;
+        return privateNames.isPrivate(operand, function) || !containsCall(tuples, loop);
+    }
+
+    /**
+     * Check if any tuple of the program other than the expected ones
+     * refers to an operand's name.
+     */
+    private boolean isUsedElsewhere(Operand operand, FunctionInfo function, Set<Tuple> expected) {
+        Object key = SSAForm.keyOf(operand);
+        List<FunctionInfo> functions = operand instanceof Temporary ? List.of(function) : ir.getFunctionList();
+
+        for (FunctionInfo other : functions) {
+            for (Tuple tuple : other.getTuples()) {
+                if (expected.contains(tuple)) continue;
+                for (Operand each : tuple.getOperands()) {
+                    if (key.equals(SSAForm.keyOf(each))) return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // ==========================
+    // Utilities
+    // ==========================
+
+    private static boolean defines(Tuple tuple, Object key) {
+        return tuple.getOperator().hasResult() && key.equals(SSAForm.keyOf(tuple.getOperands().get(0)));
+    }
+
+    private static Map<Object, List<Integer>> definitionsIn(List<Tuple> tuples, Loop loop) {
+        Map<Object, List<Integer>> definitions = new HashMap<>();
+        for (BasicBlock block : loop.getBlocks()) {
+            for (int i = block.getStart(); i < block.getEnd(); i++) {
+                Tuple tuple = tuples.get(i);
+                Object key = tuple.getOperator().hasResult() ? SSAForm.keyOf(tuple.getOperands().get(0)) : null;
+                if (key != null) {
+                    definitions.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+                }
+            }
+        }
+        return definitions;
+    }
+
+    private static Map<Object, Integer> countDefinitions(List<Tuple> tuples) {
+        Map<Object, Integer> definitions = new HashMap<>();
+        for (Tuple tuple : tuples) {
+            Object key = tuple.getOperator().hasResult() ? SSAForm.keyOf(tuple.getOperands().get(0)) : null;
+            if (key != null) {
+                definitions.merge(key, 1, Integer::sum);
+            }
+        }
+        return definitions;
+    }
+
+    private static int countUses(List<Tuple> tuples, Operand operand) {
+        Object key = SSAForm.keyOf(operand);
+        int uses = 0;
+        for (Tuple tuple : tuples) {
+            List<Operand> operands = tuple.getOperands();
+            for (int j = tuple.getOperator().hasResult() ? 1 : 0; j < operands.size(); j++) {
+                if (key.equals(SSAForm.keyOf(operands.get(j)))) uses++;
+            }
+        }
+        return uses;
+    }
+
+    private static boolean containsCall(List<Tuple> tuples, Loop loop) {
+        for (BasicBlock block : loop.getBlocks()) {
+            for (Tuple tuple : block.getTuples()) {
+                if (tuple.getOperator() == Operator.CALL) return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isLabel(List<Tuple> tuples, int index, Label label) {
+        return index < tuples.size() && tuples.get(index).getOperator() == Operator.LABEL
+                && ((Label) tuples.get(index).getOperands().get(0)).getName().equals(label.getName());
+    }
+
+    private static boolean isSame(Operand operand, Operand other) {
+        return operand instanceof Temporary && SSAForm.keyOf(operand).equals(SSAForm.keyOf(other));
+    }
+
+    /**
+     * @return the value of an integer constant, or null if the operand
+     *         is not one
+     */
+    private static Long integerConstant(Operand operand) {
+        if (operand instanceof Constant constant
+                && (constant.getValue() instanceof Integer || constant.getValue() instanceof Long)) {
+            return ((Number) constant.getValue()).longValue();
+        }
+        return null;
+    }
+
+    /**
+     * @return true if a value fits in 32 bits, the limit of the constants
+     *         that the folders make and of x86_64 immediate operands
+     */
+    private static boolean fitsInt(long value) {
+        return value == (int) value;
+    }
+
+    private static Constant constant(long value) {
+        return value == (int) value ? new Constant((int) value) : new Constant(value);
+    }
+
+    private static boolean isFloat(Operand operand) {
+        if (operand instanceof Constant constant) {
+            return constant.getType() == OperandType.FLOAT;
+        } else if (operand instanceof Variable variable) {
+            return variable.getType() == OperandType.FLOAT;
+        } else if (operand instanceof Temporary temp) {
+            return temp.getType() == OperandType.FLOAT;
+        }
+        return false;
+    }
+
+    private Temporary newTemp(OperandType type) {
+        Temporary temp = ir.newTemp();
+        temp.setType(type);
+        return temp;
+    }
+}
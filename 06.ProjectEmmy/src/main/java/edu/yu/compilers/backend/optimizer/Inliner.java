@@ -0,0 +1,289 @@
+package edu.yu.compilers.backend.optimizer;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.yu.compilers.intermediate.cfg.CallGraph;
+import edu.yu.compilers.intermediate.ir.Operand;
+import edu.yu.compilers.intermediate.ir.Operand.Constant;
+import edu.yu.compilers.intermediate.ir.Operand.Label;
+import edu.yu.compilers.intermediate.ir.Operand.OperandType;
+import edu.yu.compilers.intermediate.ir.Operand.Temporary;
+import edu.yu.compilers.intermediate.ir.Operand.Variable;
+import edu.yu.compilers.intermediate.ir.Operator;
+import edu.yu.compilers.intermediate.ir.Tuple;
+import edu.yu.compilers.intermediate.ir.TupleIR;
+import edu.yu.compilers.intermediate.ir.TupleIR.FunctionInfo;
+import edu.yu.compilers.intermediate.ir.TupleIR.VariableInfo;
+import edu.yu.compilers.intermediate.symbols.SymTableEntry;
+
+/**
+ * Replace calls of small functions by copies of their bodies, so that
+ * the passes after this one see the callee's code with the caller's
+ * arguments. Each copy gets new temporaries and labels. The callee's
+ * parameters become the constant arguments they are called with, or new
+ * temporaries assigned the other arguments, and its locals become new
+ * temporaries. A RETURN assigns the call's result and jumps past the
+ * copy.
+ *
+ * <p>The functions are visited callees first, so a function is inlined
+ * together with the calls already inlined into it. A function is
+ * inlined if its body is small, or somewhat larger if it's called only
+ * once, and each constant argument allows a larger body. A recursive
+ * function is never inlined, nor is a function that refers to another
+ * function's locals.</p>
+ */
+public class Inliner {
+
+    // A callee is inlined if its body has at most this many tuples,
+    private static final int SIZE_LIMIT = 12;
+
+    // or this many if it has only one call site.
+    private static final int SINGLE_CALL_SIZE_LIMIT = 48;
+
+    // Each constant argument allows this many more tuples.
+    private static final int CONSTANT_ARGUMENT_BONUS = 4;
+
+    // A caller with this many tuples gets no more inlined calls.
+    private static final int GROWTH_LIMIT = 2000;
+
+    private final TupleIR ir;
+    private final CallGraph graph;
+    private final Map<FunctionInfo, Boolean> selfContained = new HashMap<>();
+    private int copyCount = 0;
+
+    /**
+     * Inline the calls of small functions in every function of the IR.
+     *
+     * @param ir the IR
+     */
+    public static void run(TupleIR ir) {
+        Inliner inliner = new Inliner(ir);
+
+        for (FunctionInfo function : inliner.graph.getBottomUpOrder()) {
+            inliner.inlineCalls(function);
+        }
+    }
+
+    private Inliner(TupleIR ir) {
+        this.ir = ir;
+        this.graph = new CallGraph(ir);
+    }
+
+    /**
+     * Inline the calls in a function that the heuristic accepts.
+     */
+    private void inlineCalls(FunctionInfo caller) {
+        List<Tuple> tuples = caller.getTuples();
+        List<Tuple> inlined = new ArrayList<>(tuples.size());
+        boolean changed = false;
+
+        for (int i = 0; i < tuples.size(); i++) {
+            Tuple tuple = tuples.get(i);
+            FunctionInfo callee = graph.calleeOf(tuple);
+
+            if (callee != null && inlined.size() + tuples.size() - i < GROWTH_LIMIT
+                    && shouldInline(caller, callee, tuple)) {
+                copyBody(callee, tuple, inlined);
+                changed = true;
+            } else {
+                inlined.add(tuple);
+            }
+        }
+
+        if (changed) {
+            caller.setTuples(inlined);
+        }
+    }
+
+    /**
+     * Decide whether to inline a call.
+     */
+    private boolean shouldInline(FunctionInfo caller, FunctionInfo callee, Tuple call) {
+        if (callee == caller || callee.isGlobalLevel() || graph.isRecursive(callee)) return false;
+        if (call.getOperands().size() - 2 != callee.getParameters().size()) return false;
+        if (!selfContained.computeIfAbsent(callee, Inliner::isSelfContained)) return false;
+
+        int limit = graph.getCallSiteCount(callee) == 1 ? SINGLE_CALL_SIZE_LIMIT : SIZE_LIMIT;
+        for (Operand argument : call.getOperands().subList(2, call.getOperands().size())) {
+            if (argument instanceof Constant) {
+                limit += CONSTANT_ARGUMENT_BONUS;
+            }
+        }
+
+        return bodySize(callee) <= limit;
+    }
+
+    /**
+     * Check that every variable a function refers to is its own or the
+     * program's, so that its body means the same thing in the caller.
+     */
+    private static boolean isSelfContained(FunctionInfo function) {
+        for (Tuple tuple : function.getTuples()) {
+            for (Operand operand : tuple.getOperands()) {
+                if (operand instanceof Variable variable
+                        && !isOwnedBy(variable, function) && !isGlobal(variable)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean isOwnedBy(Variable variable, FunctionInfo function) {
+        for (VariableInfo info : function.getVariables()) {
+            if (info.getEntry() == variable.getEntry()) return true;
+        }
+        return false;
+    }
+
+    private static boolean isGlobal(Variable variable) {
+        SymTableEntry entry = variable.getEntry();
+        return entry.getSymTable() == null || entry.getSymTable().getNestingLevel() <= 1;
+    }
+
+    /**
+     * @return the number of tuples in a function's body that do something
+     */
+    private static int bodySize(FunctionInfo function) {
+        int size = 0;
+        for (Tuple tuple : function.getTuples()) {
+            switch (tuple.getOperator()) {
+                case FUNCTION, PARAM, END_FUNCTION, LABEL -> {
+                }
+                default -> size++;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Append a copy of the callee's body in place of a call.
+     */
+    private void copyBody(FunctionInfo callee, Tuple call, List<Tuple> output) {
+        String suffix = "_inl" + (copyCount++);
+        Operand result = call.getOperands().get(0);
+        Label exit = new Label(callee.getName() + "_return" + suffix);
+        boolean exitUsed = false;
+
+        Map<Object, Operand> renamed = new HashMap<>();
+        bindParameters(callee, call, renamed, output);
+
+        List<Tuple> tuples = callee.getTuples();
+        int last = lastBodyTuple(tuples);
+
+        for (int i = 0; i <= last; i++) {
+            Tuple tuple = tuples.get(i);
+
+            switch (tuple.getOperator()) {
+                case FUNCTION, PARAM, END_FUNCTION -> {
+                }
+                case RETURN -> {
+                    if (!tuple.getOperands().isEmpty() && result != null) {
+                        Operand value = rename(tuple.getOperands().get(0), callee, renamed, suffix);
+                        output.add(new Tuple(Operator.ASSIGN, result, value));
+                    }
+                    if (i < last) {
+                        output.add(new Tuple(Operator.GOTO, exit));
+                        exitUsed = true;
+                    }
+                }
+                default -> {
+                    List<Operand> operands = tuple.getOperands();
+                    Operand[] copied = new Operand[operands.size()];
+                    for (int j = 0; j < copied.length; j++) {
+                        copied[j] = rename(operands.get(j), callee, renamed, suffix);
+                    }
+                    output.add(new Tuple(tuple.getOperator(), copied));
+                }
+            }
+        }
+
+        if (exitUsed) {
+            output.add(new Tuple(Operator.LABEL, exit));
+        }
+    }
+
+    /**
+     * @return the index of the last tuple before END_FUNCTION
+     */
+    private static int lastBodyTuple(List<Tuple> tuples) {
+        int last = tuples.size() - 1;
+        while (last >= 0 && tuples.get(last).getOperator() == Operator.END_FUNCTION) {
+            last--;
+        }
+        return last;
+    }
+
+    /**
+     * Bind each parameter to its argument. A constant argument of a
+     * parameter that's never assigned replaces the parameter, and any
+     * other argument is assigned to a new temporary, so the parameter
+     * keeps the argument's value at the call even if the body changes
+     * the argument's variable.
+     */
+    private void bindParameters(FunctionInfo callee, Tuple call, Map<Object, Operand> renamed,
+                                List<Tuple> output) {
+        List<VariableInfo> parameters = new ArrayList<>(callee.getParameters());
+        parameters.sort(Comparator.comparingInt(VariableInfo::getParamIndex));
+
+        for (int i = 0; i < parameters.size(); i++) {
+            VariableInfo parameter = parameters.get(i);
+            Operand argument = call.getOperands().get(i + 2);
+
+            if (argument instanceof Constant && !isAssigned(callee, parameter.getEntry())) {
+                renamed.put(parameter.getEntry(), argument);
+            } else {
+                Temporary temp = newTemp(parameter.getType());
+                output.add(new Tuple(Operator.ASSIGN, temp, argument));
+                renamed.put(parameter.getEntry(), temp);
+            }
+        }
+    }
+
+    private static boolean isAssigned(FunctionInfo function, SymTableEntry entry) {
+        for (Tuple tuple : function.getTuples()) {
+            if (tuple.getOperator().hasResult()
+                    && tuple.getOperands().get(0) instanceof Variable variable
+                    && variable.getEntry() == entry) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the operand of the copy that stands for an operand of the
+     * callee: a new temporary for a temporary or a local, the binding of
+     * a parameter, or a new label. Program variables, functions and
+     * constants stay as they are.
+     */
+    private Operand rename(Operand operand, FunctionInfo callee, Map<Object, Operand> renamed, String suffix) {
+        if (operand instanceof Temporary temp) {
+            return renamed.computeIfAbsent(temp.getNumber(), number -> newTemp(temp.getType()));
+        } else if (operand instanceof Variable variable && isOwnedBy(variable, callee)) {
+            return renamed.computeIfAbsent(variable.getEntry(), entry -> newTemp(typeOf(variable, callee)));
+        } else if (operand instanceof Label label) {
+            return renamed.computeIfAbsent(label.getName(), name -> new Label(name + suffix));
+        }
+        return operand;
+    }
+
+    private static OperandType typeOf(Variable variable, FunctionInfo function) {
+        for (VariableInfo info : function.getVariables()) {
+            if (info.getEntry() == variable.getEntry() && info.getType() != OperandType.NONE) {
+                return info.getType();
+            }
+        }
+        return variable.getType();
+    }
+
+    private Temporary newTemp(OperandType type) {
+        Temporary temp = ir.newTemp();
+        temp.setType(type);
+        return temp;
+    }
+}
@@ -0,0 +1,302 @@
+package edu.yu.compilers.backend.optimizer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import edu.yu.compilers.intermediate.cfg.BasicBlock;
+import edu.yu.compilers.intermediate.cfg.CallGraph;
+import edu.yu.compilers.intermediate.cfg.ControlFlowGraph;
+import edu.yu.compilers.intermediate.cfg.Loop;
+import edu.yu.compilers.intermediate.ir.Operand;
+import edu.yu.compilers.intermediate.ir.Operand.Constant;
+import edu.yu.compilers.intermediate.ir.Operand.Label;
+import edu.yu.compilers.intermediate.ir.Operand.OperandType;
+import edu.yu.compilers.intermediate.ir.Operand.Temporary;
+import edu.yu.compilers.intermediate.ir.Operand.Variable;
+import edu.yu.compilers.intermediate.ir.Operator;
+import edu.yu.compilers.intermediate.ir.Tuple;
+import edu.yu.compilers.intermediate.ir.TupleIR;
+import edu.yu.compilers.intermediate.ir.TupleIR.FunctionInfo;
+import edu.yu.compilers.intermediate.ir.TupleIR.VariableInfo;
+import edu.yu.compilers.intermediate.ssa.SSAForm;
+
+/**
+ * Move the computations that give the same value in every iteration of
+ * a loop to just before the loop. A tuple is invariant if its operands
+ * are constants, names that the loop doesn't assign, or the results of
+ * other invariant tuples. Only tuples that assign the only definition of
+ * a temporary are moved, so the temporary has the same value wherever it
+ * is used.
+ *
+ * <p>The moved tuples run even if the loop's body doesn't, so they must
+ * have no effect other than their value: PRINT and assignments to
+ * variables stay, as do divisions that may divide by zero. A CALL is
+ * moved only if its function is pure: it prints nothing, touches no
+ * variables but its own, has no loops and calls only pure functions, so
+ * it always returns the same value for the same arguments. A loop that
+ * contains another call may change every variable that a call can
+ * reach.</p>
+ *
+ * <p>The moved tuples go in a preheader just before the loop's header.
+ * Jumps from outside the loop to the header are redirected to a new
+ * label at the start of the preheader, while the back edges still go to
+ * the header. Inner loops are done first, so an invariant of an inner
+ * loop can move out of the outer loop as well.</p>
+ */
+public class LoopInvariantCodeMotion {
+
+    private final CallGraph callGraph;
+    private final PrivateNames privateNames;
+    private final Map<FunctionInfo, Boolean> pure = new HashMap<>();
+
+    private LoopInvariantCodeMotion(TupleIR ir) {
+        this.callGraph = new CallGraph(ir);
+        this.privateNames = new PrivateNames(ir);
+
+        // Callees first, so a function's callees are decided before it
+        for (FunctionInfo function : callGraph.getBottomUpOrder()) {
+            pure.put(function, isPure(function));
+        }
+    }
+
+    /**
+     * Move the loop invariants of every function of the IR.
+     *
+     * @param ir the IR
+     */
+    public static void run(TupleIR ir) {
+        LoopInvariantCodeMotion motion = new LoopInvariantCodeMotion(ir);
+
+        for (FunctionInfo function : ir.getFunctionList()) {
+            motion.hoistInvariants(function);
+        }
+    }
+
+    /**
+     * Visit the loops of a function, innermost first. The graph is
+     * rebuilt after each change, so the loops are found by their
+     * headers' labels.
+     */
+    private void hoistInvariants(FunctionInfo function) {
+        Set<String> visited = new HashSet<>();
+
+        while (true) {
+            ControlFlowGraph graph = function.getControlFlowGraph();
+            Loop next = null;
+            for (Loop loop : graph.getLoops()) {
+                Label label = loop.getHeader().getLabel();
+                if (label != null && !visited.contains(label.getName())
+                        && (next == null || loop.getDepth() > next.getDepth())) {
+                    next = loop;
+                }
+            }
+            if (next == null) return;
+
+            visited.add(next.getHeader().getLabel().getName());
+            hoistInvariants(function, graph, next);
+        }
+    }
+
+    /**
+     * Move the invariants of one loop into its preheader.
+     */
+    private void hoistInvariants(FunctionInfo function, ControlFlowGraph graph, Loop loop) {
+        BasicBlock header = loop.getHeader();
+        BasicBlock previous = header.getIndex() > 0 ? graph.getBlocks().get(header.getIndex() - 1) : null;
+
+        // A preheader before the header would be inside the loop if the
+        // block before the header falls into it from inside the loop.
+        if (previous != null && loop.contains(previous) && header.getPredecessors().contains(previous)
+                && previous.getLastTuple().getOperator() != Operator.GOTO) {
+            return;
+        }
+
+        List<Tuple> tuples = graph.getTuples();
+        Map<Object, Integer> definitions = new HashMap<>();
+        for (Tuple tuple : tuples) {
+            if (tuple.getOperator().hasResult() && SSAForm.keyOf(tuple.getOperands().get(0)) != null) {
+                definitions.merge(SSAForm.keyOf(tuple.getOperands().get(0)), 1, Integer::sum);
+            }
+        }
+
+        Set<Object> assigned = new HashSet<>();
+        boolean impureCall = false;
+        for (BasicBlock block : loop.getBlocks()) {
+            for (Tuple tuple : block.getTuples()) {
+                if (tuple.getOperator().hasResult() && SSAForm.keyOf(tuple.getOperands().get(0)) != null) {
+                    assigned.add(SSAForm.keyOf(tuple.getOperands().get(0)));
+                }
+                if (tuple.getOperator() == Operator.CALL && !isPureCall(tuple)) {
+                    impureCall = true;
+                }
+            }
+        }
+
+        // Mark invariants until no more are found. The order of marking
+        // is an order in which each one's operands are already computed.
+        Set<Integer> hoisted = new LinkedHashSet<>();
+        Set<Object> hoistedNames = new HashSet<>();
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (BasicBlock block : loop.getBlocks()) {
+                for (int i = block.getStart(); i < block.getEnd(); i++) {
+                    Tuple tuple = tuples.get(i);
+                    if (hoisted.contains(i) || !isHoistable(tuple, definitions)) continue;
+                    if (!hasInvariantOperands(tuple, function, assigned, hoistedNames, impureCall)) continue;
+
+                    hoisted.add(i);
+                    hoistedNames.add(SSAForm.keyOf(tuple.getOperands().get(0)));
+                    changed = true;
+                }
+            }
+        }
+
+        if (hoisted.isEmpty()) return;
+
+        // Redirect the jumps from outside the loop to the preheader
+        Label headerLabel = header.getLabel();
+        Label preheaderLabel = new Label(headerLabel.getName() + "_preheader");
+        boolean preheaderUsed = false;
+        Map<Integer, Tuple> redirected = new HashMap<>();
+
+        for (BasicBlock predecessor : header.getPredecessors()) {
+            Tuple last = predecessor.getLastTuple();
+            if (loop.contains(predecessor) || !targets(last, headerLabel)) continue;
+
+            List<Operand> operands = new ArrayList<>(last.getOperands());
+            operands.set(operands.size() - 1, preheaderLabel);
+            redirected.put(predecessor.getEnd() - 1, new Tuple(last.getOperator(), operands.toArray(new Operand[0])));
+            preheaderUsed = true;
+        }
+
+        List<Tuple> moved = new ArrayList<>(tuples.size() + 1);
+        for (int i = 0; i < tuples.size(); i++) {
+            if (i == header.getStart()) {
+                if (preheaderUsed) {
+                    moved.add(new Tuple(Operator.LABEL, preheaderLabel));
+                }
+                for (int index : hoisted) {
+                    moved.add(tuples.get(index));
+                }
+            }
+            if (!hoisted.contains(i)) {
+                moved.add(redirected.getOrDefault(i, tuples.get(i)));
+            }
+        }
+        function.setTuples(moved);
+    }
+
+    private static boolean targets(Tuple branch, Label label) {
+        List<Operand> operands = branch.getOperands();
+        return (branch.getOperator() == Operator.GOTO || branch.getOperator() == Operator.IF)
+                && operands.get(operands.size() - 1) instanceof Label target
+                && target.getName().equals(label.getName());
+    }
+
+    /**
+     * Check if a tuple could be moved if its operands are invariant: it
+     * assigns the only definition of a temporary and has no other effect.
+     */
+    private boolean isHoistable(Tuple tuple, Map<Object, Integer> definitions) {
+        Operand result = tuple.getOperands().isEmpty() ? null : tuple.getOperands().get(0);
+        if (!(result instanceof Temporary) || definitions.getOrDefault(SSAForm.keyOf(result), 0) != 1) return false;
+
+        return switch (tuple.getOperator()) {
+            case ASSIGN, ADD, SUB, MUL, AND, OR, NOT, EQ, NEQ, GT, GTE, LT, LTE -> true;
+            case DIV -> !mayTrap(tuple);
+            case CALL -> isPureCall(tuple);
+            default -> false;
+        };
+    }
+
+    private boolean hasInvariantOperands(Tuple tuple, FunctionInfo function, Set<Object> assigned,
+                                         Set<Object> hoistedNames, boolean impureCall) {
+        List<Operand> operands = tuple.getOperands();
+        int first = tuple.getOperator() == Operator.CALL ? 2 : 1;
+
+        for (Operand operand : operands.subList(first, operands.size())) {
+            if (operand instanceof Constant) continue;
+
+            Object key = SSAForm.keyOf(operand);
+            if (key == null) return false;
+            if (hoistedNames.contains(key)) continue;
+            if (assigned.contains(key)) return false;
+            if (impureCall && !privateNames.isPrivate(operand, function)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return true if the tuple is an integer division that may divide by
+     *         zero, which is a runtime error
+     */
+    private static boolean mayTrap(Tuple tuple) {
+        List<Operand> operands = tuple.getOperands();
+        if (isFloat(operands.get(1)) || isFloat(operands.get(2))) return false;
+
+        return !(operands.get(2) instanceof Constant constant
+                && constant.getValue() instanceof Number number
+                && number.doubleValue() != 0);
+    }
+
+    private static boolean isFloat(Operand operand) {
+        if (operand instanceof Constant constant) {
+            return constant.getType() == OperandType.FLOAT;
+        } else if (operand instanceof Variable variable) {
+            return variable.getType() == OperandType.FLOAT;
+        } else if (operand instanceof Temporary temp) {
+            return temp.getType() == OperandType.FLOAT;
+        }
+        return false;
+    }
+
+    private boolean isPureCall(Tuple call) {
+        FunctionInfo callee = callGraph.calleeOf(call);
+        return callee != null && pure.getOrDefault(callee, false);
+    }
+
+    /**
+     * Check if a function always returns the same value for the same
+     * arguments and does nothing else.
+     */
+    private boolean isPure(FunctionInfo function) {
+        if (function.isGlobalLevel() || callGraph.isRecursive(function)) return false;
+        if (!function.getControlFlowGraph().getLoops().isEmpty()) return false;
+
+        for (Tuple tuple : function.getTuples()) {
+            switch (tuple.getOperator()) {
+                case PRINT -> {
+                    return false;
+                }
+                case DIV -> {
+                    if (mayTrap(tuple)) return false;
+                }
+                case CALL -> {
+                    if (!isPureCall(tuple)) return false;
+                }
+                default -> {
+                }
+            }
+
+            for (Operand operand : tuple.getOperands()) {
+                if (operand instanceof Variable variable && !isOwnedBy(variable, function)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean isOwnedBy(Variable variable, FunctionInfo function) {
+        for (VariableInfo info : function.getVariables()) {
+            if (info.getEntry() == variable.getEntry()) return true;
+        }
+        return false;
+    }
+}
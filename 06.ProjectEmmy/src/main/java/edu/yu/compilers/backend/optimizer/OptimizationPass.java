@@ -0,0 +1,17 @@
+package edu.yu.compilers.backend.optimizer;
+
+import edu.yu.compilers.intermediate.ir.TupleIR;
+
+/**
+ * A transformation of the IR that the pass manager can run.
+ */
+@FunctionalInterface
+public interface OptimizationPass {
+
+    /**
+     * Transform the tuples of every function of the IR.
+     *
+     * @param ir the IR
+     */
+    void run(TupleIR ir);
+}
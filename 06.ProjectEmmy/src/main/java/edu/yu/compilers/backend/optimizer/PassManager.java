@@ -0,0 +1,160 @@
+package edu.yu.compilers.backend.optimizer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import edu.yu.compilers.intermediate.ir.TupleIR;
+import edu.yu.compilers.intermediate.ir.TupleIR.FunctionInfo;
+
+/**
+ * Run an ordered list of optimization passes over the IR, recording how
+ * long each pass took and how it changed the number of tuples.
+ */
+public class PassManager {
+
+    /** The highest optimization level. */
+    public static final int MAX_LEVEL = 2;
+
+    private final List<String> names = new ArrayList<>();
+    private final List<OptimizationPass> passes = new ArrayList<>();
+    private final List<PassStatistics> statistics = new ArrayList<>();
+
+    /**
+     * The cost and effect of one run of a pass.
+     */
+    public static class PassStatistics {
+        private final String name;
+        private final long nanoseconds;
+        private final int tuplesBefore;
+        private final int tuplesAfter;
+
+        PassStatistics(String name, long nanoseconds, int tuplesBefore, int tuplesAfter) {
+            this.name = name;
+            this.nanoseconds = nanoseconds;
+            this.tuplesBefore = tuplesBefore;
+            this.tuplesAfter = tuplesAfter;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getNanoseconds() {
+            return nanoseconds;
+        }
+
+        public int getTuplesBefore() {
+            return tuplesBefore;
+        }
+
+        public int getTuplesAfter() {
+            return tuplesAfter;
+        }
+    }
+
+    /**
+     * Create the pass manager for an optimization level.
+     * <ul>
+     * <li>0: no optimization, for the fastest compile.</li>
+     * <li>1: cheap clean-ups: copy propagation, dead code elimination and
+     * removal of unreachable code and unused labels.</li>
+     * <li>2: removal of uncalled functions, tail-call elimination,
+     * inlining of small functions, sparse conditional constant
+     * propagation, common subexpression elimination, loop-invariant code
+     * motion and induction variable optimization as well, followed by the
+     * clean-ups. Uncalled functions are removed again after inlining,
+     * which leaves the functions whose calls were all inlined
+     * uncalled.</li>
+     * </ul>
+     *
+     * @param level the level, from 0 to MAX_LEVEL
+     * @return the pass manager
+     */
+    public static PassManager forLevel(int level) {
+        if (level < 0 || level > MAX_LEVEL) {
+            throw new IllegalArgumentException("Invalid optimization level: " + level);
+        }
+
+        PassManager manager = new PassManager();
+        if (level >= 2) {
+            manager.add("dead-function-elimination", DeadFunctionElimination::run);
+            manager.add("tail-call-elimination", TailCallElimination::run);
+            manager.add("inlining", Inliner::run);
+            manager.add("dead-function-elimination", DeadFunctionElimination::run);
+            manager.add("constant-propagation", ConstantPropagation::run);
+            manager.add("value-numbering", ValueNumbering::run);
+            manager.add("loop-invariant-code-motion", LoopInvariantCodeMotion::run);
+            manager.add("induction-variables", InductionVariables::run);
+        }
+        if (level >= 1) {
+            manager.add("copy-propagation", CopyPropagation::run);
+            manager.add("dead-code-elimination", DeadCodeElimination::run);
+            manager.add("unreachable-label-removal", UnreachableLabelRemoval::run);
+        }
+        return manager;
+    }
+
+    /**
+     * Add a pass to the end of the list.
+     *
+     * @param name the pass name for the statistics
+     * @param pass the pass
+     * @return this pass manager
+     */
+    public PassManager add(String name, OptimizationPass pass) {
+        names.add(name);
+        passes.add(pass);
+        return this;
+    }
+
+    /**
+     * Run the passes in order.
+     *
+     * @param ir the IR to transform
+     */
+    public void run(TupleIR ir) {
+        for (int i = 0; i < passes.size(); i++) {
+            int before = countTuples(ir);
+            long start = System.nanoTime();
+
+            passes.get(i).run(ir);
+
+            long elapsed = System.nanoTime() - start;
+            statistics.add(new PassStatistics(names.get(i), elapsed, before, countTuples(ir)));
+        }
+    }
+
+    private static int countTuples(TupleIR ir) {
+        int count = 0;
+        for (FunctionInfo function : ir.getFunctionList()) {
+            count += function.getTuples().size();
+        }
+        return count;
+    }
+
+    /**
+     * @return the statistics of each pass run so far, in order
+     */
+    public List<PassStatistics> getStatistics() {
+        return Collections.unmodifiableList(statistics);
+    }
+
+    /**
+     * @return a table of the statistics of each pass run so far
+     */
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-28s %10s %8s %8s %8s%n", "Pass", "Time (ms)", "Before", "After", "Change"));
+
+        long total = 0;
+        for (PassStatistics pass : statistics) {
+            total += pass.nanoseconds;
+            sb.append(String.format("%-28s %10.3f %8d %8d %+8d%n", pass.name, pass.nanoseconds / 1e6,
+                    pass.tuplesBefore, pass.tuplesAfter, pass.tuplesAfter - pass.tuplesBefore));
+        }
+        sb.append(String.format("%-28s %10.3f%n", "Total", total / 1e6));
+
+        return sb.toString();
+    }
+}
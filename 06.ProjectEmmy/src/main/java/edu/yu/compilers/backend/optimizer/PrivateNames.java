@@ -0,0 +1,67 @@
+package edu.yu.compilers.backend.optimizer;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import edu.yu.compilers.intermediate.ir.Operand;
+import edu.yu.compilers.intermediate.ir.Operand.Temporary;
+import edu.yu.compilers.intermediate.ir.Operand.Variable;
+import edu.yu.compilers.intermediate.ir.Tuple;
+import edu.yu.compilers.intermediate.ir.TupleIR;
+import edu.yu.compilers.intermediate.ir.TupleIR.FunctionInfo;
+import edu.yu.compilers.intermediate.symbols.SymTableEntry;
+
+/**
+ * Decide which temporaries and variables belong to a single function,
+ * so that only that function's tuples can read or write them and a call
+ * can't change them. Passes may move, replace and delete the accesses
+ * of private names freely.
+ *
+ * <p>Temporaries are private, as are a function's own locals and
+ * parameters. The program's variables are private to the main program
+ * when no function refers to them. A function's program variables are
+ * never private, since they keep their values between calls.</p>
+ */
+class PrivateNames {
+    private final Set<SymTableEntry> shared = new HashSet<>();
+
+    /**
+     * Find the variables that more than one function of the IR refers to.
+     *
+     * @param ir the IR
+     */
+    PrivateNames(TupleIR ir) {
+        Map<SymTableEntry, FunctionInfo> owners = new HashMap<>();
+
+        for (FunctionInfo function : ir.getFunctionList()) {
+            for (Tuple tuple : function.getTuples()) {
+                for (Operand operand : tuple.getOperands()) {
+                    if (operand instanceof Variable variable) {
+                        FunctionInfo owner = owners.putIfAbsent(variable.getEntry(), function);
+                        if (owner != null && owner != function) {
+                            shared.add(variable.getEntry());
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return true if the operand is a temporary or a variable that only
+     *         the function can access
+     */
+    boolean isPrivate(Operand operand, FunctionInfo function) {
+        if (operand instanceof Temporary) {
+            return true;
+        } else if (operand instanceof Variable variable) {
+            SymTableEntry entry = variable.getEntry();
+            if (entry.getSymTable() == null || shared.contains(entry)) return false;
+
+            return function.isGlobalLevel() || entry.getSymTable().getNestingLevel() > 1;
+        }
+        return false;
+    }
+}
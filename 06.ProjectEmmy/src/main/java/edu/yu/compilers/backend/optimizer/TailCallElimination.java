@@ -0,0 +1,244 @@
+package edu.yu.compilers.backend.optimizer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import edu.yu.compilers.intermediate.cfg.BasicBlock;
+import edu.yu.compilers.intermediate.cfg.ControlFlowGraph;
+import edu.yu.compilers.intermediate.ir.Operand;
+import edu.yu.compilers.intermediate.ir.Operand.Function;
+import edu.yu.compilers.intermediate.ir.Operand.Label;
+import edu.yu.compilers.intermediate.ir.Operand.Temporary;
+import edu.yu.compilers.intermediate.ir.Operand.Variable;
+import edu.yu.compilers.intermediate.ir.Operator;
+import edu.yu.compilers.intermediate.ir.Tuple;
+import edu.yu.compilers.intermediate.ir.TupleIR;
+import edu.yu.compilers.intermediate.ir.TupleIR.FunctionInfo;
+import edu.yu.compilers.intermediate.ir.TupleIR.VariableInfo;
+import edu.yu.compilers.intermediate.symbols.SymTableEntry;
+
+/**
+ * Turn the tail calls of a function to itself into loops. A call is a
+ * tail call if the next tuple other than a label returns its result. The
+ * call is replaced by assignments of the arguments to the parameters and
+ * a jump to a label after the function's FUNCTION tuple, so the
+ * recursion runs in one activation of the function. An argument that is
+ * another parameter is first copied to a new temporary, so that every
+ * argument has its value from before the assignments.
+ *
+ * <p>The RETURN after the call stays, since other paths may reach it,
+ * and is removed later as unreachable if nothing else does.</p>
+ *
+ * <p>A call starts the function's other locals afresh, but a jump back
+ * leaves them with the values of the previous activation. So a function
+ * is left alone if it may read one of its locals before assigning
+ * it.</p>
+ */
+public class TailCallElimination {
+
+    private TailCallElimination() {
+    }
+
+    /**
+     * Turn the self-recursive tail calls of every function of the IR
+     * into jumps.
+     *
+     * @param ir the IR
+     */
+    public static void run(TupleIR ir) {
+        PrivateNames privateNames = new PrivateNames(ir);
+
+        for (FunctionInfo function : ir.getFunctionList()) {
+            if (!function.isGlobalLevel()) {
+                eliminateTailCalls(ir, function, privateNames);
+            }
+        }
+    }
+
+    private static void eliminateTailCalls(TupleIR ir, FunctionInfo function, PrivateNames privateNames) {
+        if (readsUnassignedLocal(function, privateNames)) return;
+
+        List<Tuple> tuples = function.getTuples();
+        List<VariableInfo> parameters = new ArrayList<>(function.getParameters());
+        parameters.sort(Comparator.comparingInt(VariableInfo::getParamIndex));
+
+        Label entry = new Label(function.getName() + "_tail_entry");
+        List<Tuple> output = new ArrayList<>(tuples.size());
+        boolean changed = false;
+
+        for (int i = 0; i < tuples.size(); i++) {
+            Tuple tuple = tuples.get(i);
+
+            if (isSelfTailCall(function, tuples, i, parameters.size())) {
+                assignParameters(ir, parameters, tuple.getOperands(), output);
+                output.add(new Tuple(Operator.GOTO, entry));
+                changed = true;
+            } else {
+                output.add(tuple);
+            }
+        }
+
+        if (changed) {
+            output.add(entryIndex(output), new Tuple(Operator.LABEL, entry));
+            function.setTuples(output);
+        }
+    }
+
+    /**
+     * Check if a tuple is a call of its own function whose result the
+     * function returns right away.
+     */
+    private static boolean isSelfTailCall(FunctionInfo function, List<Tuple> tuples, int index,
+                                          int parameterCount) {
+        Tuple call = tuples.get(index);
+        if (call.getOperator() != Operator.CALL) return false;
+
+        List<Operand> operands = call.getOperands();
+        Function callee = (Function) operands.get(1);
+        if (!callee.getName().equals(function.getName())) return false;
+        if (operands.size() - 2 != parameterCount) return false;
+
+        int next = index + 1;
+        while (next < tuples.size() && tuples.get(next).getOperator() == Operator.LABEL) {
+            next++;
+        }
+        if (next == tuples.size() || tuples.get(next).getOperator() != Operator.RETURN) return false;
+
+        List<Operand> returned = tuples.get(next).getOperands();
+        Operand result = operands.get(0);
+        return returned.isEmpty() ? result == null
+                : result instanceof Temporary temp && returned.get(0) instanceof Temporary value
+                        && temp.getNumber() == value.getNumber();
+    }
+
+    /**
+     * Assign the arguments of a call to the parameters of the function.
+     */
+    private static void assignParameters(TupleIR ir, List<VariableInfo> parameters,
+                                         List<Operand> operands, List<Tuple> output) {
+        Operand[] values = new Operand[parameters.size()];
+
+        for (int i = 0; i < values.length; i++) {
+            Operand argument = operands.get(i + 2);
+            values[i] = argument;
+
+            if (argument instanceof Variable variable && isParameter(variable, parameters)
+                    && variable.getEntry() != parameters.get(i).getEntry()) {
+                Temporary temp = ir.newTemp();
+                temp.setType(parameters.get(i).getType());
+                output.add(new Tuple(Operator.ASSIGN, temp, argument));
+                values[i] = temp;
+            }
+        }
+
+        for (int i = 0; i < values.length; i++) {
+            VariableInfo parameter = parameters.get(i);
+            if (!(values[i] instanceof Variable variable) || variable.getEntry() != parameter.getEntry()) {
+                Variable target = new Variable(parameter.getEntry());
+                target.setType(parameter.getType());
+                output.add(new Tuple(Operator.ASSIGN, target, values[i]));
+            }
+        }
+    }
+
+    private static boolean isParameter(Variable variable, List<VariableInfo> parameters) {
+        for (VariableInfo parameter : parameters) {
+            if (parameter.getEntry() == variable.getEntry()) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Check if a local other than a parameter is live on entry to a
+     * function, so some path may read it before assigning it. A call
+     * may read the locals that another function shares.
+     */
+    private static boolean readsUnassignedLocal(FunctionInfo function, PrivateNames privateNames) {
+        Map<SymTableEntry, Variable> locals = new HashMap<>();
+        for (VariableInfo info : function.getLocalVariables()) {
+            locals.put(info.getEntry(), new Variable(info.getEntry()));
+        }
+        if (locals.isEmpty()) return false;
+
+        ControlFlowGraph graph = function.getControlFlowGraph();
+        List<Tuple> tuples = graph.getTuples();
+        Map<BasicBlock, Set<SymTableEntry>> liveIn = new HashMap<>();
+        for (BasicBlock block : graph.getBlocks()) {
+            liveIn.put(block, new HashSet<>());
+        }
+
+        List<BasicBlock> order = new ArrayList<>(graph.getReversePostorder());
+        Collections.reverse(order);
+
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+
+            for (BasicBlock block : order) {
+                Set<SymTableEntry> live = new HashSet<>();
+                for (BasicBlock successor : block.getSuccessors()) {
+                    live.addAll(liveIn.get(successor));
+                }
+
+                for (int i = block.getEnd() - 1; i >= block.getStart(); i--) {
+                    transfer(tuples.get(i), function, locals, privateNames, live);
+                }
+                if (!live.equals(liveIn.get(block))) {
+                    liveIn.put(block, live);
+                    changed = true;
+                }
+            }
+        }
+
+        return !liveIn.get(graph.getEntry()).isEmpty();
+    }
+
+    /**
+     * Update the set of locals live after a tuple to those live before it.
+     */
+    private static void transfer(Tuple tuple, FunctionInfo function, Map<SymTableEntry, Variable> locals,
+                                 PrivateNames privateNames, Set<SymTableEntry> live) {
+        List<Operand> operands = tuple.getOperands();
+        int first = 0;
+
+        if (tuple.getOperator().hasResult()) {
+            if (operands.get(0) instanceof Variable variable) {
+                live.remove(variable.getEntry());
+            }
+            first = 1;
+        }
+
+        if (tuple.getOperator() == Operator.CALL) {
+            for (Map.Entry<SymTableEntry, Variable> local : locals.entrySet()) {
+                if (!privateNames.isPrivate(local.getValue(), function)) {
+                    live.add(local.getKey());
+                }
+            }
+        }
+
+        for (Operand operand : operands.subList(first, operands.size())) {
+            if (operand instanceof Variable variable && locals.containsKey(variable.getEntry())) {
+                live.add(variable.getEntry());
+            }
+        }
+    }
+
+    /**
+     * @return the index just after the function's FUNCTION and PARAM tuples
+     */
+    private static int entryIndex(List<Tuple> tuples) {
+        int index = 0;
+        while (index < tuples.size()) {
+            Operator operator = tuples.get(index).getOperator();
+            if (operator != Operator.FUNCTION && operator != Operator.PARAM) break;
+            index++;
+        }
+        return index;
+    }
+}
@@ -0,0 +1,122 @@
+package edu.yu.compilers.backend.optimizer;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import edu.yu.compilers.intermediate.cfg.BasicBlock;
+import edu.yu.compilers.intermediate.cfg.ControlFlowGraph;
+import edu.yu.compilers.intermediate.ir.Operand.Label;
+import edu.yu.compilers.intermediate.ir.Operator;
+import edu.yu.compilers.intermediate.ir.Tuple;
+import edu.yu.compilers.intermediate.ir.TupleIR;
+import edu.yu.compilers.intermediate.ir.TupleIR.FunctionInfo;
+
+/**
+ * Remove the code that can never run and the labels that nothing jumps
+ * to. The blocks that can't be reached from the entry are deleted, then
+ * the jumps to the label that immediately follows them, and then the
+ * labels that no jump refers to any more, which lets the blocks on
+ * either side of them merge.
+ */
+public class UnreachableLabelRemoval {
+
+    private UnreachableLabelRemoval() {
+    }
+
+    /**
+     * Remove the unreachable code and unused labels in every function of the IR.
+     *
+     * @param ir the IR
+     */
+    public static void run(TupleIR ir) {
+        for (FunctionInfo function : ir.getFunctionList()) {
+            List<Tuple> tuples = function.getTuples();
+            List<Tuple> cleaned = removeUnusedLabels(removeJumpsToNext(removeUnreachable(function)));
+
+            if (cleaned.size() != tuples.size()) {
+                function.setTuples(cleaned);
+            }
+        }
+    }
+
+    /**
+     * Delete the blocks that can't be reached, keeping the tuple that
+     * ends the function or program.
+     */
+    private static List<Tuple> removeUnreachable(FunctionInfo function) {
+        ControlFlowGraph graph = function.getControlFlowGraph();
+        List<Tuple> kept = new ArrayList<>();
+
+        for (BasicBlock block : graph.getBlocks()) {
+            for (Tuple tuple : block.getTuples()) {
+                Operator operator = tuple.getOperator();
+                if (graph.isReachable(block)
+                        || operator == Operator.END_FUNCTION || operator == Operator.END_PROGRAM) {
+                    kept.add(tuple);
+                }
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Delete each GOTO or IF whose target label follows it, with only
+     * other labels in between.
+     */
+    private static List<Tuple> removeJumpsToNext(List<Tuple> tuples) {
+        List<Tuple> kept = new ArrayList<>();
+
+        for (int i = 0; i < tuples.size(); i++) {
+            Tuple tuple = tuples.get(i);
+            Label target = targetOf(tuple);
+
+            if (target != null && fallsThroughTo(tuples, i + 1, target)) continue;
+            kept.add(tuple);
+        }
+        return kept;
+    }
+
+    private static boolean fallsThroughTo(List<Tuple> tuples, int index, Label target) {
+        for (int i = index; i < tuples.size() && tuples.get(i).getOperator() == Operator.LABEL; i++) {
+            if (((Label) tuples.get(i).getOperands().get(0)).getName().equals(target.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Delete the labels that no GOTO or IF jumps to.
+     */
+    private static List<Tuple> removeUnusedLabels(List<Tuple> tuples) {
+        Set<String> targets = new HashSet<>();
+        for (Tuple tuple : tuples) {
+            Label target = targetOf(tuple);
+            if (target != null) {
+                targets.add(target.getName());
+            }
+        }
+
+        List<Tuple> kept = new ArrayList<>();
+        for (Tuple tuple : tuples) {
+            if (tuple.getOperator() != Operator.LABEL
+                    || targets.contains(((Label) tuple.getOperands().get(0)).getName())) {
+                kept.add(tuple);
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * @return the label that a GOTO or IF jumps to, or null
+     */
+    private static Label targetOf(Tuple tuple) {
+        return switch (tuple.getOperator()) {
+            case GOTO -> (Label) tuple.getOperands().get(0);
+            case IF -> (Label) tuple.getOperands().get(1);
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,252 @@
+package edu.yu.compilers.backend.optimizer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import edu.yu.compilers.intermediate.cfg.BasicBlock;
+import edu.yu.compilers.intermediate.cfg.ControlFlowGraph;
+import edu.yu.compilers.intermediate.ir.Operand;
+import edu.yu.compilers.intermediate.ir.Operand.Constant;
+import edu.yu.compilers.intermediate.ir.Operand.Temporary;
+import edu.yu.compilers.intermediate.ir.Operand.Variable;
+import edu.yu.compilers.intermediate.ir.Operator;
+import edu.yu.compilers.intermediate.ir.Tuple;
+import edu.yu.compilers.intermediate.ir.TupleIR;
+import edu.yu.compilers.intermediate.ir.TupleIR.FunctionInfo;
+import edu.yu.compilers.intermediate.ssa.SSAForm;
+import edu.yu.compilers.intermediate.symbols.SymTableEntry;
+
+/**
+ * Eliminate common subexpressions by value numbering. A tuple that
+ * computes the same operation on the same operands as an earlier tuple
+ * whose result still holds that value becomes an ASSIGN of the earlier
+ * result, which copy propagation and dead code elimination then clean
+ * up. The operands of commutative operators are put in a fixed order,
+ * and GT and GTE become LT and LTE with their operands swapped, so that
+ * a + b and b + a, or a &gt; b and b &lt; a, are found to be the same.
+ *
+ * <p>Within a basic block, any expression is remembered until one of
+ * its operands or its result is assigned again, and a CALL forgets the
+ * expressions of the variables that a call can change. An expression
+ * whose operands are constants and temporaries that are assigned only
+ * once, and whose result is such a temporary, is also remembered in the
+ * blocks that its block dominates, since nothing can change its value
+ * there.</p>
+ *
+ * <p>DIV is not numbered, so every division by zero is still
+ * reported, and neither is CALL.</p>
+ */
+public class ValueNumbering {
+
+    /**
+     * The key of a constant operand, which must not equal the key of a
+     * temporary with the same number.
+     */
+    private record ConstantKey(Object value) {
+    }
+
+    private final PrivateNames privateNames;
+
+    private ValueNumbering(TupleIR ir) {
+        this.privateNames = new PrivateNames(ir);
+    }
+
+    /**
+     * Eliminate the common subexpressions in every function of the IR.
+     *
+     * @param ir the IR
+     */
+    public static void run(TupleIR ir) {
+        ValueNumbering numbering = new ValueNumbering(ir);
+
+        for (FunctionInfo function : ir.getFunctionList()) {
+            numbering.numberFunction(function);
+        }
+    }
+
+    private void numberFunction(FunctionInfo function) {
+        ControlFlowGraph graph = function.getControlFlowGraph();
+        List<Tuple> tuples = new ArrayList<>(graph.getTuples());
+
+        Map<Object, Integer> definitions = new HashMap<>();
+        for (Tuple tuple : tuples) {
+            Object key = resultKey(tuple);
+            if (key != null) {
+                definitions.merge(key, 1, Integer::sum);
+            }
+        }
+
+        boolean changed = numberBlock(function, graph, graph.getEntry(), tuples, definitions, new HashMap<>());
+        if (changed) {
+            function.setTuples(tuples);
+        }
+    }
+
+    /**
+     * Number the tuples of a block and then of the blocks it dominates.
+     *
+     * @param dominating the expressions of the dominating blocks that
+     *                   still hold in this block
+     * @return true if a tuple was replaced
+     */
+    private boolean numberBlock(FunctionInfo function, ControlFlowGraph graph, BasicBlock block,
+                                List<Tuple> tuples, Map<Object, Integer> definitions,
+                                Map<List<Object>, Operand> dominating) {
+        Map<List<Object>, Operand> global = new HashMap<>(dominating);
+        Map<List<Object>, Operand> local = new HashMap<>();
+        boolean changed = false;
+
+        for (int i = block.getStart(); i < block.getEnd(); i++) {
+            Tuple tuple = tuples.get(i);
+            List<Object> expression = expressionOf(tuple);
+
+            if (expression != null) {
+                Operand earlier = global.containsKey(expression) ? global.get(expression) : local.get(expression);
+                if (earlier != null) {
+                    tuples.set(i, new Tuple(Operator.ASSIGN, tuple.getOperands().get(0), earlier));
+                    changed = true;
+                }
+            }
+
+            if (tuple.getOperator() == Operator.CALL) {
+                forgetCallEffects(function, local);
+            }
+
+            Object result = resultKey(tuple);
+            if (result != null) {
+                forget(result, local);
+            }
+
+            if (expression != null && !expression.contains(result)) {
+                Operand value = tuple.getOperands().get(0);
+                if (isStable(expression, definitions) && value instanceof Temporary
+                        && definitions.get(result) == 1) {
+                    global.putIfAbsent(expression, value);
+                } else {
+                    local.putIfAbsent(expression, value);
+                }
+            }
+        }
+
+        for (BasicBlock child : graph.getDominatorChildren(block)) {
+            changed |= numberBlock(function, graph, child, tuples, definitions, global);
+        }
+        return changed;
+    }
+
+    /**
+     * Get the expression that a tuple computes, as its operator followed
+     * by the keys of its operands in canonical order.
+     *
+     * @return the expression, or null if the tuple is not numbered
+     */
+    private static List<Object> expressionOf(Tuple tuple) {
+        Operator operator = tuple.getOperator();
+        List<Operand> operands = tuple.getOperands();
+        if (resultKey(tuple) == null) return null;
+
+        switch (operator) {
+            case ADD, SUB, MUL, AND, OR, NOT, EQ, NEQ, GT, GTE, LT, LTE -> {
+            }
+            default -> {
+                return null;
+            }
+        }
+
+        List<Operand> sources = new ArrayList<>(operands.subList(1, operands.size()));
+        for (Operand source : sources) {
+            if (keyOf(source) == null) return null;
+        }
+
+        if (sources.size() == 2) {
+            switch (operator) {
+                case GT, GTE -> {
+                    operator = operator == Operator.GT ? Operator.LT : Operator.LTE;
+                    sources = List.of(sources.get(1), sources.get(0));
+                }
+                case ADD, MUL, AND, OR, EQ, NEQ -> {
+                    if (sources.get(0).toString().compareTo(sources.get(1).toString()) > 0) {
+                        sources = List.of(sources.get(1), sources.get(0));
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+
+        List<Object> expression = new ArrayList<>();
+        expression.add(operator);
+        for (Operand source : sources) {
+            expression.add(keyOf(source));
+        }
+        return expression;
+    }
+
+    /**
+     * @return the key of an operand: its name, or its value if it's a
+     *         constant, or null if it has neither
+     */
+    private static Object keyOf(Operand operand) {
+        if (operand instanceof Constant constant) {
+            return constant.getValue() == null ? null : new ConstantKey(constant.getValue());
+        }
+        return SSAForm.keyOf(operand);
+    }
+
+    private static Object resultKey(Tuple tuple) {
+        return tuple.getOperator().hasResult() ? SSAForm.keyOf(tuple.getOperands().get(0)) : null;
+    }
+
+    /**
+     * @return true if every operand of the expression is a constant or a
+     *         temporary that's assigned only once
+     */
+    private static boolean isStable(List<Object> expression, Map<Object, Integer> definitions) {
+        for (Object key : expression.subList(1, expression.size())) {
+            if (!(key instanceof ConstantKey) && !(key instanceof Integer && definitions.get(key) == 1)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Forget the expressions that use a name or are held in it.
+     */
+    private static void forget(Object name, Map<List<Object>, Operand> expressions) {
+        Iterator<Map.Entry<List<Object>, Operand>> iterator = expressions.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<List<Object>, Operand> entry = iterator.next();
+            if (entry.getKey().contains(name) || name.equals(SSAForm.keyOf(entry.getValue()))) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Forget the expressions that use or are held in a variable that a
+     * call can change.
+     */
+    private void forgetCallEffects(FunctionInfo function, Map<List<Object>, Operand> expressions) {
+        Iterator<Map.Entry<List<Object>, Operand>> iterator = expressions.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<List<Object>, Operand> entry = iterator.next();
+            if (!privateNames.isPrivate(entry.getValue(), function) || usesSharedName(entry.getKey(), function)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private boolean usesSharedName(List<Object> expression, FunctionInfo function) {
+        for (Object key : expression.subList(1, expression.size())) {
+            if (key instanceof SymTableEntry entry
+                    && !privateNames.isPrivate(new Variable(entry), function)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
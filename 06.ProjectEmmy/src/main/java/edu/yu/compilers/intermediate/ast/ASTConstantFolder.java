@@ -0,0 +1,319 @@
+package edu.yu.compilers.intermediate.ast;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.yu.compilers.frontend.semantic.Operator;
+import edu.yu.compilers.intermediate.ast.Expr.Assign;
+import edu.yu.compilers.intermediate.ast.Expr.Binary;
+import edu.yu.compilers.intermediate.ast.Expr.Call;
+import edu.yu.compilers.intermediate.ast.Expr.FuncId;
+import edu.yu.compilers.intermediate.ast.Expr.Literal;
+import edu.yu.compilers.intermediate.ast.Expr.Logical;
+import edu.yu.compilers.intermediate.ast.Expr.Unary;
+import edu.yu.compilers.intermediate.ast.Expr.VarId;
+import edu.yu.compilers.intermediate.ast.Stmt.Block;
+import edu.yu.compilers.intermediate.ast.Stmt.Expression;
+import edu.yu.compilers.intermediate.ast.Stmt.If;
+import edu.yu.compilers.intermediate.ast.Stmt.Loop;
+import edu.yu.compilers.intermediate.ast.Stmt.Loop.BreakTest;
+import edu.yu.compilers.intermediate.ast.Stmt.Print;
+import edu.yu.compilers.intermediate.ast.Stmt.Return;
+import edu.yu.compilers.intermediate.symbols.Predefined;
+import edu.yu.compilers.intermediate.types.Typespec;
+
+/**
+ * AST visitor that folds constant expressions. Binary, logical and unary
+ * expressions whose operands are literals become a single literal with
+ * the type of its value, and an IF statement on a literal condition is
+ * replaced by the branch that runs. The tree is rebuilt, since its nodes
+ * are immutable, and a function body is folded once however many calls
+ * refer to it.
+ *
+ * <p>Values are computed with the semantic {@link Operator} methods, but
+ * only when those agree with what the program would compute at run time:
+ * integer arithmetic that overflows 32 bits, division by a literal zero
+ * (which must still fail when the program runs), and comparisons that
+ * depend on how zero and NaN are ordered are left alone.</p>
+ */
+public class ASTConstantFolder extends BaseASTVisitor<Object> {
+
+    private final Map<Block, Block> foldedBodies = new IdentityHashMap<>();
+
+    /**
+     * Fold the constant expressions of a program.
+     *
+     * @param program the program
+     * @return the folded program
+     */
+    public static Program fold(Program program) {
+        ASTConstantFolder folder = new ASTConstantFolder();
+        return new Program(program.getEntry(), folder.foldAll(program.getStatements()));
+    }
+
+    private List<Stmt> foldAll(List<Stmt> statements) {
+        List<Stmt> folded = new ArrayList<>(statements.size());
+        for (Stmt statement : statements) {
+            folded.add(fold(statement));
+        }
+        return folded;
+    }
+
+    private Stmt fold(Stmt stmt) {
+        return (Stmt) visit(stmt);
+    }
+
+    private Expr fold(Expr expr) {
+        return (Expr) visit(expr);
+    }
+
+    private static <E extends Expr> E withType(E expr, Typespec type) {
+        expr.setType(type);
+        return expr;
+    }
+
+    /*
+     * ********************
+     * Statements
+     * ********************
+     */
+
+    @Override
+    public Stmt visitBlockStmt(Block stmt) {
+        return new Block(foldAll(stmt.getStatements()));
+    }
+
+    @Override
+    public Stmt visitEmptyStmt(Stmt.Empty stmt) {
+        return stmt;
+    }
+
+    @Override
+    public Stmt visitExpressionStmt(Expression stmt) {
+        return new Expression(fold(stmt.getExpression()));
+    }
+
+    @Override
+    public Stmt visitIfStmt(If stmt) {
+        Expr condition = fold(stmt.getCondition());
+
+        if (condition instanceof Literal literal && literal.getValue() instanceof Boolean value) {
+            if (value) {
+                return fold(stmt.getThenBranch());
+            }
+            return stmt.getElseBranch() != null ? fold(stmt.getElseBranch()) : new Stmt.Empty();
+        }
+
+        Stmt elseBranch = stmt.getElseBranch() != null ? fold(stmt.getElseBranch()) : null;
+        return new If(condition, fold(stmt.getThenBranch()), elseBranch);
+    }
+
+    @Override
+    public Stmt visitLoopStmt(Loop stmt) {
+        Stmt initializer = stmt.getInitializer() != null ? fold(stmt.getInitializer()) : null;
+        return new Loop(initializer, foldAll(stmt.getBody()));
+    }
+
+    @Override
+    public Stmt visitLoopBreakTestStmt(BreakTest stmt) {
+        return new BreakTest(fold(stmt.getCondition()));
+    }
+
+    @Override
+    public Stmt visitPrintStmt(Print stmt) {
+        return new Print(fold(stmt.getExpression()));
+    }
+
+    @Override
+    public Stmt visitReturnStmt(Return stmt) {
+        return new Return(stmt.getValue() != null ? fold(stmt.getValue()) : null);
+    }
+
+    /*
+     * ********************
+     * Expressions
+     * ********************
+     */
+
+    @Override
+    public Expr visitAssignExpr(Assign expr) {
+        return withType(new Assign(expr.getEntry(), fold(expr.getValue())), expr.getType());
+    }
+
+    @Override
+    public Expr visitBinaryExpr(Binary expr) {
+        Expr left = fold(expr.getLeft());
+        Expr right = fold(expr.getRight());
+
+        Literal folded = foldBinary(expr.getOperator(), left, right);
+        return folded != null ? folded : withType(new Binary(left, expr.getOperator(), right), expr.getType());
+    }
+
+    @Override
+    public Expr visitLogicalExpr(Logical expr) {
+        Expr left = fold(expr.getLeft());
+        Expr right = fold(expr.getRight());
+
+        Literal folded = foldBinary(expr.getOperator(), left, right);
+        return folded != null ? folded : withType(new Logical(left, expr.getOperator(), right), expr.getType());
+    }
+
+    @Override
+    public Expr visitUnaryExpr(Unary expr) {
+        Expr operand = fold(expr.getOperand());
+
+        if (operand instanceof Literal literal) {
+            Object value = literal.getValue();
+            Object result = switch (expr.getOperator()) {
+                case SUB -> value instanceof Integer i && i == Integer.MIN_VALUE ? null : Operator.applyNEG(value);
+                case NOT -> Operator.applyNOT(value);
+                default -> null;
+            };
+            if (result != null) {
+                return literal(result);
+            }
+        }
+
+        return withType(new Unary(expr.getOperator(), operand), expr.getType());
+    }
+
+    @Override
+    public Expr visitCallExpr(Call expr) {
+        List<Expr> arguments = new ArrayList<>();
+        for (Expr argument : expr.getArguments()) {
+            arguments.add(fold(argument));
+        }
+
+        FuncId callee = (FuncId) fold(expr.getCallee());
+        return withType(new Call(callee, arguments), expr.getType());
+    }
+
+    @Override
+    public Expr visitFuncIdExpr(FuncId expr) {
+        Block body = expr.getCodeBlock();
+        if (body == null) return expr;
+
+        Block folded = foldedBodies.get(body);
+        if (folded == null) {
+            // Register the body before folding it, for the calls inside it.
+            List<Stmt> statements = new ArrayList<>();
+            folded = new Block(statements);
+            foldedBodies.put(body, folded);
+            statements.addAll(foldAll(body.getStatements()));
+        }
+
+        return withType(new FuncId(expr.getEntry(), folded), expr.getType());
+    }
+
+    @Override
+    public Expr visitLiteralExpr(Literal expr) {
+        return expr;
+    }
+
+    @Override
+    public Expr visitVarIdExpr(VarId expr) {
+        return expr;
+    }
+
+    /*
+     * ********************
+     * Folding
+     * ********************
+     */
+
+    /**
+     * Fold a binary or logical operation on two literals.
+     *
+     * @return the literal result, or null if the operation can't be folded
+     */
+    private static Literal foldBinary(Oper operator, Expr left, Expr right) {
+        if (!(left instanceof Literal l) || !(right instanceof Literal r)) return null;
+
+        Object leftValue = l.getValue();
+        Object rightValue = r.getValue();
+        if (leftValue == null || rightValue == null) return null;
+
+        Object result = switch (operator) {
+            case ADD, SUB, MUL, DIV -> arithmetic(operator, leftValue, rightValue);
+            case EQ -> equal(leftValue, rightValue);
+            case NE -> negate(equal(leftValue, rightValue));
+            case LT, LE, GT, GE -> compare(operator, leftValue, rightValue);
+            case AND -> leftValue instanceof Boolean && rightValue instanceof Boolean
+                    ? Operator.applyAnd(leftValue, rightValue) : null;
+            case OR -> leftValue instanceof Boolean && rightValue instanceof Boolean
+                    ? Operator.applyOr(leftValue, rightValue) : null;
+            default -> null;
+        };
+
+        return result != null ? literal(result) : null;
+    }
+
+    private static Object arithmetic(Oper operator, Object left, Object right) {
+        if (operator == Oper.DIV && right instanceof Number divisor && divisor.doubleValue() == 0) {
+            return null;  // keep the runtime division by zero
+        }
+
+        if (left instanceof Integer l && right instanceof Integer r) {
+            long exact = switch (operator) {
+                case ADD -> (long) l + r;
+                case SUB -> (long) l - r;
+                case MUL -> (long) l * r;
+                default -> (long) l / r;
+            };
+            if (exact != (int) exact) return null;
+        }
+
+        return switch (operator) {
+            case ADD -> Operator.applyADD(left, right);
+            case SUB -> Operator.applySUB(left, right);
+            case MUL -> Operator.applyMUL(left, right);
+            default -> Operator.applyDIV(left, right);
+        };
+    }
+
+    /**
+     * Numbers are equal if they are equal as doubles, as at run time.
+     */
+    private static Boolean equal(Object left, Object right) {
+        if (left instanceof Number && right instanceof Number) {
+            Boolean greaterOrEqual = Operator.applyGE(left, right);
+            Boolean lessOrEqual = Operator.applyLE(left, right);
+            return greaterOrEqual && lessOrEqual;
+        } else if (left.getClass() == right.getClass()) {
+            return Operator.applyEQ(left, right);
+        }
+        return null;
+    }
+
+    private static Boolean negate(Boolean value) {
+        return value != null ? !value : null;
+    }
+
+    private static Boolean compare(Oper operator, Object left, Object right) {
+        return switch (operator) {
+            case LT -> Operator.applyLT(left, right);
+            case LE -> Operator.applyLE(left, right);
+            case GT -> Operator.applyGT(left, right);
+            default -> Operator.applyGE(left, right);
+        };
+    }
+
+    /**
+     * Create a literal with the type of its value.
+     */
+    private static Literal literal(Object value) {
+        Typespec type;
+        if (value instanceof Integer) {
+            type = Predefined.integerType;
+        } else if (value instanceof Double) {
+            type = Predefined.realType;
+        } else if (value instanceof Boolean) {
+            type = Predefined.booleanType;
+        } else {
+            type = Predefined.stringType;
+        }
+        return withType(new Literal(value), type);
+    }
+}
@@ -0,0 +1,100 @@
+package edu.yu.compilers.intermediate.cfg;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import edu.yu.compilers.intermediate.ir.Operand.Label;
+import edu.yu.compilers.intermediate.ir.Operator;
+import edu.yu.compilers.intermediate.ir.Tuple;
+
+/**
+ * A basic block: a maximal run of a function's tuples that is entered
+ * only at its first tuple and left only after its last tuple.
+ */
+public class BasicBlock {
+    private final int index;
+    private final List<Tuple> functionTuples;
+    private final int start;
+    private final int end;
+    final List<BasicBlock> predecessors = new ArrayList<>();
+    final List<BasicBlock> successors = new ArrayList<>();
+
+    /**
+     * Construct a basic block.
+     *
+     * @param index          the block's index in its graph
+     * @param functionTuples all the tuples of the function
+     * @param start          the index of the block's first tuple
+     * @param end            the index after the block's last tuple
+     */
+    BasicBlock(int index, List<Tuple> functionTuples, int start, int end) {
+        this.index = index;
+        this.functionTuples = functionTuples;
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * @return the block's index in its graph, which is its position in the function
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * @return the index of the block's first tuple in the function
+     */
+    public int getStart() {
+        return start;
+    }
+
+    /**
+     * @return the index after the block's last tuple in the function
+     */
+    public int getEnd() {
+        return end;
+    }
+
+    /**
+     * @return the block's tuples
+     */
+    public List<Tuple> getTuples() {
+        return functionTuples.subList(start, end);
+    }
+
+    /**
+     * @return the block's last tuple
+     */
+    public Tuple getLastTuple() {
+        return functionTuples.get(end - 1);
+    }
+
+    /**
+     * @return the label that starts the block, or null if it has none
+     */
+    public Label getLabel() {
+        Tuple first = functionTuples.get(start);
+        return first.getOperator() == Operator.LABEL ? (Label) first.getOperands().get(0) : null;
+    }
+
+    /**
+     * @return the blocks that can execute immediately before this one
+     */
+    public List<BasicBlock> getPredecessors() {
+        return Collections.unmodifiableList(predecessors);
+    }
+
+    /**
+     * @return the blocks that can execute immediately after this one,
+     *         the branch target first
+     */
+    public List<BasicBlock> getSuccessors() {
+        return Collections.unmodifiableList(successors);
+    }
+
+    @Override
+    public String toString() {
+        return "B" + index;
+    }
+}
@@ -0,0 +1,212 @@
+package edu.yu.compilers.intermediate.cfg;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import edu.yu.compilers.intermediate.ir.Operand.Function;
+import edu.yu.compilers.intermediate.ir.Operator;
+import edu.yu.compilers.intermediate.ir.Tuple;
+import edu.yu.compilers.intermediate.ir.TupleIR;
+import edu.yu.compilers.intermediate.ir.TupleIR.FunctionInfo;
+
+/**
+ * The call graph of a program. There is an edge from each function to
+ * every function that one of its CALL tuples names, found by name as the
+ * tuple executor finds them. The graph also finds the recursive
+ * functions, which are the functions on a cycle of calls, orders the
+ * functions so that callees come before their callers, and finds the
+ * functions that the global scope can reach through calls.
+ * It describes the tuples as they were when it was built.
+ */
+public class CallGraph {
+    private final List<FunctionInfo> functions;
+    private final Map<String, FunctionInfo> functionsByName = new HashMap<>();
+    private final Map<FunctionInfo, Set<FunctionInfo>> callees = new HashMap<>();
+    private final Map<FunctionInfo, Set<FunctionInfo>> callers = new HashMap<>();
+    private final Map<FunctionInfo, Integer> callSites = new HashMap<>();
+
+    private final Set<FunctionInfo> recursive = new LinkedHashSet<>();
+    private final Set<FunctionInfo> reachable = new LinkedHashSet<>();
+
+    // Tarjan's algorithm completes the strongly connected components
+    // with callees before callers.
+    private final List<FunctionInfo> bottomUpOrder = new ArrayList<>();
+
+    /**
+     * Build the call graph of a program.
+     *
+     * @param ir the program's IR
+     */
+    public CallGraph(TupleIR ir) {
+        this.functions = ir.getFunctionList();
+
+        for (FunctionInfo function : functions) {
+            functionsByName.putIfAbsent(function.getName(), function);
+            callees.put(function, new LinkedHashSet<>());
+            callers.put(function, new LinkedHashSet<>());
+        }
+
+        for (FunctionInfo function : functions) {
+            for (Tuple tuple : function.getTuples()) {
+                FunctionInfo callee = calleeOf(tuple);
+                if (callee != null) {
+                    callees.get(function).add(callee);
+                    callers.get(callee).add(function);
+                    callSites.merge(callee, 1, Integer::sum);
+                }
+            }
+        }
+
+        findComponents();
+        findReachable();
+    }
+
+    /**
+     * Get the function that a tuple calls.
+     *
+     * @param tuple the tuple
+     * @return the function, or null if the tuple is not a CALL of a
+     *         function of the program
+     */
+    public FunctionInfo calleeOf(Tuple tuple) {
+        if (tuple.getOperator() != Operator.CALL) return null;
+
+        Function function = (Function) tuple.getOperands().get(1);
+        return functionsByName.get(function.getName());
+    }
+
+    /**
+     * @return the functions that a function calls
+     */
+    public List<FunctionInfo> getCallees(FunctionInfo function) {
+        return List.copyOf(callees.get(function));
+    }
+
+    /**
+     * @return the functions that call a function
+     */
+    public List<FunctionInfo> getCallers(FunctionInfo function) {
+        return List.copyOf(callers.get(function));
+    }
+
+    /**
+     * @return the number of CALL tuples that call a function
+     */
+    public int getCallSiteCount(FunctionInfo function) {
+        return callSites.getOrDefault(function, 0);
+    }
+
+    /**
+     * Check if a function can call itself, directly or through other
+     * functions.
+     *
+     * @param function the function
+     * @return true if the function is on a cycle of calls
+     */
+    public boolean isRecursive(FunctionInfo function) {
+        return recursive.contains(function);
+    }
+
+    /**
+     * Check if a function can be called when the program runs: it is the
+     * global scope or is called by a function that can be.
+     *
+     * @param function the function
+     * @return true if the global scope reaches the function
+     */
+    public boolean isReachable(FunctionInfo function) {
+        return reachable.contains(function);
+    }
+
+    /**
+     * @return the functions that the global scope reaches, starting with
+     *         the global scope
+     */
+    public List<FunctionInfo> getReachableFunctions() {
+        return List.copyOf(reachable);
+    }
+
+    /**
+     * @return every function, with each function after the functions it
+     *         calls unless they call each other
+     */
+    public List<FunctionInfo> getBottomUpOrder() {
+        return Collections.unmodifiableList(bottomUpOrder);
+    }
+
+    /**
+     * Find the functions reachable from the global scope.
+     */
+    private void findReachable() {
+        List<FunctionInfo> worklist = new ArrayList<>();
+        for (FunctionInfo function : functions) {
+            if (function.isGlobalLevel() && reachable.add(function)) {
+                worklist.add(function);
+            }
+        }
+
+        while (!worklist.isEmpty()) {
+            FunctionInfo function = worklist.remove(worklist.size() - 1);
+            for (FunctionInfo callee : callees.get(function)) {
+                if (reachable.add(callee)) {
+                    worklist.add(callee);
+                }
+            }
+        }
+    }
+
+    /**
+     * Find the strongly connected components with Tarjan's algorithm.
+     * A function is recursive if its component has more than one
+     * function or it calls itself.
+     */
+    private void findComponents() {
+        Map<FunctionInfo, Integer> indexes = new HashMap<>();
+        Map<FunctionInfo, Integer> lowLinks = new HashMap<>();
+        List<FunctionInfo> stack = new ArrayList<>();
+
+        for (FunctionInfo function : functions) {
+            if (!indexes.containsKey(function)) {
+                connect(function, indexes, lowLinks, stack);
+            }
+        }
+    }
+
+    private void connect(FunctionInfo function, Map<FunctionInfo, Integer> indexes,
+                         Map<FunctionInfo, Integer> lowLinks, List<FunctionInfo> stack) {
+        int index = indexes.size();
+        indexes.put(function, index);
+        lowLinks.put(function, index);
+        stack.add(function);
+
+        for (FunctionInfo callee : callees.get(function)) {
+            if (!indexes.containsKey(callee)) {
+                connect(callee, indexes, lowLinks, stack);
+                lowLinks.put(function, Math.min(lowLinks.get(function), lowLinks.get(callee)));
+            } else if (stack.contains(callee)) {
+                lowLinks.put(function, Math.min(lowLinks.get(function), indexes.get(callee)));
+            }
+        }
+
+        if (lowLinks.get(function) == index) {
+            List<FunctionInfo> members = new ArrayList<>();
+            FunctionInfo member;
+            do {
+                member = stack.remove(stack.size() - 1);
+                members.add(0, member);
+            } while (member != function);
+
+            for (FunctionInfo m : members) {
+                if (members.size() > 1 || callees.get(m).contains(m)) {
+                    recursive.add(m);
+                }
+            }
+            bottomUpOrder.addAll(members);
+        }
+    }
+}
@@ -0,0 +1,463 @@
+package edu.yu.compilers.intermediate.cfg;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.yu.compilers.intermediate.ir.Operand.Label;
+import edu.yu.compilers.intermediate.ir.Tuple;
+import edu.yu.compilers.intermediate.ir.TupleIR.FunctionInfo;
+
+/**
+ * The control-flow graph of one function. The function's tuples are
+ * split into basic blocks at labels and after branches and returns,
+ * and the blocks are linked by their possible transfers of control.
+ * The graph also computes the dominator tree and the natural loops.
+ * It describes the tuples as they were when it was built.
+ */
+public class ControlFlowGraph {
+    private final FunctionInfo function;
+    private final List<Tuple> tuples;
+    private final List<BasicBlock> blocks = new ArrayList<>();
+    private final int[] blockOfTuple;
+
+    private final List<BasicBlock> reversePostorder = new ArrayList<>();
+    private final int[] postorderNumbers;
+    private final BasicBlock[] immediateDominators;
+    private final List<List<BasicBlock>> dominatorChildren = new ArrayList<>();
+
+    private List<List<BasicBlock>> dominanceFrontiers;  // computed on request
+
+    private final List<Loop> loops = new ArrayList<>();
+    private final Loop[] innermostLoops;
+
+    /**
+     * Build the control-flow graph of a function.
+     *
+     * @param function the function's information and tuples
+     */
+    public ControlFlowGraph(FunctionInfo function) {
+        this.function = function;
+        this.tuples = List.copyOf(function.getTuples());
+        this.blockOfTuple = new int[tuples.size()];
+
+        buildBlocks();
+        linkBlocks();
+
+        int count = blocks.size();
+        postorderNumbers = new int[count];
+        immediateDominators = new BasicBlock[count];
+        innermostLoops = new Loop[count];
+        for (int i = 0; i < count; i++) {
+            dominatorChildren.add(new ArrayList<>());
+        }
+
+        computeReversePostorder();
+        computeDominators();
+        findLoops();
+    }
+
+    /**
+     * Split the tuples into blocks. A block starts at the first tuple,
+     * at each label, and after each branch or return.
+     */
+    private void buildBlocks() {
+        int start = 0;
+        for (int i = 0; i < tuples.size(); i++) {
+            Tuple tuple = tuples.get(i);
+
+            switch (tuple.getOperator()) {
+                case LABEL -> {
+                    if (i > start) {
+                        addBlock(start, i);
+                        start = i;
+                    }
+                }
+                case IF, GOTO, RETURN -> {
+                    addBlock(start, i + 1);
+                    start = i + 1;
+                }
+                default -> {
+                }
+            }
+        }
+
+        if (start < tuples.size()) {
+            addBlock(start, tuples.size());
+        }
+    }
+
+    private void addBlock(int start, int end) {
+        BasicBlock block = new BasicBlock(blocks.size(), tuples, start, end);
+        for (int i = start; i < end; i++) {
+            blockOfTuple[i] = block.getIndex();
+        }
+        blocks.add(block);
+    }
+
+    /**
+     * Link each block to its successors.
+     */
+    private void linkBlocks() {
+        Map<String, BasicBlock> labeledBlocks = new HashMap<>();
+        for (BasicBlock block : blocks) {
+            Label label = block.getLabel();
+            if (label != null) {
+                labeledBlocks.put(label.getName(), block);
+            }
+        }
+
+        for (BasicBlock block : blocks) {
+            Tuple last = block.getLastTuple();
+            BasicBlock next = block.getIndex() + 1 < blocks.size() ? blocks.get(block.getIndex() + 1) : null;
+
+            switch (last.getOperator()) {
+                case GOTO -> link(block, labeledBlocks.get(((Label) last.getOperands().get(0)).getName()));
+                case IF -> {
+                    link(block, labeledBlocks.get(((Label) last.getOperands().get(1)).getName()));
+                    link(block, next);
+                }
+                case RETURN, END_FUNCTION, END_PROGRAM -> {
+                }
+                default -> link(block, next);
+            }
+        }
+    }
+
+    private void link(BasicBlock from, BasicBlock to) {
+        if (to != null && !from.successors.contains(to)) {
+            from.successors.add(to);
+            to.predecessors.add(from);
+        }
+    }
+
+    /**
+     * Number the blocks reachable from the entry in postorder with an
+     * iterative depth-first search.
+     */
+    private void computeReversePostorder() {
+        if (blocks.isEmpty()) return;
+
+        boolean[] visited = new boolean[blocks.size()];
+        int[] nextSuccessor = new int[blocks.size()];
+        Deque<BasicBlock> stack = new ArrayDeque<>();
+        List<BasicBlock> postorder = new ArrayList<>();
+
+        stack.push(blocks.get(0));
+        visited[0] = true;
+
+        while (!stack.isEmpty()) {
+            BasicBlock block = stack.peek();
+            List<BasicBlock> successors = block.successors;
+
+            if (nextSuccessor[block.getIndex()] < successors.size()) {
+                BasicBlock successor = successors.get(nextSuccessor[block.getIndex()]++);
+                if (!visited[successor.getIndex()]) {
+                    visited[successor.getIndex()] = true;
+                    stack.push(successor);
+                }
+            } else {
+                stack.pop();
+                postorderNumbers[block.getIndex()] = postorder.size();
+                postorder.add(block);
+            }
+        }
+
+        for (int i = postorder.size() - 1; i >= 0; i--) {
+            reversePostorder.add(postorder.get(i));
+        }
+    }
+
+    /**
+     * Compute the immediate dominators with the iterative algorithm of
+     * Cooper, Harvey and Kennedy over the reverse postorder.
+     */
+    private void computeDominators() {
+        if (reversePostorder.isEmpty()) return;
+
+        BasicBlock entry = reversePostorder.get(0);
+        immediateDominators[entry.getIndex()] = entry;
+
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+
+            for (BasicBlock block : reversePostorder.subList(1, reversePostorder.size())) {
+                BasicBlock dominator = null;
+                for (BasicBlock predecessor : block.predecessors) {
+                    if (immediateDominators[predecessor.getIndex()] != null) {
+                        dominator = dominator == null ? predecessor : intersect(predecessor, dominator);
+                    }
+                }
+
+                if (immediateDominators[block.getIndex()] != dominator) {
+                    immediateDominators[block.getIndex()] = dominator;
+                    changed = true;
+                }
+            }
+        }
+
+        for (BasicBlock block : reversePostorder.subList(1, reversePostorder.size())) {
+            dominatorChildren.get(immediateDominators[block.getIndex()].getIndex()).add(block);
+        }
+    }
+
+    private BasicBlock intersect(BasicBlock a, BasicBlock b) {
+        while (a != b) {
+            while (postorderNumbers[a.getIndex()] < postorderNumbers[b.getIndex()]) {
+                a = immediateDominators[a.getIndex()];
+            }
+            while (postorderNumbers[b.getIndex()] < postorderNumbers[a.getIndex()]) {
+                b = immediateDominators[b.getIndex()];
+            }
+        }
+        return a;
+    }
+
+    /**
+     * Find the natural loops from the back edges, merging the loops that
+     * share a header, and nest them.
+     */
+    private void findLoops() {
+        Map<BasicBlock, Loop> loopsByHeader = new HashMap<>();
+
+        for (BasicBlock block : reversePostorder) {
+            for (BasicBlock successor : block.successors) {
+                if (!dominates(successor, block)) continue;
+
+                // A back edge: collect the blocks that reach it without the header.
+                Loop loop = loopsByHeader.computeIfAbsent(successor, header -> {
+                    Loop newLoop = new Loop(header);
+                    newLoop.add(header);
+                    loops.add(newLoop);
+                    return newLoop;
+                });
+                loop.latches.add(block);
+
+                Deque<BasicBlock> work = new ArrayDeque<>();
+                if (!loop.contains(block)) {
+                    loop.add(block);
+                    work.push(block);
+                }
+                while (!work.isEmpty()) {
+                    for (BasicBlock predecessor : work.pop().predecessors) {
+                        if (isReachable(predecessor) && !loop.contains(predecessor)) {
+                            loop.add(predecessor);
+                            work.push(predecessor);
+                        }
+                    }
+                }
+            }
+        }
+
+        // Nest each loop in the smallest other loop that contains its header.
+        for (Loop loop : loops) {
+            for (Loop other : loops) {
+                if (other != loop && other.contains(loop.getHeader())
+                        && (loop.parent == null || other.size() < loop.parent.size())) {
+                    loop.parent = other;
+                }
+            }
+        }
+        for (Loop loop : loops) {
+            if (loop.parent != null) {
+                loop.parent.children.add(loop);
+            }
+        }
+
+        // Each block's innermost loop is the smallest loop that contains it.
+        for (Loop loop : loops) {
+            for (BasicBlock block : loop.getBlocks()) {
+                Loop current = innermostLoops[block.getIndex()];
+                if (current == null || loop.size() < current.size()) {
+                    innermostLoops[block.getIndex()] = loop;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the function that the graph describes
+     */
+    public FunctionInfo getFunction() {
+        return function;
+    }
+
+    /**
+     * @return the tuples that the graph describes
+     */
+    public List<Tuple> getTuples() {
+        return tuples;
+    }
+
+    /**
+     * @return the blocks in tuple order
+     */
+    public List<BasicBlock> getBlocks() {
+        return Collections.unmodifiableList(blocks);
+    }
+
+    /**
+     * @return the entry block, or null if the function has no tuples
+     */
+    public BasicBlock getEntry() {
+        return blocks.isEmpty() ? null : blocks.get(0);
+    }
+
+    /**
+     * @return the block that contains a tuple
+     */
+    public BasicBlock getBlockOf(int tupleIndex) {
+        return blocks.get(blockOfTuple[tupleIndex]);
+    }
+
+    /**
+     * @return the reachable blocks in reverse postorder, which visits each
+     *         block before its successors other than along back edges
+     */
+    public List<BasicBlock> getReversePostorder() {
+        return Collections.unmodifiableList(reversePostorder);
+    }
+
+    /**
+     * @return true if the block can be reached from the entry
+     */
+    public boolean isReachable(BasicBlock block) {
+        return immediateDominators[block.getIndex()] != null;
+    }
+
+    /**
+     * @return the immediate dominator of a block, or null for the entry
+     *         and unreachable blocks
+     */
+    public BasicBlock getImmediateDominator(BasicBlock block) {
+        BasicBlock dominator = immediateDominators[block.getIndex()];
+        return dominator == block ? null : dominator;
+    }
+
+    /**
+     * @return the blocks immediately dominated by a block
+     */
+    public List<BasicBlock> getDominatorChildren(BasicBlock block) {
+        return Collections.unmodifiableList(dominatorChildren.get(block.getIndex()));
+    }
+
+    /**
+     * Get the dominance frontier of a block: the blocks where its
+     * dominance ends, each of which has a predecessor that the block
+     * dominates but is not itself strictly dominated by the block.
+     *
+     * @param block the block
+     * @return the blocks of its dominance frontier
+     */
+    public List<BasicBlock> getDominanceFrontier(BasicBlock block) {
+        if (dominanceFrontiers == null) {
+            computeDominanceFrontiers();
+        }
+        return Collections.unmodifiableList(dominanceFrontiers.get(block.getIndex()));
+    }
+
+    /**
+     * Compute the dominance frontiers by walking up the dominator tree
+     * from the predecessors of each join block.
+     */
+    private void computeDominanceFrontiers() {
+        dominanceFrontiers = new ArrayList<>();
+        for (int i = 0; i < blocks.size(); i++) {
+            dominanceFrontiers.add(new ArrayList<>());
+        }
+
+        for (BasicBlock block : reversePostorder) {
+            if (block.predecessors.size() < 2) continue;
+
+            BasicBlock dominator = immediateDominators[block.getIndex()];
+            for (BasicBlock predecessor : block.predecessors) {
+                if (!isReachable(predecessor)) continue;
+
+                BasicBlock runner = predecessor;
+                while (runner != dominator) {
+                    List<BasicBlock> frontier = dominanceFrontiers.get(runner.getIndex());
+                    if (!frontier.contains(block)) {
+                        frontier.add(block);
+                    }
+                    if (immediateDominators[runner.getIndex()] == runner) break;  // the entry
+                    runner = immediateDominators[runner.getIndex()];
+                }
+            }
+        }
+    }
+
+    /**
+     * Check if every path from the entry to a block goes through another.
+     * A block dominates itself.
+     *
+     * @param dominator the possible dominator
+     * @param block     the block
+     * @return true if dominator dominates block
+     */
+    public boolean dominates(BasicBlock dominator, BasicBlock block) {
+        if (!isReachable(block)) return false;
+
+        for (BasicBlock current = block; ; current = immediateDominators[current.getIndex()]) {
+            if (current == dominator) return true;
+            if (immediateDominators[current.getIndex()] == current) return false;
+        }
+    }
+
+    /**
+     * @return all the loops, each after the loops that enclose it
+     */
+    public List<Loop> getLoops() {
+        List<Loop> sorted = new ArrayList<>(loops);
+        sorted.sort((a, b) -> Integer.compare(a.getDepth(), b.getDepth()));
+        return sorted;
+    }
+
+    /**
+     * @return the innermost loop that contains a block, or null
+     */
+    public Loop getLoop(BasicBlock block) {
+        return innermostLoops[block.getIndex()];
+    }
+
+    /**
+     * @return the number of loops that contain a block
+     */
+    public int getLoopDepth(BasicBlock block) {
+        Loop loop = innermostLoops[block.getIndex()];
+        return loop == null ? 0 : loop.getDepth();
+    }
+
+    /**
+     * Print the blocks with their tuples, edges, dominators and loop depths.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("CFG ").append(function.getName()).append("\n");
+
+        for (BasicBlock block : blocks) {
+            sb.append(block).append(":");
+            sb.append(" preds=").append(block.predecessors);
+            sb.append(" succs=").append(block.successors);
+            if (isReachable(block)) {
+                BasicBlock dominator = getImmediateDominator(block);
+                sb.append(" idom=").append(dominator == null ? "-" : dominator);
+                sb.append(" depth=").append(getLoopDepth(block));
+            } else {
+                sb.append(" unreachable");
+            }
+            sb.append("\n");
+
+            for (Tuple tuple : block.getTuples()) {
+                sb.append("    ").append(tuple).append("\n");
+            }
+        }
+
+        return sb.toString();
+    }
+}
@@ -0,0 +1,106 @@
+package edu.yu.compilers.intermediate.cfg;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A natural loop: a header block that dominates the sources of one or
+ * more back edges, and every block that can reach a back edge source
+ * without passing through the header.
+ */
+public class Loop {
+    private final BasicBlock header;
+    private final List<BasicBlock> blocks = new ArrayList<>();
+    private final BitSet members = new BitSet();
+    final List<BasicBlock> latches = new ArrayList<>();
+    final List<Loop> children = new ArrayList<>();
+    Loop parent;
+
+    Loop(BasicBlock header) {
+        this.header = header;
+    }
+
+    void add(BasicBlock block) {
+        if (!members.get(block.getIndex())) {
+            members.set(block.getIndex());
+            blocks.add(block);
+        }
+    }
+
+    /**
+     * @return the loop's header, which every entry into the loop goes through
+     */
+    public BasicBlock getHeader() {
+        return header;
+    }
+
+    /**
+     * @return the loop's blocks, including those of nested loops, in block order
+     */
+    public List<BasicBlock> getBlocks() {
+        List<BasicBlock> sorted = new ArrayList<>(blocks);
+        sorted.sort((a, b) -> Integer.compare(a.getIndex(), b.getIndex()));
+        return sorted;
+    }
+
+    /**
+     * @return the blocks with a back edge to the header
+     */
+    public List<BasicBlock> getLatches() {
+        return Collections.unmodifiableList(latches);
+    }
+
+    /**
+     * @return true if the block is in the loop or a nested loop
+     */
+    public boolean contains(BasicBlock block) {
+        return members.get(block.getIndex());
+    }
+
+    /**
+     * @return the blocks outside the loop that the loop can branch to
+     */
+    public List<BasicBlock> getExits() {
+        List<BasicBlock> exits = new ArrayList<>();
+        for (BasicBlock block : getBlocks()) {
+            for (BasicBlock successor : block.getSuccessors()) {
+                if (!contains(successor) && !exits.contains(successor)) {
+                    exits.add(successor);
+                }
+            }
+        }
+        return exits;
+    }
+
+    /**
+     * @return the innermost loop that encloses this one, or null
+     */
+    public Loop getParent() {
+        return parent;
+    }
+
+    /**
+     * @return the loops nested immediately inside this one
+     */
+    public List<Loop> getChildren() {
+        return Collections.unmodifiableList(children);
+    }
+
+    /**
+     * @return the nesting depth: 1 for an outermost loop
+     */
+    public int getDepth() {
+        return parent == null ? 1 : parent.getDepth() + 1;
+    }
+
+    int size() {
+        return blocks.size();
+    }
+
+    @Override
+    public String toString() {
+        return "loop " + header + " " + getBlocks();
+    }
+}
@@ -29,5 +29,18 @@ public enum Operator {
     CALL,
 
     // Temporary assignments
-    TEMP
+    TEMP;
+
+    /**
+     * Check if a tuple with this operator assigns a value to its first operand.
+     *
+     * @return true if the first operand is the result
+     */
+    public boolean hasResult() {
+        return switch (this) {
+            case ASSIGN, TEMP, ADD, SUB, MUL, DIV, AND, OR, NOT,
+                 EQ, NEQ, GT, GTE, LT, LTE, CALL -> true;
+            default -> false;
+        };
+    }
 }
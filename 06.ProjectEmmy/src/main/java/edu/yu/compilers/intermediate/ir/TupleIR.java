@@ -9,6 +9,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.Stack;
 
+import edu.yu.compilers.intermediate.cfg.ControlFlowGraph;
 import edu.yu.compilers.intermediate.ir.Operand.OperandType;
 import edu.yu.compilers.intermediate.ir.Operand.Temporary;
 import edu.yu.compilers.intermediate.symbols.SymTableEntry;
@@ -60,12 +61,25 @@ public class TupleIR {
         return Collections.unmodifiableList(functionInfoList);
     }
 
+    /**
+     * Remove a function that is never called from the program.
+     *
+     * @param function the function, which must not be the global scope
+     */
+    public void removeFunction(FunctionInfo function) {
+        if (function == globalFunctionScope()) {
+            throw new IllegalArgumentException("Cannot remove the global scope");
+        }
+        functionInfoList.remove(function);
+    }
+
     public static class FunctionInfo {
         private final int level;
         private final String name;
         private final Map<SymTableEntry, VariableInfo> variables = new HashMap<>();
         private final List<FunctionInfo> functions = new ArrayList<>();
         private final List<Tuple> tuples = new ArrayList<>();
+        private ControlFlowGraph controlFlowGraph;  // built on request
 
         public FunctionInfo(String name, int level) {
             this.name = name;
@@ -116,6 +130,31 @@ public class TupleIR {
 
         public void addTuple(Tuple tuple) {
             tuples.add(tuple);
+            controlFlowGraph = null;
+        }
+
+        /**
+         * Replace the function's tuples, as an optimization pass does.
+         *
+         * @param newTuples the new tuples
+         */
+        public void setTuples(List<Tuple> newTuples) {
+            tuples.clear();
+            tuples.addAll(newTuples);
+            controlFlowGraph = null;
+        }
+
+        /**
+         * Get the control-flow graph of the function's tuples. It's built
+         * on the first request and rebuilt after the tuples change.
+         *
+         * @return the graph
+         */
+        public ControlFlowGraph getControlFlowGraph() {
+            if (controlFlowGraph == null) {
+                controlFlowGraph = new ControlFlowGraph(this);
+            }
+            return controlFlowGraph;
         }
     }
 
@@ -223,6 +262,20 @@ public class TupleIR {
         getStringConstant(str);
     }
 
+    /**
+     * Drop the string constants that are not in a set, renumbering the
+     * rest in their original order.
+     *
+     * @param used the string constants to keep
+     */
+    public void retainStringConstants(Set<String> used) {
+        List<String> kept = stringConstantPool.keySet().stream().filter(used::contains).toList();
+
+        stringConstantPool.clear();
+        stringConstantCounter = 0;
+        kept.forEach(this::registerStringConstant);
+    }
+
     /**
      * Get the set of string constants.
      * 
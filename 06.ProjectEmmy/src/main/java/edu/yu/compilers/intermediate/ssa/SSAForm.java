@@ -0,0 +1,431 @@
+package edu.yu.compilers.intermediate.ssa;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import edu.yu.compilers.intermediate.cfg.BasicBlock;
+import edu.yu.compilers.intermediate.cfg.ControlFlowGraph;
+import edu.yu.compilers.intermediate.ir.Operand;
+import edu.yu.compilers.intermediate.ir.Operand.Temporary;
+import edu.yu.compilers.intermediate.ir.Operand.Variable;
+import edu.yu.compilers.intermediate.ir.Tuple;
+
+/**
+ * Static single assignment form of one function. Each definition of a
+ * renamed temporary or variable creates a new SSA value, every use is
+ * linked to the one value that reaches it, and phi functions merge the
+ * values that reach a join block along different edges. Phis are placed
+ * in the iterated dominance frontiers of each name's definitions, only
+ * where the name is live (pruned SSA).
+ *
+ * <p>The form is kept beside the tuples rather than in them: the tuples
+ * still name the original temporaries and variables. Leaving SSA is
+ * therefore just dropping the versions and phis, which is correct as
+ * long as the versions of a name never become live at the same time.
+ * Substituting constants for uses and deleting unused definitions keep
+ * that true.</p>
+ */
+public class SSAForm {
+
+    /** The value number of an operand that is not renamed. */
+    public static final int NONE = -1;
+
+    private final ControlFlowGraph graph;
+    private final List<Tuple> tuples;
+    private final Predicate<Operand> renamed;
+
+    // Names, numbered in order of first appearance.
+    private final Map<Object, Integer> nameNumbers = new HashMap<>();
+    private final List<Object> names = new ArrayList<>();
+
+    // SSA values: the name of each and where it's defined.
+    private final List<Integer> valueNames = new ArrayList<>();
+    private final List<Integer> valueTuples = new ArrayList<>();  // defining tuple, or NONE
+    private final List<Phi> valuePhis = new ArrayList<>();         // defining phi, or null
+    private int[] entryValues;                                     // each name's value on entry
+
+    private final int[][] operandValues;
+    private final List<List<Phi>> blockPhis = new ArrayList<>();
+
+    /**
+     * A phi function at the start of a block. Its arguments are in the
+     * same order as the block's predecessors.
+     */
+    public static class Phi {
+        private final BasicBlock block;
+        private final Object name;
+        private int value;
+        private final int[] arguments;
+
+        Phi(BasicBlock block, Object name) {
+            this.block = block;
+            this.name = name;
+            this.arguments = new int[block.getPredecessors().size()];
+            Arrays.fill(arguments, NONE);
+        }
+
+        public BasicBlock getBlock() {
+            return block;
+        }
+
+        /**
+         * @return the temporary number or symbol table entry that the phi merges
+         */
+        public Object getName() {
+            return name;
+        }
+
+        /**
+         * @return the value that the phi defines
+         */
+        public int getValue() {
+            return value;
+        }
+
+        /**
+         * @return the value that reaches along the edge from the block's
+         *         predecessor with the same index
+         */
+        public int getArgument(int predecessorIndex) {
+            return arguments[predecessorIndex];
+        }
+
+        public int getArgumentCount() {
+            return arguments.length;
+        }
+    }
+
+    /**
+     * Build the SSA form of a function.
+     *
+     * @param graph   the function's control-flow graph
+     * @param renamed which temporary and variable operands to rename; any
+     *                other operand keeps its single storage location
+     */
+    public SSAForm(ControlFlowGraph graph, Predicate<Operand> renamed) {
+        this.graph = graph;
+        this.tuples = graph.getTuples();
+        this.renamed = renamed;
+        this.operandValues = new int[tuples.size()][];
+
+        for (int i = 0; i < tuples.size(); i++) {
+            List<Operand> operands = tuples.get(i).getOperands();
+            operandValues[i] = new int[operands.size()];
+            Arrays.fill(operandValues[i], NONE);
+
+            for (Operand operand : operands) {
+                nameOf(operand);
+            }
+        }
+        for (int i = 0; i < graph.getBlocks().size(); i++) {
+            blockPhis.add(new ArrayList<>());
+        }
+
+        entryValues = new int[names.size()];
+        for (int name = 0; name < names.size(); name++) {
+            entryValues[name] = newValue(name, NONE, null);
+        }
+
+        if (graph.getEntry() != null) {
+            placePhis();
+            rename();
+        }
+    }
+
+    /**
+     * Get the key that identifies an operand's name: the number of a
+     * temporary or the symbol table entry of a variable.
+     *
+     * @param operand the operand
+     * @return the key, or null if the operand has no name
+     */
+    public static Object keyOf(Operand operand) {
+        if (operand instanceof Temporary temp) {
+            return temp.getNumber();
+        } else if (operand instanceof Variable variable) {
+            return variable.getEntry();
+        }
+        return null;
+    }
+
+    /**
+     * Get the number of a renamed operand's name, numbering it if it's new.
+     *
+     * @return the number, or NONE if the operand is not renamed
+     */
+    private int nameOf(Operand operand) {
+        Object key = keyOf(operand);
+        if (key == null || !renamed.test(operand)) return NONE;
+
+        Integer number = nameNumbers.get(key);
+        if (number == null) {
+            number = names.size();
+            nameNumbers.put(key, number);
+            names.add(key);
+        }
+        return number;
+    }
+
+    private int newValue(int name, int tupleIndex, Phi phi) {
+        valueNames.add(name);
+        valueTuples.add(tupleIndex);
+        valuePhis.add(phi);
+        return valueNames.size() - 1;
+    }
+
+    /**
+     * Place phis for each name in the iterated dominance frontier of the
+     * blocks that define it, where the name is live on entry.
+     */
+    private void placePhis() {
+        List<BasicBlock> blocks = graph.getBlocks();
+        int blockCount = blocks.size();
+        int nameCount = names.size();
+
+        BitSet[] uses = new BitSet[blockCount];      // names used before defined in the block
+        BitSet[] defs = new BitSet[blockCount];
+        List<List<BasicBlock>> defBlocks = new ArrayList<>();
+        for (int name = 0; name < nameCount; name++) {
+            defBlocks.add(new ArrayList<>());
+        }
+
+        for (BasicBlock block : blocks) {
+            uses[block.getIndex()] = new BitSet(nameCount);
+            defs[block.getIndex()] = new BitSet(nameCount);
+
+            for (int i = block.getStart(); i < block.getEnd(); i++) {
+                Tuple tuple = tuples.get(i);
+                List<Operand> operands = tuple.getOperands();
+                boolean hasResult = tuple.getOperator().hasResult();
+
+                for (int j = hasResult ? 1 : 0; j < operands.size(); j++) {
+                    int name = nameOf(operands.get(j));
+                    if (name != NONE && !defs[block.getIndex()].get(name)) {
+                        uses[block.getIndex()].set(name);
+                    }
+                }
+                if (hasResult) {
+                    int name = nameOf(operands.get(0));
+                    if (name != NONE && !defs[block.getIndex()].get(name)) {
+                        defs[block.getIndex()].set(name);
+                        defBlocks.get(name).add(block);
+                    }
+                }
+            }
+        }
+
+        BitSet[] liveIn = liveIn(uses, defs);
+
+        for (int name = 0; name < nameCount; name++) {
+            boolean[] hasPhi = new boolean[blockCount];
+            boolean[] queued = new boolean[blockCount];
+            Deque<BasicBlock> work = new ArrayDeque<>();
+
+            for (BasicBlock block : defBlocks.get(name)) {
+                if (graph.isReachable(block)) {
+                    queued[block.getIndex()] = true;
+                    work.add(block);
+                }
+            }
+
+            while (!work.isEmpty()) {
+                for (BasicBlock frontier : graph.getDominanceFrontier(work.remove())) {
+                    int index = frontier.getIndex();
+                    if (hasPhi[index] || !liveIn[index].get(name)) continue;
+
+                    hasPhi[index] = true;
+                    blockPhis.get(index).add(new Phi(frontier, names.get(name)));
+
+                    if (!queued[index]) {
+                        queued[index] = true;
+                        work.add(frontier);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Compute the names live on entry to each block.
+     */
+    private BitSet[] liveIn(BitSet[] uses, BitSet[] defs) {
+        List<BasicBlock> blocks = graph.getBlocks();
+        BitSet[] liveIn = new BitSet[blocks.size()];
+        for (BasicBlock block : blocks) {
+            liveIn[block.getIndex()] = (BitSet) uses[block.getIndex()].clone();
+        }
+
+        List<BasicBlock> order = new ArrayList<>(graph.getReversePostorder());
+        Collections.reverse(order);
+
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+
+            for (BasicBlock block : order) {
+                BitSet live = new BitSet();
+                for (BasicBlock successor : block.getSuccessors()) {
+                    live.or(liveIn[successor.getIndex()]);
+                }
+                live.andNot(defs[block.getIndex()]);
+                live.or(uses[block.getIndex()]);
+
+                if (!live.equals(liveIn[block.getIndex()])) {
+                    liveIn[block.getIndex()] = live;
+                    changed = true;
+                }
+            }
+        }
+
+        return liveIn;
+    }
+
+    /**
+     * Rename the definitions and uses by walking the dominator tree with
+     * a stack of current values for each name.
+     */
+    private void rename() {
+        List<Deque<Integer>> stacks = new ArrayList<>();
+        for (int name = 0; name < names.size(); name++) {
+            Deque<Integer> stack = new ArrayDeque<>();
+            stack.push(entryValues[name]);
+            stacks.add(stack);
+        }
+
+        // A block's index enters it and its complement leaves its
+        // dominator subtree, popping the names the block pushed.
+        List<List<Integer>> pushedNames = new ArrayList<>();
+        for (int i = 0; i < graph.getBlocks().size(); i++) {
+            pushedNames.add(null);
+        }
+        Deque<Integer> work = new ArrayDeque<>();
+        work.push(graph.getEntry().getIndex());
+
+        while (!work.isEmpty()) {
+            int index = work.pop();
+
+            if (index < 0) {
+                for (int name : pushedNames.get(~index)) {
+                    stacks.get(name).pop();
+                }
+                continue;
+            }
+
+            BasicBlock block = graph.getBlocks().get(index);
+            List<Integer> pushed = new ArrayList<>();
+            pushedNames.set(index, pushed);
+
+            for (Phi phi : blockPhis.get(block.getIndex())) {
+                int name = nameNumbers.get(phi.name);
+                phi.value = newValue(name, NONE, phi);
+                stacks.get(name).push(phi.value);
+                pushed.add(name);
+            }
+
+            for (int i = block.getStart(); i < block.getEnd(); i++) {
+                Tuple tuple = tuples.get(i);
+                List<Operand> operands = tuple.getOperands();
+                boolean hasResult = tuple.getOperator().hasResult();
+
+                for (int j = hasResult ? 1 : 0; j < operands.size(); j++) {
+                    int name = nameOf(operands.get(j));
+                    if (name != NONE) {
+                        operandValues[i][j] = stacks.get(name).peek();
+                    }
+                }
+                if (hasResult) {
+                    int name = nameOf(operands.get(0));
+                    if (name != NONE) {
+                        int value = newValue(name, i, null);
+                        operandValues[i][0] = value;
+                        stacks.get(name).push(value);
+                        pushed.add(name);
+                    }
+                }
+            }
+
+            for (BasicBlock successor : block.getSuccessors()) {
+                int predecessorIndex = successor.getPredecessors().indexOf(block);
+                for (Phi phi : blockPhis.get(successor.getIndex())) {
+                    phi.arguments[predecessorIndex] = stacks.get(nameNumbers.get(phi.name)).peek();
+                }
+            }
+
+            work.push(~index);
+            for (BasicBlock child : graph.getDominatorChildren(block)) {
+                work.push(child.getIndex());
+            }
+        }
+    }
+
+    /**
+     * @return the control-flow graph that the form is built on
+     */
+    public ControlFlowGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return the number of SSA values
+     */
+    public int getValueCount() {
+        return valueNames.size();
+    }
+
+    /**
+     * Get the SSA value of a tuple's operand: the value it defines if
+     * it's the result, or else the value that reaches it.
+     *
+     * @param tupleIndex   the index of the tuple
+     * @param operandIndex the index of the operand
+     * @return the value, or NONE if the operand is not renamed or the
+     *         tuple is unreachable
+     */
+    public int getValue(int tupleIndex, int operandIndex) {
+        return operandValues[tupleIndex][operandIndex];
+    }
+
+    /**
+     * @return the temporary number or symbol table entry of a value
+     */
+    public Object getName(int value) {
+        return names.get(valueNames.get(value));
+    }
+
+    /**
+     * @return true if the value is the one its name has on entry to the function
+     */
+    public boolean isEntryValue(int value) {
+        return entryValues[valueNames.get(value)] == value;
+    }
+
+    /**
+     * @return the index of the tuple that defines a value, or NONE for
+     *         entry values and phis
+     */
+    public int getDefiningTuple(int value) {
+        return valueTuples.get(value);
+    }
+
+    /**
+     * @return the phi that defines a value, or null
+     */
+    public Phi getDefiningPhi(int value) {
+        return valuePhis.get(value);
+    }
+
+    /**
+     * @return the phis at the start of a block
+     */
+    public List<Phi> getPhis(BasicBlock block) {
+        return Collections.unmodifiableList(blockPhis.get(block.getIndex()));
+    }
+}
@@ -0,0 +1,151 @@
+package edu.yu.compilers;
+
+import static edu.yu.compilers.IRFixtures.execute;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import edu.yu.compilers.backend.irgen.TupleIRBuilder;
+import edu.yu.compilers.intermediate.ast.ASTConstantFolder;
+import edu.yu.compilers.intermediate.ast.Expr;
+import edu.yu.compilers.intermediate.ast.Expr.Binary;
+import edu.yu.compilers.intermediate.ast.Expr.Literal;
+import edu.yu.compilers.intermediate.ast.Expr.Unary;
+import edu.yu.compilers.intermediate.ast.Oper;
+import edu.yu.compilers.intermediate.ast.Program;
+import edu.yu.compilers.intermediate.ast.Stmt;
+import edu.yu.compilers.intermediate.ast.Stmt.If;
+import edu.yu.compilers.intermediate.ast.Stmt.Print;
+import edu.yu.compilers.intermediate.symbols.Predefined;
+import edu.yu.compilers.intermediate.symbols.SymTable;
+import edu.yu.compilers.intermediate.symbols.SymTableEntry;
+import edu.yu.compilers.intermediate.symbols.SymTableEntry.Kind;
+import edu.yu.compilers.intermediate.symbols.SymTableStack;
+import edu.yu.compilers.intermediate.types.Typespec;
+
+/**
+ * Tests for folding constant expressions in the AST. The AST is built
+ * by hand so these tests do not depend on the frontend.
+ */
+public class ASTConstantFolderTest {
+
+    @BeforeAll
+    static void initializeTypes() {
+        Predefined.initialize(new SymTableStack());
+    }
+
+    private static Literal literal(Object value, Typespec type) {
+        Literal literal = new Literal(value);
+        literal.setType(type);
+        return literal;
+    }
+
+    private static Binary binary(Expr left, Oper operator, Expr right, Typespec type) {
+        Binary binary = new Binary(left, operator, right);
+        binary.setType(type);
+        return binary;
+    }
+
+    private static Program program(List<Stmt> statements) {
+        SymTableEntry entry = new SymTable(0).enter("__program__", Kind.PROGRAM);
+        entry.setRoutineSymTable(new SymTable(1));
+        return new Program(entry, statements);
+    }
+
+    private static Expr printed(Program program, int index) {
+        return ((Print) program.getStatements().get(index)).getExpression();
+    }
+
+    /**
+     * Build a program that prints constant expressions of each type and
+     * then divides by a constant zero.
+     */
+    static Program buildConstants() {
+        Typespec integer = Predefined.integerType;
+        Typespec real = Predefined.realType;
+        Typespec bool = Predefined.booleanType;
+        Typespec string = Predefined.stringType;
+
+        Expr sum = binary(binary(literal(2, integer), Oper.MUL, literal(3, integer), integer),
+                Oper.ADD, literal(4, integer), integer);
+        Expr concatenation = binary(literal("ab", string), Oper.ADD, literal("cd", string), string);
+        Expr product = binary(literal(1.5, real), Oper.MUL, literal(2, integer), real);
+        Unary not = new Unary(Oper.NOT, binary(literal(1, integer), Oper.LT, literal(2, integer), bool));
+        not.setType(bool);
+        Expr quotient = binary(literal(7, integer), Oper.DIV,
+                binary(literal(2, integer), Oper.SUB, literal(2, integer), integer), integer);
+        Stmt branch = new If(binary(literal(1, integer), Oper.EQ, literal(1.0, real), bool),
+                new Print(literal("then", string)), new Print(literal("else", string)));
+
+        return program(List.of(
+                new Print(sum),
+                new Print(concatenation),
+                new Print(product),
+                new Print(not),
+                branch,
+                new Print(quotient)));
+    }
+
+    @Test
+    @DisplayName("Test constant expressions become typed literals")
+    void testFoldedLiterals() {
+        Program folded = ASTConstantFolder.fold(buildConstants());
+
+        Object[] values = { 10, "abcd", 3.0, false, "then" };
+        Typespec[] types = { Predefined.integerType, Predefined.stringType, Predefined.realType,
+                Predefined.booleanType, Predefined.stringType };
+
+        for (int i = 0; i < values.length; i++) {
+            Literal literal = assertInstanceOf(Literal.class, printed(folded, i));
+            assertEquals(values[i], literal.getValue());
+            assertSame(types[i], literal.getType());
+        }
+    }
+
+    @Test
+    @DisplayName("Test division by a constant zero is kept")
+    void testDivisionByZeroKept() {
+        Program folded = ASTConstantFolder.fold(buildConstants());
+
+        Binary quotient = assertInstanceOf(Binary.class, printed(folded, 5));
+        assertEquals(Oper.DIV, quotient.getOperator());
+        assertEquals(0, assertInstanceOf(Literal.class, quotient.getRight()).getValue());
+        assertSame(Predefined.integerType, quotient.getType());
+    }
+
+    @Test
+    @DisplayName("Test folding keeps the program's output")
+    void testFoldingKeepsOutput() {
+        String expected = execute(TupleIRBuilder.build(buildConstants()));
+        String folded = execute(TupleIRBuilder.build(ASTConstantFolder.fold(buildConstants())));
+
+        assertEquals(expected, folded);
+    }
+
+    @Test
+    @DisplayName("Test comparisons of zeros and NaN fold as IEEE comparisons")
+    void testFloatComparisons() {
+        Typespec real = Predefined.realType;
+        Typespec bool = Predefined.booleanType;
+
+        Program program = program(List.of(
+                new Print(binary(literal(0.0, real), Oper.LE, literal(-0.0, real), bool)),
+                new Print(binary(literal(-0.0, real), Oper.LT, literal(0.0, real), bool)),
+                new Print(binary(literal(Double.NaN, real), Oper.LT, literal(1.0, real), bool)),
+                new Print(binary(literal(Double.NaN, real), Oper.GE, literal(1.0, real), bool))));
+        Program folded = ASTConstantFolder.fold(program);
+
+        Object[] values = { true, false, false, false };
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(values[i], assertInstanceOf(Literal.class, printed(folded, i)).getValue());
+        }
+        assertEquals(execute(TupleIRBuilder.build(program)),
+                execute(TupleIRBuilder.build(folded)));
+    }
+}
@@ -0,0 +1,141 @@
+package edu.yu.compilers;
+
+import static edu.yu.compilers.IRFixtures.execute;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import edu.yu.compilers.backend.irgen.TupleFactory;
+import edu.yu.compilers.backend.optimizer.ConstantPropagation;
+import edu.yu.compilers.intermediate.ir.Operand.Constant;
+import edu.yu.compilers.intermediate.ir.Operand.Label;
+import edu.yu.compilers.intermediate.ir.Operand.OperandType;
+import edu.yu.compilers.intermediate.ir.Operand.Temporary;
+import edu.yu.compilers.intermediate.ir.Operand.Variable;
+import edu.yu.compilers.intermediate.ir.Operator;
+import edu.yu.compilers.intermediate.ir.Tuple;
+import edu.yu.compilers.intermediate.ir.TupleIR;
+import edu.yu.compilers.intermediate.ir.TupleIR.VariableInfo;
+import edu.yu.compilers.intermediate.symbols.SymTable;
+import edu.yu.compilers.intermediate.symbols.SymTableEntry;
+import edu.yu.compilers.intermediate.symbols.SymTableEntry.Kind;
+
+/**
+ * Tests for sparse conditional constant propagation. The optimized IR
+ * must print the same as the original.
+ */
+public class ConstantPropagationTest {
+
+    /**
+     * Build a program with a branch on a constant, a loop whose counter
+     * starts at a constant, and a division by zero.
+     */
+    static TupleIR buildConstantBranches() {
+        SymTable globals = new SymTable(1);
+        SymTableEntry x = globals.enter("x", Kind.VARIABLE);
+        SymTableEntry y = globals.enter("y", Kind.VARIABLE);
+
+        TupleIR ir = new TupleIR();
+        ir.addVariable(new VariableInfo(x, OperandType.INTEGER));
+        ir.addVariable(new VariableInfo(y, OperandType.INTEGER));
+
+        Label then = new Label("then_0");
+        Label end = new Label("end_0");
+        Label loop = new Label("loop_start_1");
+        Label done = new Label("loop_end_1");
+        Temporary t0 = ir.newTemp();
+        Temporary t1 = ir.newTemp();
+        Temporary t2 = ir.newTemp();
+        Temporary t3 = ir.newTemp();
+        Temporary t4 = ir.newTemp();
+        Temporary t5 = ir.newTemp();
+
+        ir.addTuple(TupleFactory.createProgram());
+        ir.addTuple(TupleFactory.createAssign(new Variable(x), new Constant(4)));
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.MUL, t0, new Variable(x), new Constant(3)));
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.GT, t1, t0, new Constant(10)));
+        ir.addTuple(TupleFactory.createIf(t1, then));
+        ir.addTuple(TupleFactory.createPrint(new Constant("small")));
+        ir.addTuple(TupleFactory.createGoto(end));
+        ir.addTuple(TupleFactory.createLabel(then));
+        ir.addTuple(TupleFactory.createPrint(t0));
+        ir.addTuple(TupleFactory.createLabel(end));
+        ir.addTuple(TupleFactory.createAssign(new Variable(y), new Constant(0)));
+        ir.addTuple(TupleFactory.createLabel(loop));
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.LT, t2, new Variable(y), new Variable(x)));
+        ir.addTuple(TupleFactory.createUnaryOp(Operator.NOT, t3, t2));
+        ir.addTuple(TupleFactory.createIf(t3, done));
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.ADD, t4, new Variable(y), new Constant(1)));
+        ir.addTuple(TupleFactory.createAssign(new Variable(y), t4));
+        ir.addTuple(TupleFactory.createGoto(loop));
+        ir.addTuple(TupleFactory.createLabel(done));
+        ir.addTuple(TupleFactory.createPrint(new Variable(y)));
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.DIV, t5, new Variable(x), new Constant(0)));
+        ir.addTuple(TupleFactory.createPrint(t5));
+        ir.addTuple(TupleFactory.createEndProgram());
+        return ir;
+    }
+
+    static TupleIR buildOptimizedConstantBranches() {
+        TupleIR ir = buildConstantBranches();
+        ConstantPropagation.run(ir);
+        return ir;
+    }
+
+    private static List<String> tuples(TupleIR ir) {
+        return ir.globalFunctionScope().getTuples().stream().map(Tuple::toString).toList();
+    }
+
+    @Test
+    @DisplayName("Test constants are folded and dead branches removed")
+    void testConstantBranches() {
+        TupleIR ir = buildOptimizedConstantBranches();
+
+        assertEquals(List.of(
+                "PROGRAM __program__",
+                "GOTO then_0",
+                "LABEL then_0",
+                "PRINT 12",
+                "LABEL end_0",
+                "ASSIGN y, 0",
+                "LABEL loop_start_1",
+                "LT t2, y, 4",
+                "NOT t3, t2",
+                "IF t3, loop_end_1",
+                "ADD t4, y, 1",
+                "ASSIGN y, t4",
+                "GOTO loop_start_1",
+                "LABEL loop_end_1",
+                "PRINT y",
+                "DIV t5, 4, 0",
+                "PRINT t5",
+                "END_PROGRAM __program__"), tuples(ir));
+
+        String expected = "12\n4\n\n*** RUNTIME ERROR in __global__: Division by zero\n0\n";
+        assertEquals(expected, execute(buildConstantBranches()));
+        assertEquals(expected, execute(ir));
+    }
+
+    @Test
+    @DisplayName("Test loops and recursion are unchanged")
+    void testSumAndFactorial() {
+        TupleIR ir = TupleExecutorTest.buildSumAndFactorial();
+        ConstantPropagation.run(ir);
+        assertEquals("55\n120\n", execute(ir));
+    }
+
+    @Test
+    @DisplayName("Test comparisons of zeros and NaN fold as the executor computes them")
+    void testFloatComparisons() {
+        TupleIR ir = TupleExecutorTest.buildFloatComparisons();
+        ConstantPropagation.run(ir);
+
+        assertTrue(tuples(ir).stream().noneMatch(tuple -> tuple.matches("(LT|LTE|GT|GTE) .*")));
+        assertEquals(execute(TupleExecutorTest.buildFloatComparisons()),
+                execute(ir));
+    }
+}
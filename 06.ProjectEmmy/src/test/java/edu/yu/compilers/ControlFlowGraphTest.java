@@ -0,0 +1,123 @@
+package edu.yu.compilers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import edu.yu.compilers.backend.irgen.TupleFactory;
+import edu.yu.compilers.intermediate.cfg.BasicBlock;
+import edu.yu.compilers.intermediate.cfg.ControlFlowGraph;
+import edu.yu.compilers.intermediate.cfg.Loop;
+import edu.yu.compilers.intermediate.ir.Operand.Constant;
+import edu.yu.compilers.intermediate.ir.Operand.Label;
+import edu.yu.compilers.intermediate.ir.Operand.Temporary;
+import edu.yu.compilers.intermediate.ir.Operand.Variable;
+import edu.yu.compilers.intermediate.ir.Operator;
+import edu.yu.compilers.intermediate.ir.TupleIR;
+import edu.yu.compilers.intermediate.ir.TupleIR.FunctionInfo;
+import edu.yu.compilers.intermediate.symbols.SymTable;
+import edu.yu.compilers.intermediate.symbols.SymTableEntry;
+import edu.yu.compilers.intermediate.symbols.SymTableEntry.Kind;
+
+/**
+ * Tests for the control-flow graph, dominators and loops.
+ */
+public class ControlFlowGraphTest {
+
+    @Test
+    @DisplayName("Test blocks and edges of a loop and a recursive function")
+    void testBlocksAndEdges() {
+        TupleIR ir = TupleExecutorTest.buildSumAndFactorial();
+        ControlFlowGraph main = ir.globalFunctionScope().getControlFlowGraph();
+        List<BasicBlock> blocks = main.getBlocks();
+
+        // entry; loop header through IF; loop body through GOTO; exit
+        assertEquals(4, blocks.size());
+        assertEquals(List.of(blocks.get(1)), blocks.get(0).getSuccessors());
+        assertEquals(List.of(blocks.get(3), blocks.get(2)), blocks.get(1).getSuccessors());
+        assertEquals(List.of(blocks.get(1)), blocks.get(2).getSuccessors());
+        assertEquals(List.of(blocks.get(0), blocks.get(2)), blocks.get(1).getPredecessors());
+        assertTrue(blocks.get(3).getSuccessors().isEmpty());
+
+        assertSame(blocks.get(0), main.getImmediateDominator(blocks.get(1)));
+        assertSame(blocks.get(1), main.getImmediateDominator(blocks.get(3)));
+        assertTrue(main.dominates(blocks.get(1), blocks.get(2)));
+        assertFalse(main.dominates(blocks.get(2), blocks.get(3)));
+
+        List<Loop> loops = main.getLoops();
+        assertEquals(1, loops.size());
+        assertSame(blocks.get(1), loops.get(0).getHeader());
+        assertEquals(List.of(blocks.get(1), blocks.get(2)), loops.get(0).getBlocks());
+        assertEquals(List.of(blocks.get(3)), loops.get(0).getExits());
+        assertEquals(0, main.getLoopDepth(blocks.get(3)));
+
+        FunctionInfo fact = ir.getFunctionList().get(1);
+        ControlFlowGraph graph = fact.getControlFlowGraph();
+        // END_FUNCTION after the last RETURN is a block of its own
+        assertEquals(4, graph.getBlocks().size());
+        assertFalse(graph.isReachable(graph.getBlocks().get(3)));
+        assertTrue(graph.getLoops().isEmpty());
+        assertSame(graph, fact.getControlFlowGraph());
+    }
+
+    @Test
+    @DisplayName("Test nested loops and unreachable code")
+    void testNestedLoops() {
+        SymTable globals = new SymTable(1);
+        SymTableEntry i = globals.enter("i", Kind.VARIABLE);
+        SymTableEntry j = globals.enter("j", Kind.VARIABLE);
+
+        TupleIR ir = new TupleIR();
+        Label outer = new Label("outer");
+        Label inner = new Label("inner");
+        Label innerEnd = new Label("inner_end");
+        Label outerEnd = new Label("outer_end");
+        Temporary t0 = ir.newTemp();
+        Temporary t1 = ir.newTemp();
+
+        ir.addTuple(TupleFactory.createProgram());                                                   // B0
+        ir.addTuple(TupleFactory.createLabel(outer));                                                // B1
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.GT, t0, new Variable(i), new Constant(3)));
+        ir.addTuple(TupleFactory.createIf(t0, outerEnd));
+        ir.addTuple(TupleFactory.createLabel(inner));                                                // B2
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.GT, t1, new Variable(j), new Constant(3)));
+        ir.addTuple(TupleFactory.createIf(t1, innerEnd));
+        ir.addTuple(TupleFactory.createGoto(inner));                                                 // B3
+        ir.addTuple(TupleFactory.createPrint(new Constant("dead")));                                 // B4
+        ir.addTuple(TupleFactory.createLabel(innerEnd));                                             // B5
+        ir.addTuple(TupleFactory.createGoto(outer));
+        ir.addTuple(TupleFactory.createLabel(outerEnd));                                             // B6
+        ir.addTuple(TupleFactory.createEndProgram());
+
+        ControlFlowGraph graph = ir.globalFunctionScope().getControlFlowGraph();
+        List<BasicBlock> blocks = graph.getBlocks();
+        assertEquals(7, blocks.size());
+
+        assertFalse(graph.isReachable(blocks.get(4)));
+        assertNull(graph.getImmediateDominator(blocks.get(4)));
+        assertEquals(6, graph.getReversePostorder().size());
+
+        List<Loop> loops = graph.getLoops();
+        assertEquals(2, loops.size());
+        Loop outerLoop = loops.get(0);
+        Loop innerLoop = loops.get(1);
+        assertSame(blocks.get(1), outerLoop.getHeader());
+        assertSame(blocks.get(2), innerLoop.getHeader());
+        assertSame(outerLoop, innerLoop.getParent());
+        assertEquals(List.of(innerLoop), outerLoop.getChildren());
+        assertEquals(List.of(blocks.get(1), blocks.get(2), blocks.get(3), blocks.get(5)), outerLoop.getBlocks());
+        assertEquals(List.of(blocks.get(2), blocks.get(3)), innerLoop.getBlocks());
+
+        assertEquals(2, graph.getLoopDepth(blocks.get(3)));
+        assertEquals(1, graph.getLoopDepth(blocks.get(5)));
+        assertSame(innerLoop, graph.getLoop(blocks.get(2)));
+        assertSame(blocks.get(2), graph.getImmediateDominator(blocks.get(5)));
+    }
+}
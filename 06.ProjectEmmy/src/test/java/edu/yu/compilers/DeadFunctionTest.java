@@ -0,0 +1,123 @@
+package edu.yu.compilers;
+
+import static edu.yu.compilers.IRFixtures.execute;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import edu.yu.compilers.backend.irgen.TupleFactory;
+import edu.yu.compilers.backend.optimizer.DeadFunctionElimination;
+import edu.yu.compilers.intermediate.cfg.CallGraph;
+import edu.yu.compilers.intermediate.ir.Operand.Constant;
+import edu.yu.compilers.intermediate.ir.Operand.Function;
+import edu.yu.compilers.intermediate.ir.Operand.Label;
+import edu.yu.compilers.intermediate.ir.Operand.OperandType;
+import edu.yu.compilers.intermediate.ir.Operand.Temporary;
+import edu.yu.compilers.intermediate.ir.TupleIR;
+import edu.yu.compilers.intermediate.ir.TupleIR.FunctionInfo;
+import edu.yu.compilers.intermediate.symbols.SymTable;
+import edu.yu.compilers.intermediate.symbols.SymTableEntry;
+import edu.yu.compilers.intermediate.symbols.SymTableEntry.Kind;
+
+/**
+ * Tests for the reachability of the call graph and the removal of
+ * uncalled functions.
+ */
+public class DeadFunctionTest {
+
+    /**
+     * Build a program that calls greet, which calls helper. The functions
+     * ping and pong call each other and unused calls helper, but the
+     * program calls none of them.
+     */
+    static TupleIR buildPrelude() {
+        SymTable globals = new SymTable(1);
+        SymTableEntry greet = globals.enter("greet", Kind.FUNCTION);
+        SymTableEntry helper = globals.enter("helper", Kind.FUNCTION);
+        SymTableEntry unused = globals.enter("unused", Kind.FUNCTION);
+        SymTableEntry ping = globals.enter("ping", Kind.FUNCTION);
+        SymTableEntry pong = globals.enter("pong", Kind.FUNCTION);
+
+        TupleIR ir = new TupleIR();
+        Temporary t0 = ir.newTemp();
+        t0.setType(OperandType.INTEGER);
+
+        ir.addTuple(TupleFactory.createProgram());
+        ir.addTuple(TupleFactory.createCall(t0, new Function(greet), List.of()));
+        ir.addTuple(TupleFactory.createPrint(t0));
+
+        addFunction(ir, "greet", "hello", helper);
+        addFunction(ir, "helper", "helping", null);
+        addFunction(ir, "unused", "never", helper);
+        addFunction(ir, "ping", "ping", pong);
+        addFunction(ir, "pong", "pong", ping);
+
+        ir.addTuple(TupleFactory.createEndProgram());
+        return ir;
+    }
+
+    /**
+     * Add a function that prints a message, calls another function if
+     * there is one, and returns 1.
+     */
+    private static void addFunction(TupleIR ir, String name, String message, SymTableEntry callee) {
+        ir.registerStringConstant(message);
+        ir.enterFunctionScope(name);
+
+        Label label = new Label(name);
+        ir.addTuple(TupleFactory.createFunction(label));
+        ir.addTuple(TupleFactory.createPrint(new Constant(message)));
+        if (callee != null) {
+            Temporary temp = ir.newTemp();
+            temp.setType(OperandType.INTEGER);
+            ir.addTuple(TupleFactory.createCall(temp, new Function(callee), List.of()));
+        }
+        ir.addTuple(TupleFactory.createReturn(new Constant(1)));
+        ir.addTuple(TupleFactory.createEndFunction(label));
+        ir.exitFunctionScope();
+    }
+
+    private static List<String> names(List<FunctionInfo> functions) {
+        return functions.stream().map(FunctionInfo::getName).toList();
+    }
+
+    @Test
+    @DisplayName("Test the call graph reaches the functions the program calls")
+    void testReachable() {
+        TupleIR ir = buildPrelude();
+        CallGraph graph = new CallGraph(ir);
+
+        assertEquals(Set.of("__global__", "greet", "helper"), Set.copyOf(names(graph.getReachableFunctions())));
+        for (FunctionInfo function : ir.getFunctionList()) {
+            boolean called = Set.of("__global__", "greet", "helper").contains(function.getName());
+            assertEquals(called, graph.isReachable(function));
+        }
+        FunctionInfo helper = ir.getFunctionList().stream()
+                .filter(f -> f.getName().equals("helper")).findFirst().orElseThrow();
+        assertEquals(Set.of("greet", "unused"), Set.copyOf(names(graph.getCallers(helper))));
+    }
+
+    @Test
+    @DisplayName("Test uncalled functions and their strings are removed")
+    void testElimination() {
+        TupleIR ir = buildPrelude();
+        String expected = execute(buildPrelude());
+
+        DeadFunctionElimination.run(ir);
+
+        List<String> functions = names(ir.getFunctionList());
+        assertEquals(Set.of("__global__", "greet", "helper"), Set.copyOf(functions));
+        assertEquals(List.of("hello", "helping"), List.copyOf(ir.getStringConstants()));
+        assertEquals(0, ir.getStringConstant("hello"));
+        assertEquals(1, ir.getStringConstant("helping"));
+        assertFalse(ir.getStringConstants().contains("never"));
+
+        assertEquals("hello\nhelping\n1\n", expected);
+        assertEquals(expected, execute(ir));
+    }
+}
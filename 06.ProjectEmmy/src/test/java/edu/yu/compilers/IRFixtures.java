@@ -0,0 +1,116 @@
+package edu.yu.compilers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.List;
+
+import edu.yu.compilers.backend.interpreter.TupleExecutor;
+import edu.yu.compilers.backend.irgen.TupleFactory;
+import edu.yu.compilers.intermediate.ir.Operand.Label;
+import edu.yu.compilers.intermediate.ir.Operand.OperandType;
+import edu.yu.compilers.intermediate.ir.Operand.Temporary;
+import edu.yu.compilers.intermediate.ir.Operand.Variable;
+import edu.yu.compilers.intermediate.ir.Tuple;
+import edu.yu.compilers.intermediate.ir.TupleIR;
+import edu.yu.compilers.intermediate.ir.TupleIR.FunctionInfo;
+import edu.yu.compilers.intermediate.ir.TupleIR.VariableInfo;
+import edu.yu.compilers.intermediate.symbols.SymTableEntry;
+
+/**
+ * Helpers for the tests that build tuple IR by hand and run it.
+ * Temporaries, variables and parameters are integers unless a type is
+ * given.
+ */
+final class IRFixtures {
+
+    private IRFixtures() {
+    }
+
+    static Temporary temp(TupleIR ir) {
+        return temp(ir, OperandType.INTEGER);
+    }
+
+    static Temporary temp(TupleIR ir, OperandType type) {
+        Temporary temp = ir.newTemp();
+        temp.setType(type);
+        return temp;
+    }
+
+    static Variable variable(SymTableEntry entry) {
+        Variable variable = new Variable(entry);
+        variable.setType(OperandType.INTEGER);
+        return variable;
+    }
+
+    /**
+     * Add integer variables to the current function scope of the IR.
+     */
+    static void addVariables(TupleIR ir, SymTableEntry... entries) {
+        for (SymTableEntry entry : entries) {
+            ir.addVariable(new VariableInfo(entry, OperandType.INTEGER));
+        }
+    }
+
+    static VariableInfo parameter(SymTableEntry entry, int index) {
+        VariableInfo info = new VariableInfo(entry, OperandType.INTEGER);
+        info.setParamIndex(index);
+        return info;
+    }
+
+    /**
+     * Enter the scope of a function, add its integer parameters in
+     * order, and add its FUNCTION tuple.
+     *
+     * @return the label of the function
+     */
+    static Label beginFunction(TupleIR ir, String name, SymTableEntry... parameters) {
+        ir.enterFunctionScope(name);
+        for (int i = 0; i < parameters.length; i++) {
+            ir.addVariable(parameter(parameters[i], i));
+        }
+
+        Label label = new Label(name);
+        ir.addTuple(TupleFactory.createFunction(label));
+        return label;
+    }
+
+    /**
+     * Add the END_FUNCTION tuple of a function and leave its scope.
+     */
+    static void endFunction(TupleIR ir, Label label) {
+        ir.addTuple(TupleFactory.createEndFunction(label));
+        ir.exitFunctionScope();
+    }
+
+    static FunctionInfo function(TupleIR ir, String name) {
+        return ir.getFunctionList().stream()
+                .filter(function -> function.getName().equals(name))
+                .findFirst().orElseThrow();
+    }
+
+    static List<String> tuples(FunctionInfo function) {
+        return function.getTuples().stream().map(Tuple::toString).toList();
+    }
+
+    /**
+     * @return the tuples of the global scope as strings
+     */
+    static List<String> program(TupleIR ir) {
+        return tuples(ir.globalFunctionScope());
+    }
+
+    /**
+     * Run the IR and capture what it prints.
+     */
+    static String execute(TupleIR ir) {
+        PrintStream stdout = System.out;
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(buffer));
+        try {
+            new TupleExecutor(ir).execute();
+        } finally {
+            System.setOut(stdout);
+        }
+        return buffer.toString();
+    }
+}
@@ -0,0 +1,287 @@
+package edu.yu.compilers;
+
+import static edu.yu.compilers.IRFixtures.addVariables;
+import static edu.yu.compilers.IRFixtures.execute;
+import static edu.yu.compilers.IRFixtures.program;
+import static edu.yu.compilers.IRFixtures.temp;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import edu.yu.compilers.backend.irgen.TupleFactory;
+import edu.yu.compilers.backend.optimizer.InductionVariables;
+import edu.yu.compilers.intermediate.ir.Operand;
+import edu.yu.compilers.intermediate.ir.Operand.Constant;
+import edu.yu.compilers.intermediate.ir.Operand.Label;
+import edu.yu.compilers.intermediate.ir.Operand.Temporary;
+import edu.yu.compilers.intermediate.ir.Operand.Variable;
+import edu.yu.compilers.intermediate.ir.Operator;
+import edu.yu.compilers.intermediate.ir.Tuple;
+import edu.yu.compilers.intermediate.ir.TupleIR;
+import edu.yu.compilers.intermediate.symbols.SymTable;
+import edu.yu.compilers.intermediate.symbols.SymTableEntry;
+import edu.yu.compilers.intermediate.symbols.SymTableEntry.Kind;
+
+/**
+ * Tests for strength reduction and the lowering of counted loops.
+ */
+public class InductionVariablesTest {
+
+    /**
+     * Build the tuples of "repeat n times { total = total + i * 3; i = i + 1 }"
+     * as the front end desugars it, followed by printing total and i.
+     */
+    static TupleIR buildRepeat(int n) {
+        return buildRepeat(0, n, 1, 3);
+    }
+
+    /**
+     * Build the tuples of a counted loop whose counter goes from start to
+     * count, with "total = total + i * factor; i = i + step" as its body,
+     * followed by printing total and i.
+     */
+    static TupleIR buildRepeat(long start, long count, long step, long factor) {
+        return buildRepeat(start, count, step, factor, Shape.COUNTED);
+    }
+
+    /**
+     * The ways that a loop built by buildRepeat can stop being a simple
+     * counted loop.
+     */
+    enum Shape {
+        COUNTED,       // the loop as the front end desugars it
+        COUNTER_USED,  // the counter is also printed after the loop
+        TWO_STEPS,     // the body adds step to i twice
+        JUMPED_INTO    // the loop is entered by a jump to its header
+    }
+
+    /**
+     * Build the tuples of the counted loop of buildRepeat in the given
+     * shape.
+     */
+    static TupleIR buildRepeat(long start, long count, long step, long factor, Shape shape) {
+        SymTable globals = new SymTable(1);
+        SymTableEntry total = globals.enter("total", Kind.VARIABLE);
+        SymTableEntry i = globals.enter("i", Kind.VARIABLE);
+        SymTableEntry counter = globals.enter("_cnt0", Kind.VARIABLE);
+
+        TupleIR ir = new TupleIR();
+        addVariables(ir, total, i, counter);
+
+        Label loop = new Label("loop_start_0");
+        Label end = new Label("loop_end_0");
+        Temporary t0 = temp(ir);
+        Temporary t1 = temp(ir);
+        Temporary t2 = temp(ir);
+        Temporary t3 = temp(ir);
+        Temporary t4 = temp(ir);
+
+        ir.addTuple(TupleFactory.createProgram());
+        ir.addTuple(TupleFactory.createAssign(new Variable(total), new Constant(0)));
+        ir.addTuple(TupleFactory.createAssign(new Variable(i), new Constant(0)));
+        ir.addTuple(TupleFactory.createAssign(new Variable(counter), new Constant(start)));
+        if (shape == Shape.JUMPED_INTO) {
+            ir.addTuple(TupleFactory.createGoto(loop));
+        }
+        ir.addTuple(TupleFactory.createLabel(loop));
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.GTE, t0, new Variable(counter), new Constant(count)));
+        ir.addTuple(TupleFactory.createIf(t0, end));
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.MUL, t1, new Variable(i), new Constant(factor)));
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.ADD, t2, new Variable(total), t1));
+        ir.addTuple(TupleFactory.createAssign(new Variable(total), t2));
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.ADD, t3, new Variable(i), new Constant(step)));
+        ir.addTuple(TupleFactory.createAssign(new Variable(i), t3));
+        if (shape == Shape.TWO_STEPS) {
+            Temporary t5 = temp(ir);
+            ir.addTuple(TupleFactory.createBinaryOp(Operator.ADD, t5, new Variable(i), new Constant(step)));
+            ir.addTuple(TupleFactory.createAssign(new Variable(i), t5));
+        }
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.ADD, t4, new Variable(counter), new Constant(1)));
+        ir.addTuple(TupleFactory.createAssign(new Variable(counter), t4));
+        ir.addTuple(TupleFactory.createGoto(loop));
+        ir.addTuple(TupleFactory.createLabel(end));
+        ir.addTuple(TupleFactory.createPrint(new Variable(total)));
+        ir.addTuple(TupleFactory.createPrint(new Variable(i)));
+        if (shape == Shape.COUNTER_USED) {
+            ir.addTuple(TupleFactory.createPrint(new Variable(counter)));
+        }
+        ir.addTuple(TupleFactory.createEndProgram());
+        return ir;
+    }
+
+    /**
+     * @return the tuples of the program before the loop header, or from
+     *         the loop header on if inLoop
+     */
+    private static List<Tuple> part(TupleIR ir, boolean inLoop) {
+        List<Tuple> tuples = ir.globalFunctionScope().getTuples();
+        int header = program(ir).indexOf("LABEL loop_start_0");
+        return inLoop ? tuples.subList(header, tuples.size()) : tuples.subList(0, header);
+    }
+
+    private static boolean hasOperator(List<Tuple> tuples, Operator operator) {
+        return tuples.stream().anyMatch(tuple -> tuple.getOperator() == operator);
+    }
+
+    /**
+     * @return true if the program still uses the loop counter
+     */
+    private static boolean usesCounter(TupleIR ir) {
+        return ir.globalFunctionScope().getTuples().stream().flatMap(tuple -> tuple.getOperands().stream())
+                .anyMatch(operand -> operand.toString().equals("_cnt0"));
+    }
+
+    /**
+     * @return true if a tuple changes its result by a constant, as in
+     *         "t = t op c"
+     */
+    private static boolean stepsItself(TupleIR ir, Operator operator) {
+        return ir.globalFunctionScope().getTuples().stream().anyMatch(tuple -> {
+            List<Operand> operands = tuple.getOperands();
+            return tuple.getOperator() == operator && operands.size() == 3
+                    && operands.get(0).toString().equals(operands.get(1).toString())
+                    && operands.get(2) instanceof Constant;
+        });
+    }
+
+    /**
+     * @return true if an IF jumps back to a label before it, so the loop
+     *         tests its condition at its end
+     */
+    private static boolean branchesBack(TupleIR ir) {
+        List<String> labels = new ArrayList<>();
+        for (Tuple tuple : ir.globalFunctionScope().getTuples()) {
+            if (tuple.getOperator() == Operator.LABEL) {
+                labels.add(tuple.getOperands().get(0).toString());
+            } else if (tuple.getOperator() == Operator.IF
+                    && labels.contains(tuple.getOperands().get(1).toString())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    @DisplayName("Test a product of an induction variable becomes an addition")
+    void testStrengthReduction() {
+        TupleIR ir = buildRepeat(5);
+        InductionVariables.run(ir);
+
+        assertTrue(hasOperator(part(ir, false), Operator.MUL));
+        assertFalse(hasOperator(part(ir, true), Operator.MUL));
+        assertTrue(stepsItself(ir, Operator.ADD));
+
+        assertEquals("30\n5\n", execute(ir));
+    }
+
+    @Test
+    @DisplayName("Test a repeat loop counts down to zero")
+    void testCountedLoop() {
+        for (int n = 1; n <= 5; n++) {
+            TupleIR ir = buildRepeat(n);
+            InductionVariables.run(ir);
+
+            // The counter is replaced by one that is decremented and
+            // tested at the end of the loop
+            assertFalse(usesCounter(ir));
+            assertTrue(stepsItself(ir, Operator.SUB));
+            assertTrue(branchesBack(ir));
+
+            assertEquals(3 * n * (n - 1) / 2 + "\n" + n + "\n", execute(ir));
+        }
+    }
+
+    @Test
+    @DisplayName("Test a counted loop that runs zero times")
+    void testZeroTrips() {
+        TupleIR ir = buildRepeat(0);
+        InductionVariables.run(ir);
+
+        assertFalse(usesCounter(ir));
+        assertEquals("0\n0\n", execute(ir));
+
+        TupleIR negative = buildRepeat(-2);
+        InductionVariables.run(negative);
+        assertEquals("0\n0\n", execute(negative));
+    }
+
+    @Test
+    @DisplayName("Test a product whose step overflows 32 bits is not reduced")
+    void testOverflowingStep() {
+        TupleIR ir = buildRepeat(0, 5, 3, 2000000000);
+        String expected = execute(buildRepeat(0, 5, 3, 2000000000));
+        InductionVariables.run(ir);
+
+        assertTrue(hasOperator(part(ir, true), Operator.MUL));
+        assertFalse(stepsItself(ir, Operator.ADD));
+
+        assertEquals("60000000000\n15\n", expected);
+        assertEquals(expected, execute(ir));
+    }
+
+    @Test
+    @DisplayName("Test a counter that starts above zero counts the difference")
+    void testNonZeroStart() {
+        TupleIR ir = buildRepeat(2, 5, 1, 3);
+        InductionVariables.run(ir);
+
+        assertFalse(usesCounter(ir));
+        assertTrue(branchesBack(ir));
+        assertEquals("9\n3\n", execute(ir));
+    }
+
+    @Test
+    @DisplayName("Test a trip count that may overflow keeps the counter")
+    void testOverflowingTripCount() {
+        for (long[] bounds : new long[][] {{-1, Integer.MAX_VALUE}, {1, Long.MAX_VALUE}, {-5, -5L * Integer.MAX_VALUE}}) {
+            TupleIR ir = buildRepeat(bounds[0], bounds[1], 1, 3);
+            InductionVariables.run(ir);
+
+            assertTrue(usesCounter(ir));
+            assertFalse(branchesBack(ir));
+        }
+    }
+
+    @Test
+    @DisplayName("Test a counter used after the loop is kept")
+    void testCounterUsed() {
+        TupleIR ir = buildRepeat(0, 5, 1, 3, Shape.COUNTER_USED);
+        InductionVariables.run(ir);
+
+        assertTrue(usesCounter(ir));
+        assertFalse(branchesBack(ir));
+
+        // The product is still reduced
+        assertFalse(hasOperator(part(ir, true), Operator.MUL));
+        assertEquals("30\n5\n5\n", execute(ir));
+    }
+
+    @Test
+    @DisplayName("Test a variable changed twice in the loop is not reduced")
+    void testTwoSteps() {
+        TupleIR ir = buildRepeat(0, 5, 1, 3, Shape.TWO_STEPS);
+        InductionVariables.run(ir);
+
+        assertTrue(hasOperator(part(ir, true), Operator.MUL));
+        assertFalse(usesCounter(ir));
+        assertEquals("60\n10\n", execute(ir));
+    }
+
+    @Test
+    @DisplayName("Test a loop entered by a jump has no preheader and is left alone")
+    void testJumpedInto() {
+        TupleIR ir = buildRepeat(0, 5, 1, 3, Shape.JUMPED_INTO);
+        List<String> before = program(ir);
+
+        InductionVariables.run(ir);
+
+        assertEquals(before, program(ir));
+        assertEquals("30\n5\n", execute(ir));
+    }
+}
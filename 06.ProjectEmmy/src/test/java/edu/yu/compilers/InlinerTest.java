@@ -0,0 +1,313 @@
+package edu.yu.compilers;
+
+import static edu.yu.compilers.IRFixtures.addVariables;
+import static edu.yu.compilers.IRFixtures.beginFunction;
+import static edu.yu.compilers.IRFixtures.endFunction;
+import static edu.yu.compilers.IRFixtures.execute;
+import static edu.yu.compilers.IRFixtures.function;
+import static edu.yu.compilers.IRFixtures.program;
+import static edu.yu.compilers.IRFixtures.temp;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import edu.yu.compilers.backend.irgen.TupleFactory;
+import edu.yu.compilers.backend.optimizer.Inliner;
+import edu.yu.compilers.intermediate.cfg.CallGraph;
+import edu.yu.compilers.intermediate.ir.Operand;
+import edu.yu.compilers.intermediate.ir.Operand.Constant;
+import edu.yu.compilers.intermediate.ir.Operand.Function;
+import edu.yu.compilers.intermediate.ir.Operand.Label;
+import edu.yu.compilers.intermediate.ir.Operand.Temporary;
+import edu.yu.compilers.intermediate.ir.Operand.Variable;
+import edu.yu.compilers.intermediate.ir.Operator;
+import edu.yu.compilers.intermediate.ir.Tuple;
+import edu.yu.compilers.intermediate.ir.TupleIR;
+import edu.yu.compilers.intermediate.ir.TupleIR.FunctionInfo;
+import edu.yu.compilers.intermediate.symbols.SymTable;
+import edu.yu.compilers.intermediate.symbols.SymTableEntry;
+import edu.yu.compilers.intermediate.symbols.SymTableEntry.Kind;
+
+/**
+ * Tests for the call graph and the inliner.
+ */
+public class InlinerTest {
+
+    /**
+     * Build a program that calls max, which has two returns, twice, and
+     * double, which has a local, once from max's result.
+     */
+    static TupleIR buildMaxAndDouble() {
+        SymTable globals = new SymTable(1);
+        SymTableEntry x = globals.enter("x", Kind.VARIABLE);
+        SymTableEntry max = globals.enter("max", Kind.FUNCTION);
+        SymTableEntry twice = globals.enter("twice", Kind.FUNCTION);
+
+        SymTable maxLocals = new SymTable(2);
+        SymTableEntry a = maxLocals.enter("a", Kind.VALUE_PARAMETER);
+        SymTableEntry b = maxLocals.enter("b", Kind.VALUE_PARAMETER);
+
+        SymTable twiceLocals = new SymTable(2);
+        SymTableEntry n = twiceLocals.enter("n", Kind.VALUE_PARAMETER);
+        SymTableEntry d = twiceLocals.enter("d", Kind.VARIABLE);
+
+        TupleIR ir = new TupleIR();
+        addVariables(ir, x);
+
+        Temporary t0 = temp(ir);
+        Temporary t1 = temp(ir);
+        Temporary t2 = temp(ir);
+
+        ir.addTuple(TupleFactory.createProgram());
+        ir.addTuple(TupleFactory.createAssign(new Variable(x), new Constant(3)));
+        ir.addTuple(TupleFactory.createCall(t0, new Function(max), List.of(new Constant(7), new Variable(x))));
+        ir.addTuple(TupleFactory.createPrint(t0));
+        ir.addTuple(TupleFactory.createCall(t1, new Function(max), List.<Operand>of(new Variable(x), t0)));
+        ir.addTuple(TupleFactory.createCall(t2, new Function(twice), List.<Operand>of(t1)));
+        ir.addTuple(TupleFactory.createPrint(t2));
+
+        Label maxLabel = beginFunction(ir, "max", a, b);
+        Label bigger = new Label("else_0");
+        Temporary t3 = temp(ir);
+
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.GT, t3, new Variable(a), new Variable(b)));
+        ir.addTuple(TupleFactory.createIf(t3, bigger));
+        ir.addTuple(TupleFactory.createReturn(new Variable(b)));
+        ir.addTuple(TupleFactory.createLabel(bigger));
+        ir.addTuple(TupleFactory.createReturn(new Variable(a)));
+        endFunction(ir, maxLabel);
+
+        Label twiceLabel = beginFunction(ir, "twice", n);
+        addVariables(ir, d);
+        Temporary t4 = temp(ir);
+
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.MUL, t4, new Variable(n), new Constant(2)));
+        ir.addTuple(TupleFactory.createAssign(new Variable(d), t4));
+        ir.addTuple(TupleFactory.createReturn(new Variable(d)));
+        endFunction(ir, twiceLabel);
+
+        ir.addTuple(TupleFactory.createEndProgram());
+        return ir;
+    }
+
+    /**
+     * Build a program that prints pad(x) or pad(5) from the given number
+     * of call sites, where pad adds 1 to its parameter size - 1 times and
+     * returns the sum, so its body has size tuples.
+     */
+    static TupleIR buildPadded(int size, int calls, boolean constantArgument) {
+        SymTable globals = new SymTable(1);
+        SymTableEntry x = globals.enter("x", Kind.VARIABLE);
+        SymTableEntry pad = globals.enter("pad", Kind.FUNCTION);
+
+        SymTable locals = new SymTable(2);
+        SymTableEntry n = locals.enter("n", Kind.VALUE_PARAMETER);
+
+        TupleIR ir = new TupleIR();
+        addVariables(ir, x);
+
+        ir.addTuple(TupleFactory.createProgram());
+        ir.addTuple(TupleFactory.createAssign(new Variable(x), new Constant(5)));
+        for (int i = 0; i < calls; i++) {
+            Temporary result = temp(ir);
+            Operand argument = constantArgument ? new Constant(5) : new Variable(x);
+            ir.addTuple(TupleFactory.createCall(result, new Function(pad), List.of(argument)));
+            ir.addTuple(TupleFactory.createPrint(result));
+        }
+
+        Label padLabel = beginFunction(ir, "pad", n);
+        Operand sum = new Variable(n);
+        for (int i = 1; i < size; i++) {
+            Temporary next = temp(ir);
+            ir.addTuple(TupleFactory.createBinaryOp(Operator.ADD, next, sum, new Constant(1)));
+            sum = next;
+        }
+        ir.addTuple(TupleFactory.createReturn(sum));
+        endFunction(ir, padLabel);
+
+        ir.addTuple(TupleFactory.createEndProgram());
+        return ir;
+    }
+
+    /**
+     * Build a program that prints dec(5), where dec assigns its parameter,
+     * and keep(x), where keep sets x to 0 before it returns its parameter.
+     */
+    static TupleIR buildAssignedParameters() {
+        SymTable globals = new SymTable(1);
+        SymTableEntry x = globals.enter("x", Kind.VARIABLE);
+        SymTableEntry dec = globals.enter("dec", Kind.FUNCTION);
+        SymTableEntry keep = globals.enter("keep", Kind.FUNCTION);
+
+        SymTable decLocals = new SymTable(2);
+        SymTableEntry n = decLocals.enter("n", Kind.VALUE_PARAMETER);
+        SymTable keepLocals = new SymTable(2);
+        SymTableEntry k = keepLocals.enter("k", Kind.VALUE_PARAMETER);
+
+        TupleIR ir = new TupleIR();
+        addVariables(ir, x);
+
+        Temporary t0 = temp(ir);
+        Temporary t1 = temp(ir);
+
+        ir.addTuple(TupleFactory.createProgram());
+        ir.addTuple(TupleFactory.createAssign(new Variable(x), new Constant(7)));
+        ir.addTuple(TupleFactory.createCall(t0, new Function(dec), List.of(new Constant(5))));
+        ir.addTuple(TupleFactory.createPrint(t0));
+        ir.addTuple(TupleFactory.createCall(t1, new Function(keep), List.of(new Variable(x))));
+        ir.addTuple(TupleFactory.createPrint(t1));
+        ir.addTuple(TupleFactory.createPrint(new Variable(x)));
+
+        Label decLabel = beginFunction(ir, "dec", n);
+        Temporary t2 = temp(ir);
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.SUB, t2, new Variable(n), new Constant(1)));
+        ir.addTuple(TupleFactory.createAssign(new Variable(n), t2));
+        ir.addTuple(TupleFactory.createReturn(new Variable(n)));
+        endFunction(ir, decLabel);
+
+        Label keepLabel = beginFunction(ir, "keep", k);
+        ir.addTuple(TupleFactory.createAssign(new Variable(x), new Constant(0)));
+        ir.addTuple(TupleFactory.createReturn(new Variable(k)));
+        endFunction(ir, keepLabel);
+
+        ir.addTuple(TupleFactory.createEndProgram());
+        return ir;
+    }
+
+    private static List<String> labelsOf(FunctionInfo function) {
+        return function.getTuples().stream()
+                .filter(tuple -> tuple.getOperator() == Operator.LABEL)
+                .map(tuple -> tuple.getOperands().get(0).toString()).toList();
+    }
+
+    private static boolean hasCall(TupleIR ir) {
+        return ir.globalFunctionScope().getTuples().stream().anyMatch(tuple -> tuple.getOperator() == Operator.CALL);
+    }
+
+    @Test
+    @DisplayName("Test call graph edges, recursion and bottom-up order")
+    void testCallGraph() {
+        TupleIR ir = TupleExecutorTest.buildSumAndFactorial();
+        CallGraph graph = new CallGraph(ir);
+        FunctionInfo main = ir.globalFunctionScope();
+        FunctionInfo fact = function(ir, "fact");
+
+        assertEquals(List.of(fact), graph.getCallees(main));
+        assertEquals(List.of(main, fact), graph.getCallers(fact));
+        assertEquals(2, graph.getCallSiteCount(fact));
+        assertTrue(graph.isRecursive(fact));
+        assertFalse(graph.isRecursive(main));
+        assertEquals(List.of(fact, main), graph.getBottomUpOrder());
+
+        CallGraph other = new CallGraph(buildMaxAndDouble());
+        assertEquals(List.of("max", "twice", "__global__"),
+                other.getBottomUpOrder().stream().map(FunctionInfo::getName).toList());
+    }
+
+    @Test
+    @DisplayName("Test inlining small functions keeps the output")
+    void testInlining() {
+        TupleIR ir = buildMaxAndDouble();
+        Inliner.run(ir);
+
+        List<Tuple> tuples = ir.globalFunctionScope().getTuples();
+        assertTrue(tuples.stream().noneMatch(tuple -> tuple.getOperator() == Operator.CALL));
+
+        // Each copy of max has its own labels, distinct from max's, and
+        // the branches of the copies go to them
+        List<String> labels = labelsOf(ir.globalFunctionScope());
+        List<String> calleeLabels = labelsOf(function(ir, "max"));
+        assertFalse(labels.isEmpty());
+        assertEquals(labels.size(), new HashSet<>(labels).size());
+        assertTrue(labels.stream().noneMatch(calleeLabels::contains));
+        for (Tuple tuple : tuples) {
+            if (tuple.getOperator() == Operator.IF || tuple.getOperator() == Operator.GOTO) {
+                List<Operand> operands = tuple.getOperands();
+                assertTrue(labels.contains(operands.get(operands.size() - 1).toString()), tuple.toString());
+            }
+        }
+
+        // The constant argument replaces its parameter
+        assertTrue(tuples.stream().anyMatch(tuple -> tuple.getOperator() == Operator.GT
+                && tuple.getOperands().get(1).toString().equals("7")));
+
+        assertEquals("7\n14\n", execute(ir));
+    }
+
+    @Test
+    @DisplayName("Test recursive functions are not inlined")
+    void testRecursion() {
+        TupleIR ir = TupleExecutorTest.buildSumAndFactorial();
+        List<String> before = program(ir);
+
+        Inliner.run(ir);
+
+        assertEquals(before, program(ir));
+        assertEquals("55\n120\n", execute(ir));
+    }
+
+    @Test
+    @DisplayName("Test the size limits of inlined bodies")
+    void testSizeLimits() {
+        record Case(int size, int calls, boolean constantArgument, boolean inlined) {
+        }
+
+        List<Case> cases = List.of(
+                new Case(12, 2, false, true),
+                new Case(13, 2, false, false),
+                new Case(13, 2, true, true),
+                new Case(16, 2, true, true),
+                new Case(17, 2, true, false),
+                new Case(48, 1, false, true),
+                new Case(49, 1, false, false),
+                new Case(52, 1, true, true));
+
+        for (Case c : cases) {
+            TupleIR ir = buildPadded(c.size(), c.calls(), c.constantArgument());
+            String expected = execute(buildPadded(c.size(), c.calls(), c.constantArgument()));
+
+            Inliner.run(ir);
+
+            assertEquals(!c.inlined(), hasCall(ir), c.toString());
+            assertEquals(String.valueOf(c.size() + 4).concat("\n").repeat(c.calls()), expected);
+            assertEquals(expected, execute(ir), c.toString());
+        }
+    }
+
+    @Test
+    @DisplayName("Test a call with the wrong number of arguments is not inlined")
+    void testArgumentCountMismatch() {
+        TupleIR ir = buildMaxAndDouble();
+        FunctionInfo main = ir.globalFunctionScope();
+        List<Tuple> tuples = new ArrayList<>(main.getTuples());
+        Tuple call = tuples.get(2);
+        Tuple mismatched = new Tuple(Operator.CALL, call.getOperands().get(0), call.getOperands().get(1),
+                new Constant(7));
+        tuples.set(2, mismatched);
+        main.setTuples(tuples);
+
+        Inliner.run(ir);
+
+        // Only the call with one argument is left
+        List<Tuple> calls = main.getTuples().stream()
+                .filter(tuple -> tuple.getOperator() == Operator.CALL).toList();
+        assertEquals(List.of(mismatched), calls);
+    }
+
+    @Test
+    @DisplayName("Test assigned parameters and changed arguments keep their values")
+    void testAssignedParameters() {
+        TupleIR ir = buildAssignedParameters();
+        Inliner.run(ir);
+
+        assertFalse(hasCall(ir));
+        assertEquals("4\n7\n0\n", execute(ir));
+    }
+}
@@ -0,0 +1,315 @@
+package edu.yu.compilers;
+
+import static edu.yu.compilers.IRFixtures.addVariables;
+import static edu.yu.compilers.IRFixtures.beginFunction;
+import static edu.yu.compilers.IRFixtures.endFunction;
+import static edu.yu.compilers.IRFixtures.execute;
+import static edu.yu.compilers.IRFixtures.program;
+import static edu.yu.compilers.IRFixtures.temp;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import edu.yu.compilers.backend.irgen.TupleFactory;
+import edu.yu.compilers.backend.optimizer.LoopInvariantCodeMotion;
+import edu.yu.compilers.intermediate.ir.Operand;
+import edu.yu.compilers.intermediate.ir.Operand.Constant;
+import edu.yu.compilers.intermediate.ir.Operand.Function;
+import edu.yu.compilers.intermediate.ir.Operand.Label;
+import edu.yu.compilers.intermediate.ir.Operand.OperandType;
+import edu.yu.compilers.intermediate.ir.Operand.Temporary;
+import edu.yu.compilers.intermediate.ir.Operand.Variable;
+import edu.yu.compilers.intermediate.ir.Operator;
+import edu.yu.compilers.intermediate.ir.Tuple;
+import edu.yu.compilers.intermediate.ir.TupleIR;
+import edu.yu.compilers.intermediate.symbols.SymTable;
+import edu.yu.compilers.intermediate.symbols.SymTableEntry;
+import edu.yu.compilers.intermediate.symbols.SymTableEntry.Kind;
+
+/**
+ * Tests for loop-invariant code motion.
+ */
+public class LoopInvariantTest {
+
+    /**
+     * Build a program whose loop adds x * y + square(x) to a sum three
+     * times and prints x / y each time. If noisy, the loop also calls a
+     * function that prints and changes x.
+     */
+    static TupleIR buildLoop(boolean noisy) {
+        SymTable globals = new SymTable(1);
+        SymTableEntry x = globals.enter("x", Kind.VARIABLE);
+        SymTableEntry y = globals.enter("y", Kind.VARIABLE);
+        SymTableEntry sum = globals.enter("sum", Kind.VARIABLE);
+        SymTableEntry i = globals.enter("i", Kind.VARIABLE);
+        SymTableEntry square = globals.enter("square", Kind.FUNCTION);
+        SymTableEntry bump = globals.enter("bump", Kind.FUNCTION);
+
+        SymTable squareLocals = new SymTable(2);
+        SymTableEntry n = squareLocals.enter("n", Kind.VALUE_PARAMETER);
+
+        TupleIR ir = new TupleIR();
+        addVariables(ir, x, y, sum, i);
+
+        Label loop = new Label("loop_start_0");
+        Label end = new Label("loop_end_0");
+        Temporary t0 = temp(ir);
+        Temporary t1 = temp(ir);
+        Temporary t2 = temp(ir);
+        Temporary t3 = temp(ir);
+        Temporary t4 = temp(ir);
+        Temporary t5 = temp(ir);
+        Temporary t6 = temp(ir);
+        Temporary t7 = temp(ir);
+
+        ir.addTuple(TupleFactory.createProgram());
+        ir.addTuple(TupleFactory.createAssign(new Variable(x), new Constant(6)));
+        ir.addTuple(TupleFactory.createAssign(new Variable(y), new Constant(3)));
+        ir.addTuple(TupleFactory.createAssign(new Variable(sum), new Constant(0)));
+        ir.addTuple(TupleFactory.createAssign(new Variable(i), new Constant(0)));
+        ir.addTuple(TupleFactory.createLabel(loop));
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.GTE, t0, new Variable(i), new Constant(3)));
+        ir.addTuple(TupleFactory.createIf(t0, end));
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.MUL, t1, new Variable(x), new Variable(y)));
+        ir.addTuple(TupleFactory.createCall(t2, new Function(square), List.<Operand>of(new Variable(x))));
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.ADD, t3, t1, t2));
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.ADD, t4, new Variable(sum), t3));
+        ir.addTuple(TupleFactory.createAssign(new Variable(sum), t4));
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.DIV, t5, new Variable(x), new Variable(y)));
+        ir.addTuple(TupleFactory.createPrint(t5));
+        if (noisy) {
+            ir.addTuple(TupleFactory.createCall(t7, new Function(bump), List.of()));
+        }
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.ADD, t6, new Variable(i), new Constant(1)));
+        ir.addTuple(TupleFactory.createAssign(new Variable(i), t6));
+        ir.addTuple(TupleFactory.createGoto(loop));
+        ir.addTuple(TupleFactory.createLabel(end));
+        ir.addTuple(TupleFactory.createPrint(new Variable(sum)));
+
+        Label squareLabel = beginFunction(ir, "square", n);
+        Temporary t8 = temp(ir);
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.MUL, t8, new Variable(n), new Variable(n)));
+        ir.addTuple(TupleFactory.createReturn(t8));
+        endFunction(ir, squareLabel);
+
+        Label bumpLabel = beginFunction(ir, "bump");
+        Temporary t9 = temp(ir);
+        ir.addTuple(TupleFactory.createPrint(new Constant("bump")));
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.ADD, t9, new Variable(x), new Constant(3)));
+        ir.addTuple(TupleFactory.createAssign(new Variable(x), t9));
+        ir.addTuple(TupleFactory.createReturn(new Constant(0)));
+        endFunction(ir, bumpLabel);
+
+        ir.addTuple(TupleFactory.createEndProgram());
+        return ir;
+    }
+
+    /**
+     * Add a loop that runs its body while a counter is less than a
+     * count, and then adds one to the counter. The counter is not reset.
+     */
+    private static void addLoop(TupleIR ir, Variable counter, int count, int number, Runnable body) {
+        Label loop = new Label("loop_start_" + number);
+        Label end = new Label("loop_end_" + number);
+        Temporary done = temp(ir);
+
+        ir.addTuple(TupleFactory.createLabel(loop));
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.GTE, done, counter, new Constant(count)));
+        ir.addTuple(TupleFactory.createIf(done, end));
+        body.run();
+
+        Temporary next = temp(ir);
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.ADD, next, counter, new Constant(1)));
+        ir.addTuple(TupleFactory.createAssign(counter, next));
+        ir.addTuple(TupleFactory.createGoto(loop));
+        ir.addTuple(TupleFactory.createLabel(end));
+    }
+
+    /**
+     * Build a program whose loop prints x / divisor twice, with x = 6 and
+     * y = 3. If jump, the program jumps to the loop instead of falling
+     * into it.
+     */
+    static TupleIR buildDivision(Operand divisor, boolean jump) {
+        SymTable globals = new SymTable(1);
+        SymTableEntry x = globals.enter("x", Kind.VARIABLE);
+        SymTableEntry y = globals.enter("y", Kind.VARIABLE);
+        SymTableEntry i = globals.enter("i", Kind.VARIABLE);
+
+        TupleIR ir = new TupleIR();
+        addVariables(ir, x, y, i);
+
+        ir.addTuple(TupleFactory.createProgram());
+        ir.addTuple(TupleFactory.createAssign(new Variable(x), new Constant(6)));
+        ir.addTuple(TupleFactory.createAssign(new Variable(y), new Constant(3)));
+        ir.addTuple(TupleFactory.createAssign(new Variable(i), new Constant(0)));
+        if (jump) {
+            ir.addTuple(TupleFactory.createGoto(new Label("loop_start_0")));
+        }
+        addLoop(ir, new Variable(i), 2, 0, () -> {
+            OperandType type = divisor instanceof Constant constant ? constant.getType() : OperandType.INTEGER;
+            Temporary quotient = temp(ir, type);
+            ir.addTuple(TupleFactory.createBinaryOp(Operator.DIV, quotient, new Variable(x), divisor));
+            ir.addTuple(TupleFactory.createPrint(quotient));
+        });
+        ir.addTuple(TupleFactory.createEndProgram());
+        return ir;
+    }
+
+    /**
+     * Build a program with a loop over i in a loop over j whose body
+     * prints i + x * y. If redefined, the temporary of x * y is also
+     * assigned before the loops.
+     */
+    static TupleIR buildNested(boolean redefined) {
+        SymTable globals = new SymTable(1);
+        SymTableEntry x = globals.enter("x", Kind.VARIABLE);
+        SymTableEntry y = globals.enter("y", Kind.VARIABLE);
+        SymTableEntry i = globals.enter("i", Kind.VARIABLE);
+        SymTableEntry j = globals.enter("j", Kind.VARIABLE);
+
+        TupleIR ir = new TupleIR();
+        addVariables(ir, x, y, i, j);
+        Temporary product = temp(ir);
+
+        ir.addTuple(TupleFactory.createProgram());
+        ir.addTuple(TupleFactory.createAssign(new Variable(x), new Constant(6)));
+        ir.addTuple(TupleFactory.createAssign(new Variable(y), new Constant(3)));
+        if (redefined) {
+            ir.addTuple(TupleFactory.createAssign(product, new Constant(0)));
+        }
+        ir.addTuple(TupleFactory.createAssign(new Variable(i), new Constant(0)));
+        addLoop(ir, new Variable(i), 2, 0, () -> {
+            ir.addTuple(TupleFactory.createAssign(new Variable(j), new Constant(0)));
+            addLoop(ir, new Variable(j), 2, 1, () -> {
+                Temporary sum = temp(ir);
+                ir.addTuple(TupleFactory.createBinaryOp(Operator.MUL, product, new Variable(x), new Variable(y)));
+                ir.addTuple(TupleFactory.createBinaryOp(Operator.ADD, sum, new Variable(i), product));
+                ir.addTuple(TupleFactory.createPrint(sum));
+            });
+        });
+        ir.addTuple(TupleFactory.createEndProgram());
+        return ir;
+    }
+
+    /**
+     * @return true if a tuple of the program comes before a label
+     */
+    private static boolean isBefore(TupleIR ir, String tuple, String label) {
+        List<String> tuples = program(ir);
+        int index = tuples.indexOf(tuple);
+        return index >= 0 && index < tuples.indexOf("LABEL " + label);
+    }
+
+    /**
+     * @return true if a tuple of the program comes after a label
+     */
+    private static boolean isAfter(TupleIR ir, String tuple, String label) {
+        List<String> tuples = program(ir);
+        int labelIndex = tuples.indexOf("LABEL " + label);
+        return labelIndex >= 0 && tuples.indexOf(tuple) > labelIndex;
+    }
+
+    @Test
+    @DisplayName("Test invariant arithmetic and pure calls move before the loop")
+    void testHoisting() {
+        TupleIR ir = buildLoop(false);
+        String expected = execute(buildLoop(false));
+        LoopInvariantCodeMotion.run(ir);
+
+        assertTrue(isBefore(ir, "MUL t1, x, y", "loop_start_0"));
+        assertTrue(isBefore(ir, "CALL t2, square, x", "loop_start_0"));
+        assertTrue(isBefore(ir, "ADD t3, t1, t2", "loop_start_0"));
+
+        // The division may divide by zero, so it stays in the loop
+        assertTrue(isAfter(ir, "DIV t5, x, y", "loop_start_0"));
+        assertTrue(isAfter(ir, "ADD t6, i, 1", "loop_start_0"));
+
+        assertEquals("2\n2\n2\n162\n", expected);
+        assertEquals(expected, execute(ir));
+    }
+
+    @Test
+    @DisplayName("Test a call that changes variables keeps their uses in the loop")
+    void testImpureCall() {
+        TupleIR ir = buildLoop(true);
+        List<String> before = program(ir);
+        String expected = execute(buildLoop(true));
+
+        LoopInvariantCodeMotion.run(ir);
+
+        assertEquals(before, program(ir));
+        assertEquals(expected, execute(ir));
+    }
+
+    @Test
+    @DisplayName("Test only divisions that cannot divide by zero move before the loop")
+    void testDivision() {
+        TupleIR byConstant = buildDivision(new Constant(2), false);
+        LoopInvariantCodeMotion.run(byConstant);
+        assertTrue(isBefore(byConstant, "DIV t1, x, 2", "loop_start_0"));
+        assertEquals("3\n3\n", execute(byConstant));
+
+        TupleIR byReal = buildDivision(new Constant(0.0), false);
+        LoopInvariantCodeMotion.run(byReal);
+        assertTrue(isBefore(byReal, "DIV t1, x, 0.0", "loop_start_0"));
+
+        for (Operand divisor : List.of(new Constant(0), new Variable(new SymTable(1).enter("y", Kind.VARIABLE)))) {
+            TupleIR ir = buildDivision(divisor, false);
+            List<String> before = program(ir);
+            LoopInvariantCodeMotion.run(ir);
+            assertEquals(before, program(ir));
+        }
+    }
+
+    @Test
+    @DisplayName("Test jumps into the loop from before it go to the preheader")
+    void testPreheaderJump() {
+        TupleIR ir = buildDivision(new Constant(2), true);
+        LoopInvariantCodeMotion.run(ir);
+
+        // The jump goes to a new label, which comes before the hoisted
+        // division, so the division runs once
+        List<Tuple> tuples = ir.globalFunctionScope().getTuples();
+        Tuple jump = tuples.stream().filter(tuple -> tuple.getOperator() == Operator.GOTO).findFirst().orElseThrow();
+        String target = jump.getOperands().get(0).toString();
+        assertNotEquals("loop_start_0", target);
+        assertTrue(isBefore(ir, jump.toString(), target));
+        assertTrue(isAfter(ir, "DIV t1, x, 2", target));
+        assertTrue(isBefore(ir, "DIV t1, x, 2", "loop_start_0"));
+        assertEquals("3\n3\n", execute(ir));
+    }
+
+    @Test
+    @DisplayName("Test invariants of an inner loop move as far out as they can")
+    void testNestedLoops() {
+        TupleIR ir = buildNested(false);
+        String expected = execute(buildNested(false));
+        LoopInvariantCodeMotion.run(ir);
+
+        assertTrue(isBefore(ir, "MUL t0, x, y", "loop_start_0"));
+        assertTrue(isAfter(ir, "ADD t3, i, t0", "loop_start_0"));
+        assertTrue(isBefore(ir, "ADD t3, i, t0", "loop_start_1"));
+
+        assertEquals("18\n18\n19\n19\n", expected);
+        assertEquals(expected, execute(ir));
+    }
+
+    @Test
+    @DisplayName("Test a temporary with two definitions stays in the loop")
+    void testRedefinedTemporary() {
+        TupleIR ir = buildNested(true);
+        List<String> before = program(ir);
+        String expected = execute(buildNested(true));
+
+        LoopInvariantCodeMotion.run(ir);
+
+        assertEquals(before, program(ir));
+        assertEquals(expected, execute(ir));
+    }
+}
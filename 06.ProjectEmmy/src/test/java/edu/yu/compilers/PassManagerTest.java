@@ -0,0 +1,149 @@
+package edu.yu.compilers;
+
+import static edu.yu.compilers.IRFixtures.addVariables;
+import static edu.yu.compilers.IRFixtures.execute;
+import static edu.yu.compilers.IRFixtures.program;
+import static edu.yu.compilers.IRFixtures.temp;
+import static edu.yu.compilers.IRFixtures.variable;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import edu.yu.compilers.backend.irgen.TupleFactory;
+import edu.yu.compilers.backend.optimizer.PassManager;
+import edu.yu.compilers.backend.optimizer.PassManager.PassStatistics;
+import edu.yu.compilers.intermediate.ir.Operand.Constant;
+import edu.yu.compilers.intermediate.ir.Operand.Function;
+import edu.yu.compilers.intermediate.ir.Operand.Label;
+import edu.yu.compilers.intermediate.ir.Operand.Temporary;
+import edu.yu.compilers.intermediate.ir.Operator;
+import edu.yu.compilers.intermediate.ir.Tuple;
+import edu.yu.compilers.intermediate.ir.TupleIR;
+import edu.yu.compilers.intermediate.symbols.SymTable;
+import edu.yu.compilers.intermediate.symbols.SymTableEntry;
+import edu.yu.compilers.intermediate.symbols.SymTableEntry.Kind;
+
+/**
+ * Tests for the pass manager and the clean-up passes.
+ */
+public class PassManagerTest {
+
+    /**
+     * Build a program with copies, a dead computation, a jump to the
+     * next tuple and code after a GOTO.
+     */
+    static TupleIR buildCleanups() {
+        SymTable globals = new SymTable(1);
+        SymTableEntry a = globals.enter("a", Kind.VARIABLE);
+        SymTableEntry b = globals.enter("b", Kind.VARIABLE);
+        SymTableEntry read = globals.enter("read", Kind.FUNCTION);
+
+        TupleIR ir = new TupleIR();
+        addVariables(ir, a, b);
+
+        Label next = new Label("if_end_0");
+        Label end = new Label("end_1");
+        Temporary t0 = temp(ir);
+        Temporary t1 = temp(ir);
+        Temporary t2 = temp(ir);
+        Temporary t3 = temp(ir);
+
+        ir.addTuple(TupleFactory.createProgram());
+        ir.addTuple(TupleFactory.createCall(t0, new Function(read), List.of()));
+        ir.addTuple(TupleFactory.createAssign(variable(a), t0));
+        ir.addTuple(TupleFactory.createAssign(variable(b), variable(a)));
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.MUL, t1, variable(b), new Constant(2)));
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.ADD, t2, variable(b), new Constant(1)));
+        ir.addTuple(TupleFactory.createIf(t1, next));
+        ir.addTuple(TupleFactory.createLabel(next));
+        ir.addTuple(TupleFactory.createPrint(t1));
+        ir.addTuple(TupleFactory.createGoto(end));
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.DIV, t3, variable(b), new Constant(0)));
+        ir.addTuple(TupleFactory.createPrint(t3));
+        ir.addTuple(TupleFactory.createLabel(end));
+        ir.addTuple(TupleFactory.createEndProgram());
+        return ir;
+    }
+
+    @Test
+    @DisplayName("Test level 0 leaves the IR alone")
+    void testLevelZero() {
+        TupleIR ir = buildCleanups();
+        List<String> before = program(ir);
+
+        PassManager manager = PassManager.forLevel(0);
+        manager.run(ir);
+
+        assertEquals(before, program(ir));
+        assertTrue(manager.getStatistics().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test copy propagation, dead code and label removal")
+    void testCleanups() {
+        TupleIR ir = buildCleanups();
+        PassManager manager = PassManager.forLevel(1);
+        manager.run(ir);
+
+        // The copies, the dead ADD, the jump to the next tuple and the
+        // code after the GOTO are gone, and the call and print are kept
+        List<Operator> operators = ir.globalFunctionScope().getTuples().stream()
+                .map(Tuple::getOperator).toList();
+        for (Operator removed : List.of(Operator.ASSIGN, Operator.ADD, Operator.IF, Operator.LABEL,
+                Operator.GOTO, Operator.DIV)) {
+            assertFalse(operators.contains(removed), removed.toString());
+        }
+        assertEquals(1, operators.stream().filter(operator -> operator == Operator.CALL).count());
+        assertEquals(1, operators.stream().filter(operator -> operator == Operator.PRINT).count());
+
+        // Each pass starts from the tuples the one before it left
+        List<PassStatistics> statistics = manager.getStatistics();
+        assertEquals(List.of("copy-propagation", "dead-code-elimination", "unreachable-label-removal"),
+                statistics.stream().map(PassStatistics::getName).toList());
+        assertEquals(14, statistics.get(0).getTuplesBefore());
+        for (int i = 1; i < statistics.size(); i++) {
+            assertEquals(statistics.get(i - 1).getTuplesAfter(), statistics.get(i).getTuplesBefore());
+        }
+        assertEquals(ir.globalFunctionScope().getTuples().size(),
+                statistics.get(statistics.size() - 1).getTuplesAfter());
+    }
+
+    @Test
+    @DisplayName("Test every level keeps the program's output")
+    void testLevelsKeepOutput() {
+        for (int level = 0; level <= PassManager.MAX_LEVEL; level++) {
+            TupleIR ir = TupleExecutorTest.buildSumAndFactorial();
+            PassManager.forLevel(level).run(ir);
+            assertEquals("55\n120\n", execute(ir));
+        }
+    }
+
+    @Test
+    @DisplayName("Test every level keeps the output of the optimizer tests' programs")
+    void testLevelsKeepFixtureOutput() {
+        List<Supplier<TupleIR>> programs = List.of(
+                InlinerTest::buildMaxAndDouble,
+                () -> TailCallTest.buildSwap(3),
+                () -> TailCallTest.buildDown(TailCallTest.Shape.TAIL_CALL),
+                () -> LoopInvariantTest.buildLoop(false),
+                () -> LoopInvariantTest.buildLoop(true),
+                () -> LoopInvariantTest.buildNested(false),
+                () -> InductionVariablesTest.buildRepeat(5),
+                ConstantPropagationTest::buildConstantBranches);
+
+        for (Supplier<TupleIR> program : programs) {
+            String expected = execute(program.get());
+            for (int level = 1; level <= PassManager.MAX_LEVEL; level++) {
+                TupleIR ir = program.get();
+                PassManager.forLevel(level).run(ir);
+                assertEquals(expected, execute(ir));
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package edu.yu.compilers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import edu.yu.compilers.backend.compiler.X86_64Instruction;
+import edu.yu.compilers.backend.compiler.X86_64Line;
+import edu.yu.compilers.backend.compiler.X86_64Operand;
+import edu.yu.compilers.backend.compiler.X86_64Operand.Immediate;
+import edu.yu.compilers.backend.compiler.X86_64Operand.Memory;
+import edu.yu.compilers.backend.compiler.X86_64Operand.Register;
+import edu.yu.compilers.backend.compiler.X86_64PeepholeOptimizer;
+import edu.yu.compilers.backend.compiler.X86_64Register;
+
+/**
+ * Tests for the peephole optimizer of the x86_64 code generator.
+ */
+public class PeepholeOptimizerTest {
+
+    private static final X86_64Operand RAX = new Register(X86_64Register.RAX);
+    private static final X86_64Operand RCX = new Register(X86_64Register.RCX);
+    private static final X86_64Operand RBX = new Register(X86_64Register.RBX);
+    private static final X86_64Operand SLOT = new Memory("-8(%rbp)");
+
+    @Test
+    @DisplayName("Test removing stores and reloads through the same slot")
+    void testStoreAndReload() {
+        List<X86_64Line> lines = List.of(
+                X86_64Line.instruction(X86_64Instruction.MOVQ, RAX, SLOT),
+                X86_64Line.text("\t# PRINT t0"),
+                X86_64Line.instruction(X86_64Instruction.MOVQ, SLOT, RAX),
+                X86_64Line.instruction(X86_64Instruction.MOVQ, RBX, SLOT),
+                X86_64Line.instruction(X86_64Instruction.MOVQ, SLOT, RCX),
+                X86_64Line.instruction(X86_64Instruction.MOVQ, SLOT, RBX),
+                X86_64Line.instruction(X86_64Instruction.MOVQ, RBX, SLOT));
+
+        assertEquals(List.of(
+                "\tmovq\t%rax, -8(%rbp)",
+                "\t# PRINT t0",
+                "\tmovq\t%rbx, -8(%rbp)",
+                "\tmovq\t%rbx, %rcx",
+                "\tmovq\t-8(%rbp), %rbx"),
+                render(X86_64PeepholeOptimizer.optimize(lines)));
+    }
+
+    @Test
+    @DisplayName("Test that a label separates a store from a reload")
+    void testLabelBetween() {
+        List<X86_64Line> lines = List.of(
+                X86_64Line.instruction(X86_64Instruction.MOVQ, RAX, SLOT),
+                X86_64Line.label("L_1"),
+                X86_64Line.instruction(X86_64Instruction.MOVQ, SLOT, RAX));
+
+        assertEquals(List.of("\tmovq\t%rax, -8(%rbp)", "L_1:", "\tmovq\t-8(%rbp), %rax"),
+                render(X86_64PeepholeOptimizer.optimize(lines)));
+    }
+
+    @Test
+    @DisplayName("Test removing self-moves, zero adds and jumps to the next label")
+    void testUselessInstructions() {
+        X86_64Operand rsp = new Register(X86_64Register.RSP);
+        List<X86_64Line> lines = List.of(
+                X86_64Line.instruction(X86_64Instruction.SUBQ, new Immediate(0), rsp),
+                X86_64Line.instruction(X86_64Instruction.MOVQ, RCX, RCX),
+                X86_64Line.instruction(X86_64Instruction.ADDQ, new Immediate(0), RAX),
+                X86_64Line.instruction(X86_64Instruction.ADDQ, new Immediate(1), RAX),
+                X86_64Line.instruction(X86_64Instruction.JMP, new X86_64Operand.Label("main_epilogue")),
+                X86_64Line.text(""),
+                X86_64Line.label("loop_end_2"),
+                X86_64Line.label("main_epilogue"),
+                X86_64Line.instruction(X86_64Instruction.JMP, new X86_64Operand.Label("loop_end_2")),
+                X86_64Line.instruction(X86_64Instruction.RET));
+
+        assertEquals(List.of(
+                "\taddq\t$1, %rax",
+                "",
+                "loop_end_2:",
+                "main_epilogue:",
+                "\tjmp\tloop_end_2",
+                "\tret"),
+                render(X86_64PeepholeOptimizer.optimize(lines)));
+    }
+
+    @Test
+    @DisplayName("Test a decrement sets the flags that a jne tests")
+    void testDecrementAndBranch() {
+        X86_64Operand loop = new X86_64Operand.Label("loop_start_0_body");
+        List<X86_64Line> lines = List.of(
+                X86_64Line.instruction(X86_64Instruction.SUBQ, new Immediate(1), RBX),
+                X86_64Line.text("\t# NEQ t6, t5, 0"),
+                X86_64Line.instruction(X86_64Instruction.CMPQ, new Immediate(0), RBX),
+                X86_64Line.instruction(X86_64Instruction.JNE, loop),
+                X86_64Line.instruction(X86_64Instruction.SUBQ, new Immediate(1), RBX),
+                X86_64Line.instruction(X86_64Instruction.CMPQ, new Immediate(0), RBX),
+                X86_64Line.instruction(X86_64Instruction.JG, loop));
+
+        assertEquals(List.of(
+                "\tdecq\t%rbx",
+                "\t# NEQ t6, t5, 0",
+                "\tjne\tloop_start_0_body",
+                "\tdecq\t%rbx",
+                "\tcmpq\t$0, %rbx",
+                "\tjg\tloop_start_0_body"),
+                render(X86_64PeepholeOptimizer.optimize(lines)));
+    }
+
+    private static List<String> render(List<X86_64Line> lines) {
+        return lines.stream().map(X86_64Line::toString).toList();
+    }
+}
@@ -0,0 +1,122 @@
+package edu.yu.compilers;
+
+import static edu.yu.compilers.IRFixtures.execute;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import edu.yu.compilers.backend.irgen.TupleIRBuilder;
+import edu.yu.compilers.intermediate.ast.Expr;
+import edu.yu.compilers.intermediate.ast.Expr.Binary;
+import edu.yu.compilers.intermediate.ast.Expr.Literal;
+import edu.yu.compilers.intermediate.ast.Expr.Logical;
+import edu.yu.compilers.intermediate.ast.Expr.Unary;
+import edu.yu.compilers.intermediate.ast.Oper;
+import edu.yu.compilers.intermediate.ast.Program;
+import edu.yu.compilers.intermediate.ast.Stmt;
+import edu.yu.compilers.intermediate.ast.Stmt.If;
+import edu.yu.compilers.intermediate.ast.Stmt.Print;
+import edu.yu.compilers.intermediate.ir.Operator;
+import edu.yu.compilers.intermediate.ir.Tuple;
+import edu.yu.compilers.intermediate.ir.TupleIR;
+import edu.yu.compilers.intermediate.symbols.Predefined;
+import edu.yu.compilers.intermediate.symbols.SymTable;
+import edu.yu.compilers.intermediate.symbols.SymTableEntry;
+import edu.yu.compilers.intermediate.symbols.SymTableEntry.Kind;
+import edu.yu.compilers.intermediate.symbols.SymTableStack;
+import edu.yu.compilers.intermediate.types.Typespec;
+
+/**
+ * Tests for lowering AND and OR into jumps. The right operands divide
+ * by zero, so evaluating one when it should be skipped is a runtime
+ * error.
+ */
+public class ShortCircuitTest {
+
+    @BeforeAll
+    static void initializeTypes() {
+        Predefined.initialize(new SymTableStack());
+    }
+
+    private static Literal literal(Object value, Typespec type) {
+        Literal literal = new Literal(value);
+        literal.setType(type);
+        return literal;
+    }
+
+    private static Expr bool(boolean value) {
+        return literal(value, Predefined.booleanType);
+    }
+
+    /**
+     * @return the expression 1/0 = 1, which fails when evaluated
+     */
+    private static Expr failing() {
+        Typespec integer = Predefined.integerType;
+        Binary quotient = new Binary(literal(1, integer), Oper.DIV, literal(0, integer));
+        quotient.setType(integer);
+        Binary equal = new Binary(quotient, Oper.EQ, literal(1, integer));
+        equal.setType(Predefined.booleanType);
+        return equal;
+    }
+
+    private static Expr logical(Expr left, Oper operator, Expr right) {
+        Logical logical = new Logical(left, operator, right);
+        logical.setType(Predefined.booleanType);
+        return logical;
+    }
+
+    private static Expr not(Expr operand) {
+        Unary not = new Unary(Oper.NOT, operand);
+        not.setType(Predefined.booleanType);
+        return not;
+    }
+
+    private static TupleIR build(List<Stmt> statements) {
+        SymTableEntry entry = new SymTable(0).enter("__program__", Kind.PROGRAM);
+        entry.setRoutineSymTable(new SymTable(1));
+        return TupleIRBuilder.build(new Program(entry, statements));
+    }
+
+    private static boolean hasEagerLogic(TupleIR ir) {
+        return ir.globalFunctionScope().getTuples().stream()
+                .map(Tuple::getOperator)
+                .anyMatch(operator -> operator == Operator.AND || operator == Operator.OR);
+    }
+
+    @Test
+    @DisplayName("Test the right operand is skipped for a value")
+    void testValues() {
+        TupleIR ir = build(List.of(
+                new Print(logical(bool(false), Oper.AND, failing())),
+                new Print(logical(bool(true), Oper.OR, failing())),
+                new Print(logical(bool(true), Oper.AND, bool(false))),
+                new Print(logical(bool(false), Oper.OR, bool(true))),
+                new Print(logical(logical(bool(true), Oper.AND, bool(false)), Oper.OR, bool(true)))));
+
+        assertEquals("0\n1\n0\n1\n1\n", execute(ir));
+        assertFalse(hasEagerLogic(ir));
+    }
+
+    @Test
+    @DisplayName("Test conditions branch directly to their targets")
+    void testConditions() {
+        Typespec string = Predefined.stringType;
+
+        TupleIR ir = build(List.of(
+                new If(logical(bool(false), Oper.AND, failing()),
+                        new Print(literal("wrong", string)), new Print(literal("and", string))),
+                new If(logical(bool(true), Oper.OR, failing()),
+                        new Print(literal("or", string)), null),
+                new If(not(logical(bool(false), Oper.OR, logical(bool(true), Oper.AND, bool(true)))),
+                        new Print(literal("wrong", string)), new Print(literal("not", string)))));
+
+        assertEquals("and\nor\nnot\n", execute(ir));
+        assertFalse(hasEagerLogic(ir));
+    }
+}
@@ -0,0 +1,88 @@
+package edu.yu.compilers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import edu.yu.compilers.backend.compiler.LinearScanAllocator;
+import edu.yu.compilers.backend.compiler.LinearScanAllocator.Allocation;
+import edu.yu.compilers.backend.irgen.TupleFactory;
+import edu.yu.compilers.intermediate.ir.Operand.Constant;
+import edu.yu.compilers.intermediate.ir.Operand.OperandType;
+import edu.yu.compilers.intermediate.ir.Operand.Temporary;
+import edu.yu.compilers.intermediate.ir.Operator;
+import edu.yu.compilers.intermediate.ir.TupleIR;
+
+/**
+ * Tests for the sharing of stack slots by spilled values.
+ */
+public class StackSlotTest {
+
+    /**
+     * Add tuples that define ten temps and then print their sum, so that
+     * all ten are live at once.
+     */
+    private static List<Temporary> addBatch(TupleIR ir) {
+        List<Temporary> temps = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Temporary temp = ir.newTemp();
+            temp.setType(OperandType.INTEGER);
+            ir.addTuple(TupleFactory.createAssign(temp, new Constant(i)));
+            temps.add(temp);
+        }
+
+        Temporary sum = temps.get(0);
+        for (int i = 1; i < 10; i++) {
+            Temporary next = ir.newTemp();
+            next.setType(OperandType.INTEGER);
+            ir.addTuple(TupleFactory.createBinaryOp(Operator.ADD, next, sum, temps.get(i)));
+            sum = next;
+        }
+        ir.addTuple(TupleFactory.createPrint(sum));
+        return temps;
+    }
+
+    @Test
+    @DisplayName("Test that spilled values with disjoint lifetimes share slots")
+    void testSharedSlots() {
+        TupleIR ir = new TupleIR();
+        ir.addTuple(TupleFactory.createProgram());
+        List<Temporary> first = addBatch(ir);
+        List<Temporary> second = addBatch(ir);
+        ir.addTuple(TupleFactory.createEndProgram());
+
+        Allocation allocation = new LinearScanAllocator(ir.globalFunctionScope()).allocate();
+
+        // Seven general purpose registers, five of them callee-saved
+        assertEquals(5, allocation.getCalleeSaved().size());
+        assertEquals(5 + 4, allocation.getSlotCount());
+
+        Set<Integer> firstSlots = spillSlots(allocation, first);
+        Set<Integer> secondSlots = spillSlots(allocation, second);
+        assertEquals(4, firstSlots.size());
+        assertEquals(firstSlots, secondSlots);
+        for (int slot : firstSlots) {
+            assertTrue(slot >= 5);
+            for (var register : allocation.getCalleeSaved()) {
+                assertNotEquals(allocation.getCalleeSaveSlot(register), slot);
+            }
+        }
+    }
+
+    private static Set<Integer> spillSlots(Allocation allocation, List<Temporary> temps) {
+        Set<Integer> slots = new HashSet<>();
+        for (Temporary temp : temps) {
+            int slot = allocation.getSpillSlot(temp);
+            if (slot >= 0) slots.add(slot);
+        }
+        return slots;
+    }
+}
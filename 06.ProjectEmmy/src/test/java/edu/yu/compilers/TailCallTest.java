@@ -0,0 +1,304 @@
+package edu.yu.compilers;
+
+import static edu.yu.compilers.IRFixtures.addVariables;
+import static edu.yu.compilers.IRFixtures.beginFunction;
+import static edu.yu.compilers.IRFixtures.endFunction;
+import static edu.yu.compilers.IRFixtures.execute;
+import static edu.yu.compilers.IRFixtures.function;
+import static edu.yu.compilers.IRFixtures.temp;
+import static edu.yu.compilers.IRFixtures.tuples;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import edu.yu.compilers.backend.irgen.TupleFactory;
+import edu.yu.compilers.backend.optimizer.TailCallElimination;
+import edu.yu.compilers.intermediate.ir.Operand;
+import edu.yu.compilers.intermediate.ir.Operand.Constant;
+import edu.yu.compilers.intermediate.ir.Operand.Function;
+import edu.yu.compilers.intermediate.ir.Operand.Label;
+import edu.yu.compilers.intermediate.ir.Operand.Temporary;
+import edu.yu.compilers.intermediate.ir.Operand.Variable;
+import edu.yu.compilers.intermediate.ir.Operator;
+import edu.yu.compilers.intermediate.ir.Tuple;
+import edu.yu.compilers.intermediate.ir.TupleIR;
+import edu.yu.compilers.intermediate.symbols.SymTable;
+import edu.yu.compilers.intermediate.symbols.SymTableEntry;
+import edu.yu.compilers.intermediate.symbols.SymTableEntry.Kind;
+
+/**
+ * Tests for tail-call elimination.
+ */
+public class TailCallTest {
+
+    /**
+     * Build a program that prints swap(1, 2, n), where swap exchanges its
+     * first two parameters n times with tail calls and then returns
+     * 10 * a + b.
+     */
+    static TupleIR buildSwap(int n) {
+        SymTable globals = new SymTable(1);
+        SymTableEntry swap = globals.enter("swap", Kind.FUNCTION);
+
+        SymTable locals = new SymTable(2);
+        SymTableEntry a = locals.enter("a", Kind.VALUE_PARAMETER);
+        SymTableEntry b = locals.enter("b", Kind.VALUE_PARAMETER);
+        SymTableEntry count = locals.enter("n", Kind.VALUE_PARAMETER);
+
+        TupleIR ir = new TupleIR();
+        Temporary t0 = temp(ir);
+
+        ir.addTuple(TupleFactory.createProgram());
+        ir.addTuple(TupleFactory.createCall(t0, new Function(swap),
+                List.of(new Constant(1), new Constant(2), new Constant(n))));
+        ir.addTuple(TupleFactory.createPrint(t0));
+
+        Label funcLabel = beginFunction(ir, "swap", a, b, count);
+        Label done = new Label("else_0");
+        Temporary t1 = temp(ir);
+        Temporary t2 = temp(ir);
+        Temporary t3 = temp(ir);
+        Temporary t4 = temp(ir);
+        Temporary t5 = temp(ir);
+
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.EQ, t1, new Variable(count), new Constant(0)));
+        ir.addTuple(TupleFactory.createIf(t1, done));
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.SUB, t2, new Variable(count), new Constant(1)));
+        ir.addTuple(TupleFactory.createCall(t3, new Function(swap),
+                List.<Operand>of(new Variable(b), new Variable(a), t2)));
+        ir.addTuple(TupleFactory.createReturn(t3));
+        ir.addTuple(TupleFactory.createLabel(done));
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.MUL, t4, new Variable(a), new Constant(10)));
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.ADD, t5, t4, new Variable(b)));
+        ir.addTuple(TupleFactory.createReturn(t5));
+        endFunction(ir, funcLabel);
+
+        ir.addTuple(TupleFactory.createEndProgram());
+        return ir;
+    }
+
+    /**
+     * Build a program that prints countdown(2), where countdown prints
+     * its local seen and then sets it to n before its tail call. If
+     * assignFirst, it sets seen before printing it instead.
+     */
+    static TupleIR buildCountdown(boolean assignFirst) {
+        SymTable globals = new SymTable(1);
+        SymTableEntry countdown = globals.enter("countdown", Kind.FUNCTION);
+
+        SymTable locals = new SymTable(2);
+        SymTableEntry n = locals.enter("n", Kind.VALUE_PARAMETER);
+        SymTableEntry seen = locals.enter("seen", Kind.VARIABLE);
+
+        TupleIR ir = new TupleIR();
+        Temporary t0 = temp(ir);
+
+        ir.addTuple(TupleFactory.createProgram());
+        ir.addTuple(TupleFactory.createCall(t0, new Function(countdown), List.of(new Constant(2))));
+        ir.addTuple(TupleFactory.createPrint(t0));
+
+        Label funcLabel = beginFunction(ir, "countdown", n);
+        addVariables(ir, seen);
+        Label done = new Label("else_0");
+        Temporary t1 = temp(ir);
+        Temporary t2 = temp(ir);
+        Temporary t3 = temp(ir);
+
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.EQ, t1, new Variable(n), new Constant(0)));
+        ir.addTuple(TupleFactory.createIf(t1, done));
+        if (assignFirst) {
+            ir.addTuple(TupleFactory.createAssign(new Variable(seen), new Variable(n)));
+        }
+        ir.addTuple(TupleFactory.createPrint(new Variable(seen)));
+        ir.addTuple(TupleFactory.createAssign(new Variable(seen), new Variable(n)));
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.SUB, t2, new Variable(n), new Constant(1)));
+        ir.addTuple(TupleFactory.createCall(t3, new Function(countdown), List.<Operand>of(t2)));
+        ir.addTuple(TupleFactory.createReturn(t3));
+        ir.addTuple(TupleFactory.createLabel(done));
+        ir.addTuple(TupleFactory.createReturn(new Constant(0)));
+        endFunction(ir, funcLabel);
+
+        ir.addTuple(TupleFactory.createEndProgram());
+        return ir;
+    }
+
+    /**
+     * The ways that down's recursive call can end its function.
+     */
+    enum Shape {
+        TAIL_CALL,            // the call's result is returned
+        LABEL_BEFORE_RETURN,  // a label comes between the call and the return
+        OTHER_RESULT,         // another value is returned
+        FEWER_ARGUMENTS       // the call leaves out a parameter
+    }
+
+    /**
+     * Build a program that prints down(10, 3), where down subtracts step
+     * from n until n is at most 0 and returns n, with its recursive call
+     * in the given shape. Its step argument is its own step parameter.
+     */
+    static TupleIR buildDown(Shape shape) {
+        SymTable globals = new SymTable(1);
+        SymTableEntry down = globals.enter("down", Kind.FUNCTION);
+
+        SymTable locals = new SymTable(2);
+        SymTableEntry n = locals.enter("n", Kind.VALUE_PARAMETER);
+        SymTableEntry step = locals.enter("step", Kind.VALUE_PARAMETER);
+
+        TupleIR ir = new TupleIR();
+        Temporary t0 = temp(ir);
+
+        ir.addTuple(TupleFactory.createProgram());
+        ir.addTuple(TupleFactory.createCall(t0, new Function(down), List.of(new Constant(10), new Constant(3))));
+        ir.addTuple(TupleFactory.createPrint(t0));
+
+        Label funcLabel = beginFunction(ir, "down", n, step);
+        Label done = new Label("else_0");
+        Temporary t1 = temp(ir);
+        Temporary t2 = temp(ir);
+        Temporary t3 = temp(ir);
+
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.LTE, t1, new Variable(n), new Constant(0)));
+        ir.addTuple(TupleFactory.createIf(t1, done));
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.SUB, t2, new Variable(n), new Variable(step)));
+        ir.addTuple(TupleFactory.createCall(t3, new Function(down), shape == Shape.FEWER_ARGUMENTS
+                ? List.<Operand>of(t2) : List.<Operand>of(t2, new Variable(step))));
+        if (shape == Shape.LABEL_BEFORE_RETURN) {
+            ir.addTuple(TupleFactory.createLabel(new Label("if_end_1")));
+        }
+        ir.addTuple(TupleFactory.createReturn(shape == Shape.OTHER_RESULT ? t2 : t3));
+        ir.addTuple(TupleFactory.createLabel(done));
+        ir.addTuple(TupleFactory.createReturn(new Variable(n)));
+        endFunction(ir, funcLabel);
+
+        ir.addTuple(TupleFactory.createEndProgram());
+        return ir;
+    }
+
+    private static List<Tuple> tuplesOf(TupleIR ir, String name) {
+        return function(ir, name).getTuples();
+    }
+
+    /**
+     * @return true if the tuples have no CALL and jump back to a label
+     *         before the jump, as a loop does
+     */
+    private static boolean loopsInsteadOfCalling(List<Tuple> tuples) {
+        if (tuples.stream().anyMatch(tuple -> tuple.getOperator() == Operator.CALL)) return false;
+
+        List<String> labels = new ArrayList<>();
+        for (Tuple tuple : tuples) {
+            if (tuple.getOperator() == Operator.LABEL) {
+                labels.add(tuple.getOperands().get(0).toString());
+            } else if (tuple.getOperator() == Operator.GOTO
+                    && labels.contains(tuple.getOperands().get(0).toString())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return true if a tuple assigns the named variable
+     */
+    private static boolean assigns(List<Tuple> tuples, String name) {
+        return tuples.stream().anyMatch(tuple -> tuple.getOperator() == Operator.ASSIGN
+                && tuple.getOperands().get(0).toString().equals(name));
+    }
+
+    @Test
+    @DisplayName("Test a self-recursive tail call becomes a jump")
+    void testSelfTailCall() {
+        TupleIR ir = buildSwap(3);
+        TailCallElimination.run(ir);
+
+        assertTrue(loopsInsteadOfCalling(tuplesOf(ir, "swap")));
+
+        // The parameters are exchanged, not overwritten one by one
+        assertEquals("21\n", execute(ir));
+    }
+
+    @Test
+    @DisplayName("Test deep tail recursion runs in one activation")
+    void testDeepRecursion() {
+        TupleIR ir = buildSwap(100000);
+        TailCallElimination.run(ir);
+
+        assertEquals("12\n", execute(ir));
+    }
+
+    @Test
+    @DisplayName("Test calls that are not tail calls are kept")
+    void testNonTailCall() {
+        TupleIR ir = TupleExecutorTest.buildSumAndFactorial();
+        List<String> before = ir.getFunctionList().stream()
+                .flatMap(function -> function.getTuples().stream()).map(Tuple::toString).toList();
+
+        TailCallElimination.run(ir);
+
+        assertEquals(before, ir.getFunctionList().stream()
+                .flatMap(function -> function.getTuples().stream()).map(Tuple::toString).toList());
+        assertEquals("55\n120\n", execute(ir));
+    }
+
+    @Test
+    @DisplayName("Test a function that may read a local before assigning it is kept")
+    void testUnassignedLocal() {
+        TupleIR ir = buildCountdown(false);
+        List<String> before = tuples(function(ir, "countdown"));
+
+        TailCallElimination.run(ir);
+
+        assertEquals(before, tuples(function(ir, "countdown")));
+        assertEquals("none\nnone\n0\n", execute(ir));
+    }
+
+    @Test
+    @DisplayName("Test a function that assigns its locals first is still optimized")
+    void testAssignedLocal() {
+        TupleIR ir = buildCountdown(true);
+        TailCallElimination.run(ir);
+
+        assertTrue(loopsInsteadOfCalling(tuplesOf(ir, "countdown")));
+        assertEquals("2\n1\n0\n", execute(ir));
+    }
+
+    @Test
+    @DisplayName("Test a label between the call and the return still makes a tail call")
+    void testLabelBeforeReturn() {
+        for (Shape shape : List.of(Shape.TAIL_CALL, Shape.LABEL_BEFORE_RETURN)) {
+            TupleIR ir = buildDown(shape);
+            TailCallElimination.run(ir);
+
+            List<Tuple> tuples = tuplesOf(ir, "down");
+            assertTrue(loopsInsteadOfCalling(tuples), shape.toString());
+            assertTrue(assigns(tuples, "n"), shape.toString());
+
+            // The parameter passed in its own position isn't assigned
+            assertFalse(assigns(tuples, "step"), shape.toString());
+            assertEquals("-2\n", execute(ir), shape.toString());
+        }
+    }
+
+    @Test
+    @DisplayName("Test calls whose result isn't returned or that miss arguments are kept")
+    void testNotTailCalls() {
+        for (Shape shape : List.of(Shape.OTHER_RESULT, Shape.FEWER_ARGUMENTS)) {
+            TupleIR ir = buildDown(shape);
+            List<String> before = tuples(function(ir, "down"));
+
+            TailCallElimination.run(ir);
+
+            assertEquals(before, tuples(function(ir, "down")), shape.toString());
+        }
+        TupleIR ir = buildDown(Shape.OTHER_RESULT);
+        TailCallElimination.run(ir);
+        assertEquals("7\n", execute(ir));
+    }
+}
@@ -0,0 +1,167 @@
+package edu.yu.compilers;
+
+import static edu.yu.compilers.IRFixtures.execute;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import edu.yu.compilers.backend.irgen.TupleFactory;
+import edu.yu.compilers.intermediate.ir.Operand;
+import edu.yu.compilers.intermediate.ir.Operand.Constant;
+import edu.yu.compilers.intermediate.ir.Operand.Function;
+import edu.yu.compilers.intermediate.ir.Operand.Label;
+import edu.yu.compilers.intermediate.ir.Operand.OperandType;
+import edu.yu.compilers.intermediate.ir.Operand.Temporary;
+import edu.yu.compilers.intermediate.ir.Operand.Variable;
+import edu.yu.compilers.intermediate.ir.Operator;
+import edu.yu.compilers.intermediate.ir.TupleIR;
+import edu.yu.compilers.intermediate.ir.TupleIR.VariableInfo;
+import edu.yu.compilers.intermediate.symbols.SymTable;
+import edu.yu.compilers.intermediate.symbols.SymTableEntry;
+import edu.yu.compilers.intermediate.symbols.SymTableEntry.Kind;
+
+/**
+ * Tests for the TupleIR interpreter. The IR is built by hand
+ * so these tests do not depend on the frontend.
+ */
+public class TupleExecutorTest {
+
+    /**
+     * Build a program that sums 1..10 in a loop and then prints
+     * the result of a recursive factorial call.
+     */
+    static TupleIR buildSumAndFactorial() {
+        SymTable globals = new SymTable(1);
+        SymTableEntry sum = globals.enter("sum", Kind.VARIABLE);
+        SymTableEntry i = globals.enter("i", Kind.VARIABLE);
+        SymTableEntry fact = globals.enter("fact", Kind.FUNCTION);
+
+        SymTable locals = new SymTable(2);
+        SymTableEntry n = locals.enter("n", Kind.VALUE_PARAMETER);
+
+        TupleIR ir = new TupleIR();
+        ir.addVariable(new VariableInfo(sum, OperandType.INTEGER));
+        ir.addVariable(new VariableInfo(i, OperandType.INTEGER));
+
+        Label loop = new Label("loop_start_0");
+        Label end = new Label("loop_end_0");
+        Temporary t0 = ir.newTemp();
+        Temporary t1 = ir.newTemp();
+        Temporary t2 = ir.newTemp();
+        Temporary t3 = ir.newTemp();
+
+        ir.addTuple(TupleFactory.createProgram());
+        ir.addTuple(TupleFactory.createAssign(new Variable(sum), new Constant(0)));
+        ir.addTuple(TupleFactory.createAssign(new Variable(i), new Constant(1)));
+        ir.addTuple(TupleFactory.createLabel(loop));
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.GT, t0, new Variable(i), new Constant(10)));
+        ir.addTuple(TupleFactory.createIf(t0, end));
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.ADD, t1, new Variable(sum), new Variable(i)));
+        ir.addTuple(TupleFactory.createAssign(new Variable(sum), t1));
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.ADD, t2, new Variable(i), new Constant(1)));
+        ir.addTuple(TupleFactory.createAssign(new Variable(i), t2));
+        ir.addTuple(TupleFactory.createGoto(loop));
+        ir.addTuple(TupleFactory.createLabel(end));
+        ir.addTuple(TupleFactory.createPrint(new Variable(sum)));
+        ir.addTuple(TupleFactory.createCall(t3, new Function(fact), List.of(new Constant(5))));
+        ir.addTuple(TupleFactory.createPrint(t3));
+
+        ir.enterFunctionScope("fact");
+        VariableInfo param = new VariableInfo(n, OperandType.INTEGER);
+        param.setParamIndex(0);
+        ir.addVariable(param);
+
+        Label funcLabel = new Label("fact");
+        Label base = new Label("else_1");
+        Temporary t4 = ir.newTemp();
+        Temporary t5 = ir.newTemp();
+        Temporary t6 = ir.newTemp();
+        Temporary t7 = ir.newTemp();
+
+        ir.addTuple(TupleFactory.createFunction(funcLabel));
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.LTE, t4, new Variable(n), new Constant(1)));
+        ir.addTuple(TupleFactory.createIf(t4, base));
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.SUB, t5, new Variable(n), new Constant(1)));
+        ir.addTuple(TupleFactory.createCall(t6, new Function(fact), List.<Operand>of(t5)));
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.MUL, t7, new Variable(n), t6));
+        ir.addTuple(TupleFactory.createReturn(t7));
+        ir.addTuple(TupleFactory.createLabel(base));
+        ir.addTuple(TupleFactory.createReturn(new Constant(1)));
+        ir.addTuple(TupleFactory.createEndFunction(funcLabel));
+        ir.exitFunctionScope();
+
+        ir.addTuple(TupleFactory.createEndProgram());
+        return ir;
+    }
+
+    @Test
+    @DisplayName("Test loops, recursion and printing")
+    void testSumAndFactorial() {
+        assertEquals("55\n120\n", execute(buildSumAndFactorial()));
+    }
+
+    @Test
+    @DisplayName("Test integer division by zero is reported")
+    void testDivisionByZero() {
+        TupleIR ir = new TupleIR();
+        Temporary t0 = ir.newTemp();
+        ir.addTuple(TupleFactory.createProgram());
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.DIV, t0, new Constant(1), new Constant(0)));
+        ir.addTuple(TupleFactory.createPrint(t0));
+        ir.addTuple(TupleFactory.createEndProgram());
+
+        String output = execute(ir);
+        assertEquals("\n*** RUNTIME ERROR in __global__: Division by zero\n0\n", output);
+    }
+
+    /**
+     * Build a program that prints comparisons of zeros of both signs and
+     * of NaN.
+     */
+    static TupleIR buildFloatComparisons() {
+        Object[][] comparisons = {
+                {Operator.LTE, 0.0, -0.0}, {Operator.GTE, -0.0, 0.0}, {Operator.LT, -0.0, 0.0},
+                {Operator.LT, Double.NaN, 1.0}, {Operator.GTE, Double.NaN, 1.0},
+                {Operator.GT, 1.0, Double.NaN}, {Operator.LTE, Double.NaN, Double.NaN},
+        };
+
+        TupleIR ir = new TupleIR();
+        ir.addTuple(TupleFactory.createProgram());
+        for (Object[] comparison : comparisons) {
+            Temporary temp = ir.newTemp();
+            temp.setType(OperandType.BOOLEAN);
+            ir.addTuple(TupleFactory.createBinaryOp((Operator) comparison[0], temp,
+                    new Constant(comparison[1]), new Constant(comparison[2])));
+            ir.addTuple(TupleFactory.createPrint(temp));
+        }
+        ir.addTuple(TupleFactory.createEndProgram());
+        return ir;
+    }
+
+    @Test
+    @DisplayName("Test floats compare as IEEE values, as in the native build")
+    void testFloatComparisons() {
+        assertEquals("1\n1\n0\n0\n0\n0\n0\n", execute(buildFloatComparisons()));
+    }
+
+    @Test
+    @DisplayName("Test floats print the same in every locale")
+    void testFloatPrintingLocale() {
+        TupleIR ir = new TupleIR();
+        ir.addTuple(TupleFactory.createProgram());
+        ir.addTuple(TupleFactory.createPrint(new Constant(1.5)));
+        ir.addTuple(TupleFactory.createEndProgram());
+
+        Locale locale = Locale.getDefault();
+        Locale.setDefault(Locale.GERMANY);
+        try {
+            assertEquals("1.500000\n", execute(ir));
+        } finally {
+            Locale.setDefault(locale);
+        }
+    }
+}
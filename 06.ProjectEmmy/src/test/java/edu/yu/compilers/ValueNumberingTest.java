@@ -0,0 +1,241 @@
+package edu.yu.compilers;
+
+import static edu.yu.compilers.IRFixtures.addVariables;
+import static edu.yu.compilers.IRFixtures.beginFunction;
+import static edu.yu.compilers.IRFixtures.endFunction;
+import static edu.yu.compilers.IRFixtures.execute;
+import static edu.yu.compilers.IRFixtures.program;
+import static edu.yu.compilers.IRFixtures.temp;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import edu.yu.compilers.backend.irgen.TupleFactory;
+import edu.yu.compilers.backend.optimizer.ValueNumbering;
+import edu.yu.compilers.intermediate.ir.Operand.Constant;
+import edu.yu.compilers.intermediate.ir.Operand.Function;
+import edu.yu.compilers.intermediate.ir.Operand.Label;
+import edu.yu.compilers.intermediate.ir.Operand.OperandType;
+import edu.yu.compilers.intermediate.ir.Operand.Temporary;
+import edu.yu.compilers.intermediate.ir.Operand.Variable;
+import edu.yu.compilers.intermediate.ir.Operator;
+import edu.yu.compilers.intermediate.ir.TupleIR;
+import edu.yu.compilers.intermediate.symbols.SymTable;
+import edu.yu.compilers.intermediate.symbols.SymTableEntry;
+import edu.yu.compilers.intermediate.symbols.SymTableEntry.Kind;
+
+/**
+ * Tests for common subexpression elimination by value numbering.
+ */
+public class ValueNumberingTest {
+
+    /**
+     * @return the number of tuples of the program with the operator
+     */
+    private static long count(TupleIR ir, Operator operator) {
+        return ir.globalFunctionScope().getTuples().stream()
+                .filter(tuple -> tuple.getOperator() == operator).count();
+    }
+
+    @Test
+    @DisplayName("Test repeated expressions in a block reuse the first result")
+    void testLocalReuse() {
+        SymTable globals = new SymTable(1);
+        SymTableEntry a = globals.enter("a", Kind.VARIABLE);
+        SymTableEntry b = globals.enter("b", Kind.VARIABLE);
+
+        TupleIR ir = new TupleIR();
+        addVariables(ir, a, b);
+
+        Temporary t0 = temp(ir);
+        Temporary t1 = temp(ir);
+        Temporary t2 = temp(ir);
+        Temporary t3 = temp(ir);
+        Temporary t4 = temp(ir);
+        Temporary t5 = temp(ir);
+
+        ir.addTuple(TupleFactory.createProgram());
+        ir.addTuple(TupleFactory.createAssign(new Variable(a), new Constant(4)));
+        ir.addTuple(TupleFactory.createAssign(new Variable(b), new Constant(7)));
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.MUL, t0, new Variable(a), new Variable(b)));
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.MUL, t1, new Variable(b), new Variable(a)));
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.ADD, t2, t0, t1));
+        ir.addTuple(TupleFactory.createPrint(t2));
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.GT, t3, new Variable(a), new Variable(b)));
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.LT, t4, new Variable(b), new Variable(a)));
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.EQ, t5, t3, t4));
+        ir.addTuple(TupleFactory.createPrint(t5));
+        ir.addTuple(TupleFactory.createEndProgram());
+
+        String expected = execute(ir);
+        ValueNumbering.run(ir);
+
+        // b * a and b < a are not computed again
+        assertEquals(1, count(ir, Operator.MUL));
+        assertEquals(1, count(ir, Operator.GT) + count(ir, Operator.LT));
+        assertEquals("56\n1\n", expected);
+        assertEquals(expected, execute(ir));
+    }
+
+    @Test
+    @DisplayName("Test assignments and calls end the reuse of an expression")
+    void testInvalidation() {
+        SymTable globals = new SymTable(1);
+        SymTableEntry x = globals.enter("x", Kind.VARIABLE);
+        SymTableEntry bump = globals.enter("bump", Kind.FUNCTION);
+
+        TupleIR ir = new TupleIR();
+        addVariables(ir, x);
+
+        Temporary t0 = temp(ir);
+        Temporary t1 = temp(ir);
+        Temporary t2 = temp(ir);
+        Temporary t3 = temp(ir);
+
+        ir.addTuple(TupleFactory.createProgram());
+        ir.addTuple(TupleFactory.createAssign(new Variable(x), new Constant(1)));
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.ADD, t0, new Variable(x), new Constant(1)));
+        ir.addTuple(TupleFactory.createPrint(t0));
+        ir.addTuple(TupleFactory.createAssign(new Variable(x), new Constant(5)));
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.ADD, t1, new Variable(x), new Constant(1)));
+        ir.addTuple(TupleFactory.createPrint(t1));
+        ir.addTuple(TupleFactory.createCall(t2, new Function(bump), List.of()));
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.ADD, t3, new Variable(x), new Constant(1)));
+        ir.addTuple(TupleFactory.createPrint(t3));
+
+        Label bumpLabel = beginFunction(ir, "bump");
+        Temporary t4 = temp(ir);
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.ADD, t4, new Variable(x), new Constant(3)));
+        ir.addTuple(TupleFactory.createAssign(new Variable(x), t4));
+        ir.addTuple(TupleFactory.createReturn(new Constant(0)));
+        endFunction(ir, bumpLabel);
+
+        ir.addTuple(TupleFactory.createEndProgram());
+
+        List<String> before = program(ir);
+        ValueNumbering.run(ir);
+
+        assertEquals(before, program(ir));
+        assertEquals("2\n6\n9\n", execute(ir));
+    }
+
+    @Test
+    @DisplayName("Test an expression of temporaries is reused in the blocks it dominates")
+    void testDominatedBlocks() {
+        SymTable globals = new SymTable(1);
+        SymTableEntry a = globals.enter("a", Kind.VARIABLE);
+
+        TupleIR ir = new TupleIR();
+        addVariables(ir, a);
+
+        Label skip = new Label("skip");
+        Temporary t0 = temp(ir);
+        Temporary t1 = temp(ir);
+        Temporary t2 = temp(ir);
+        Temporary t3 = temp(ir);
+        Temporary t4 = temp(ir);
+        Temporary t5 = temp(ir);
+
+        ir.addTuple(TupleFactory.createProgram());
+        ir.addTuple(TupleFactory.createAssign(new Variable(a), new Constant(3)));
+        ir.addTuple(TupleFactory.createAssign(t0, new Variable(a)));
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.SUB, t1, t0, new Constant(1)));
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.GT, t2, t0, new Constant(2)));
+        ir.addTuple(TupleFactory.createIf(t2, skip));
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.SUB, t3, t0, new Constant(1)));
+        ir.addTuple(TupleFactory.createPrint(t3));
+        ir.addTuple(TupleFactory.createLabel(skip));
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.SUB, t4, t0, new Constant(1)));
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.MUL, t5, t4, t1));
+        ir.addTuple(TupleFactory.createPrint(t5));
+        ir.addTuple(TupleFactory.createEndProgram());
+
+        ValueNumbering.run(ir);
+
+        assertEquals(1, count(ir, Operator.SUB));
+        assertEquals("4\n", execute(ir));
+    }
+
+    @Test
+    @DisplayName("Test repeated unary expressions reuse the first result")
+    void testUnaryReuse() {
+        SymTable globals = new SymTable(1);
+        SymTableEntry a = globals.enter("a", Kind.VARIABLE);
+
+        TupleIR ir = new TupleIR();
+        addVariables(ir, a);
+
+        Temporary t0 = temp(ir);
+        Temporary t1 = temp(ir);
+        Temporary t2 = temp(ir);
+        Temporary t3 = temp(ir, OperandType.BOOLEAN);
+        Temporary t4 = temp(ir, OperandType.BOOLEAN);
+        Temporary t5 = temp(ir, OperandType.BOOLEAN);
+        Temporary t6 = temp(ir, OperandType.BOOLEAN);
+
+        ir.addTuple(TupleFactory.createProgram());
+        ir.addTuple(TupleFactory.createAssign(new Variable(a), new Constant(4)));
+        ir.addTuple(TupleFactory.createUnaryOp(Operator.SUB, t0, new Variable(a)));
+        ir.addTuple(TupleFactory.createUnaryOp(Operator.SUB, t1, new Variable(a)));
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.ADD, t2, t0, t1));
+        ir.addTuple(TupleFactory.createPrint(t2));
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.GT, t3, new Variable(a), new Constant(0)));
+        ir.addTuple(TupleFactory.createUnaryOp(Operator.NOT, t4, t3));
+        ir.addTuple(TupleFactory.createUnaryOp(Operator.NOT, t5, t3));
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.EQ, t6, t4, t5));
+        ir.addTuple(TupleFactory.createPrint(t6));
+        ir.addTuple(TupleFactory.createEndProgram());
+
+        ValueNumbering.run(ir);
+
+        assertEquals(1, count(ir, Operator.SUB));
+        assertEquals(1, count(ir, Operator.NOT));
+        assertEquals("-8\n1\n", execute(ir));
+    }
+
+    @Test
+    @DisplayName("Test swapped subtractions, divisions and constants of other types are kept")
+    void testDistinctExpressions() {
+        SymTable globals = new SymTable(1);
+        SymTableEntry a = globals.enter("a", Kind.VARIABLE);
+        SymTableEntry b = globals.enter("b", Kind.VARIABLE);
+
+        TupleIR ir = new TupleIR();
+        addVariables(ir, a, b);
+
+        Temporary t0 = temp(ir);
+        Temporary t1 = temp(ir);
+        Temporary t2 = temp(ir);
+        Temporary t3 = temp(ir);
+        Temporary t4 = temp(ir);
+        Temporary t5 = temp(ir, OperandType.FLOAT);
+        Temporary t6 = temp(ir);
+
+        ir.addTuple(TupleFactory.createProgram());
+        ir.addTuple(TupleFactory.createAssign(new Variable(a), new Constant(7)));
+        ir.addTuple(TupleFactory.createAssign(new Variable(b), new Constant(2)));
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.SUB, t0, new Variable(a), new Variable(b)));
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.SUB, t1, new Variable(b), new Variable(a)));
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.DIV, t2, new Variable(a), new Variable(b)));
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.DIV, t3, new Variable(a), new Variable(b)));
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.ADD, t4, new Variable(a), new Constant(1)));
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.ADD, t5, new Variable(a), new Constant(1.0)));
+        ir.addTuple(TupleFactory.createBinaryOp(Operator.SUB, t6, new Variable(a), new Variable(b)));
+        ir.addTuple(TupleFactory.createPrint(t1));
+        ir.addTuple(TupleFactory.createPrint(t3));
+        ir.addTuple(TupleFactory.createPrint(t5));
+        ir.addTuple(TupleFactory.createPrint(t6));
+        ir.addTuple(TupleFactory.createEndProgram());
+
+        ValueNumbering.run(ir);
+
+        // Only the repeated a - b is not computed again
+        assertEquals(2, count(ir, Operator.SUB));
+        assertEquals(2, count(ir, Operator.DIV));
+        assertEquals(2, count(ir, Operator.ADD));
+        assertEquals("-5\n3\n8.000000\n5\n", execute(ir));
+    }
+}